@@ -31,6 +31,25 @@ import {
   Upload
 } from '@mui/icons-material';
 
+const API_BASE = 'http://localhost:8080/api/api';
+const RISK_EVENT_TYPES = ['STARTED', 'PROGRESS', 'COMPLETED', 'FAILED'];
+
+interface RiskRunEvent {
+  type: 'STARTED' | 'PROGRESS' | 'COMPLETED' | 'FAILED';
+  portfolioId: number;
+  riskRunId?: number;
+  varMethod?: string;
+  stage?: string;
+  portfolioValue?: number;
+  var95?: number;
+  var99?: number;
+  expectedShortfall95?: number;
+  expectedShortfall99?: number;
+  executionTimeMs?: number;
+  errorMessage?: string;
+  timestamp: string;
+}
+
 const Dashboard: React.FC = () => {
   const [createPortfolioOpen, setCreatePortfolioOpen] = useState(false);
   const [portfolios, setPortfolios] = useState<any[]>([]);
@@ -41,15 +60,32 @@ const Dashboard: React.FC = () => {
     baseCurrency: 'USD'
   });
   const [alert, setAlert] = useState<{type: 'success' | 'error' | 'warning' | 'info', message: string} | null>(null);
+  // Latest pushed risk event per portfolio
+  const [riskEvents, setRiskEvents] = useState<Record<number, RiskRunEvent>>({});
 
   // Fetch portfolios on component mount
   useEffect(() => {
     fetchPortfolios();
   }, []);
 
+  // Run progress and results are pushed over one server-sent event stream instead of polling each run
+  const portfolioIds = portfolios.map((portfolio) => portfolio.id).join(',');
+  useEffect(() => {
+    if (!portfolioIds) {
+      return;
+    }
+    const source = new EventSource(`${API_BASE}/risk/events?portfolioIds=${portfolioIds}`);
+    const handleEvent = (message: MessageEvent) => {
+      const event: RiskRunEvent = JSON.parse(message.data);
+      setRiskEvents((previous) => ({ ...previous, [event.portfolioId]: event }));
+    };
+    RISK_EVENT_TYPES.forEach((type) => source.addEventListener(type, handleEvent as EventListener));
+    return () => source.close();
+  }, [portfolioIds]);
+
   const fetchPortfolios = async () => {
     try {
-      const response = await fetch('http://localhost:8080/api/api/portfolio');
+      const response = await fetch(`${API_BASE}/portfolio`);
       if (response.ok) {
         const data = await response.json();
         setPortfolios(data);
@@ -62,7 +98,7 @@ const Dashboard: React.FC = () => {
   const handleCreatePortfolio = async () => {
     setLoading(true);
     try {
-      const response = await fetch('http://localhost:8080/api/api/portfolio', {
+      const response = await fetch(`${API_BASE}/portfolio`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -107,7 +143,7 @@ const Dashboard: React.FC = () => {
           // Use the first portfolio for demo - in real app, user would select
           const portfolioId = portfolios[0].id;
           
-          const response = await fetch(`http://localhost:8080/api/api/portfolio/${portfolioId}/positions/upload`, {
+          const response = await fetch(`${API_BASE}/portfolio/${portfolioId}/positions/upload`, {
             method: 'POST',
             body: formData,
           });
@@ -141,16 +177,36 @@ const Dashboard: React.FC = () => {
     fileInput.click();
   };
 
-  const handleCalculateVaR = () => {
+  const handleCalculateVaR = async () => {
     if (portfolios.length === 0) {
       setAlert({ type: 'error', message: 'Please create a portfolio first' });
       setTimeout(() => setAlert(null), 3000);
-    } else {
-      setAlert({ type: 'success', message: 'VaR calculation functionality coming soon!' });
+      return;
+    }
+
+    // Use the first portfolio for demo; progress and the result arrive on the event stream
+    const portfolioId = portfolios[0].id;
+    try {
+      const response = await fetch(`${API_BASE}/portfolio/${portfolioId}/risk/run`, {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify({ varMethod: 'HISTORICAL', confidenceLevels: [0.95, 0.99], windowSize: 252 }),
+      });
+      if (!response.ok) {
+        setAlert({ type: 'error', message: 'VaR calculation failed' });
+        setTimeout(() => setAlert(null), 3000);
+      }
+    } catch (error) {
+      setAlert({ type: 'error', message: 'Error starting VaR calculation' });
       setTimeout(() => setAlert(null), 3000);
     }
   };
 
+  const formatAmount = (value?: number) =>
+    value === undefined || value === null ? '-' : value.toLocaleString(undefined, { maximumFractionDigits: 0 });
+
   const handleViewReports = () => {
     setAlert({ type: 'success', message: 'Reports functionality coming soon!' });
     setTimeout(() => setAlert(null), 3000);
@@ -334,9 +390,41 @@ const Dashboard: React.FC = () => {
               <Typography variant="h6" gutterBottom>
                 Risk Summary
               </Typography>
-              <Typography variant="body2" color="text.secondary">
-                Portfolio risk metrics will appear here after calculations.
-              </Typography>
+              {Object.keys(riskEvents).length === 0 ? (
+                <Typography variant="body2" color="text.secondary">
+                  Portfolio risk metrics will appear here after calculations.
+                </Typography>
+              ) : (
+                <List>
+                  {portfolios.filter((portfolio) => riskEvents[portfolio.id]).map((portfolio) => {
+                    const event = riskEvents[portfolio.id];
+                    return (
+                      <ListItem key={portfolio.id} sx={{ px: 0 }}>
+                        <ListItemText
+                          primary={portfolio.name}
+                          secondary={
+                            event.type === 'COMPLETED'
+                              ? `VaR 95%: ${formatAmount(event.var95)} • VaR 99%: ${formatAmount(event.var99)} • ES 99%: ${formatAmount(event.expectedShortfall99)}`
+                              : event.type === 'FAILED'
+                                ? event.errorMessage
+                                : event.stage || 'Running'
+                          }
+                        />
+                        {event.type === 'STARTED' || event.type === 'PROGRESS' ? (
+                          <CircularProgress size={16} />
+                        ) : (
+                          <Chip
+                            label={event.varMethod}
+                            size="small"
+                            color={event.type === 'COMPLETED' ? 'success' : 'error'}
+                            variant="outlined"
+                          />
+                        )}
+                      </ListItem>
+                    );
+                  })}
+                </List>
+              )}
             </Paper>
           </Grid>
         </Grid>
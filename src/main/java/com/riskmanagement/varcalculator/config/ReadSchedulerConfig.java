@@ -0,0 +1,19 @@
+package com.riskmanagement.varcalculator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Bounded workers for the reactive read API's blocking JPA calls. Threads are capped at the read pool
+// size, since more could only wait for a connection; requests beyond the queue cap are rejected
+@Configuration
+public class ReadSchedulerConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler readScheduler(@Value("${var-calculator.reactive-read.thread-cap:15}") int threadCap,
+            @Value("${var-calculator.reactive-read.queued-task-cap:10000}") int queuedTaskCap) {
+        return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "reactive-read");
+    }
+}
@@ -0,0 +1,23 @@
+package com.riskmanagement.varcalculator.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the read pool and everything else,
+ * including work outside a transaction, to the write pool. Must sit behind a
+ * LazyConnectionDataSourceProxy, since the read-only flag is only bound once the
+ * transaction has begun.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        READ,
+        WRITE
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
@@ -0,0 +1,39 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.request.BacktestRequest;
+import com.riskmanagement.varcalculator.dto.response.BacktestResponse;
+import com.riskmanagement.varcalculator.service.BacktestService;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    private final BacktestService backtestService;
+
+    @PostMapping("/portfolio/{portfolioId}/risk/backtest")
+    public ResponseEntity<BacktestResponse> backtest(@PathVariable Long portfolioId,
+            @Valid @RequestBody BacktestRequest request) {
+        log.info("Received backtest request for portfolio {} from {} to {}", portfolioId,
+                request.getStartDate(), request.getEndDate());
+
+        try {
+            BacktestResponse response = backtestService.backtest(portfolioId, request);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.error("Error backtesting VaR for portfolio {}", portfolioId, e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error backtesting VaR", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
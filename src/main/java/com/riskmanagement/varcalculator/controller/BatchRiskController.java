@@ -0,0 +1,50 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.request.BatchRiskRequest;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResponse;
+import com.riskmanagement.varcalculator.service.BatchRiskService;
+import com.riskmanagement.varcalculator.service.ComputeScheduler;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BatchRiskController {
+
+    private final BatchRiskService batchRiskService;
+    private final ComputeScheduler computeScheduler;
+
+    @PostMapping("/risk/batch")
+    public ResponseEntity<BatchRiskResponse> runBatch(@Valid @RequestBody BatchRiskRequest request,
+            @RequestHeader(value = "X-Desk", required = false) String desk,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        log.info("Received batch VaR request for {} portfolios using method {}", request.getPortfolioIds().size(),
+                request.getVarMethod());
+
+        try {
+            BatchRiskResponse response = computeScheduler.run(desk != null ? desk : userId,
+                    ComputeScheduler.Lane.BATCH, computeScheduler.estimateCost(request),
+                    () -> batchRiskService.runBatch(request));
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ComputeScheduler.RejectedException e) {
+            log.warn("Batch VaR rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RuntimeException e) {
+            log.error("Error running batch VaR", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error running batch VaR", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.request.CreateHierarchyNodeRequest;
+import com.riskmanagement.varcalculator.dto.response.HierarchyNodeResponse;
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskResponse;
+import com.riskmanagement.varcalculator.service.HierarchyAggregationService;
+import com.riskmanagement.varcalculator.service.HierarchyService;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/hierarchy")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class HierarchyController {
+
+    private final HierarchyService hierarchyService;
+    private final HierarchyAggregationService hierarchyAggregationService;
+
+    @PostMapping("/nodes")
+    public ResponseEntity<HierarchyNodeResponse> createNode(@Valid @RequestBody CreateHierarchyNodeRequest request) {
+        log.info("Received request to create hierarchy node: {}", request.getName());
+
+        try {
+            HierarchyNodeResponse response = hierarchyService.createNode(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error creating hierarchy node", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error creating hierarchy node", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/nodes")
+    public ResponseEntity<List<HierarchyNodeResponse>> getAllNodes() {
+        log.info("Received request to get all hierarchy nodes");
+
+        try {
+            return ResponseEntity.ok(hierarchyService.getAllNodes());
+        } catch (Exception e) {
+            log.error("Error fetching hierarchy nodes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PutMapping("/nodes/{nodeId}/portfolios/{portfolioId}")
+    public ResponseEntity<Void> assignPortfolio(@PathVariable Long nodeId, @PathVariable Long portfolioId) {
+        log.info("Received request to assign portfolio {} to hierarchy node {}", portfolioId, nodeId);
+
+        try {
+            hierarchyService.assignPortfolio(nodeId, portfolioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Error assigning portfolio {} to node {}", portfolioId, nodeId, e);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error assigning portfolio", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/nodes/{nodeId}/risk")
+    public ResponseEntity<HierarchyRiskResponse> getNodeRisk(@PathVariable Long nodeId,
+            @RequestParam(defaultValue = "252") int windowSize,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        LocalDate asOf = asOfDate != null ? asOfDate : LocalDate.now().minusDays(1);
+        log.info("Received hierarchy risk request for node {} as of {}", nodeId, asOf);
+
+        try {
+            HierarchyRiskResponse response = hierarchyAggregationService.calculateNodeRisk(nodeId, windowSize, asOf);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.error("Error aggregating risk for hierarchy node {}", nodeId, e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error aggregating hierarchy risk", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.response.PortfolioResponse;
+import com.riskmanagement.varcalculator.dto.response.PositionResponse;
+import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.service.PortfolioService;
+import com.riskmanagement.varcalculator.service.PositionService;
+import com.riskmanagement.varcalculator.service.VarCalculationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+// Non-blocking variant of the read endpoints: each request parks as a Mono while its blocking read runs on
+// the bounded read scheduler, so concurrent readers hold no servlet thread while they wait
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ReactiveReadController {
+
+    private final PortfolioService portfolioService;
+    private final PositionService positionService;
+    private final VarCalculationService varCalculationService;
+    private final Scheduler readScheduler;
+
+    @GetMapping("/portfolio")
+    public Mono<ResponseEntity<List<PortfolioResponse>>> getAllPortfolios() {
+        return read(portfolioService::getAllPortfolios, "portfolios");
+    }
+
+    @GetMapping("/portfolio/{id}")
+    public Mono<ResponseEntity<PortfolioResponse>> getPortfolio(@PathVariable Long id) {
+        return read(() -> portfolioService.getPortfolio(id), "portfolio " + id);
+    }
+
+    @GetMapping("/portfolio/{portfolioId}/positions")
+    public Mono<ResponseEntity<List<PositionResponse>>> getPortfolioPositions(@PathVariable Long portfolioId) {
+        return read(() -> positionService.getPortfolioPositions(portfolioId), "positions of portfolio " + portfolioId);
+    }
+
+    @GetMapping("/risk/{riskRunId}")
+    public Mono<ResponseEntity<VarCalculationResponse>> getVarResult(@PathVariable Long riskRunId) {
+        return read(() -> varCalculationService.getVarResult(riskRunId), "risk run " + riskRunId);
+    }
+
+    private <T> Mono<ResponseEntity<T>> read(Callable<T> query, String description) {
+        return Mono.fromCallable(query)
+                .subscribeOn(readScheduler)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    log.warn("Read queue full, rejecting request for {}", description);
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error fetching {}", description, e);
+                    return Mono.just(ResponseEntity.notFound().build());
+                });
+    }
+}
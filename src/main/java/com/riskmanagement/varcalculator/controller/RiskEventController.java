@@ -0,0 +1,44 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.response.RiskRunEvent;
+import com.riskmanagement.varcalculator.service.RiskEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RiskEventController {
+
+    // Comment frames keep idle connections open through proxies that time out silent streams
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+    private final RiskEventPublisher riskEventPublisher;
+
+    // Server-sent run progress, completions and failures for the given portfolios (all when omitted)
+    @GetMapping(value = "/risk/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<RiskRunEvent>> streamRiskEvents(
+            @RequestParam(required = false) Set<Long> portfolioIds) {
+        Set<Long> subscribed = portfolioIds != null ? Set.copyOf(portfolioIds) : Set.of();
+        log.info("Risk event subscriber connected for portfolios {} ({} active)",
+                subscribed.isEmpty() ? "all" : subscribed, riskEventPublisher.subscriberCount() + 1);
+
+        Flux<ServerSentEvent<RiskRunEvent>> events = riskEventPublisher.events(subscribed)
+                .map(event -> ServerSentEvent.<RiskRunEvent>builder()
+                        .event(event.getType().name())
+                        .data(event)
+                        .build());
+        Flux<ServerSentEvent<RiskRunEvent>> heartbeats = Flux.interval(HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.<RiskRunEvent>builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats);
+    }
+}
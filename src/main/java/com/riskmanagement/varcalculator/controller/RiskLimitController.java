@@ -0,0 +1,90 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.request.CreateRiskLimitRequest;
+import com.riskmanagement.varcalculator.dto.response.LimitBreachResponse;
+import com.riskmanagement.varcalculator.dto.response.RiskLimitResponse;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.service.RiskLimitService;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/limits")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RiskLimitController {
+
+    private static final int MAX_BREACHES = 1000;
+
+    private final RiskLimitService riskLimitService;
+
+    @PostMapping
+    public ResponseEntity<RiskLimitResponse> createLimit(@Valid @RequestBody CreateRiskLimitRequest request) {
+        log.info("Received request to create {} limit on {} {}", request.getMetric(), request.getScopeType(),
+                request.getScopeId());
+
+        try {
+            RiskLimitResponse response = riskLimitService.createLimit(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error creating risk limit", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error creating risk limit", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RiskLimitResponse>> getLimits(
+            @RequestParam(required = false) RiskLimit.ScopeType scopeType,
+            @RequestParam(required = false) Long scopeId) {
+        log.info("Received request to get active risk limits for {} {}", scopeType, scopeId);
+
+        try {
+            return ResponseEntity.ok(riskLimitService.getActiveLimits(scopeType, scopeId));
+        } catch (Exception e) {
+            log.error("Error fetching risk limits", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/{limitId}")
+    public ResponseEntity<Void> retireLimit(@PathVariable Long limitId) {
+        log.info("Received request to retire risk limit {}", limitId);
+
+        try {
+            riskLimitService.retireLimit(limitId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Risk limit not found with ID: {}", limitId);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error retiring risk limit", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/breaches")
+    public ResponseEntity<List<LimitBreachResponse>> getBreaches(
+            @RequestParam(required = false) RiskLimit.ScopeType scopeType,
+            @RequestParam(required = false) Long scopeId,
+            @RequestParam(defaultValue = "100") int count) {
+        log.info("Received request to get recent limit breaches for {} {}", scopeType, scopeId);
+
+        try {
+            return ResponseEntity.ok(riskLimitService.getRecentBreaches(scopeType, scopeId,
+                    Math.max(1, Math.min(count, MAX_BREACHES))));
+        } catch (Exception e) {
+            log.error("Error fetching limit breaches", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.service.RiskReportService;
+import com.riskmanagement.varcalculator.service.RiskReportService.ReportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RiskReportController {
+
+    private final RiskReportService riskReportService;
+
+    // The report is written straight to the response as it is generated
+    @GetMapping("/portfolio/{portfolioId}/risk/{riskRunId}/report")
+    public ResponseEntity<StreamingResponseBody> getReport(@PathVariable Long portfolioId,
+            @PathVariable Long riskRunId, @RequestParam(defaultValue = "pdf") String format) {
+        log.info("Received {} report request for risk run {} of portfolio {}", format, riskRunId, portfolioId);
+
+        ReportFormat reportFormat;
+        try {
+            reportFormat = ReportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            log.error("Unsupported report format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+
+        RiskRun riskRun;
+        try {
+            riskRun = riskReportService.getReportRun(portfolioId, riskRunId);
+        } catch (RuntimeException e) {
+            log.error("Risk run {} not found for portfolio {}", riskRunId, portfolioId);
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = outputStream -> riskReportService.writeReport(riskRunId, reportFormat,
+                outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(reportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(riskReportService.fileName(riskRun, reportFormat))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,120 @@
+package com.riskmanagement.varcalculator.controller;
+
+import com.riskmanagement.varcalculator.dto.request.CreateStressScenarioRequest;
+import com.riskmanagement.varcalculator.dto.request.StressTestRequest;
+import com.riskmanagement.varcalculator.dto.response.StressResultResponse;
+import com.riskmanagement.varcalculator.dto.response.StressRunResponse;
+import com.riskmanagement.varcalculator.dto.response.StressScenarioResponse;
+import com.riskmanagement.varcalculator.service.StressTestService;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class StressTestController {
+
+    private final StressTestService stressTestService;
+
+    @GetMapping("/stress/scenarios")
+    public ResponseEntity<List<StressScenarioResponse>> getScenarios() {
+        log.info("Received request to get stress scenarios");
+
+        try {
+            return ResponseEntity.ok(stressTestService.getScenarios());
+        } catch (Exception e) {
+            log.error("Error fetching stress scenarios", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/stress/scenarios")
+    public ResponseEntity<StressScenarioResponse> createScenario(
+            @Valid @RequestBody CreateStressScenarioRequest request) {
+        log.info("Received request to create stress scenario: {}", request.getName());
+
+        try {
+            StressScenarioResponse response = stressTestService.createScenario(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error creating stress scenario", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error creating stress scenario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/stress/scenarios/{scenarioId}")
+    public ResponseEntity<Void> deactivateScenario(@PathVariable Long scenarioId) {
+        log.info("Received request to deactivate stress scenario {}", scenarioId);
+
+        try {
+            stressTestService.deactivateScenario(scenarioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Stress scenario not found with ID: {}", scenarioId);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error deactivating stress scenario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/stress/runs")
+    public ResponseEntity<StressRunResponse> runStressTests(@RequestBody(required = false) StressTestRequest request) {
+        StressTestRequest stressRequest = request != null ? request : new StressTestRequest();
+        log.info("Received stress run request for {} portfolios",
+                stressRequest.getPortfolioIds() != null ? stressRequest.getPortfolioIds().size() : "all active");
+
+        try {
+            StressRunResponse response = stressTestService.runStressTests(stressRequest);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error running stress tests", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error running stress tests", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stress/runs/{stressRunId}")
+    public ResponseEntity<StressRunResponse> getStressRun(@PathVariable Long stressRunId) {
+        log.info("Received request to get stress run {}", stressRunId);
+
+        try {
+            return ResponseEntity.ok(stressTestService.getStressRun(stressRunId));
+        } catch (RuntimeException e) {
+            log.error("Stress run not found with ID: {}", stressRunId);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error fetching stress run", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/portfolio/{portfolioId}/stress")
+    public ResponseEntity<List<StressResultResponse>> getPortfolioResults(@PathVariable Long portfolioId,
+            @RequestParam(required = false) Long stressRunId) {
+        log.info("Received request to get stress results for portfolio {}", portfolioId);
+
+        try {
+            return ResponseEntity.ok(stressTestService.getPortfolioResults(portfolioId, stressRunId));
+        } catch (RuntimeException e) {
+            log.error("No stress results for portfolio {}", portfolioId, e);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error fetching stress results", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
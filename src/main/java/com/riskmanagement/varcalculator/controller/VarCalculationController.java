@@ -1,14 +1,29 @@
 package com.riskmanagement.varcalculator.controller;
 
 import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.engine.ProfitAndLossSeries;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.service.ComputeScheduler;
+import com.riskmanagement.varcalculator.service.RiskRunCoalescer;
 import com.riskmanagement.varcalculator.service.VarCalculationService;
+import com.riskmanagement.varcalculator.service.VarTimeSeriesService;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api")
@@ -17,17 +32,30 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class VarCalculationController {
 
+    private static final int STREAM_FLUSH_INTERVAL = 64;
+
     private final VarCalculationService varCalculationService;
+    private final RiskRunCoalescer riskRunCoalescer;
+    private final VarTimeSeriesService varTimeSeriesService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/portfolio/{portfolioId}/risk/run")
     public ResponseEntity<VarCalculationResponse> calculateVar(@PathVariable Long portfolioId,
-            @Valid @RequestBody VarCalculationRequest request) {
+            @Valid @RequestBody VarCalculationRequest request,
+            @RequestHeader(value = "X-Desk", required = false) String desk,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         log.info("Received VaR calculation request for portfolio {} using method {}",
                 portfolioId, request.getVarMethod());
 
         try {
-            VarCalculationResponse response = varCalculationService.calculateVar(portfolioId, request);
+            VarCalculationResponse response = riskRunCoalescer.calculateVar(portfolioId, request,
+                    desk != null ? desk : userId);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ComputeScheduler.RejectedException e) {
+            log.warn("VaR calculation for portfolio {} rejected: {}", portfolioId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
         } catch (RuntimeException e) {
             log.error("Error calculating VaR for portfolio {}", portfolioId, e);
             return ResponseEntity.badRequest().build();
@@ -52,4 +80,45 @@ public class VarCalculationController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping(value = "/portfolio/{portfolioId}/risk/timeseries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getVarTimeSeries(@PathVariable Long portfolioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "252") int windowSize,
+            @RequestParam(defaultValue = "HISTORICAL") RiskRun.VarMethod varMethod) {
+        LocalDate to = endDate != null ? endDate : LocalDate.now().minusDays(1);
+        LocalDate from = startDate != null ? startDate : to.minusYears(1);
+        log.info("Received VaR time series request for portfolio {} from {} to {} using method {}",
+                portfolioId, from, to, varMethod);
+
+        ProfitAndLossSeries series;
+        try {
+            series = varTimeSeriesService.loadSeries(portfolioId, from, to, windowSize, varMethod);
+        } catch (RuntimeException e) {
+            log.error("Error loading VaR time series for portfolio {}", portfolioId, e);
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Points are written as they are computed rather than collected into one response list
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                int[] written = { 0 };
+                generator.writeStartArray();
+                varTimeSeriesService.streamTimeSeries(series, from, to, windowSize, varMethod, point -> {
+                    try {
+                        generator.writeObject(point);
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -0,0 +1,38 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class BacktestRequest {
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    @DecimalMin(value = "0.01", message = "Confidence level must be at least 0.01")
+    @DecimalMax(value = "0.99", message = "Confidence level must be at most 0.99")
+    private BigDecimal confidenceLevel = new BigDecimal("0.99");
+
+    @Min(value = 1, message = "Window size must be at least 1")
+    private Integer windowSize = 252;
+
+    private Source source = Source.ROLLING_HISTORICAL;
+
+    private boolean includeObservations = false;
+
+    public enum Source {
+        // Recompute historical VaR over a sliding window of hypothetical P&L
+        ROLLING_HISTORICAL,
+        // Compare VaR stored on completed risk runs with the next day's hypothetical P&L
+        STORED_RUNS
+    }
+}
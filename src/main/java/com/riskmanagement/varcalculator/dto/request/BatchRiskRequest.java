@@ -0,0 +1,22 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRiskRequest {
+
+    @NotEmpty(message = "At least one portfolio ID is required")
+    private List<Long> portfolioIds;
+
+    @NotNull(message = "VaR method is required")
+    private RiskRun.VarMethod varMethod = RiskRun.VarMethod.HISTORICAL;
+
+    @Min(value = 1, message = "Window size must be at least 1")
+    private Integer windowSize = 252;
+}
@@ -0,0 +1,18 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CreateHierarchyNodeRequest {
+
+    @NotBlank(message = "Node name is required")
+    private String name;
+
+    @NotNull(message = "Node type is required")
+    private HierarchyNode.NodeType nodeType;
+
+    private Long parentId;
+}
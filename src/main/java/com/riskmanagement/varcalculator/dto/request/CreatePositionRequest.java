@@ -1,5 +1,6 @@
 package com.riskmanagement.varcalculator.dto.request;
 
+import com.riskmanagement.varcalculator.entity.Instrument;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 @NoArgsConstructor
@@ -33,4 +35,22 @@ public class CreatePositionRequest {
     private String sector;
 
     private String currency = "USD";
+
+    // Optional pricing terms, applied when the instrument is created (see Instrument)
+    private String underlyingSymbol;
+
+    private Instrument.OptionType optionType;
+
+    @Positive(message = "Strike must be positive")
+    private BigDecimal strike;
+
+    private LocalDate maturityDate;
+
+    @Positive(message = "Implied volatility must be positive")
+    private BigDecimal impliedVolatility;
+
+    private BigDecimal couponRate;
+
+    @Positive(message = "Coupon frequency must be positive")
+    private Integer couponFrequency;
 }
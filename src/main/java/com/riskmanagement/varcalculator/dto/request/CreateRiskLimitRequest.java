@@ -0,0 +1,31 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Data
+public class CreateRiskLimitRequest {
+
+    @NotNull(message = "Scope type is required")
+    private RiskLimit.ScopeType scopeType;
+
+    @NotNull(message = "Scope ID is required")
+    private Long scopeId;
+
+    @NotNull(message = "Metric is required")
+    private RiskLimit.Metric metric;
+
+    @NotNull(message = "Limit value is required")
+    @Positive(message = "Limit value must be positive")
+    private BigDecimal limitValue;
+
+    // Fraction of the limit at which a warning is raised; defaults to 0.9
+    @Positive(message = "Warning threshold must be positive")
+    @DecimalMax(value = "1", message = "Warning threshold cannot exceed 1")
+    private BigDecimal warningThreshold;
+}
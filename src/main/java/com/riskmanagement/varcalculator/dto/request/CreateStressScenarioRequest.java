@@ -0,0 +1,32 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CreateStressScenarioRequest {
+
+    @NotBlank(message = "Scenario name is required")
+    private String name;
+
+    private String description;
+
+    @NotNull(message = "Scenario type is required")
+    private StressScenario.ScenarioType scenarioType;
+
+    // Required for HISTORICAL scenarios
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    // Required for HYPOTHETICAL scenarios
+    @Valid
+    private List<StressShockRequest> shocks = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import com.riskmanagement.varcalculator.entity.StressScenarioShock;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class StressShockRequest {
+
+    @NotNull(message = "Shock target type is required")
+    private StressScenarioShock.TargetType targetType;
+
+    private String target;
+
+    // Simple return, e.g. -0.25 for a 25% fall
+    @NotNull(message = "Shock is required")
+    @DecimalMin(value = "-1", inclusive = false, message = "Shock must be greater than -1")
+    private BigDecimal shock;
+}
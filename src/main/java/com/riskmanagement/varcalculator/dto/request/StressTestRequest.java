@@ -0,0 +1,12 @@
+package com.riskmanagement.varcalculator.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StressTestRequest {
+
+    // All active portfolios when empty
+    private List<Long> portfolioIds;
+}
@@ -1,5 +1,7 @@
 package com.riskmanagement.varcalculator.dto.request;
 
+import com.riskmanagement.varcalculator.engine.MonteCarloSimulation;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
 import com.riskmanagement.varcalculator.entity.RiskRun;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
@@ -22,5 +24,19 @@ public class VarCalculationRequest {
     @Min(value = 1, message = "Window size must be at least 1")
     private Integer windowSize = 252;
 
+    @Min(value = 64, message = "Monte Carlo simulations must be at least 64")
     private Integer monteCarloSimulations = 10000;
+
+    // Monte Carlo variance reduction; Sobol with both techniques needs far fewer paths for the same error
+    private MonteCarloSimulation.Sampling monteCarloSampling = MonteCarloSimulation.Sampling.SOBOL;
+
+    private Boolean antitheticVariates = true;
+
+    private Boolean importanceSampling = true;
+
+    // FULL reprices options and bonds in every scenario; DELTA_GAMMA uses a second-order expansion instead
+    private ScenarioRevaluation.Mode revaluationMode = ScenarioRevaluation.Mode.FULL;
+
+    // Also keep one scenario vector per instrument, for attribution without recomputation
+    private Boolean persistPositionVectors = false;
 }
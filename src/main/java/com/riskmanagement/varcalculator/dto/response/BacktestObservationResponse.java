@@ -0,0 +1,18 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class BacktestObservationResponse {
+
+    private LocalDate date;
+    private BigDecimal var;
+    private BigDecimal expectedShortfall;
+    private BigDecimal profitAndLoss;
+    private boolean exception;
+}
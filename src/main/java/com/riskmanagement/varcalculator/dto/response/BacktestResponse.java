@@ -0,0 +1,35 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.dto.request.BacktestRequest;
+import com.riskmanagement.varcalculator.engine.BacktestStatistics;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class BacktestResponse {
+
+    private Long portfolioId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal confidenceLevel;
+    private Integer windowSize;
+    private BacktestRequest.Source source;
+    private Integer observationCount;
+    private Integer exceptionCount;
+    private BigDecimal expectedExceptions;
+    private BigDecimal exceptionRate;
+    private BigDecimal kupiecStatistic;
+    private BigDecimal kupiecPValue;
+    private BigDecimal christoffersenStatistic;
+    private BigDecimal christoffersenPValue;
+    private BigDecimal conditionalCoverageStatistic;
+    private BigDecimal conditionalCoveragePValue;
+    private BacktestStatistics.TrafficLight trafficLight;
+    private Long executionTimeMs;
+    private List<BacktestObservationResponse> observations;
+}
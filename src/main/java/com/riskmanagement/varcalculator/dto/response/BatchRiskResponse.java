@@ -0,0 +1,24 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.Data;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class BatchRiskResponse {
+
+    private LocalDate runDate;
+    private RiskRun.VarMethod varMethod;
+    private Integer windowSize;
+    private Integer portfolioCount;
+    private Integer instrumentCount;
+    private Integer scenarioCount;
+    private Integer completedCount;
+    private Integer failedCount;
+    private Long executionTimeMs;
+    private List<BatchRiskResultResponse> results;
+}
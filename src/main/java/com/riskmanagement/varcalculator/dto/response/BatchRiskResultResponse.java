@@ -0,0 +1,22 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class BatchRiskResultResponse {
+
+    private Long portfolioId;
+    private Long riskRunId;
+    private RiskRun.RunStatus status;
+    private BigDecimal portfolioValue;
+    private BigDecimal var95;
+    private BigDecimal var99;
+    private BigDecimal expectedShortfall95;
+    private BigDecimal expectedShortfall99;
+    private String errorMessage;
+}
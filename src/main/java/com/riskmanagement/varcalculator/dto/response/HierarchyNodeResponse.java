@@ -0,0 +1,19 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import lombok.Data;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class HierarchyNodeResponse {
+
+    private Long id;
+    private String name;
+    private HierarchyNode.NodeType nodeType;
+    private Long parentId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class HierarchyRiskComponentResponse {
+
+    private ComponentType componentType;
+    private Long id;
+    private String name;
+    private BigDecimal var95;
+    private BigDecimal var99;
+    private BigDecimal expectedShortfall95;
+    private BigDecimal expectedShortfall99;
+
+    public enum ComponentType {
+        NODE,
+        PORTFOLIO
+    }
+}
@@ -0,0 +1,30 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class HierarchyRiskResponse {
+
+    private Long nodeId;
+    private String name;
+    private HierarchyNode.NodeType nodeType;
+    private LocalDate asOfDate;
+    private Integer windowSize;
+    private Integer scenarioCount;
+    private Integer portfolioCount;
+    private BigDecimal var95;
+    private BigDecimal var99;
+    private BigDecimal expectedShortfall95;
+    private BigDecimal expectedShortfall99;
+    private BigDecimal diversificationBenefit95;
+    private BigDecimal diversificationBenefit99;
+    private Long executionTimeMs;
+    private List<HierarchyRiskComponentResponse> components;
+}
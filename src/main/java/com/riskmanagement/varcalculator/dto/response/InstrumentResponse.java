@@ -4,6 +4,8 @@ import com.riskmanagement.varcalculator.entity.Instrument;
 import lombok.Data;
 import lombok.Builder;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -17,6 +19,13 @@ public class InstrumentResponse {
     private String exchange;
     private String sector;
     private String currency;
+    private Long underlyingInstrumentId;
+    private Instrument.OptionType optionType;
+    private BigDecimal strike;
+    private LocalDate maturityDate;
+    private BigDecimal impliedVolatility;
+    private BigDecimal couponRate;
+    private Integer couponFrequency;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,27 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class LimitBreachResponse {
+
+    private Long id;
+    private Long riskLimitId;
+    private Long riskRunId;
+    private RiskLimit.ScopeType scopeType;
+    private Long scopeId;
+    private RiskLimit.Metric metric;
+    private LimitBreach.Severity severity;
+    private LimitBreach.Source source;
+    private BigDecimal measuredValue;
+    private BigDecimal limitValue;
+    private BigDecimal utilization;
+    private LocalDateTime createdAt;
+}
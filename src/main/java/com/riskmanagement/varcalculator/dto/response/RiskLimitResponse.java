@@ -0,0 +1,23 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RiskLimitResponse {
+
+    private Long id;
+    private RiskLimit.ScopeType scopeType;
+    private Long scopeId;
+    private RiskLimit.Metric metric;
+    private BigDecimal limitValue;
+    private BigDecimal warningThreshold;
+    private Boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RiskRunEvent {
+
+    public enum EventType {
+        STARTED,
+        PROGRESS,
+        COMPLETED,
+        FAILED
+    }
+
+    private EventType type;
+    private Long portfolioId;
+    private Long riskRunId;
+    private RiskRun.VarMethod varMethod;
+    // Current step of a running calculation (PROGRESS events only)
+    private String stage;
+    // Results carried on COMPLETED so subscribers need not fetch the run
+    private BigDecimal portfolioValue;
+    private BigDecimal var95;
+    private BigDecimal var99;
+    private BigDecimal expectedShortfall95;
+    private BigDecimal expectedShortfall99;
+    private Long executionTimeMs;
+    private String errorMessage;
+    private LocalDateTime timestamp;
+}
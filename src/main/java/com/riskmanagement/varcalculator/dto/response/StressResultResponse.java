@@ -0,0 +1,19 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class StressResultResponse {
+
+    private Long stressRunId;
+    private Long portfolioId;
+    private Long scenarioId;
+    private String scenarioName;
+    private BigDecimal profitAndLoss;
+    private BigDecimal portfolioValue;
+    private BigDecimal profitAndLossPercentage;
+}
@@ -0,0 +1,26 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.Data;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class StressRunResponse {
+
+    private Long id;
+    private LocalDate runDate;
+    private RiskRun.RunStatus status;
+    private Integer scenarioCount;
+    private Integer portfolioCount;
+    private Integer factorCount;
+    private Long executionTimeMs;
+    private LocalDateTime createdAt;
+    private List<StressScenarioSummaryResponse> scenarios;
+    // Historical scenarios left out because no prices were found inside their window
+    private List<String> skippedScenarios;
+}
@@ -0,0 +1,25 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import lombok.Data;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class StressScenarioResponse {
+
+    private Long id;
+    private String name;
+    private String description;
+    private StressScenario.ScenarioType scenarioType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Boolean active;
+    private List<StressShockResponse> shocks;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
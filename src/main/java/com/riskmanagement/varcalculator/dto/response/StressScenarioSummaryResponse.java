@@ -0,0 +1,18 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+// One scenario across every portfolio of a stress run
+@Data
+@Builder
+public class StressScenarioSummaryResponse {
+
+    private Long scenarioId;
+    private String scenarioName;
+    private BigDecimal totalProfitAndLoss;
+    private BigDecimal worstProfitAndLoss;
+    private Long worstPortfolioId;
+}
@@ -0,0 +1,17 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import com.riskmanagement.varcalculator.entity.StressScenarioShock;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class StressShockResponse {
+
+    private Long id;
+    private StressScenarioShock.TargetType targetType;
+    private String target;
+    private BigDecimal shock;
+}
@@ -25,6 +25,9 @@ public class VarCalculationResponse {
     private BigDecimal expectedShortfall99;
     private BigDecimal portfolioValue;
     private BigDecimal portfolioVolatility;
+    // Monte Carlo sampling error of the VaR estimates (null for other methods)
+    private BigDecimal var95StandardError;
+    private BigDecimal var99StandardError;
     private RiskRun.RunStatus status;
     private String errorMessage;
     private Long executionTimeMs;
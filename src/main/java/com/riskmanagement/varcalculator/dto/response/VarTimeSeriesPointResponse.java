@@ -0,0 +1,20 @@
+package com.riskmanagement.varcalculator.dto.response;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class VarTimeSeriesPointResponse {
+
+    private LocalDate date;
+    private BigDecimal var95;
+    private BigDecimal var99;
+    private BigDecimal expectedShortfall95;
+    private BigDecimal expectedShortfall99;
+    private BigDecimal portfolioVolatility;
+    private BigDecimal profitAndLoss;
+}
@@ -0,0 +1,90 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.distribution.BinomialDistribution;
+import org.apache.commons.math3.distribution.ChiSquaredDistribution;
+
+/**
+ * Coverage tests for a sequence of VaR exceptions (Kupiec POF, Christoffersen
+ * independence and the Basel traffic light).
+ */
+public final class BacktestStatistics {
+
+    private static final ChiSquaredDistribution CHI_SQUARED_1 = new ChiSquaredDistribution(1);
+    private static final ChiSquaredDistribution CHI_SQUARED_2 = new ChiSquaredDistribution(2);
+
+    public enum TrafficLight {
+        GREEN,
+        YELLOW,
+        RED
+    }
+
+    private BacktestStatistics() {
+    }
+
+    // Kupiec proportion-of-failures likelihood ratio, chi-squared with 1 degree of freedom
+    public static double kupiecStatistic(int observations, int exceptions, double expectedRate) {
+        if (observations == 0) {
+            return 0;
+        }
+        double observedRate = (double) exceptions / observations;
+        int passes = observations - exceptions;
+        double nullLogLikelihood = xLogY(passes, 1 - expectedRate) + xLogY(exceptions, expectedRate);
+        double altLogLikelihood = xLogY(passes, 1 - observedRate) + xLogY(exceptions, observedRate);
+        return Math.max(0, -2 * (nullLogLikelihood - altLogLikelihood));
+    }
+
+    // Christoffersen independence likelihood ratio over first-order exception transitions
+    public static double christoffersenStatistic(boolean[] exceptions) {
+        int n00 = 0;
+        int n01 = 0;
+        int n10 = 0;
+        int n11 = 0;
+        for (int i = 1; i < exceptions.length; i++) {
+            if (exceptions[i - 1]) {
+                if (exceptions[i]) {
+                    n11++;
+                } else {
+                    n10++;
+                }
+            } else if (exceptions[i]) {
+                n01++;
+            } else {
+                n00++;
+            }
+        }
+        int transitions = n00 + n01 + n10 + n11;
+        if (transitions == 0) {
+            return 0;
+        }
+        double pi0 = n00 + n01 > 0 ? (double) n01 / (n00 + n01) : 0;
+        double pi1 = n10 + n11 > 0 ? (double) n11 / (n10 + n11) : 0;
+        double pi = (double) (n01 + n11) / transitions;
+
+        double nullLogLikelihood = xLogY(n00 + n10, 1 - pi) + xLogY(n01 + n11, pi);
+        double altLogLikelihood = xLogY(n00, 1 - pi0) + xLogY(n01, pi0) + xLogY(n10, 1 - pi1) + xLogY(n11, pi1);
+        return Math.max(0, -2 * (nullLogLikelihood - altLogLikelihood));
+    }
+
+    public static double pValue(double statistic, int degreesOfFreedom) {
+        ChiSquaredDistribution distribution = degreesOfFreedom == 1 ? CHI_SQUARED_1 : CHI_SQUARED_2;
+        return 1 - distribution.cumulativeProbability(statistic);
+    }
+
+    // Basel zones: green below 95% cumulative binomial probability, red from 99.99%
+    public static TrafficLight trafficLight(int observations, int exceptions, double expectedRate) {
+        if (observations == 0) {
+            return TrafficLight.GREEN;
+        }
+        double cumulative = new BinomialDistribution(null, observations, expectedRate)
+                .cumulativeProbability(exceptions);
+        if (cumulative < 0.95) {
+            return TrafficLight.GREEN;
+        }
+        return cumulative < 0.9999 ? TrafficLight.YELLOW : TrafficLight.RED;
+    }
+
+    // x * ln(y) with the 0 * ln(0) = 0 convention used by the likelihood ratios
+    private static double xLogY(double x, double y) {
+        return x == 0 ? 0 : x * Math.log(y);
+    }
+}
@@ -0,0 +1,50 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+// European vanilla option on a non-dividend-paying underlying; expired options are worth intrinsic value
+public record BlackScholesPricer(boolean call, double strike, double yearsToExpiry, double riskFreeRate,
+        double volatility) implements InstrumentPricer {
+
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution();
+
+    @Override
+    public double price(double spot) {
+        if (isExpired()) {
+            return Math.max(call ? spot - strike : strike - spot, 0);
+        }
+        double d1 = d1(spot);
+        double d2 = d1 - volatility * Math.sqrt(yearsToExpiry);
+        double discountedStrike = strike * Math.exp(-riskFreeRate * yearsToExpiry);
+        return call
+                ? spot * STANDARD_NORMAL.cumulativeProbability(d1) - discountedStrike * STANDARD_NORMAL.cumulativeProbability(d2)
+                : discountedStrike * STANDARD_NORMAL.cumulativeProbability(-d2) - spot * STANDARD_NORMAL.cumulativeProbability(-d1);
+    }
+
+    @Override
+    public double delta(double spot) {
+        if (isExpired()) {
+            boolean inTheMoney = call ? spot > strike : spot < strike;
+            return inTheMoney ? (call ? 1 : -1) : 0;
+        }
+        double nd1 = STANDARD_NORMAL.cumulativeProbability(d1(spot));
+        return call ? nd1 : nd1 - 1;
+    }
+
+    @Override
+    public double gamma(double spot) {
+        if (isExpired()) {
+            return 0;
+        }
+        return STANDARD_NORMAL.density(d1(spot)) / (spot * volatility * Math.sqrt(yearsToExpiry));
+    }
+
+    private boolean isExpired() {
+        return yearsToExpiry <= 0 || volatility <= 0;
+    }
+
+    private double d1(double spot) {
+        double volSqrtT = volatility * Math.sqrt(yearsToExpiry);
+        return (Math.log(spot / strike) + (riskFreeRate + 0.5 * volatility * volatility) * yearsToExpiry) / volSqrtT;
+    }
+}
@@ -0,0 +1,45 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * Fixed-coupon bond priced by discounting its remaining cash flows at a flat yield,
+ * compounded at the coupon frequency. Prices are per 100 face; the risk factor is the
+ * yield quoted in percent (4.25 means 4.25%), so derivatives are per percentage point.
+ */
+public record BondPricer(double couponRate, int frequency, double yearsToMaturity) implements InstrumentPricer {
+
+    private static final double FACE = 100;
+
+    @Override
+    public double price(double yieldPercent) {
+        return sum(yieldPercent / 100, 0);
+    }
+
+    @Override
+    public double delta(double yieldPercent) {
+        return sum(yieldPercent / 100, 1) / 100;
+    }
+
+    @Override
+    public double gamma(double yieldPercent) {
+        return sum(yieldPercent / 100, 2) / 10_000;
+    }
+
+    // order-th derivative of sum(cf * (1 + y/f)^(-f t)) with respect to y, walking back from maturity
+    private double sum(double yield, int order) {
+        double periodYield = 1 + yield / frequency;
+        double coupon = FACE * couponRate / frequency;
+        double total = 0;
+        for (double t = yearsToMaturity; t > 0; t -= 1.0 / frequency) {
+            double cashFlow = t == yearsToMaturity ? FACE + coupon : coupon;
+            double periods = frequency * t;
+            double term = cashFlow * Math.pow(periodYield, -periods);
+            if (order == 1) {
+                term *= -t / periodYield;
+            } else if (order == 2) {
+                term *= t * (periods + 1) / (frequency * periodYield * periodYield);
+            }
+            total += term;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Dates x instruments closes, NaN where an instrument has no price on a date
+public record CloseMatrix(List<LocalDate> dates, long[] instrumentIds, double[] closes) {
+
+    public ReturnMatrix toReturnMatrix() {
+        return toReturnMatrix(Precision.DOUBLE);
+    }
+
+    // A return is attributed to the date it was realised; days an instrument did not trade count as zero.
+    // FLOAT narrows each return as it is stored, so no double returns matrix is built, but the closes
+    // this reads from are still a full double matrix. PriceHistoryStore.loadReturns avoids both
+    public ReturnMatrix toReturnMatrix(Precision precision) {
+        int cols = instrumentIds.length;
+        int returnRows = Math.max(0, dates.size() - 1);
+        boolean narrow = precision == Precision.FLOAT;
+        double[] returns = narrow ? null : new double[returnRows * cols];
+        float[] floatReturns = narrow ? new float[returnRows * cols] : null;
+        for (int c = 0; c < cols; c++) {
+            double previous = Double.NaN;
+            for (int r = 0; r < dates.size(); r++) {
+                double close = closes[r * cols + c];
+                if (Double.isNaN(close) || close <= 0) {
+                    continue;
+                }
+                if (r > 0 && !Double.isNaN(previous)) {
+                    double logReturn = Math.log(close / previous);
+                    if (narrow) {
+                        floatReturns[(r - 1) * cols + c] = (float) logReturn;
+                    } else {
+                        returns[(r - 1) * cols + c] = logReturn;
+                    }
+                }
+                previous = close;
+            }
+        }
+        List<LocalDate> returnDates = dates.size() > 1 ? dates.subList(1, dates.size()) : List.of();
+        return narrow
+                ? new ReturnMatrix(returnDates, instrumentIds, floatReturns)
+                : new ReturnMatrix(returnDates, instrumentIds, returns);
+    }
+}
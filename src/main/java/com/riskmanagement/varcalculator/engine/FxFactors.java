@@ -0,0 +1,42 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * FX risk factors share the long id space of instrument columns: every currency's rate to
+ * USD gets a negative id derived from its ISO code, so FX series sit in the same return
+ * matrices and price store as instruments without colliding with database ids.
+ * <p>
+ * A holding of value V (in base currency B) denominated in currency C moves with
+ * r_asset + r_C - r_B, where r_X is the log return of X's USD rate (zero for USD itself).
+ */
+public final class FxFactors {
+
+    public static final String PIVOT_CURRENCY = "USD";
+
+    private FxFactors() {
+    }
+
+    public static long factorId(String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Expected a three-letter currency code but got " + currency);
+        }
+        long code = 0;
+        for (int i = 0; i < 3; i++) {
+            code = (code << 8) | currency.charAt(i);
+        }
+        return -code;
+    }
+
+    public static boolean isFxFactor(long id) {
+        return id < 0;
+    }
+
+    public static String currency(long factorId) {
+        long code = -factorId;
+        return new String(new char[] { (char) (code >>> 16 & 0xFF), (char) (code >>> 8 & 0xFF), (char) (code & 0xFF) });
+    }
+
+    // Currencies whose USD rate moves a holding in currency C held in base B (USD has no factor)
+    public static boolean hasFactor(String currency) {
+        return currency != null && !PIVOT_CURRENCY.equals(currency);
+    }
+}
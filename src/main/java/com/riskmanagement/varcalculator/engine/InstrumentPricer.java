@@ -0,0 +1,15 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * Unit price of a non-linear instrument as a function of the level of its single risk
+ * factor (underlying spot for options, quoted yield for bonds), with the first two
+ * derivatives used by the delta-gamma approximation.
+ */
+public interface InstrumentPricer {
+
+    double price(double factorLevel);
+
+    double delta(double factorLevel);
+
+    double gamma(double factorLevel);
+}
@@ -0,0 +1,171 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.util.stream.IntStream;
+
+/**
+ * Dense row-major kernels for scenario revaluation. The matrix product is blocked so a
+ * panel of B stays in L2 while a band of rows streams through it, and the innermost loop
+ * runs over contiguous memory so HotSpot can auto-vectorize it. Row bands are independent
+ * and run on the common fork-join pool.
+ */
+public final class MatrixKernels {
+
+    // Rows per parallel task
+    static final int ROW_BLOCK = 64;
+    // KC x NC doubles of B (256 KB) per panel
+    static final int K_BLOCK = 128;
+    static final int N_BLOCK = 256;
+    // Below this many multiply-adds the fork-join overhead outweighs the gain
+    private static final long PARALLEL_THRESHOLD = 1L << 20;
+
+    private MatrixKernels() {
+    }
+
+    // c (m x n) = a (m x k) * b (k x n)
+    public static double[] multiply(double[] a, int m, int k, double[] b, int n) {
+        checkShape(a.length, m, k, "a");
+        checkShape(b.length, k, n, "b");
+        double[] c = new double[m * n];
+        int bands = (m + ROW_BLOCK - 1) / ROW_BLOCK;
+        IntStream range = IntStream.range(0, bands);
+        if ((long) m * k * n >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(band -> multiplyBand(a, k, b, n, c, band * ROW_BLOCK, Math.min(m, (band + 1) * ROW_BLOCK)));
+        return c;
+    }
+
+    // y (m) = a (m x k) * x (k)
+    public static double[] multiply(double[] a, int m, int k, double[] x) {
+        checkShape(a.length, m, k, "a");
+        if (x.length != k) {
+            throw new IllegalArgumentException("Vector length " + x.length + " does not match " + k + " columns");
+        }
+        double[] y = new double[m];
+        IntStream rows = IntStream.range(0, m);
+        if ((long) m * k >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> y[i] = dot(a, i * k, x, k));
+        return y;
+    }
+
+    // c (m x n) = a (m x k) * b (k x n) with float32 storage for a and double accumulation
+    public static double[] multiply(float[] a, int m, int k, double[] b, int n) {
+        checkShape(a.length, m, k, "a");
+        checkShape(b.length, k, n, "b");
+        double[] c = new double[m * n];
+        int bands = (m + ROW_BLOCK - 1) / ROW_BLOCK;
+        IntStream range = IntStream.range(0, bands);
+        if ((long) m * k * n >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(band -> multiplyBand(a, k, b, n, c, band * ROW_BLOCK, Math.min(m, (band + 1) * ROW_BLOCK)));
+        return c;
+    }
+
+    // y (m) = a (m x k) * x (k) with float32 storage for a and double accumulation
+    public static double[] multiply(float[] a, int m, int k, double[] x) {
+        checkShape(a.length, m, k, "a");
+        if (x.length != k) {
+            throw new IllegalArgumentException("Vector length " + x.length + " does not match " + k + " columns");
+        }
+        double[] y = new double[m];
+        IntStream rows = IntStream.range(0, m);
+        if ((long) m * k >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> y[i] = dot(a, i * k, x, k));
+        return y;
+    }
+
+    private static void multiplyBand(double[] a, int k, double[] b, int n, double[] c, int rowStart, int rowEnd) {
+        for (int kk = 0; kk < k; kk += K_BLOCK) {
+            int kEnd = Math.min(k, kk + K_BLOCK);
+            for (int jj = 0; jj < n; jj += N_BLOCK) {
+                int jEnd = Math.min(n, jj + N_BLOCK);
+                for (int i = rowStart; i < rowEnd; i++) {
+                    int aRow = i * k;
+                    int cRow = i * n;
+                    for (int p = kk; p < kEnd; p++) {
+                        double aip = a[aRow + p];
+                        if (aip == 0) {
+                            continue;
+                        }
+                        int bRow = p * n;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aip * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyBand(float[] a, int k, double[] b, int n, double[] c, int rowStart, int rowEnd) {
+        for (int kk = 0; kk < k; kk += K_BLOCK) {
+            int kEnd = Math.min(k, kk + K_BLOCK);
+            for (int jj = 0; jj < n; jj += N_BLOCK) {
+                int jEnd = Math.min(n, jj + N_BLOCK);
+                for (int i = rowStart; i < rowEnd; i++) {
+                    int aRow = i * k;
+                    int cRow = i * n;
+                    for (int p = kk; p < kEnd; p++) {
+                        double aip = a[aRow + p];
+                        if (aip == 0) {
+                            continue;
+                        }
+                        int bRow = p * n;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aip * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static double dot(float[] a, int offset, double[] x, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j + 3 < length; j += 4) {
+            s0 += a[offset + j] * x[j];
+            s1 += a[offset + j + 1] * x[j + 1];
+            s2 += a[offset + j + 2] * x[j + 2];
+            s3 += a[offset + j + 3] * x[j + 3];
+        }
+        for (; j < length; j++) {
+            s0 += a[offset + j] * x[j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // Four independent accumulators break the add dependency chain
+    private static double dot(double[] a, int offset, double[] x, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j + 3 < length; j += 4) {
+            s0 += a[offset + j] * x[j];
+            s1 += a[offset + j + 1] * x[j + 1];
+            s2 += a[offset + j + 2] * x[j + 2];
+            s3 += a[offset + j + 3] * x[j + 3];
+        }
+        for (; j < length; j++) {
+            s0 += a[offset + j] * x[j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static void checkShape(int length, int rows, int columns, String name) {
+        if (length != rows * columns) {
+            throw new IllegalArgumentException("Matrix " + name + " has " + length + " elements, expected "
+                    + rows + " x " + columns);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+import org.apache.commons.math3.random.Well19937c;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * One-day Monte Carlo VaR/ES under a zero-drift multivariate normal model of instrument
+ * log returns, with the covariance estimated from the historical return window. Linear
+ * books reduce to a projection per path; books with non-linear holdings are revalued
+ * through a {@link ScenarioRevaluation} a block of paths at a time.
+ * <p>
+ * Shocks are built from the principal components of that covariance, largest first, so
+ * the leading (best distributed) Sobol dimensions drive most of the variance. Antithetic
+ * pairs and a likelihood-ratio weighted mean shift towards the loss tail further cut the
+ * variance of the tail estimate. Paths are split into independently randomised batches
+ * (random-shift Sobol, or fresh pseudo-random streams) run in parallel, each streaming its
+ * losses into a {@link TailAccumulator} sized to its own share of the tail; the spread of the
+ * per-batch VaR estimates gives the standard error. Memory is at most about twice each
+ * worker's 5% share of the paths, with or without importance sampling: the shift moves most
+ * paths into the tail, so weighted tails are compacted once a worker reaches that count, and
+ * the estimate carries the resulting bound on the tail error alongside its standard error.
+ */
+public final class MonteCarloSimulation {
+
+    public enum Sampling {
+        PSEUDO_RANDOM,
+        SOBOL
+    }
+
+    public record Options(int paths, Sampling sampling, boolean antithetic, boolean importanceSampling, long seed) {
+    }
+
+    // retainedLosses = losses held across all workers at the end, the simulation's memory footprint;
+    // tailError = largest distance compaction may have moved VaR or ES, 0 when every tail loss was kept
+    public record Estimate(RiskMeasures measures, double var95StandardError, double var99StandardError,
+            int paths, int retainedLosses, double tailError) {
+    }
+
+    static final int BATCHES = 16;
+    // Tail weight each worker keeps, relative to its own 5% share, plus a floor for small batches
+    private static final double WORKER_TAIL_SLACK = 1.5;
+    private static final double WORKER_TAIL_MARGIN = 32;
+    // Dimensions shipped with the commons-math direction numbers; later components fall back to pseudo-random
+    private static final int SOBOL_MAX_DIMENSION = 1000;
+    private static final double EIGENVALUE_TOLERANCE = 1e-12;
+    // Paths revalued together when the book has non-linear holdings
+    private static final int BLOCK_POINTS = 256;
+
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution();
+    // Mean shift (in standard deviations of P&L) centring the sampling density on the 99% tail
+    private static final double TAIL_SHIFT = -STANDARD_NORMAL.inverseCumulativeProbability(0.01);
+
+    private MonteCarloSimulation() {
+    }
+
+    public static Estimate estimate(ReturnMatrix history, double[] exposures, double portfolioValue,
+            Options options) {
+        return estimate(history, ScenarioRevaluation.linear(exposures), portfolioValue, options);
+    }
+
+    public static Estimate estimate(ReturnMatrix history, ScenarioRevaluation revaluation, double portfolioValue,
+            Options options) {
+        if (history.rows() < 2) {
+            throw new IllegalArgumentException("At least two return observations are required");
+        }
+        int factors = history.columns();
+        Components components = principalComponents(history);
+        int dimension = components.count();
+
+        // Delta sensitivity to each component, b = L^T e: exact for linear books, the first-order part otherwise
+        double[] deltaExposures = revaluation.deltaExposures();
+        double[] loadings = new double[dimension];
+        for (int c = 0; c < factors; c++) {
+            for (int j = 0; j < dimension; j++) {
+                loadings[j] += components.loadings()[c * dimension + j] * deltaExposures[c];
+            }
+        }
+        double sigma = Math.sqrt(dot(loadings, loadings, dimension));
+        if (dimension == 0 || (sigma == 0 && revaluation.isLinear())) {
+            return new Estimate(new RiskMeasures(0, 0, 0, 0, 0), 0, 0, 0, 0, 0);
+        }
+
+        // Shift mu = -theta * b / |b| along the loss direction; the likelihood ratio is exp(-mu.z + |mu|^2 / 2)
+        boolean shifted = options.importanceSampling() && sigma > 0;
+        double[] shift = new double[dimension];
+        double shiftNormSquared = shifted ? TAIL_SHIFT * TAIL_SHIFT : 0;
+        if (shifted) {
+            for (int j = 0; j < dimension; j++) {
+                shift[j] = -TAIL_SHIFT * loadings[j] / sigma;
+            }
+        }
+        double shiftedMean = dot(loadings, shift, dimension);
+
+        int draws = options.antithetic() ? 2 : 1;
+        int pointsPerBatch = Math.max(1, (options.paths() + BATCHES * draws - 1) / (BATCHES * draws));
+        int pathsPerBatch = pointsPerBatch * draws;
+        int totalPaths = pathsPerBatch * BATCHES;
+        double pooledTail = 0.05 * totalPaths;
+        double batchTail = WORKER_TAIL_SLACK * 0.05 * pathsPerBatch + WORKER_TAIL_MARGIN;
+
+        // Each batch is an independent, deterministically seeded worker keeping only its worst losses
+        BiFunction<Integer, Double, TailAccumulator> runBatch = (batch, tailWeight) -> {
+            RandomGenerator random = new Well19937c(new int[] {
+                    (int) (options.seed() >>> 32), (int) options.seed(), batch });
+            PointSource points = pointSource(options.sampling(), dimension, random);
+            TailAccumulator accumulator = new TailAccumulator(Math.min(tailWeight, pooledTail));
+            double[] normals = new double[dimension];
+            if (revaluation.isLinear()) {
+                for (int p = 0; p < pointsPerBatch; p++) {
+                    points.nextNormals(normals);
+                    double projected = dot(loadings, normals, dimension);
+                    double shiftProjected = dot(shift, normals, dimension);
+                    accumulator.add(-(shiftedMean + projected), Math.exp(-0.5 * shiftNormSquared - shiftProjected));
+                    if (draws == 2) {
+                        accumulator.add(-(shiftedMean - projected),
+                                Math.exp(-0.5 * shiftNormSquared + shiftProjected));
+                    }
+                }
+            } else {
+                // Non-linear books: map a block of shocks to factor returns (r = L z) and revalue the block
+                for (int start = 0; start < pointsPerBatch; start += BLOCK_POINTS) {
+                    int count = Math.min(BLOCK_POINTS, pointsPerBatch - start);
+                    int columns = count * draws;
+                    double[] shocks = new double[dimension * columns];
+                    double[] weights = new double[columns];
+                    for (int p = 0; p < count; p++) {
+                        points.nextNormals(normals);
+                        double shiftProjected = dot(shift, normals, dimension);
+                        int column = p * draws;
+                        for (int j = 0; j < dimension; j++) {
+                            shocks[j * columns + column] = shift[j] + normals[j];
+                        }
+                        weights[column] = Math.exp(-0.5 * shiftNormSquared - shiftProjected);
+                        if (draws == 2) {
+                            for (int j = 0; j < dimension; j++) {
+                                shocks[j * columns + column + 1] = shift[j] - normals[j];
+                            }
+                            weights[column + 1] = Math.exp(-0.5 * shiftNormSquared + shiftProjected);
+                        }
+                    }
+                    double[] factorReturns = MatrixKernels.multiply(components.loadings(), factors, dimension,
+                            shocks, columns);
+                    double[] profitAndLoss = revaluation.profitAndLoss(factorReturns, columns);
+                    for (int c = 0; c < columns; c++) {
+                        accumulator.add(-profitAndLoss[c], weights[c]);
+                    }
+                }
+            }
+            return accumulator;
+        };
+
+        // Workers keep a little over their own share of the pooled tail. The merge is exact as long as no
+        // worker dropped a loss beyond the pooled 95% quantile; a worker that did (its share of the tail
+        // ran unusually heavy) is replayed from its seed with the full pooled bound
+        TailAccumulator[] accumulators = new TailAccumulator[BATCHES];
+        IntStream.range(0, BATCHES).parallel()
+                .forEach(batch -> accumulators[batch] = runBatch.apply(batch, batchTail));
+        TailAccumulator pooled = pooled(accumulators, totalPaths);
+        double[] tail95 = pooled.tail(0.05 * totalPaths);
+        boolean replayed = false;
+        for (int batch = 0; batch < BATCHES; batch++) {
+            if (accumulators[batch].getMaxDiscarded() > tail95[0]) {
+                accumulators[batch] = runBatch.apply(batch, pooledTail);
+                replayed = true;
+            }
+        }
+        if (replayed) {
+            pooled = pooled(accumulators, totalPaths);
+            tail95 = pooled.tail(0.05 * totalPaths);
+        }
+        double[] tail99 = pooled.tail(0.01 * totalPaths);
+        double tailError = Math.max(pooled.error(0.05 * totalPaths), pooled.error(0.01 * totalPaths));
+
+        double[] var95Batches = new double[BATCHES];
+        double[] var99Batches = new double[BATCHES];
+        int retained = 0;
+        for (int batch = 0; batch < BATCHES; batch++) {
+            var95Batches[batch] = accumulators[batch].tail(0.05 * pathsPerBatch)[0];
+            var99Batches[batch] = accumulators[batch].tail(0.01 * pathsPerBatch)[0];
+            retained += accumulators[batch].size();
+        }
+        RiskMeasures measures = new RiskMeasures(tail95[0], tail99[0], tail95[1], tail99[1],
+                portfolioValue > 0 ? sigma / portfolioValue : 0);
+        return new Estimate(measures, standardError(var95Batches), standardError(var99Batches), totalPaths,
+                retained, tailError);
+    }
+
+    private static TailAccumulator pooled(TailAccumulator[] accumulators, int totalPaths) {
+        TailAccumulator pooled = new TailAccumulator(0.05 * totalPaths);
+        for (TailAccumulator accumulator : accumulators) {
+            pooled.merge(accumulator);
+        }
+        return pooled;
+    }
+
+    // r = V * sqrt(lambda) * z: loadings is factors x components, row-major, components ordered by variance
+    private static Components principalComponents(ReturnMatrix history) {
+        int n = history.rows();
+        int k = history.columns();
+        double[] means = new double[k];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < k; c++) {
+                means[c] += history.get(r, c);
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            means[c] /= n;
+        }
+        double[][] covariance = new double[k][k];
+        double[] centred = new double[k];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < k; c++) {
+                centred[c] = history.get(r, c) - means[c];
+            }
+            for (int i = 0; i < k; i++) {
+                for (int j = i; j < k; j++) {
+                    covariance[i][j] += centred[i] * centred[j];
+                }
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            for (int j = i; j < k; j++) {
+                covariance[i][j] /= n - 1;
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+
+        EigenDecomposition eigen = new EigenDecomposition(new Array2DRowRealMatrix(covariance, false));
+        double[] eigenvalues = eigen.getRealEigenvalues();
+        double largest = Arrays.stream(eigenvalues).max().orElse(0);
+        int[] order = IntStream.range(0, eigenvalues.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> -eigenvalues[i]))
+                .filter(i -> eigenvalues[i] > largest * EIGENVALUE_TOLERANCE)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int count = order.length;
+        double[] loadings = new double[k * count];
+        for (int j = 0; j < count; j++) {
+            double scale = Math.sqrt(eigenvalues[order[j]]);
+            double[] vector = eigen.getEigenvector(order[j]).toArray();
+            for (int c = 0; c < k; c++) {
+                loadings[c * count + j] = vector[c] * scale;
+            }
+        }
+        return new Components(loadings, count);
+    }
+
+    private record Components(double[] loadings, int count) {
+    }
+
+    private static double standardError(double[] estimates) {
+        RunningMoments moments = new RunningMoments();
+        for (double estimate : estimates) {
+            moments.add(estimate);
+        }
+        return moments.getStandardDeviation() / Math.sqrt(estimates.length);
+    }
+
+    private static double dot(double[] a, double[] b, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static PointSource pointSource(Sampling sampling, int dimension, RandomGenerator random) {
+        if (sampling == Sampling.SOBOL) {
+            return new ShiftedSobol(dimension, random);
+        }
+        return normals -> {
+            for (int j = 0; j < normals.length; j++) {
+                normals[j] = random.nextGaussian();
+            }
+        };
+    }
+
+    private interface PointSource {
+        void nextNormals(double[] normals);
+    }
+
+    // Cranley-Patterson rotation: every batch sees the same Sobol points under its own uniform shift (mod 1)
+    private static final class ShiftedSobol implements PointSource {
+
+        private final SobolSequenceGenerator sobol;
+        private final double[] shift;
+        private final RandomGenerator random;
+
+        ShiftedSobol(int dimension, RandomGenerator random) {
+            int sobolDimension = Math.min(dimension, SOBOL_MAX_DIMENSION);
+            this.sobol = new SobolSequenceGenerator(sobolDimension);
+            this.shift = new double[sobolDimension];
+            for (int j = 0; j < sobolDimension; j++) {
+                shift[j] = random.nextDouble();
+            }
+            this.random = random;
+        }
+
+        @Override
+        public void nextNormals(double[] normals) {
+            double[] point = sobol.nextVector();
+            for (int j = 0; j < shift.length; j++) {
+                double u = point[j] + shift[j];
+                if (u >= 1) {
+                    u -= 1;
+                }
+                u = Math.min(Math.max(u, Double.MIN_NORMAL), Math.nextDown(1.0));
+                normals[j] = STANDARD_NORMAL.inverseCumulativeProbability(u);
+            }
+            for (int j = shift.length; j < normals.length; j++) {
+                normals[j] = random.nextGaussian();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * Storage precision for scenario and return matrices. Reductions always accumulate in
+ * double; FLOAT only narrows what is held in memory.
+ */
+public enum Precision {
+    DOUBLE,
+    FLOAT
+}
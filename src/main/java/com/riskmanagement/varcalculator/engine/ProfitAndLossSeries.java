@@ -0,0 +1,12 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Daily portfolio P&L in base currency, aligned with the return dates it was derived from
+public record ProfitAndLossSeries(List<LocalDate> dates, double[] profitAndLoss, double portfolioValue) {
+
+    public int size() {
+        return profitAndLoss.length;
+    }
+}
@@ -0,0 +1,46 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * Percentiles over already-sorted data, using the same estimator as commons-math
+ * {@code Percentile} so results line up with {@code DescriptiveStatistics}.
+ */
+public final class Quantiles {
+
+    private Quantiles() {
+    }
+
+    // p in (0, 100]; only the first size entries of sorted are considered
+    public static double percentile(double[] sorted, int size, double p) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        if (size == 1) {
+            return sorted[0];
+        }
+        double pos = p * (size + 1) / 100.0;
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        double dif = pos - fpos;
+        if (pos < 1) {
+            return sorted[0];
+        }
+        if (pos >= size) {
+            return sorted[size - 1];
+        }
+        double lower = sorted[intPos - 1];
+        double upper = sorted[intPos];
+        return lower + dif * (upper - lower);
+    }
+
+    // Mean of the values at or below the given percentile (the lower tail)
+    public static double tailMean(double[] sorted, int size, double p) {
+        double cutoff = percentile(sorted, size, p);
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < size && sorted[i] <= cutoff; i++) {
+            sum += sorted[i];
+            count++;
+        }
+        return count > 0 ? sum / count : cutoff;
+    }
+}
@@ -0,0 +1,119 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense scenarios x instruments matrix of daily log returns, stored row-major so a
+ * scenario row is contiguous in memory.
+ * <p>
+ * With {@link Precision#FLOAT} each return is rounded to float32 (relative error at most
+ * 2^-24, about 6e-8) and products accumulate in double. A scenario P&L therefore differs
+ * from the double path by at most 2^-24 * sum(|return * exposure|), and VaR/ES, being
+ * order statistics or averages of those P&Ls, by no more than the largest such bound over
+ * scenarios: about 3 currency units on a 1bn gross book with 5% daily moves.
+ */
+public class ReturnMatrix {
+
+    private final List<LocalDate> dates;
+    private final long[] instrumentIds;
+    private final double[] data;
+    private final float[] floatData;
+    private final Map<Long, Integer> columnIndex;
+
+    public ReturnMatrix(List<LocalDate> dates, long[] instrumentIds, double[] data) {
+        this(dates, instrumentIds, data, null);
+    }
+
+    public ReturnMatrix(List<LocalDate> dates, long[] instrumentIds, float[] data) {
+        this(dates, instrumentIds, null, data);
+    }
+
+    private ReturnMatrix(List<LocalDate> dates, long[] instrumentIds, double[] data, float[] floatData) {
+        int length = data != null ? data.length : floatData.length;
+        if (length != dates.size() * instrumentIds.length) {
+            throw new IllegalArgumentException("Return data does not match " + dates.size() + " x "
+                    + instrumentIds.length + " shape");
+        }
+        this.dates = List.copyOf(dates);
+        this.instrumentIds = instrumentIds;
+        this.data = data;
+        this.floatData = floatData;
+        this.columnIndex = new HashMap<>(instrumentIds.length * 2);
+        for (int c = 0; c < instrumentIds.length; c++) {
+            columnIndex.put(instrumentIds[c], c);
+        }
+    }
+
+    public int rows() {
+        return dates.size();
+    }
+
+    public int columns() {
+        return instrumentIds.length;
+    }
+
+    public Precision getPrecision() {
+        return floatData != null ? Precision.FLOAT : Precision.DOUBLE;
+    }
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public long[] getInstrumentIds() {
+        return instrumentIds;
+    }
+
+    public double get(int row, int column) {
+        int index = row * instrumentIds.length + column;
+        return floatData != null ? floatData[index] : data[index];
+    }
+
+    public int columnOf(long instrumentId) {
+        Integer column = columnIndex.get(instrumentId);
+        return column != null ? column : -1;
+    }
+
+    public double[] column(int column) {
+        double[] values = new double[rows()];
+        for (int r = 0; r < values.length; r++) {
+            values[r] = get(r, column);
+        }
+        return values;
+    }
+
+    // P&L per scenario for the given exposure (currency amount) per column
+    public double[] multiply(double[] exposures) {
+        if (exposures.length != instrumentIds.length) {
+            throw new IllegalArgumentException("Expected " + instrumentIds.length + " exposures but got "
+                    + exposures.length);
+        }
+        return floatData != null
+                ? MatrixKernels.multiply(floatData, rows(), instrumentIds.length, exposures)
+                : MatrixKernels.multiply(data, rows(), instrumentIds.length, exposures);
+    }
+
+    // Scenario P&L for many portfolios at once: (rows x columns) * (columns x portfolios), row-major result
+    public double[] multiply(double[] exposureMatrix, int portfolios) {
+        return floatData != null
+                ? MatrixKernels.multiply(floatData, rows(), instrumentIds.length, exposureMatrix, portfolios)
+                : MatrixKernels.multiply(data, rows(), instrumentIds.length, exposureMatrix, portfolios);
+    }
+
+    // Keeps only the most recent rows, used to trim the load buffer down to the window
+    public ReturnMatrix lastRows(int count) {
+        if (count >= rows()) {
+            return this;
+        }
+        int from = rows() - count;
+        int cols = instrumentIds.length;
+        List<LocalDate> keptDates = dates.subList(from, rows());
+        return floatData != null
+                ? new ReturnMatrix(keptDates, instrumentIds, Arrays.copyOfRange(floatData, from * cols, rows() * cols))
+                : new ReturnMatrix(keptDates, instrumentIds, Arrays.copyOfRange(data, from * cols, rows() * cols));
+    }
+}
@@ -0,0 +1,139 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import java.util.Arrays;
+
+// VaR and ES (positive loss amounts) plus daily return volatility for one scenario P&L vector
+public record RiskMeasures(double var95, double var99, double expectedShortfall95, double expectedShortfall99,
+        double volatility) {
+
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution();
+    private static final double Z_95 = STANDARD_NORMAL.inverseCumulativeProbability(0.05);
+    private static final double Z_99 = STANDARD_NORMAL.inverseCumulativeProbability(0.01);
+
+    public static RiskMeasures historical(double[] profitAndLoss, double portfolioValue) {
+        double[] sorted = profitAndLoss.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return new RiskMeasures(
+                -Quantiles.percentile(sorted, n, 5.0),
+                -Quantiles.percentile(sorted, n, 1.0),
+                -Quantiles.tailMean(sorted, n, 5.0),
+                -Quantiles.tailMean(sorted, n, 1.0),
+                returnVolatility(standardDeviation(profitAndLoss), portfolioValue));
+    }
+
+    // Zero-mean normal P&L: VaR = |z| * sigma, ES = sigma * phi(z) / alpha
+    public static RiskMeasures parametric(double[] profitAndLoss, double portfolioValue) {
+        double sigma = standardDeviation(profitAndLoss);
+        return new RiskMeasures(
+                Math.abs(Z_95) * sigma,
+                Math.abs(Z_99) * sigma,
+                sigma * STANDARD_NORMAL.density(Z_95) / 0.05,
+                sigma * STANDARD_NORMAL.density(Z_99) / 0.01,
+                returnVolatility(sigma, portfolioValue));
+    }
+
+    // Zero-mean normal quantile adjusted for sample skewness and excess kurtosis; ES averages the adjusted quantile over the tail
+    public static RiskMeasures cornishFisher(double[] profitAndLoss, double portfolioValue) {
+        RunningMoments moments = new RunningMoments();
+        for (double value : profitAndLoss) {
+            moments.add(value);
+        }
+        double sigma = moments.getStandardDeviation();
+        double skewness = moments.getSkewness();
+        double kurtosis = moments.getExcessKurtosis();
+        return new RiskMeasures(
+                -sigma * cornishFisherQuantile(Z_95, skewness, kurtosis),
+                -sigma * cornishFisherQuantile(Z_99, skewness, kurtosis),
+                -sigma * cornishFisherTailMean(0.05, skewness, kurtosis),
+                -sigma * cornishFisherTailMean(0.01, skewness, kurtosis),
+                returnVolatility(sigma, portfolioValue));
+    }
+
+    /**
+     * Normal approximation to the quadratic P&L d'r + r'Gr/2 with r ~ N(0, S) and diagonal G,
+     * using its exact mean tr(GS)/2 and variance d'Sd + tr((GS)^2)/2. The covariance comes from
+     * a single pass over the return matrix.
+     */
+    public static RiskMeasures deltaGammaNormal(ReturnMatrix history, double[] deltas, double[] gammas,
+            double portfolioValue) {
+        double[][] covariance = covariance(history);
+        int k = deltas.length;
+        double mean = 0;
+        double variance = 0;
+        for (int i = 0; i < k; i++) {
+            mean += 0.5 * gammas[i] * covariance[i][i];
+            for (int j = 0; j < k; j++) {
+                variance += deltas[i] * covariance[i][j] * deltas[j]
+                        + 0.5 * gammas[i] * covariance[i][j] * gammas[j] * covariance[j][i];
+            }
+        }
+        double sigma = Math.sqrt(Math.max(variance, 0));
+        double tailDensity95 = STANDARD_NORMAL.density(Z_95) / 0.05;
+        double tailDensity99 = STANDARD_NORMAL.density(Z_99) / 0.01;
+        return new RiskMeasures(
+                -(mean + Z_95 * sigma),
+                -(mean + Z_99 * sigma),
+                -(mean - sigma * tailDensity95),
+                -(mean - sigma * tailDensity99),
+                returnVolatility(sigma, portfolioValue));
+    }
+
+    private static double cornishFisherQuantile(double z, double skewness, double kurtosis) {
+        double z2 = z * z;
+        return z + (z2 - 1) * skewness / 6 + (z2 * z - 3 * z) * kurtosis / 24
+                - (2 * z2 * z - 5 * z) * skewness * skewness / 36;
+    }
+
+    // Midpoint rule over the tail probabilities (0, alpha]
+    private static double cornishFisherTailMean(double alpha, double skewness, double kurtosis) {
+        int steps = 200;
+        double sum = 0;
+        for (int i = 0; i < steps; i++) {
+            double p = alpha * (i + 0.5) / steps;
+            sum += cornishFisherQuantile(STANDARD_NORMAL.inverseCumulativeProbability(p), skewness, kurtosis);
+        }
+        return sum / steps;
+    }
+
+    private static double[][] covariance(ReturnMatrix history) {
+        int n = history.rows();
+        int k = history.columns();
+        double[] sums = new double[k];
+        double[][] products = new double[k][k];
+        for (int r = 0; r < n; r++) {
+            for (int i = 0; i < k; i++) {
+                double x = history.get(r, i);
+                sums[i] += x;
+                for (int j = i; j < k; j++) {
+                    products[i][j] += x * history.get(r, j);
+                }
+            }
+        }
+        double[][] covariance = new double[k][k];
+        if (n < 2) {
+            return covariance;
+        }
+        for (int i = 0; i < k; i++) {
+            for (int j = i; j < k; j++) {
+                covariance[i][j] = (products[i][j] - sums[i] * sums[j] / n) / (n - 1);
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+        return covariance;
+    }
+
+    private static double standardDeviation(double[] values) {
+        RunningMoments moments = new RunningMoments();
+        for (double value : values) {
+            moments.add(value);
+        }
+        return moments.getStandardDeviation();
+    }
+
+    private static double returnVolatility(double profitAndLossSigma, double portfolioValue) {
+        return portfolioValue > 0 ? profitAndLossSigma / portfolioValue : 0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Rolling VaR and ES over a P&L series in a single pass: the historical path keeps the
+ * window sorted incrementally and the parametric path keeps running moments, so each
+ * day costs O(window) at worst instead of a full re-sort.
+ */
+public final class RollingRiskCalculator {
+
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution();
+    private static final double Z_95 = STANDARD_NORMAL.inverseCumulativeProbability(0.05);
+    private static final double Z_99 = STANDARD_NORMAL.inverseCumulativeProbability(0.01);
+
+    public enum Method {
+        HISTORICAL,
+        PARAMETRIC
+    }
+
+    private RollingRiskCalculator() {
+    }
+
+    // Emits one point per day in [from, to] once a full window of prior days is available.
+    // The point for day D is estimated from the window ending on D - 1, so it is comparable with D's P&L.
+    public static void forEach(ProfitAndLossSeries series, int windowSize, LocalDate from, LocalDate to,
+            Method method, Consumer<RollingRiskPoint> sink) {
+        SlidingWindowQuantile window = new SlidingWindowQuantile(windowSize);
+        RunningMoments moments = new RunningMoments();
+        double[] profitAndLoss = series.profitAndLoss();
+
+        for (int day = 0; day < profitAndLoss.length; day++) {
+            LocalDate date = series.dates().get(day);
+            if (date.isAfter(to)) {
+                break;
+            }
+            if (window.isFull() && !date.isBefore(from)) {
+                sink.accept(method == Method.HISTORICAL
+                        ? historicalPoint(date, window, moments, series.portfolioValue(), profitAndLoss[day])
+                        : parametricPoint(date, moments, series.portfolioValue(), profitAndLoss[day]));
+            }
+            double evicted = window.add(profitAndLoss[day]);
+            if (!Double.isNaN(evicted)) {
+                moments.remove(evicted);
+            }
+            moments.add(profitAndLoss[day]);
+        }
+    }
+
+    private static RollingRiskPoint historicalPoint(LocalDate date, SlidingWindowQuantile window,
+            RunningMoments moments, double portfolioValue, double profitAndLoss) {
+        return new RollingRiskPoint(date,
+                -window.percentile(5.0),
+                -window.percentile(1.0),
+                -window.tailMean(5.0),
+                -window.tailMean(1.0),
+                returnVolatility(moments.getStandardDeviation(), portfolioValue),
+                profitAndLoss);
+    }
+
+    // Zero-mean normal P&L: VaR = |z| * sigma, ES = sigma * phi(z) / alpha
+    private static RollingRiskPoint parametricPoint(LocalDate date, RunningMoments moments, double portfolioValue,
+            double profitAndLoss) {
+        double sigma = moments.getStandardDeviation();
+        return new RollingRiskPoint(date,
+                Math.abs(Z_95) * sigma,
+                Math.abs(Z_99) * sigma,
+                sigma * STANDARD_NORMAL.density(Z_95) / 0.05,
+                sigma * STANDARD_NORMAL.density(Z_99) / 0.01,
+                returnVolatility(sigma, portfolioValue),
+                profitAndLoss);
+    }
+
+    // Reported like risk_runs.portfolio_volatility: a daily return volatility, not a currency amount
+    private static double returnVolatility(double profitAndLossSigma, double portfolioValue) {
+        return portfolioValue > 0 ? profitAndLossSigma / portfolioValue : 0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.time.LocalDate;
+
+public record RollingRiskPoint(LocalDate date, double var95, double var99, double expectedShortfall95,
+        double expectedShortfall99, double volatility, double profitAndLoss) {
+}
@@ -0,0 +1,93 @@
+package com.riskmanagement.varcalculator.engine;
+
+/**
+ * Mean, variance, skewness and kurtosis of a sliding window, updated in O(1) as values
+ * enter and leave (the one-pass central moment recurrences of Welford and Pébay, run
+ * forwards and backwards).
+ */
+public class RunningMoments {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double m3;
+    private double m4;
+
+    public void add(double value) {
+        long n = ++count;
+        double delta = value - mean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * (n - 1);
+        mean += deltaN;
+        m4 += term * deltaN2 * ((double) n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term * deltaN * (n - 2) - 3 * deltaN * m2;
+        m2 += term;
+    }
+
+    public void remove(double value) {
+        if (count <= 1) {
+            clear();
+            return;
+        }
+        long n = count;
+        double previousMean = (n * mean - value) / (n - 1);
+        double delta = value - previousMean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * (n - 1);
+        count--;
+        mean = previousMean;
+        m2 -= term;
+        if (m2 < 0) {
+            m2 = 0;
+        }
+        m3 -= term * deltaN * (n - 2) - 3 * deltaN * m2;
+        m4 -= term * deltaN2 * ((double) n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+    }
+
+    public void clear() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        m3 = 0;
+        m4 = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    // Sample variance (n - 1), matching DescriptiveStatistics
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    // Bias-corrected sample skewness, matching DescriptiveStatistics
+    public double getSkewness() {
+        if (count < 3 || m2 == 0) {
+            return 0;
+        }
+        double variance = getVariance();
+        return count * m3 / ((count - 1.0) * (count - 2.0) * variance * Math.sqrt(variance));
+    }
+
+    // Bias-corrected sample excess kurtosis, matching DescriptiveStatistics
+    public double getExcessKurtosis() {
+        if (count < 4 || m2 == 0) {
+            return 0;
+        }
+        double n = count;
+        double variance = getVariance();
+        return n * (n + 1) * m4 / ((n - 1) * (n - 2) * (n - 3) * variance * variance)
+                - 3 * (n - 1) * (n - 1) / ((n - 2) * (n - 3));
+    }
+}
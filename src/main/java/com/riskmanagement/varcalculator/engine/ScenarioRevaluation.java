@@ -0,0 +1,183 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Scenario P&L of a book mixing linear exposures with non-linear holdings. Linear
+ * exposures (currency amount per factor column) follow the usual exposure x log return
+ * rule; each holding is revalued from its factor level shocked by the scenario return,
+ * either in full through its pricer or by a delta-gamma expansion around today's level.
+ * Shocks are instantaneous, with no time decay over the horizon.
+ * <p>
+ * Holdings are processed one at a time over a contiguous run of scenarios, so the inner
+ * loop streams a single factor column and a single pricer; scenario chunks run in parallel.
+ */
+public final class ScenarioRevaluation {
+
+    public enum Mode {
+        FULL,
+        DELTA_GAMMA
+    }
+
+    // quantity units of an instrument priced off the level of factor column `factor`
+    public record Holding(long instrumentId, int factor, double quantity, double factorLevel,
+            InstrumentPricer pricer) {
+    }
+
+    private static final int CHUNK = 4096;
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+
+    private final double[] linearExposures;
+    private final List<Holding> holdings;
+    private final Mode mode;
+    private final double[] basePrices;
+    private final double[] deltas;
+    private final double[] gammas;
+
+    public ScenarioRevaluation(double[] linearExposures, List<Holding> holdings, Mode mode) {
+        this.linearExposures = linearExposures;
+        this.holdings = List.copyOf(holdings);
+        this.mode = mode;
+        this.basePrices = new double[holdings.size()];
+        this.deltas = new double[holdings.size()];
+        this.gammas = new double[holdings.size()];
+        for (int h = 0; h < holdings.size(); h++) {
+            Holding holding = holdings.get(h);
+            basePrices[h] = holding.pricer().price(holding.factorLevel());
+            deltas[h] = holding.pricer().delta(holding.factorLevel());
+            gammas[h] = holding.pricer().gamma(holding.factorLevel());
+        }
+    }
+
+    public static ScenarioRevaluation linear(double[] exposures) {
+        return new ScenarioRevaluation(exposures, List.of(), Mode.FULL);
+    }
+
+    public boolean isLinear() {
+        return holdings.isEmpty();
+    }
+
+    public int factors() {
+        return linearExposures.length;
+    }
+
+    public double[] getLinearExposures() {
+        return linearExposures;
+    }
+
+    public List<Holding> getHoldings() {
+        return holdings;
+    }
+
+    // First-order currency sensitivity to each factor's log return (holdings contribute quantity x delta x level)
+    public double[] deltaExposures() {
+        double[] exposures = linearExposures.clone();
+        for (int h = 0; h < holdings.size(); h++) {
+            Holding holding = holdings.get(h);
+            exposures[holding.factor()] += holding.quantity() * deltas[h] * holding.factorLevel();
+        }
+        return exposures;
+    }
+
+    // Second derivative of P&L in each factor's log return at zero: quantity x (delta x level + gamma x level^2)
+    public double[] gammaExposures() {
+        double[] exposures = new double[linearExposures.length];
+        for (int h = 0; h < holdings.size(); h++) {
+            Holding holding = holdings.get(h);
+            double level = holding.factorLevel();
+            exposures[holding.factor()] += holding.quantity() * (deltas[h] * level + gammas[h] * level * level);
+        }
+        return exposures;
+    }
+
+    // P&L for each historical scenario (row) of the matrix
+    public double[] profitAndLoss(ReturnMatrix history) {
+        double[] profitAndLoss = history.multiply(linearExposures);
+        if (isLinear()) {
+            return profitAndLoss;
+        }
+        int scenarios = history.rows();
+        Map<Integer, Integer> slots = new LinkedHashMap<>();
+        for (Holding holding : holdings) {
+            slots.putIfAbsent(holding.factor(), slots.size());
+        }
+        double[] source = new double[slots.size() * scenarios];
+        slots.forEach((factor, slot) -> System.arraycopy(history.column(factor), 0, source, slot * scenarios,
+                scenarios));
+        int[] offsets = new int[holdings.size()];
+        for (int h = 0; h < offsets.length; h++) {
+            offsets[h] = slots.get(holdings.get(h).factor()) * scenarios;
+        }
+        addHoldings(source, offsets, profitAndLoss, scenarios);
+        return profitAndLoss;
+    }
+
+    // P&L for simulated scenarios; factorReturns is factors x scenarios, row-major, one contiguous row per factor
+    public double[] profitAndLoss(double[] factorReturns, int scenarios) {
+        double[] profitAndLoss = new double[scenarios];
+        for (int f = 0; f < linearExposures.length; f++) {
+            double exposure = linearExposures[f];
+            if (exposure == 0) {
+                continue;
+            }
+            int offset = f * scenarios;
+            for (int s = 0; s < scenarios; s++) {
+                profitAndLoss[s] += exposure * factorReturns[offset + s];
+            }
+        }
+        int[] offsets = new int[holdings.size()];
+        for (int h = 0; h < offsets.length; h++) {
+            offsets[h] = holdings.get(h).factor() * scenarios;
+        }
+        addHoldings(factorReturns, offsets, profitAndLoss, scenarios);
+        return profitAndLoss;
+    }
+
+    // Scenario P&L of one holding alone, for per-instrument attribution
+    public double[] holdingProfitAndLoss(int holding, ReturnMatrix history) {
+        double[] profitAndLoss = new double[history.rows()];
+        revalue(holding, history.column(holdings.get(holding).factor()), 0, profitAndLoss, 0, profitAndLoss.length);
+        return profitAndLoss;
+    }
+
+    private void addHoldings(double[] source, int[] offsets, double[] profitAndLoss, int scenarios) {
+        if (holdings.isEmpty()) {
+            return;
+        }
+        int chunks = (scenarios + CHUNK - 1) / CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        if ((long) scenarios * holdings.size() >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(chunk -> {
+            int from = chunk * CHUNK;
+            int to = Math.min(scenarios, from + CHUNK);
+            for (int h = 0; h < holdings.size(); h++) {
+                revalue(h, source, offsets[h], profitAndLoss, from, to);
+            }
+        });
+    }
+
+    private void revalue(int h, double[] source, int offset, double[] profitAndLoss, int from, int to) {
+        Holding holding = holdings.get(h);
+        double quantity = holding.quantity();
+        double level = holding.factorLevel();
+        if (mode == Mode.FULL) {
+            InstrumentPricer pricer = holding.pricer();
+            double basePrice = basePrices[h];
+            for (int s = from; s < to; s++) {
+                profitAndLoss[s] += quantity * (pricer.price(level * Math.exp(source[offset + s])) - basePrice);
+            }
+        } else {
+            double delta = deltas[h];
+            double halfGamma = 0.5 * gammas[h];
+            for (int s = from; s < to; s++) {
+                double move = level * Math.expm1(source[offset + s]);
+                profitAndLoss[s] += quantity * move * (delta + halfGamma * move);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scenario P&L vector keyed by the historical date each scenario was drawn from. Vectors
+ * are additive, so a parent's vector is the date-aligned sum of its children's.
+ */
+public final class ScenarioVector {
+
+    private final List<LocalDate> dates;
+    private final double[] values;
+
+    public ScenarioVector(List<LocalDate> dates, double[] values) {
+        if (dates.size() != values.length) {
+            throw new IllegalArgumentException("Scenario dates and values differ in length");
+        }
+        this.dates = List.copyOf(dates);
+        this.values = values;
+    }
+
+    public static ScenarioVector empty() {
+        return new ScenarioVector(List.of(), new double[0]);
+    }
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    // Merge-add on the sorted date axes; a scenario missing on one side contributes zero P&L
+    public ScenarioVector plus(ScenarioVector other) {
+        if (other.size() == 0) {
+            return this;
+        }
+        if (size() == 0) {
+            return other;
+        }
+        if (dates.equals(other.dates)) {
+            double[] sum = values.clone();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += other.values[i];
+            }
+            return new ScenarioVector(dates, sum);
+        }
+
+        List<LocalDate> mergedDates = new ArrayList<>(size() + other.size());
+        double[] merged = new double[size() + other.size()];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size() || j < other.size()) {
+            int cmp = i == size() ? 1 : j == other.size() ? -1 : dates.get(i).compareTo(other.dates.get(j));
+            if (cmp < 0) {
+                mergedDates.add(dates.get(i));
+                merged[k++] = values[i++];
+            } else if (cmp > 0) {
+                mergedDates.add(other.dates.get(j));
+                merged[k++] = other.values[j++];
+            } else {
+                mergedDates.add(dates.get(i));
+                merged[k++] = values[i++] + other.values[j++];
+            }
+        }
+        return new ScenarioVector(mergedDates, Arrays.copyOf(merged, k));
+    }
+
+    // Loss at the given tail percentile (e.g. 1.0 for 99% VaR), as a positive amount
+    public double valueAtRisk(double tailPercentile) {
+        double[] sorted = sortedValues();
+        return -Quantiles.percentile(sorted, sorted.length, tailPercentile);
+    }
+
+    public double expectedShortfall(double tailPercentile) {
+        double[] sorted = sortedValues();
+        return -Quantiles.tailMean(sorted, sorted.length, tailPercentile);
+    }
+
+    private double[] sortedValues() {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,101 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary layout for scenario vectors:
+ * <pre>
+ * byte version | byte encoding | int count | long firstEpochDay
+ * date gaps    : one unsigned byte per scenario after the first (0 escapes to a 4-byte gap)
+ * values       : count x float32 or float64, little-endian
+ * </pre>
+ * Trading-day gaps are almost always 1-4 days, so dates cost about a byte per scenario.
+ */
+public final class ScenarioVectorCodec {
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + 1 + 4 + 8;
+
+    public enum Encoding {
+        FLOAT32,
+        FLOAT64
+    }
+
+    private ScenarioVectorCodec() {
+    }
+
+    public static byte[] encode(ScenarioVector vector, Encoding encoding) {
+        List<LocalDate> dates = vector.getDates();
+        double[] values = vector.getValues();
+        int count = values.length;
+
+        int gapBytes = 0;
+        for (int i = 1; i < count; i++) {
+            gapBytes += gapWidth(dates.get(i).toEpochDay() - dates.get(i - 1).toEpochDay());
+        }
+        int valueBytes = count * (encoding == Encoding.FLOAT32 ? Float.BYTES : Double.BYTES);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + gapBytes + valueBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VERSION);
+        buffer.put((byte) encoding.ordinal());
+        buffer.putInt(count);
+        buffer.putLong(count > 0 ? dates.get(0).toEpochDay() : 0);
+        for (int i = 1; i < count; i++) {
+            long gap = dates.get(i).toEpochDay() - dates.get(i - 1).toEpochDay();
+            if (gap > 0 && gap < 256) {
+                buffer.put((byte) gap);
+            } else {
+                buffer.put((byte) 0);
+                buffer.putInt((int) gap);
+            }
+        }
+        if (encoding == Encoding.FLOAT32) {
+            for (double value : values) {
+                buffer.putFloat((float) value);
+            }
+        } else {
+            for (double value : values) {
+                buffer.putDouble(value);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static ScenarioVector decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported scenario vector version: " + version);
+        }
+        Encoding encoding = Encoding.values()[buffer.get()];
+        int count = buffer.getInt();
+        long epochDay = buffer.getLong();
+
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                int gap = Byte.toUnsignedInt(buffer.get());
+                epochDay += gap != 0 ? gap : buffer.getInt();
+            }
+            dates.add(LocalDate.ofEpochDay(epochDay));
+        }
+
+        double[] values = new double[count];
+        if (encoding == Encoding.FLOAT32) {
+            for (int i = 0; i < count; i++) {
+                values[i] = buffer.getFloat();
+            }
+        } else {
+            buffer.asDoubleBuffer().get(values);
+        }
+        return new ScenarioVector(dates, values);
+    }
+
+    private static int gapWidth(long gap) {
+        return gap > 0 && gap < 256 ? 1 : 5;
+    }
+}
@@ -0,0 +1,71 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Fixed-size window that keeps its values sorted as they slide, so each step costs one
+ * binary search plus an array shift instead of re-sorting the whole window. Percentiles
+ * follow the same estimator as {@code DescriptiveStatistics.getPercentile}.
+ */
+public class SlidingWindowQuantile {
+
+    private final int capacity;
+    private final double[] sorted;
+    private final ArrayDeque<Double> arrivalOrder;
+    private int size;
+
+    public SlidingWindowQuantile(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.sorted = new double[capacity];
+        this.arrivalOrder = new ArrayDeque<>(capacity);
+    }
+
+    // Adds a value, evicting the oldest one once the window is full; returns the evicted value or NaN
+    public double add(double value) {
+        double evicted = Double.NaN;
+        if (size == capacity) {
+            evicted = arrivalOrder.pollFirst();
+            int index = indexOf(evicted);
+            System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+            size--;
+        }
+        int insertAt = Arrays.binarySearch(sorted, 0, size, value);
+        if (insertAt < 0) {
+            insertAt = -insertAt - 1;
+        }
+        System.arraycopy(sorted, insertAt, sorted, insertAt + 1, size - insertAt);
+        sorted[insertAt] = value;
+        size++;
+        arrivalOrder.addLast(value);
+        return evicted;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // p in (0, 100], matching the commons-math percentile estimator
+    public double percentile(double p) {
+        return Quantiles.percentile(sorted, size, p);
+    }
+
+    public double tailMean(double p) {
+        return Quantiles.tailMean(sorted, size, p);
+    }
+
+    private int indexOf(double value) {
+        int index = Arrays.binarySearch(sorted, 0, size, value);
+        if (index < 0) {
+            throw new IllegalStateException("Window out of sync: evicted value not found");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,249 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.util.Arrays;
+
+/**
+ * Streaming VaR/ES over (optionally likelihood-ratio weighted) losses that keeps only the
+ * worst ones: a min-heap from which the mildest loss is dropped as soon as the losses above
+ * it already carry the tail weight. With unit weights quantiles and tail means at any weight
+ * up to that bound are exact, and memory is proportional to the tail rather than the path count.
+ * <p>
+ * Weighted losses below 1 can fill the tail weight with many more paths than that, so the
+ * count is also capped at twice the tail weight. Reaching the cap at least halves the heap by
+ * merging neighbouring losses into points of about equally many paths, each carrying its total
+ * weight and weighted mean and remembering the range it spans. Tail sums are unchanged by a merge, so the only error is
+ * around the cut-off itself, which {@link #error(double)} bounds from those ranges.
+ * <p>
+ * Per-worker accumulators built with the same bound can be merged, since every loss in the
+ * combined tail is necessarily in the tail of the worker that produced it. Workers may also keep
+ * a smaller bound; the merge is then exact whenever its quantile is at or above every worker's
+ * largest discarded loss.
+ */
+public class TailAccumulator {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private final double tailWeight;
+    private final int maxRetained;
+    private double[] losses = new double[MIN_CAPACITY];
+    private double[] weights = new double[MIN_CAPACITY];
+    // Range of the original losses behind each point; equal to the loss until points are merged
+    private double[] lows = new double[MIN_CAPACITY];
+    private double[] highs = new double[MIN_CAPACITY];
+    // Paths merged into each point
+    private long[] counts = new long[MIN_CAPACITY];
+    private int size;
+    private double retainedWeight;
+    private long retainedCount;
+    private double maxDiscarded = Double.NEGATIVE_INFINITY;
+
+    // tailWeight = widest confidence tail needed, as alpha * total path count (weights average 1)
+    public TailAccumulator(double tailWeight) {
+        this.tailWeight = tailWeight;
+        this.maxRetained = (int) Math.max(MIN_CAPACITY, 2 * Math.ceil(tailWeight) + 2);
+    }
+
+    public void add(double loss, double weight) {
+        add(loss, weight, loss, loss, 1);
+    }
+
+    public void merge(TailAccumulator other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.losses[i], other.weights[i], other.lows[i], other.highs[i], other.counts[i]);
+        }
+        maxDiscarded = Math.max(maxDiscarded, other.maxDiscarded);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Largest loss dropped so far; tails are exact for any merge whose quantile is at or above it
+    public double getMaxDiscarded() {
+        return maxDiscarded;
+    }
+
+    // {quantile, tail mean} of the losses holding the given tail weight, e.g. 0.01 * paths for 99%
+    public double[] tail(double weight) {
+        checkWeight(weight);
+        return tail(weight, losses);
+    }
+
+    // Largest distance from tail(weight) to the true quantile or tail mean of the losses added; 0 until
+    // the count cap forces a merge. The quantile lies between the tails re-read at every point's low
+    // and high end. Points wholly above that band are in the tail either way with their exact sums, so
+    // the tail mean can only be off by the weight left to the points straddling it, times their range
+    public double error(double weight) {
+        checkWeight(weight);
+        if (size == 0) {
+            return 0;
+        }
+        double quantile = tail(weight, losses)[0];
+        double low = tail(weight, lows)[0];
+        double high = tail(weight, highs)[0];
+        double above = 0;
+        double straddleLow = Double.POSITIVE_INFINITY;
+        double straddleHigh = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            if (lows[i] > high) {
+                above += weights[i];
+            } else if (highs[i] >= low) {
+                straddleLow = Math.min(straddleLow, lows[i]);
+                straddleHigh = Math.max(straddleHigh, highs[i]);
+            }
+        }
+        double meanError = straddleHigh > straddleLow
+                ? Math.max(0, weight - above) * (straddleHigh - straddleLow) / weight
+                : 0;
+        return Math.max(Math.max(quantile - low, high - quantile), meanError);
+    }
+
+    private void checkWeight(double weight) {
+        if (weight > tailWeight) {
+            throw new IllegalArgumentException("Tail weight " + weight + " exceeds retained bound " + tailWeight);
+        }
+    }
+
+    private double[] tail(double weight, double[] values) {
+        if (size == 0) {
+            return new double[] { 0, 0 };
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+        double cumulative = 0;
+        double weightedSum = 0;
+        double quantile = values[order[size - 1]];
+        for (int index : order) {
+            if (cumulative + weights[index] >= weight) {
+                weightedSum += (weight - cumulative) * values[index];
+                quantile = values[index];
+                break;
+            }
+            cumulative += weights[index];
+            weightedSum += weights[index] * values[index];
+        }
+        return new double[] { quantile, weightedSum / weight };
+    }
+
+    private void add(double loss, double weight, double low, double high, long count) {
+        if (size == maxRetained) {
+            compact();
+        }
+        if (size == losses.length) {
+            int capacity = Math.min(maxRetained, size * 2);
+            losses = Arrays.copyOf(losses, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (losses[parent] <= loss) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        losses[i] = loss;
+        weights[i] = weight;
+        lows[i] = low;
+        highs[i] = high;
+        counts[i] = count;
+        retainedWeight += weight;
+        retainedCount += count;
+        trim();
+    }
+
+    // Merges neighbouring points in loss order while the merged point stays within a quarter-cap share
+    // of the retained paths, so resolution follows where the paths are, which importance sampling puts
+    // around the 99% tail. Any two consecutive results together exceed that share, which leaves at most
+    // half the cap. The merged means stay in ascending order, and an ascending array is a valid min-heap
+    private void compact() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(losses[a], losses[b]));
+        long share = Math.max(1, retainedCount / (maxRetained / 4));
+        double[] mergedLosses = new double[losses.length];
+        double[] mergedWeights = new double[losses.length];
+        double[] mergedLows = new double[losses.length];
+        double[] mergedHighs = new double[losses.length];
+        long[] mergedCounts = new long[losses.length];
+        int merged = -1;
+        for (int index : order) {
+            if (merged >= 0 && mergedCounts[merged] + counts[index] <= share) {
+                double weight = mergedWeights[merged] + weights[index];
+                if (weight > 0) {
+                    mergedLosses[merged] += (losses[index] - mergedLosses[merged]) * weights[index] / weight;
+                }
+                mergedWeights[merged] = weight;
+                mergedLows[merged] = Math.min(mergedLows[merged], lows[index]);
+                mergedHighs[merged] = Math.max(mergedHighs[merged], highs[index]);
+                mergedCounts[merged] += counts[index];
+                continue;
+            }
+            merged++;
+            mergedLosses[merged] = losses[index];
+            mergedWeights[merged] = weights[index];
+            mergedLows[merged] = lows[index];
+            mergedHighs[merged] = highs[index];
+            mergedCounts[merged] = counts[index];
+        }
+        losses = mergedLosses;
+        weights = mergedWeights;
+        lows = mergedLows;
+        highs = mergedHighs;
+        counts = mergedCounts;
+        size = merged + 1;
+    }
+
+    private void trim() {
+        while (size > 1 && retainedWeight - weights[0] >= tailWeight) {
+            retainedWeight -= weights[0];
+            retainedCount -= counts[0];
+            maxDiscarded = Math.max(maxDiscarded, highs[0]);
+            removeMinimum();
+        }
+    }
+
+    private void removeMinimum() {
+        size--;
+        double loss = losses[size];
+        double weight = weights[size];
+        double low = lows[size];
+        double high = highs[size];
+        long count = counts[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && losses[child + 1] < losses[child]) {
+                child++;
+            }
+            if (loss <= losses[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        losses[i] = loss;
+        weights[i] = weight;
+        lows[i] = low;
+        highs[i] = high;
+        counts[i] = count;
+    }
+
+    private void move(int from, int to) {
+        losses[to] = losses[from];
+        weights[to] = weights[from];
+        lows[to] = lows[from];
+        highs[to] = highs[from];
+        counts[to] = counts[from];
+    }
+}
@@ -0,0 +1,39 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Daily rate of one currency against USD: 1 unit of currency = rateToUsd USD
+@Entity
+@Table(name = "fx_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fx_rates_id_seq")
+    @SequenceGenerator(name = "fx_rates_id_seq", sequenceName = "fx_rates_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String currency;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(name = "rate_to_usd", precision = 19, scale = 8, nullable = false)
+    private BigDecimal rateToUsd;
+
+    // Stamped by the database default, on the same clock as prices.created_at
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
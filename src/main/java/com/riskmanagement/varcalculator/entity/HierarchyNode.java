@@ -0,0 +1,66 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "hierarchy_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HierarchyNode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "node_type", nullable = false)
+    private NodeType nodeType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private HierarchyNode parent;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @OneToMany(mappedBy = "parent", fetch = FetchType.LAZY)
+    @Builder.Default
+    private List<HierarchyNode> children = new ArrayList<>();
+
+    @OneToMany(mappedBy = "hierarchyNode", fetch = FetchType.LAZY)
+    @Builder.Default
+    private List<Portfolio> portfolios = new ArrayList<>();
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum NodeType {
+        FIRM,
+        DIVISION,
+        DESK
+    }
+}
@@ -6,6 +6,8 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +21,8 @@ import java.util.List;
 public class Instrument {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instruments_id_seq")
+    @SequenceGenerator(name = "instruments_id_seq", sequenceName = "instruments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -38,6 +41,31 @@ public class Instrument {
 
     private String currency;
 
+    // Pricing terms for full revaluation; options and bonds without them are treated as linear in their own price.
+    // The underlying is the option's underlying, or for a bond the series of its yield quoted in percent
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "underlying_instrument_id")
+    private Instrument underlying;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "option_type")
+    private OptionType optionType;
+
+    @Column(precision = 19, scale = 6)
+    private BigDecimal strike;
+
+    @Column(name = "maturity_date")
+    private LocalDate maturityDate;
+
+    @Column(name = "implied_volatility", precision = 10, scale = 6)
+    private BigDecimal impliedVolatility;
+
+    @Column(name = "coupon_rate", precision = 10, scale = 6)
+    private BigDecimal couponRate;
+
+    @Column(name = "coupon_frequency")
+    private Integer couponFrequency;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -73,4 +101,9 @@ public class Instrument {
         CURRENCY,
         INDEX
     }
+
+    public enum OptionType {
+        CALL,
+        PUT
+    }
 }
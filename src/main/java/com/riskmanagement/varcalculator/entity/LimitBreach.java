@@ -0,0 +1,79 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "limit_breaches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LimitBreach {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "limit_breaches_id_seq")
+    @SequenceGenerator(name = "limit_breaches_id_seq", sequenceName = "limit_breaches_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "risk_limit_id", nullable = false)
+    private RiskLimit riskLimit;
+
+    // Set for breaches found on a completed risk run, null for hierarchy re-aggregations
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "risk_run_id")
+    private RiskRun riskRun;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope_type", nullable = false)
+    private RiskLimit.ScopeType scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RiskLimit.Metric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Severity severity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Source source;
+
+    @Column(name = "measured_value", precision = 19, scale = 4, nullable = false)
+    private BigDecimal measuredValue;
+
+    @Column(name = "limit_value", precision = 19, scale = 4, nullable = false)
+    private BigDecimal limitValue;
+
+    @Column(name = "utilization", precision = 10, scale = 4, nullable = false)
+    private BigDecimal utilization;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum Severity {
+        WARNING,
+        BREACH
+    }
+
+    public enum Source {
+        RISK_RUN,
+        HIERARCHY_AGGREGATION
+    }
+}
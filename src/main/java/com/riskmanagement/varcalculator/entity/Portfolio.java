@@ -36,6 +36,10 @@ public class Portfolio {
     @Builder.Default
     private PortfolioStatus status = PortfolioStatus.ACTIVE;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hierarchy_node_id")
+    private HierarchyNode hierarchyNode;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Position {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "positions_id_seq")
+    @SequenceGenerator(name = "positions_id_seq", sequenceName = "positions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
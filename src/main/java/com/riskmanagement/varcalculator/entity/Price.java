@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class Price {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prices_id_seq")
+    @SequenceGenerator(name = "prices_id_seq", sequenceName = "prices_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -53,11 +54,7 @@ public class Price {
     @Column(name = "simple_return", precision = 19, scale = 8)
     private BigDecimal simpleReturn;
 
-    @Column(name = "created_at", nullable = false)
+    // Stamped by the database default, so every writer shares the clock LatestPriceIndex follows
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
     private LocalDateTime createdAt;
-
-    @PrePersist
-    protected void onCreate() {
-        createdAt = LocalDateTime.now();
-    }
 }
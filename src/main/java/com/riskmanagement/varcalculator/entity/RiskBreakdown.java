@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class RiskBreakdown {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_breakdowns_id_seq")
+    @SequenceGenerator(name = "risk_breakdowns_id_seq", sequenceName = "risk_breakdowns_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,76 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ceiling on one risk measure of a portfolio or hierarchy node; utilization at or above the
+// warning threshold raises a warning, at or above 1 a breach
+@Entity
+@Table(name = "risk_limits")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RiskLimit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope_type", nullable = false)
+    private ScopeType scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Metric metric;
+
+    @Column(name = "limit_value", precision = 19, scale = 4, nullable = false)
+    private BigDecimal limitValue;
+
+    @Column(name = "warning_threshold", precision = 5, scale = 4, nullable = false)
+    @Builder.Default
+    private BigDecimal warningThreshold = new BigDecimal("0.9");
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum ScopeType {
+        PORTFOLIO,
+        HIERARCHY_NODE
+    }
+
+    public enum Metric {
+        VAR_95,
+        VAR_99,
+        EXPECTED_SHORTFALL_95,
+        EXPECTED_SHORTFALL_99
+    }
+}
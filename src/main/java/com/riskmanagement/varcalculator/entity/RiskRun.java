@@ -21,7 +21,8 @@ import java.util.List;
 public class RiskRun {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_runs_id_seq")
+    @SequenceGenerator(name = "risk_runs_id_seq", sequenceName = "risk_runs_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -59,6 +60,12 @@ public class RiskRun {
     @Column(name = "portfolio_volatility", precision = 10, scale = 6)
     private BigDecimal portfolioVolatility;
 
+    @Column(name = "var_95_standard_error", precision = 19, scale = 4)
+    private BigDecimal var95StandardError;
+
+    @Column(name = "var_99_standard_error", precision = 19, scale = 4)
+    private BigDecimal var99StandardError;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
@@ -94,7 +101,9 @@ public class RiskRun {
     public enum VarMethod {
         HISTORICAL,
         PARAMETRIC,
-        MONTE_CARLO
+        MONTE_CARLO,
+        CORNISH_FISHER,
+        DELTA_GAMMA_NORMAL
     }
 
     public enum RunStatus {
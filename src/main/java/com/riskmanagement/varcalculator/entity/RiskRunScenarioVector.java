@@ -0,0 +1,51 @@
+package com.riskmanagement.varcalculator.entity;
+
+import com.riskmanagement.varcalculator.engine.ScenarioVectorCodec;
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "risk_run_scenario_vectors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RiskRunScenarioVector {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_run_scenario_vectors_id_seq")
+    @SequenceGenerator(name = "risk_run_scenario_vectors_id_seq", sequenceName = "risk_run_scenario_vectors_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "risk_run_id", nullable = false)
+    private RiskRun riskRun;
+
+    // Null for the portfolio-level vector
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instrument_id")
+    private Instrument instrument;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScenarioVectorCodec.Encoding encoding;
+
+    @Column(name = "scenario_count", nullable = false)
+    private Integer scenarioCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
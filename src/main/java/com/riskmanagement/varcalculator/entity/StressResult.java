@@ -0,0 +1,41 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "stress_results")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StressResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stress_results_id_seq")
+    @SequenceGenerator(name = "stress_results_id_seq", sequenceName = "stress_results_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stress_run_id", nullable = false)
+    private StressRun stressRun;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scenario_id", nullable = false)
+    private StressScenario scenario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "portfolio_id", nullable = false)
+    private Portfolio portfolio;
+
+    @Column(name = "profit_and_loss", precision = 19, scale = 4, nullable = false)
+    private BigDecimal profitAndLoss;
+
+    @Column(name = "portfolio_value", precision = 19, scale = 4, nullable = false)
+    private BigDecimal portfolioValue;
+}
@@ -0,0 +1,46 @@
+package com.riskmanagement.varcalculator.entity;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+// Simple return applied to every factor matching the target
+@Entity
+@Table(name = "stress_scenario_shocks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StressScenarioShock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scenario_id", nullable = false)
+    private StressScenario scenario;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false)
+    private TargetType targetType;
+
+    // Symbol, sector, instrument type or currency code; null for ALL
+    @Column(length = 100)
+    private String target;
+
+    @Column(name = "shock", precision = 10, scale = 6, nullable = false)
+    private BigDecimal shock;
+
+    public enum TargetType {
+        ALL,
+        INSTRUMENT_TYPE,
+        SECTOR,
+        INSTRUMENT,
+        CURRENCY
+    }
+}
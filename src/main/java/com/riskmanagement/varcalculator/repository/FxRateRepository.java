@@ -0,0 +1,36 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+
+    @Query("SELECT DISTINCT f.currency FROM FxRate f ORDER BY f.currency")
+    List<String> findAllCurrencies();
+
+    @Query("SELECT f.currency, f.rateDate, f.rateToUsd FROM FxRate f WHERE f.currency IN :currencies " +
+            "AND f.rateDate BETWEEN :startDate AND :endDate ORDER BY f.rateDate")
+    List<Object[]> findRatesByCurrenciesAndDateRange(@Param("currencies") Collection<String> currencies,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT f.rateDate, f.rateToUsd FROM FxRate f WHERE f.currency = :currency ORDER BY f.rateDate")
+    List<Object[]> findRatesByCurrency(@Param("currency") String currency);
+
+    @Query("SELECT f.currency, f.rateDate, f.rateToUsd, f.createdAt FROM FxRate f WHERE f.createdAt > :since " +
+            "ORDER BY f.currency, f.rateDate")
+    List<Object[]> findRatesCreatedAfter(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT DISTINCT ON (currency) currency, rate_to_usd FROM fx_rates " +
+            "WHERE currency IN (:currencies) ORDER BY currency, rate_date DESC", nativeQuery = true)
+    List<Object[]> findLatestRates(@Param("currencies") Collection<String> currencies);
+}
@@ -0,0 +1,23 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HierarchyNodeRepository extends JpaRepository<HierarchyNode, Long> {
+
+    List<HierarchyNode> findByParentId(Long parentId);
+
+    List<HierarchyNode> findByParentIsNull();
+
+    // Flat (id, parentId) pairs so the whole tree can be walked in memory with a single query
+    @Query("SELECT n.id, parent.id FROM HierarchyNode n LEFT JOIN n.parent parent")
+    List<Object[]> findAllParentLinks();
+
+    @Query("SELECT p.id, p.hierarchyNode.id FROM Portfolio p WHERE p.hierarchyNode IS NOT NULL")
+    List<Object[]> findAllPortfolioLinks();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,5 +27,15 @@ public interface InstrumentRepository extends JpaRepository<Instrument, Long> {
     @Query("SELECT i FROM Instrument i WHERE UPPER(i.name) LIKE UPPER(CONCAT('%', :name, '%'))")
     List<Instrument> findByNameContainingIgnoreCase(@Param("name") String name);
 
+    @Query("SELECT i.id FROM Instrument i ORDER BY i.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT DISTINCT i FROM Position p JOIN p.instrument i WHERE p.portfolio.id IN :portfolioIds")
+    List<Instrument> findHeldByPortfolioIds(@Param("portfolioIds") Collection<Long> portfolioIds);
+
+    @Query("SELECT DISTINCT u FROM Position p JOIN p.instrument i JOIN i.underlying u "
+            + "WHERE p.portfolio.id IN :portfolioIds")
+    List<Instrument> findUnderlyingsHeldByPortfolioIds(@Param("portfolioIds") Collection<Long> portfolioIds);
+
     boolean existsBySymbol(String symbol);
 }
@@ -0,0 +1,23 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LimitBreachRepository extends JpaRepository<LimitBreach, Long> {
+
+    @Query("SELECT b FROM LimitBreach b WHERE b.scopeType = :scopeType AND b.scopeId = :scopeId " +
+            "ORDER BY b.createdAt DESC")
+    List<LimitBreach> findRecentByScope(@Param("scopeType") RiskLimit.ScopeType scopeType,
+            @Param("scopeId") Long scopeId, Pageable pageable);
+
+    @Query("SELECT b FROM LimitBreach b ORDER BY b.createdAt DESC")
+    List<LimitBreach> findRecent(Pageable pageable);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,5 +24,14 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     @Query("SELECT p FROM Portfolio p LEFT JOIN FETCH p.riskRuns WHERE p.id = :id")
     Optional<Portfolio> findByIdWithRiskRuns(@Param("id") Long id);
 
+    @Query("SELECT DISTINCT p FROM Portfolio p LEFT JOIN FETCH p.positions pos LEFT JOIN FETCH pos.instrument " +
+            "WHERE p.id IN :ids")
+    List<Portfolio> findByIdsWithPositions(@Param("ids") Collection<Long> ids);
+
+    List<Portfolio> findByHierarchyNodeId(Long hierarchyNodeId);
+
+    @Query("SELECT DISTINCT p.baseCurrency FROM Portfolio p WHERE p.id IN :ids")
+    List<String> findBaseCurrencies(@Param("ids") Collection<Long> ids);
+
     boolean existsByName(String name);
 }
@@ -2,16 +2,34 @@ package com.riskmanagement.varcalculator.repository;
 
 import com.riskmanagement.varcalculator.entity.Position;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PositionRepository extends JpaRepository<Position, Long> {
 
+    // Each position's value in USD at the latest FX rate; instruments without a currency take the portfolio's
+    String VALUED_POSITIONS = "SELECT p.id, p.portfolio_id, p.market_value * CASE WHEN c.currency = 'USD' " +
+            "THEN 1 ELSE fx.rate_to_usd END AS usd_value FROM positions p " +
+            "JOIN instruments i ON i.id = p.instrument_id JOIN portfolios pf ON pf.id = p.portfolio_id " +
+            "CROSS JOIN LATERAL (SELECT COALESCE(NULLIF(TRIM(i.currency), ''), pf.base_currency) AS currency) c " +
+            "LEFT JOIN LATERAL (SELECT f.rate_to_usd FROM fx_rates f WHERE f.currency = c.currency " +
+            "ORDER BY f.rate_date DESC LIMIT 1) fx ON TRUE";
+
+    // Weight = share of the portfolio's total value in a common currency; left empty when it is undefined
+    String WEIGHT = "CASE WHEN t.total <> 0 AND ABS(v.usd_value / t.total) < 10000 " +
+            "THEN ROUND(v.usd_value / t.total, 6) END";
+
+    String UPDATE_WEIGHTS = "UPDATE positions p SET weight = " + WEIGHT + " FROM valued v " +
+            "JOIN (SELECT portfolio_id, SUM(usd_value) AS total FROM valued GROUP BY portfolio_id) t " +
+            "ON t.portfolio_id = v.portfolio_id WHERE p.id = v.id AND p.weight IS DISTINCT FROM " + WEIGHT;
+
     List<Position> findByPortfolioId(Long portfolioId);
 
     List<Position> findByInstrumentId(Long instrumentId);
@@ -27,8 +45,30 @@ public interface PositionRepository extends JpaRepository<Position, Long> {
     @Query("SELECT COUNT(p) FROM Position p WHERE p.portfolio.id = :portfolioId AND p.quantity > 0")
     long countActivePositionsByPortfolioId(@Param("portfolioId") Long portfolioId);
 
+    @Query("SELECT COUNT(p) FROM Position p WHERE p.portfolio.id IN :portfolioIds")
+    long countByPortfolioIds(@Param("portfolioIds") Collection<Long> portfolioIds);
+
     @Query("SELECT SUM(p.marketValue) FROM Position p WHERE p.portfolio.id = :portfolioId")
     Double getTotalMarketValueByPortfolioId(@Param("portfolioId") Long portfolioId);
 
+    // Revalues every position at its instrument's latest close in one statement; untouched if already current
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE positions p SET market_value = ROUND(p.quantity * lp.close, 4), updated_at = now() " +
+            "FROM (SELECT DISTINCT instrument_id FROM positions) held " +
+            "CROSS JOIN LATERAL (SELECT pr.close FROM prices pr WHERE pr.instrument_id = held.instrument_id " +
+            "ORDER BY pr.price_date DESC LIMIT 1) lp " +
+            "WHERE p.instrument_id = held.instrument_id " +
+            "AND p.market_value IS DISTINCT FROM ROUND(p.quantity * lp.close, 4)", nativeQuery = true)
+    int markToMarket();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH valued AS (" + VALUED_POSITIONS + ") " + UPDATE_WEIGHTS, nativeQuery = true)
+    int updateWeights();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH valued AS (" + VALUED_POSITIONS + " WHERE p.portfolio_id = :portfolioId) " + UPDATE_WEIGHTS,
+            nativeQuery = true)
+    int updateWeightsByPortfolioId(@Param("portfolioId") Long portfolioId);
+
     boolean existsByPortfolioIdAndInstrumentId(Long portfolioId, Long instrumentId);
 }
@@ -6,7 +6,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,8 +44,40 @@ public interface PriceRepository extends JpaRepository<Price, Long> {
         List<Price> findByInstrumentIdsAndDate(@Param("instrumentIds") List<Long> instrumentIds,
                         @Param("date") LocalDate date);
 
+        @Query("SELECT p.instrument.id, p.priceDate, p.close FROM Price p WHERE p.instrument.id IN :instrumentIds " +
+                        "AND p.priceDate BETWEEN :startDate AND :endDate ORDER BY p.priceDate")
+        List<Object[]> findClosesByInstrumentIdsAndDateRange(@Param("instrumentIds") Collection<Long> instrumentIds,
+                        @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate);
+
+        @Query("SELECT p.priceDate, p.close FROM Price p WHERE p.instrument.id = :instrumentId " +
+                        "ORDER BY p.priceDate")
+        List<Object[]> findClosesByInstrumentId(@Param("instrumentId") Long instrumentId);
+
+        @Query("SELECT p.instrument.id, p.priceDate, p.close, p.createdAt FROM Price p WHERE p.createdAt > :since " +
+                        "ORDER BY p.instrument.id, p.priceDate")
+        List<Object[]> findClosesCreatedAfter(@Param("since") LocalDateTime since);
+
+        // The database clock, on the same scale as the created_at it stamps on inserted rows
+        @Query(value = "SELECT CAST(CURRENT_TIMESTAMP AS TIMESTAMP)", nativeQuery = true)
+        Timestamp currentTimestamp();
+
+        @Query("SELECT p.instrument.id, p.priceDate, p.close FROM Price p WHERE p.instrument.id IN :instrumentIds " +
+                        "AND p.priceDate = (SELECT MAX(q.priceDate) FROM Price q WHERE q.instrument = p.instrument)")
+        List<Object[]> findLatestClosesByInstrumentIds(@Param("instrumentIds") Collection<Long> instrumentIds);
+
+        @Query("SELECT p.instrument.id, p.priceDate, p.close FROM Price p " +
+                        "WHERE p.priceDate = (SELECT MAX(q.priceDate) FROM Price q WHERE q.instrument = p.instrument)")
+        List<Object[]> findAllLatestCloses();
+
         boolean existsByInstrumentIdAndPriceDate(Long instrumentId, LocalDate priceDate);
 
         @Query("SELECT COUNT(p) FROM Price p WHERE p.instrument.id = :instrumentId")
         long countByInstrumentId(@Param("instrumentId") Long instrumentId);
+
+        @Query(value = "SELECT create_price_partition(:year)", nativeQuery = true)
+        boolean createPartition(@Param("year") int year);
+
+        @Query(value = "SELECT archive_price_partitions(:beforeYear, CAST(:tablespace AS TEXT))", nativeQuery = true)
+        int archivePartitions(@Param("beforeYear") int beforeYear, @Param("tablespace") String tablespace);
 }
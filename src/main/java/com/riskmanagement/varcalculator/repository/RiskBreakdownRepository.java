@@ -3,10 +3,13 @@ package com.riskmanagement.varcalculator.repository;
 import com.riskmanagement.varcalculator.entity.RiskBreakdown;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface RiskBreakdownRepository extends JpaRepository<RiskBreakdown, Long> {
@@ -28,4 +31,12 @@ public interface RiskBreakdownRepository extends JpaRepository<RiskBreakdown, Lo
             "ORDER BY rb.contributionPercentage DESC")
     List<RiskBreakdown> findSignificantContributors(@Param("riskRunId") Long riskRunId,
             @Param("minContribution") Double minContribution);
+
+    // Report rows as scalars (no managed entities), read from a cursor in fetch-size chunks
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i.symbol, i.name, rb.positionValue, rb.weight, rb.marginalVar, rb.componentVar, " +
+            "rb.individualVar, rb.volatility, rb.contributionPercentage " +
+            "FROM RiskBreakdown rb JOIN rb.instrument i WHERE rb.riskRun.id = :riskRunId " +
+            "ORDER BY rb.contributionPercentage DESC NULLS LAST, i.symbol")
+    Stream<Object[]> streamReportRows(@Param("riskRunId") Long riskRunId);
 }
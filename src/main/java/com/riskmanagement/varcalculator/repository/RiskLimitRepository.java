@@ -0,0 +1,19 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RiskLimitRepository extends JpaRepository<RiskLimit, Long> {
+
+    List<RiskLimit> findByActiveTrue();
+
+    List<RiskLimit> findByScopeTypeAndScopeIdAndActiveTrue(RiskLimit.ScopeType scopeType, Long scopeId);
+
+    Optional<RiskLimit> findByScopeTypeAndScopeIdAndMetricAndActiveTrue(RiskLimit.ScopeType scopeType, Long scopeId,
+            RiskLimit.Metric metric);
+}
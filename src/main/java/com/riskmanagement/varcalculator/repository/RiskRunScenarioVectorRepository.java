@@ -0,0 +1,37 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.RiskRunScenarioVector;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RiskRunScenarioVectorRepository extends JpaRepository<RiskRunScenarioVector, Long> {
+
+    // Raw (riskRunId, data) pairs; skips entity hydration when thousands of vectors are read at once
+    @Query("SELECT v.riskRun.id, v.data FROM RiskRunScenarioVector v " +
+            "WHERE v.riskRun.id IN :riskRunIds AND v.instrument IS NULL")
+    List<Object[]> findPortfolioVectorData(@Param("riskRunIds") Collection<Long> riskRunIds);
+
+    @Query("SELECT v.instrument.id, v.data FROM RiskRunScenarioVector v " +
+            "WHERE v.riskRun.id = :riskRunId AND v.instrument IS NOT NULL")
+    List<Object[]> findInstrumentVectorData(@Param("riskRunId") Long riskRunId);
+
+    // Latest completed historical run per portfolio for a run date, ignoring runs older than the
+    // portfolio's last position change
+    @Query(value = "SELECT DISTINCT ON (r.portfolio_id) r.portfolio_id, v.data FROM risk_runs r " +
+            "JOIN risk_run_scenario_vectors v ON v.risk_run_id = r.id AND v.instrument_id IS NULL " +
+            "WHERE r.portfolio_id IN (:portfolioIds) AND r.status = 'COMPLETED' " +
+            "AND r.var_method = 'HISTORICAL' AND r.window_size = :windowSize AND r.run_date = :runDate " +
+            "AND r.created_at >= COALESCE((SELECT MAX(p.updated_at) FROM positions p " +
+            "WHERE p.portfolio_id = r.portfolio_id), r.created_at) " +
+            "ORDER BY r.portfolio_id, r.created_at DESC", nativeQuery = true)
+    List<Object[]> findLatestPortfolioVectorData(@Param("portfolioIds") Collection<Long> portfolioIds,
+            @Param("windowSize") int windowSize,
+            @Param("runDate") LocalDate runDate);
+}
@@ -0,0 +1,29 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.StressResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StressResultRepository extends JpaRepository<StressResult, Long> {
+
+    // (scenario id, scenario name, P&L, portfolio value), worst scenario first
+    @Query("SELECT s.id, s.name, r.profitAndLoss, r.portfolioValue FROM StressResult r JOIN r.scenario s " +
+            "WHERE r.stressRun.id = :stressRunId AND r.portfolio.id = :portfolioId ORDER BY r.profitAndLoss")
+    List<Object[]> findPortfolioResults(@Param("stressRunId") Long stressRunId,
+            @Param("portfolioId") Long portfolioId);
+
+    // (scenario id, scenario name, total P&L, worst P&L) across all portfolios of a run
+    @Query("SELECT s.id, s.name, SUM(r.profitAndLoss), MIN(r.profitAndLoss) FROM StressResult r JOIN r.scenario s " +
+            "WHERE r.stressRun.id = :stressRunId GROUP BY s.id, s.name ORDER BY SUM(r.profitAndLoss)")
+    List<Object[]> summarizeByScenario(@Param("stressRunId") Long stressRunId);
+
+    // (scenario id, portfolio id) of each scenario's worst-hit portfolio in a run
+    @Query(value = "SELECT DISTINCT ON (scenario_id) scenario_id, portfolio_id FROM stress_results " +
+            "WHERE stress_run_id = :stressRunId ORDER BY scenario_id, profit_and_loss", nativeQuery = true)
+    List<Object[]> findWorstPortfolios(@Param("stressRunId") Long stressRunId);
+}
@@ -0,0 +1,14 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.StressRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StressRunRepository extends JpaRepository<StressRun, Long> {
+
+    Optional<StressRun> findTopByStatusOrderByIdDesc(RiskRun.RunStatus status);
+}
@@ -0,0 +1,25 @@
+package com.riskmanagement.varcalculator.repository;
+
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StressScenarioRepository extends JpaRepository<StressScenario, Long> {
+
+    @Query("SELECT DISTINCT s FROM StressScenario s LEFT JOIN FETCH s.shocks WHERE s.active = true ORDER BY s.id")
+    List<StressScenario> findActiveWithShocks();
+
+    @Query("SELECT DISTINCT s FROM StressScenario s LEFT JOIN FETCH s.shocks ORDER BY s.id")
+    List<StressScenario> findAllWithShocks();
+
+    @Query("SELECT MIN(s.startDate) FROM StressScenario s WHERE s.active = true AND s.scenarioType = :scenarioType")
+    LocalDate findEarliestActiveStartDate(@Param("scenarioType") StressScenario.ScenarioType scenarioType);
+
+    boolean existsByName(String name);
+}
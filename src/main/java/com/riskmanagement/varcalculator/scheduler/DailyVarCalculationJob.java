@@ -0,0 +1,90 @@
+package com.riskmanagement.varcalculator.scheduler;
+
+import com.riskmanagement.varcalculator.dto.request.BatchRiskRequest;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResponse;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResultResponse;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.service.BatchRiskService;
+import com.riskmanagement.varcalculator.service.ComputeScheduler;
+import com.riskmanagement.varcalculator.service.RiskReportBatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DailyVarCalculationJob {
+
+    private final PortfolioRepository portfolioRepository;
+    private final BatchRiskService batchRiskService;
+    private final ComputeScheduler computeScheduler;
+    private final RiskReportBatchService riskReportBatchService;
+
+    @Value("${var-calculator.scheduler.daily-var-calculation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${var-calculator.var.default-window-size:252}")
+    private int windowSize;
+
+    @Value("${var-calculator.reports.nightly:true}")
+    private boolean nightlyReports;
+
+    // Nightly historical VaR for every active portfolio as one batch, admitted like any other batch job
+    @Scheduled(cron = "${var-calculator.scheduler.daily-var-calculation.cron:0 0 6 * * MON-FRI}",
+            zone = "${var-calculator.scheduler.daily-var-calculation.timezone:America/New_York}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> portfolioIds = portfolioRepository.findByStatus(Portfolio.PortfolioStatus.ACTIVE).stream()
+                .map(Portfolio::getId)
+                .collect(Collectors.toList());
+        if (portfolioIds.isEmpty()) {
+            log.info("Daily VaR calculation skipped: no active portfolios");
+            return;
+        }
+
+        BatchRiskRequest request = new BatchRiskRequest();
+        request.setPortfolioIds(portfolioIds);
+        request.setVarMethod(RiskRun.VarMethod.HISTORICAL);
+        request.setWindowSize(windowSize);
+
+        BatchRiskResponse response;
+        try {
+            response = computeScheduler.run(ComputeScheduler.SCHEDULER_TENANT, ComputeScheduler.Lane.BATCH,
+                    computeScheduler.estimateCost(request), () -> batchRiskService.runBatch(request));
+            log.info("Daily VaR calculation finished: {} completed, {} failed", response.getCompletedCount(),
+                    response.getFailedCount());
+        } catch (RuntimeException e) {
+            log.error("Daily VaR calculation failed", e);
+            return;
+        }
+
+        if (nightlyReports) {
+            generateReports(response);
+        }
+    }
+
+    // Reports for the runs just completed, then removal of those past retention
+    private void generateReports(BatchRiskResponse response) {
+        List<Long> riskRunIds = response.getResults().stream()
+                .filter(result -> result.getStatus() == RiskRun.RunStatus.COMPLETED)
+                .map(BatchRiskResultResponse::getRiskRunId)
+                .collect(Collectors.toList());
+        try {
+            riskReportBatchService.generateReports(riskRunIds, response.getRunDate());
+        } catch (RuntimeException e) {
+            log.error("Daily report generation failed", e);
+        }
+        riskReportBatchService.deleteExpiredReports();
+    }
+}
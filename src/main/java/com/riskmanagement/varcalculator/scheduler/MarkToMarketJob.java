@@ -0,0 +1,47 @@
+package com.riskmanagement.varcalculator.scheduler;
+
+import com.riskmanagement.varcalculator.service.PositionService;
+import com.riskmanagement.varcalculator.store.LatestPriceIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarkToMarketJob {
+
+    private final LatestPriceIndex latestPriceIndex;
+    private final PositionService positionService;
+
+    @Value("${var-calculator.scheduler.mark-to-market.enabled:false}")
+    private boolean enabled;
+
+    // The first run revalues everything, catching up on prices that landed while the service was down
+    private boolean caughtUp;
+
+    // Polls for newly landed prices and, when any latest close moved, revalues all positions in bulk
+    @Scheduled(fixedDelayString = "${var-calculator.scheduler.mark-to-market.interval-ms:60000}",
+            initialDelayString = "${var-calculator.scheduler.mark-to-market.initial-delay-ms:10000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Set<Long> updated = latestPriceIndex.refresh();
+            if (updated.isEmpty() && caughtUp) {
+                return;
+            }
+            log.info("Latest prices moved for {} instruments, marking positions to market", updated.size());
+            positionService.markToMarket();
+            caughtUp = true;
+        } catch (RuntimeException e) {
+            log.error("Mark-to-market revaluation failed", e);
+        }
+    }
+}
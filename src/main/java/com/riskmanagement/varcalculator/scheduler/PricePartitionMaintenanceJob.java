@@ -0,0 +1,35 @@
+package com.riskmanagement.varcalculator.scheduler;
+
+import com.riskmanagement.varcalculator.service.PricePartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricePartitionMaintenanceJob {
+
+    private final PricePartitionService pricePartitionService;
+
+    @Value("${var-calculator.scheduler.price-partition-maintenance.enabled:false}")
+    private boolean enabled;
+
+    // Monthly, well ahead of the year boundary, so new-year prices never land in the default partition
+    @Scheduled(cron = "${var-calculator.scheduler.price-partition-maintenance.cron:0 30 2 1 * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            pricePartitionService.maintainPartitions(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Price partition maintenance failed", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.riskmanagement.varcalculator.scheduler;
+
+import com.riskmanagement.varcalculator.dto.request.StressTestRequest;
+import com.riskmanagement.varcalculator.dto.response.StressRunResponse;
+import com.riskmanagement.varcalculator.service.ComputeScheduler;
+import com.riskmanagement.varcalculator.service.StressTestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StressTestJob {
+
+    private final StressTestService stressTestService;
+    private final ComputeScheduler computeScheduler;
+
+    @Value("${var-calculator.scheduler.stress-test.enabled:false}")
+    private boolean enabled;
+
+    // Nightly run of the whole scenario library over every active portfolio
+    @Scheduled(cron = "${var-calculator.scheduler.stress-test.cron:0 30 6 * * MON-FRI}",
+            zone = "${var-calculator.scheduler.stress-test.timezone:America/New_York}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            StressTestRequest request = new StressTestRequest();
+            StressRunResponse response = computeScheduler.run(ComputeScheduler.SCHEDULER_TENANT,
+                    ComputeScheduler.Lane.BATCH, computeScheduler.estimateCost(request),
+                    () -> stressTestService.runStressTests(request));
+            log.info("Nightly stress run {} finished: {} scenarios x {} portfolios", response.getId(),
+                    response.getScenarioCount(), response.getPortfolioCount());
+        } catch (RuntimeException e) {
+            log.error("Nightly stress run failed", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.BacktestRequest;
+import com.riskmanagement.varcalculator.dto.response.BacktestObservationResponse;
+import com.riskmanagement.varcalculator.dto.response.BacktestResponse;
+import com.riskmanagement.varcalculator.engine.BacktestStatistics;
+import com.riskmanagement.varcalculator.engine.ProfitAndLossSeries;
+import com.riskmanagement.varcalculator.engine.SlidingWindowQuantile;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class BacktestService {
+
+    private final PortfolioRepository portfolioRepository;
+    private final RiskRunRepository riskRunRepository;
+    private final MarketDataService marketDataService;
+
+    public BacktestResponse backtest(Long portfolioId, BacktestRequest request) {
+        log.info("Starting {} backtest for portfolio {} from {} to {}", request.getSource(), portfolioId,
+                request.getStartDate(), request.getEndDate());
+
+        long startTime = System.currentTimeMillis();
+
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        Portfolio portfolio = portfolioRepository.findByIdWithPositions(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
+        List<Position> positions = portfolio.getPositions();
+
+        if (positions.isEmpty()) {
+            throw new RuntimeException("Portfolio has no positions");
+        }
+
+        LocalDate loadStart = MarketDataService.lookbackStart(request.getStartDate(), request.getWindowSize() + 1);
+        ProfitAndLossSeries series = marketDataService.loadProfitAndLoss(positions, portfolio.getBaseCurrency(),
+                loadStart, request.getEndDate());
+
+        List<Observation> observations = request.getSource() == BacktestRequest.Source.STORED_RUNS
+                ? storedRunObservations(portfolioId, request, series.dates(), series.profitAndLoss())
+                : rollingObservations(request, series.dates(), series.profitAndLoss());
+
+        BacktestResponse response = summarize(portfolioId, request, observations);
+        response.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+
+        log.info("Backtest for portfolio {} completed: {} exceptions in {} observations ({}) in {} ms", portfolioId,
+                response.getExceptionCount(), response.getObservationCount(), response.getTrafficLight(),
+                response.getExecutionTimeMs());
+
+        return response;
+    }
+
+    // One pass over the P&L series; the window slides instead of being re-sorted for every day
+    private List<Observation> rollingObservations(BacktestRequest request, List<LocalDate> dates,
+            double[] profitAndLoss) {
+        double tailPercentile = tailPercentile(request);
+        SlidingWindowQuantile window = new SlidingWindowQuantile(request.getWindowSize());
+        List<Observation> observations = new ArrayList<>();
+
+        for (int day = 0; day < profitAndLoss.length; day++) {
+            LocalDate date = dates.get(day);
+            if (window.isFull() && !date.isBefore(request.getStartDate()) && !date.isAfter(request.getEndDate())) {
+                double var = -window.percentile(tailPercentile);
+                double expectedShortfall = -window.tailMean(tailPercentile);
+                observations.add(new Observation(date, var, expectedShortfall, profitAndLoss[day]));
+            }
+            window.add(profitAndLoss[day]);
+        }
+
+        if (observations.isEmpty()) {
+            throw new RuntimeException("Insufficient historical data for backtest");
+        }
+        return observations;
+    }
+
+    private List<Observation> storedRunObservations(Long portfolioId, BacktestRequest request, List<LocalDate> dates,
+            double[] profitAndLoss) {
+        boolean use99 = request.getConfidenceLevel().compareTo(new BigDecimal("0.99")) == 0;
+        if (!use99 && request.getConfidenceLevel().compareTo(new BigDecimal("0.95")) != 0) {
+            throw new IllegalArgumentException("Stored runs only carry 95% and 99% VaR");
+        }
+
+        List<RiskRun> runs = riskRunRepository.findByPortfolioIdAndDateRange(portfolioId, request.getStartDate(),
+                request.getEndDate());
+
+        // Runs come newest first; keep the latest completed run per run date
+        Set<LocalDate> seen = new HashSet<>();
+        List<Observation> observations = new ArrayList<>();
+        for (RiskRun run : runs) {
+            BigDecimal var = use99 ? run.getVar99() : run.getVar95();
+            BigDecimal expectedShortfall = use99 ? run.getExpectedShortfall99() : run.getExpectedShortfall95();
+            if (run.getStatus() != RiskRun.RunStatus.COMPLETED || var == null || !seen.add(run.getRunDate())) {
+                continue;
+            }
+            // A run dated D predicts the loss realised on the next trading day after D
+            int next = Collections.binarySearch(dates, run.getRunDate().plusDays(1));
+            if (next < 0) {
+                next = -next - 1;
+            }
+            if (next < profitAndLoss.length) {
+                observations.add(new Observation(dates.get(next), var.doubleValue(),
+                        expectedShortfall != null ? expectedShortfall.doubleValue() : Double.NaN,
+                        profitAndLoss[next]));
+            }
+        }
+
+        if (observations.isEmpty()) {
+            throw new RuntimeException("No completed risk runs with realised P&L in the requested range");
+        }
+        observations.sort(Comparator.comparing(Observation::date));
+        return observations;
+    }
+
+    private BacktestResponse summarize(Long portfolioId, BacktestRequest request, List<Observation> observations) {
+        double expectedRate = 1 - request.getConfidenceLevel().doubleValue();
+        int count = observations.size();
+        boolean[] exceptions = new boolean[count];
+        int exceptionCount = 0;
+        for (int i = 0; i < count; i++) {
+            exceptions[i] = observations.get(i).isException();
+            if (exceptions[i]) {
+                exceptionCount++;
+            }
+        }
+
+        double kupiec = BacktestStatistics.kupiecStatistic(count, exceptionCount, expectedRate);
+        double christoffersen = BacktestStatistics.christoffersenStatistic(exceptions);
+        double conditionalCoverage = kupiec + christoffersen;
+
+        BacktestResponse.BacktestResponseBuilder builder = BacktestResponse.builder()
+                .portfolioId(portfolioId)
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .confidenceLevel(request.getConfidenceLevel())
+                .windowSize(request.getWindowSize())
+                .source(request.getSource())
+                .observationCount(count)
+                .exceptionCount(exceptionCount)
+                .expectedExceptions(scale(count * expectedRate, 4))
+                .exceptionRate(scale((double) exceptionCount / count, 6))
+                .kupiecStatistic(scale(kupiec, 6))
+                .kupiecPValue(scale(BacktestStatistics.pValue(kupiec, 1), 6))
+                .christoffersenStatistic(scale(christoffersen, 6))
+                .christoffersenPValue(scale(BacktestStatistics.pValue(christoffersen, 1), 6))
+                .conditionalCoverageStatistic(scale(conditionalCoverage, 6))
+                .conditionalCoveragePValue(scale(BacktestStatistics.pValue(conditionalCoverage, 2), 6))
+                .trafficLight(BacktestStatistics.trafficLight(count, exceptionCount, expectedRate));
+
+        if (request.isIncludeObservations()) {
+            builder.observations(observations.stream()
+                    .map(observation -> BacktestObservationResponse.builder()
+                            .date(observation.date())
+                            .var(scale(observation.var(), 4))
+                            .expectedShortfall(Double.isNaN(observation.expectedShortfall()) ? null
+                                    : scale(observation.expectedShortfall(), 4))
+                            .profitAndLoss(scale(observation.profitAndLoss(), 4))
+                            .exception(observation.isException())
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+
+        return builder.build();
+    }
+
+    private static double tailPercentile(BacktestRequest request) {
+        return (1 - request.getConfidenceLevel().doubleValue()) * 100;
+    }
+
+    private static BigDecimal scale(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private record Observation(LocalDate date, double var, double expectedShortfall, double profitAndLoss) {
+
+        boolean isException() {
+            return profitAndLoss < -var;
+        }
+    }
+}
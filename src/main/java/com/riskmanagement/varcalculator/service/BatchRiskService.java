@@ -0,0 +1,225 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.BatchRiskRequest;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResponse;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResultResponse;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.RiskMeasures;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class BatchRiskService {
+
+    private final PortfolioRepository portfolioRepository;
+    private final RiskRunRepository riskRunRepository;
+    private final MarketDataService marketDataService;
+    private final InstrumentPricingService instrumentPricingService;
+    private final ScenarioVectorStore scenarioVectorStore;
+    private final RiskEventPublisher riskEventPublisher;
+    private final RiskLimitService riskLimitService;
+    private final NodeLimitMonitor nodeLimitMonitor;
+
+    // All portfolios share one return load and one scenarios x instruments by instruments x portfolios product
+    public BatchRiskResponse runBatch(BatchRiskRequest request) {
+        log.info("Starting batch {} VaR for {} portfolios", request.getVarMethod(), request.getPortfolioIds().size());
+
+        long startTime = System.currentTimeMillis();
+
+        if (request.getVarMethod() != RiskRun.VarMethod.HISTORICAL
+                && request.getVarMethod() != RiskRun.VarMethod.PARAMETRIC
+                && request.getVarMethod() != RiskRun.VarMethod.CORNISH_FISHER) {
+            throw new IllegalArgumentException("Unsupported VaR method for batch runs: " + request.getVarMethod());
+        }
+
+        Map<Long, Portfolio> portfolios = portfolioRepository.findByIdsWithPositions(request.getPortfolioIds())
+                .stream()
+                .collect(Collectors.toMap(Portfolio::getId, Function.identity()));
+        List<Long> portfolioIds = request.getPortfolioIds().stream().distinct().collect(Collectors.toList());
+
+        Set<Long> factorIds = new LinkedHashSet<>();
+        for (Portfolio portfolio : portfolios.values()) {
+            factorIds.addAll(instrumentPricingService.riskFactorIds(portfolio.getPositions(),
+                    portfolio.getBaseCurrency()));
+        }
+
+        LocalDate runDate = LocalDate.now();
+        LocalDate endDate = runDate.minusDays(1);
+        ReturnMatrix returnMatrix = marketDataService.loadReturnMatrix(factorIds,
+                MarketDataService.lookbackStart(endDate, request.getWindowSize() + 1), endDate)
+                .lastRows(request.getWindowSize());
+
+        // Instruments x portfolios exposure matrix, row-major. Books holding options or priced bonds are fully
+        // revalued on their own, exactly as a single run would, and left out of the shared product
+        int portfolioCount = portfolioIds.size();
+        double[] exposureMatrix = new double[returnMatrix.columns() * portfolioCount];
+        double[] portfolioValues = new double[portfolioCount];
+        double[][] revalued = new double[portfolioCount][];
+        for (int p = 0; p < portfolioCount; p++) {
+            Portfolio portfolio = portfolios.get(portfolioIds.get(p));
+            if (portfolio == null) {
+                continue;
+            }
+            ScenarioRevaluation revaluation = instrumentPricingService.revaluation(returnMatrix,
+                    portfolio.getPositions(), portfolio.getBaseCurrency(), ScenarioRevaluation.Mode.FULL, runDate);
+            if (revaluation.isLinear()) {
+                double[] exposures = revaluation.getLinearExposures();
+                for (int c = 0; c < exposures.length; c++) {
+                    exposureMatrix[c * portfolioCount + p] = exposures[c];
+                }
+            } else {
+                revalued[p] = revaluation.profitAndLoss(returnMatrix);
+            }
+            portfolioValues[p] = marketDataService.valueInBaseCurrency(portfolio.getPositions(),
+                    portfolio.getBaseCurrency());
+        }
+
+        double[] profitAndLoss = returnMatrix.multiply(exposureMatrix, portfolioCount);
+
+        List<RiskRun> runs = new ArrayList<>(portfolioCount);
+        List<Integer> runColumns = new ArrayList<>(portfolioCount);
+        List<BatchRiskResultResponse> results = new ArrayList<>(portfolioCount);
+        for (int p = 0; p < portfolioCount; p++) {
+            Long portfolioId = portfolioIds.get(p);
+            Portfolio portfolio = portfolios.get(portfolioId);
+            String error = validate(portfolio, portfolioValues[p], returnMatrix.rows(), request.getWindowSize());
+            if (error != null) {
+                results.add(BatchRiskResultResponse.builder()
+                        .portfolioId(portfolioId)
+                        .status(RiskRun.RunStatus.FAILED)
+                        .errorMessage(error)
+                        .build());
+                riskEventPublisher.failed(portfolioId, request.getVarMethod(), error);
+                continue;
+            }
+
+            double[] portfolioProfitAndLoss = revalued[p] != null ? revalued[p]
+                    : column(profitAndLoss, portfolioCount, p);
+            RiskMeasures measures = measure(request.getVarMethod(), portfolioProfitAndLoss, portfolioValues[p]);
+
+            RiskRun run = RiskRun.builder()
+                    .portfolio(portfolio)
+                    .runDate(runDate)
+                    .varMethod(request.getVarMethod())
+                    .confidenceLevel(new BigDecimal("0.95"))
+                    .windowSize(request.getWindowSize())
+                    .portfolioValue(scale(portfolioValues[p], 4))
+                    .var95(scale(measures.var95(), 4))
+                    .var99(scale(measures.var99(), 4))
+                    .expectedShortfall95(scale(measures.expectedShortfall95(), 4))
+                    .expectedShortfall99(scale(measures.expectedShortfall99(), 4))
+                    .portfolioVolatility(scale(measures.volatility(), 6))
+                    .status(RiskRun.RunStatus.COMPLETED)
+                    .build();
+            runs.add(run);
+            runColumns.add(p);
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        runs.forEach(run -> run.setExecutionTimeMs(elapsed));
+        riskRunRepository.saveAll(runs);
+
+        for (int i = 0; i < runs.size(); i++) {
+            RiskRun run = runs.get(i);
+            if (scenarioVectorStore.isEnabled()) {
+                int p = runColumns.get(i);
+                scenarioVectorStore.save(run, new ScenarioVector(returnMatrix.getDates(),
+                        revalued[p] != null ? revalued[p] : column(profitAndLoss, portfolioCount, p)), Map.of());
+            }
+            results.add(mapToResult(run));
+            riskLimitService.evaluateRun(run);
+            riskEventPublisher.completed(run);
+        }
+        nodeLimitMonitor.checkAncestorsAfterCommit(runs);
+
+        BatchRiskResponse response = BatchRiskResponse.builder()
+                .runDate(runDate)
+                .varMethod(request.getVarMethod())
+                .windowSize(request.getWindowSize())
+                .portfolioCount(portfolioCount)
+                .instrumentCount(returnMatrix.columns())
+                .scenarioCount(returnMatrix.rows())
+                .completedCount(runs.size())
+                .failedCount(portfolioCount - runs.size())
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .results(results)
+                .build();
+
+        log.info("Batch VaR completed for {} of {} portfolios over {} instruments in {} ms",
+                response.getCompletedCount(), portfolioCount, response.getInstrumentCount(),
+                response.getExecutionTimeMs());
+
+        return response;
+    }
+
+    private RiskMeasures measure(RiskRun.VarMethod varMethod, double[] profitAndLoss, double portfolioValue) {
+        switch (varMethod) {
+            case HISTORICAL:
+                return RiskMeasures.historical(profitAndLoss, portfolioValue);
+            case CORNISH_FISHER:
+                return RiskMeasures.cornishFisher(profitAndLoss, portfolioValue);
+            default:
+                return RiskMeasures.parametric(profitAndLoss, portfolioValue);
+        }
+    }
+
+    private String validate(Portfolio portfolio, double portfolioValue, int scenarios, int windowSize) {
+        if (portfolio == null) {
+            return "Portfolio not found";
+        }
+        if (portfolio.getPositions().isEmpty()) {
+            return "Portfolio has no positions";
+        }
+        if (scenarios < windowSize) {
+            return "Insufficient historical data for VaR calculation";
+        }
+        return portfolioValue == 0 ? "Portfolio has no market value" : null;
+    }
+
+    private static double[] column(double[] rowMajor, int columns, int column) {
+        double[] values = new double[rowMajor.length / columns];
+        for (int r = 0; r < values.length; r++) {
+            values[r] = rowMajor[r * columns + column];
+        }
+        return values;
+    }
+
+    private BatchRiskResultResponse mapToResult(RiskRun run) {
+        return BatchRiskResultResponse.builder()
+                .portfolioId(run.getPortfolio().getId())
+                .riskRunId(run.getId())
+                .status(run.getStatus())
+                .portfolioValue(run.getPortfolioValue())
+                .var95(run.getVar95())
+                .var99(run.getVar99())
+                .expectedShortfall95(run.getExpectedShortfall95())
+                .expectedShortfall99(run.getExpectedShortfall99())
+                .build();
+    }
+
+    private static BigDecimal scale(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
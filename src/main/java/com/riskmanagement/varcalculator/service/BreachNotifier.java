@@ -0,0 +1,85 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskmanagement.varcalculator.dto.response.LimitBreachResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// Hands limit warnings and breaches to the alerting hook: always logged, and POSTed as a JSON array
+// to the configured webhook when there is one. Delivery is asynchronous and best effort, so a slow
+// or failing endpoint never holds up a risk run
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BreachNotifier {
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Value("${var-calculator.limits.webhook-url:}")
+    private String webhookUrl;
+
+    // Sent once the breaches' transaction commits, so nothing is announced that was rolled back
+    public void notifyAfterCommit(List<LimitBreachResponse> breaches) {
+        if (breaches.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(breaches);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(breaches);
+            }
+        });
+    }
+
+    private void send(List<LimitBreachResponse> breaches) {
+        for (LimitBreachResponse breach : breaches) {
+            log.warn("Risk limit {}: {} {} {} at {} against limit {} ({}% used)", breach.getSeverity(),
+                    breach.getScopeType(), breach.getScopeId(), breach.getMetric(), breach.getMeasuredValue(),
+                    breach.getLimitValue(), breach.getUtilization().movePointRight(2));
+        }
+        if (webhookUrl.isBlank()) {
+            return;
+        }
+
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(breaches);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize {} limit breaches for the webhook", breaches.size(), e);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.error("Limit breach webhook {} failed", webhookUrl, e);
+                    } else if (response.statusCode() >= 400) {
+                        log.error("Limit breach webhook {} returned {}", webhookUrl, response.statusCode());
+                    }
+                });
+    }
+}
@@ -0,0 +1,353 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.BatchRiskRequest;
+import com.riskmanagement.varcalculator.dto.request.StressTestRequest;
+import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PositionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the VaR engine. Each job is costed as scenarios x instruments
+ * and waits in its lane until one of a fixed number of compute slots is free. Interactive jobs
+ * always go before batch ones, and batch jobs never hold every slot. Within a lane, tenants
+ * (desks or users) share slots by weighted fair queuing on job cost, so one tenant's large Monte
+ * Carlo runs cannot starve another's quick parametric ones. A full lane, or a job that waits too
+ * long, is rejected with a retry hint instead of piling up request threads.
+ * <p>
+ * Admitted jobs run in a fork/join pool of exactly one thread per slot, so the engine's parallel
+ * streams split across that pool rather than the common one and slots bound CPU use as well as
+ * concurrency. With every slot taken each job's parallel work falls back to its own thread.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ComputeScheduler {
+
+    public enum Lane {
+        INTERACTIVE, BATCH
+    }
+
+    @Getter
+    public static class RejectedException extends RuntimeException {
+
+        private final long retryAfterSeconds;
+
+        public RejectedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    // Tenant charged for scheduled jobs
+    public static final String SCHEDULER_TENANT = "scheduler";
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final long MAX_RETRY_AFTER_SECONDS = 60;
+    private static final double COST_RATE_SMOOTHING = 0.2;
+
+    private final PositionRepository positionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${var-calculator.compute.max-concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${var-calculator.compute.batch-max-concurrent:0}")
+    private int batchMaxConcurrent;
+
+    @Value("${var-calculator.compute.interactive-queue-capacity:64}")
+    private int interactiveQueueCapacity;
+
+    @Value("${var-calculator.compute.batch-queue-capacity:8}")
+    private int batchQueueCapacity;
+
+    @Value("${var-calculator.compute.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    // Comma-separated tenant=weight pairs; unlisted tenants weigh 1
+    @Value("${var-calculator.compute.tenant-weights:}")
+    private String tenantWeightsConfig;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private final Map<String, Double> tenantWeights = new HashMap<>();
+    private int running;
+    private ForkJoinPool computePool;
+
+    // Smoothed milliseconds per unit of cost, used to turn queued cost into a retry hint
+    private volatile double msPerCost;
+
+    private static class LaneState {
+        final PriorityQueue<Ticket> queue = new PriorityQueue<>(Comparator.comparingDouble((Ticket t) -> t.finishTag)
+                .thenComparingLong(t -> t.sequence));
+        final Map<String, Double> lastFinishTags = new HashMap<>();
+        int capacity;
+        int running;
+        double queuedCost;
+        double virtualTime;
+        Timer waitTimer;
+        Counter fullRejections;
+        Counter timeoutRejections;
+    }
+
+    private static class Ticket {
+        final Lane lane;
+        final String tenant;
+        final double cost;
+        final double startTag;
+        final double finishTag;
+        final long sequence;
+        final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        Ticket(Lane lane, String tenant, double cost, double startTag, double finishTag, long sequence) {
+            this.lane = lane;
+            this.tenant = tenant;
+            this.cost = cost;
+            this.startTag = startTag;
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (maxConcurrent <= 0) {
+            maxConcurrent = Runtime.getRuntime().availableProcessors();
+        }
+        if (batchMaxConcurrent <= 0 || batchMaxConcurrent >= maxConcurrent) {
+            batchMaxConcurrent = Math.max(1, maxConcurrent - 1);
+        }
+        for (String entry : tenantWeightsConfig.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid tenant weight, expected tenant=weight: " + entry);
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Tenant weight must be positive: " + entry);
+            }
+            tenantWeights.put(parts[0].trim(), weight);
+        }
+
+        for (Lane lane : Lane.values()) {
+            LaneState state = new LaneState();
+            state.capacity = lane == Lane.INTERACTIVE ? interactiveQueueCapacity : batchQueueCapacity;
+            String name = lane.name().toLowerCase();
+            Gauge.builder("var.compute.queue.depth", state, s -> s.queue.size())
+                    .tag("lane", name)
+                    .description("Compute jobs waiting for a slot")
+                    .register(meterRegistry);
+            Gauge.builder("var.compute.queue.cost", state, s -> s.queuedCost)
+                    .tag("lane", name)
+                    .description("Estimated cost of waiting compute jobs, in scenarios x instruments")
+                    .register(meterRegistry);
+            Gauge.builder("var.compute.running", state, s -> s.running)
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            state.waitTimer = Timer.builder("var.compute.queue.wait")
+                    .tag("lane", name)
+                    .description("Time compute jobs spent queued before starting")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            state.fullRejections = Counter.builder("var.compute.rejected")
+                    .tags("lane", name, "reason", "queue_full")
+                    .register(meterRegistry);
+            state.timeoutRejections = Counter.builder("var.compute.rejected")
+                    .tags("lane", name, "reason", "wait_timeout")
+                    .register(meterRegistry);
+            lanes.put(lane, state);
+        }
+        // Never grows past the slot count, even while a worker waits on a join it cannot help with
+        computePool = new ForkJoinPool(maxConcurrent, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("compute-" + thread.getPoolIndex());
+            return thread;
+        }, null, false, maxConcurrent, maxConcurrent, 1, pool -> true, 60, TimeUnit.SECONDS);
+        log.info("Compute scheduler started with {} slots ({} for batch)", maxConcurrent, batchMaxConcurrent);
+    }
+
+    // Paths (or historical scenarios) x instruments, the dominant term in every VaR method
+    public double estimateCost(Long portfolioId, VarCalculationRequest request) {
+        long scenarios = request.getVarMethod() == RiskRun.VarMethod.MONTE_CARLO
+                ? request.getMonteCarloSimulations() : request.getWindowSize();
+        return (double) scenarios * Math.max(1, positionRepository.countByPortfolioIds(List.of(portfolioId)));
+    }
+
+    public double estimateCost(BatchRiskRequest request) {
+        return (double) request.getWindowSize()
+                * Math.max(1, positionRepository.countByPortfolioIds(request.getPortfolioIds()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        computePool.shutdown();
+    }
+
+    // Holdings dominate a stress run; the scenario library is small and the same for every portfolio
+    public double estimateCost(StressTestRequest request) {
+        long positions = request.getPortfolioIds() == null || request.getPortfolioIds().isEmpty()
+                ? positionRepository.count() : positionRepository.countByPortfolioIds(request.getPortfolioIds());
+        return (double) Math.max(1, positions);
+    }
+
+    // Runs the job on a compute pool thread once it is admitted, the caller waiting for it. Jobs open their
+    // own transactions, which then begin and end on that thread
+    public <T> T run(String tenant, Lane lane, double cost, Supplier<T> job) {
+        Ticket ticket = enqueue(tenant != null && !tenant.isBlank() ? tenant : DEFAULT_TENANT, lane, cost);
+        LaneState state = lanes.get(lane);
+        long queuedAt = System.nanoTime();
+        awaitGrant(ticket, state);
+        state.waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+
+        long startTime = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(job, computePool).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } finally {
+            release(ticket, System.nanoTime() - startTime);
+        }
+    }
+
+    private Ticket enqueue(String tenant, Lane lane, double cost) {
+        LaneState state = lanes.get(lane);
+        lock.lock();
+        try {
+            if (state.queue.size() >= state.capacity) {
+                state.fullRejections.increment();
+                throw new RejectedException(lane + " compute queue is full", retryAfterSeconds(lane, state));
+            }
+            double weight = tenantWeights.getOrDefault(tenant, 1.0);
+            double startTag = Math.max(state.virtualTime, state.lastFinishTags.getOrDefault(tenant, 0.0));
+            double finishTag = startTag + Math.max(cost, 1) / weight;
+            state.lastFinishTags.put(tenant, finishTag);
+
+            Ticket ticket = new Ticket(lane, tenant, cost, startTag, finishTag, sequence.incrementAndGet());
+            state.queue.add(ticket);
+            state.queuedCost += cost;
+            dispatch();
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitGrant(Ticket ticket, LaneState state) {
+        try {
+            ticket.granted.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (withdraw(ticket, state)) {
+                state.timeoutRejections.increment();
+                throw new RejectedException("Timed out waiting for a " + ticket.lane + " compute slot",
+                        retryAfterSeconds(ticket.lane, state));
+            }
+            // Granted while timing out; the slot is ours
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!withdraw(ticket, state)) {
+                release(ticket, 0);
+            }
+            throw new RuntimeException("Interrupted waiting for a compute slot", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Compute slot grant failed", e);
+        }
+    }
+
+    // Removes a ticket that is still queued; false if it was already granted a slot
+    private boolean withdraw(Ticket ticket, LaneState state) {
+        lock.lock();
+        try {
+            if (!state.queue.remove(ticket)) {
+                return false;
+            }
+            state.queuedCost -= ticket.cost;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Ticket ticket, long elapsedNanos) {
+        if (elapsedNanos > 0 && ticket.cost > 0) {
+            double observed = elapsedNanos / 1e6 / ticket.cost;
+            msPerCost = msPerCost == 0 ? observed : msPerCost + COST_RATE_SMOOTHING * (observed - msPerCost);
+        }
+        lock.lock();
+        try {
+            running--;
+            lanes.get(ticket.lane).running--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held: hands free slots to the next tickets, interactive lane first
+    private void dispatch() {
+        LaneState interactive = lanes.get(Lane.INTERACTIVE);
+        LaneState batch = lanes.get(Lane.BATCH);
+        while (running < maxConcurrent) {
+            if (!interactive.queue.isEmpty()) {
+                grant(interactive);
+            } else if (!batch.queue.isEmpty() && batch.running < batchMaxConcurrent) {
+                grant(batch);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void grant(LaneState state) {
+        Ticket ticket = state.queue.poll();
+        state.queuedCost -= ticket.cost;
+        state.virtualTime = Math.max(state.virtualTime, ticket.startTag);
+        // Tenants whose last job is already behind virtual time start from it anyway, so forget them
+        state.lastFinishTags.values().removeIf(finishTag -> finishTag <= state.virtualTime);
+        state.running++;
+        running++;
+        ticket.granted.complete(null);
+    }
+
+    private long retryAfterSeconds(Lane lane, LaneState state) {
+        int slots = lane == Lane.INTERACTIVE ? maxConcurrent : batchMaxConcurrent;
+        double drainMs = state.queuedCost * msPerCost / slots;
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (long) Math.ceil(drainMs / 1000)));
+    }
+}
@@ -0,0 +1,265 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskComponentResponse;
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskResponse;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class HierarchyAggregationService {
+
+    private final HierarchyNodeRepository hierarchyNodeRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final MarketDataService marketDataService;
+    private final InstrumentPricingService instrumentPricingService;
+    private final ScenarioVectorCache scenarioVectorCache;
+    private final ScenarioVectorStore scenarioVectorStore;
+    private final RiskLimitService riskLimitService;
+
+    // Historical VaR for a node from the bottom-up sum of its children's scenario P&L vectors.
+    // Only portfolios without a cached vector are revalued, all of them against one shared return load.
+    public HierarchyRiskResponse calculateNodeRisk(Long nodeId, int windowSize, LocalDate asOfDate) {
+        log.info("Aggregating hierarchy risk for node {} as of {}", nodeId, asOfDate);
+
+        long startTime = System.currentTimeMillis();
+
+        Tree tree = loadTree();
+        HierarchyNode node = tree.nodes().get(nodeId);
+        if (node == null) {
+            throw new RuntimeException("Hierarchy node not found with ID: " + nodeId);
+        }
+
+        ScenarioVectorCache.ScenarioKey key = new ScenarioVectorCache.ScenarioKey(asOfDate, windowSize);
+        Set<Long> leafPortfolios = new LinkedHashSet<>();
+        collectPortfolios(tree, nodeId, leafPortfolios);
+
+        // Sums are built only from the vectors gathered here, never re-read from the cache, and are cached
+        // only if every portfolio was found and nothing was evicted in the meantime
+        long generation = scenarioVectorCache.generation();
+        Map<Long, ScenarioVector> portfolioVectors = portfolioVectors(key, leafPortfolios, generation);
+        boolean complete = portfolioVectors.keySet().containsAll(leafPortfolios);
+        if (!complete) {
+            log.warn("No scenario vector for {} of {} portfolios under node {}, node sums left uncached",
+                    leafPortfolios.size() - portfolioVectors.size(), leafPortfolios.size(), nodeId);
+        }
+        Aggregation aggregation = new Aggregation(tree, key, portfolioVectors, generation, complete);
+
+        ScenarioVector nodeVector = nodeVector(aggregation, nodeId);
+
+        List<HierarchyRiskComponentResponse> components = new ArrayList<>();
+        double standalone95 = 0;
+        double standalone99 = 0;
+        for (Long childId : tree.childNodes().getOrDefault(nodeId, List.of())) {
+            HierarchyRiskComponentResponse component = component(HierarchyRiskComponentResponse.ComponentType.NODE,
+                    childId, tree.nodes().get(childId).getName(), nodeVector(aggregation, childId));
+            standalone95 += component.getVar95().doubleValue();
+            standalone99 += component.getVar99().doubleValue();
+            components.add(component);
+        }
+        for (Long portfolioId : tree.childPortfolios().getOrDefault(nodeId, List.of())) {
+            HierarchyRiskComponentResponse component = component(
+                    HierarchyRiskComponentResponse.ComponentType.PORTFOLIO, portfolioId,
+                    tree.portfolioNames().get(portfolioId),
+                    portfolioVectors.getOrDefault(portfolioId, ScenarioVector.empty()));
+            standalone95 += component.getVar95().doubleValue();
+            standalone99 += component.getVar99().doubleValue();
+            components.add(component);
+        }
+
+        double var95 = nodeVector.size() > 0 ? nodeVector.valueAtRisk(5.0) : 0;
+        double var99 = nodeVector.size() > 0 ? nodeVector.valueAtRisk(1.0) : 0;
+
+        HierarchyRiskResponse response = HierarchyRiskResponse.builder()
+                .nodeId(nodeId)
+                .name(node.getName())
+                .nodeType(node.getNodeType())
+                .asOfDate(asOfDate)
+                .windowSize(windowSize)
+                .scenarioCount(nodeVector.size())
+                .portfolioCount(leafPortfolios.size())
+                .var95(scale(var95))
+                .var99(scale(var99))
+                .expectedShortfall95(scale(nodeVector.size() > 0 ? nodeVector.expectedShortfall(5.0) : 0))
+                .expectedShortfall99(scale(nodeVector.size() > 0 ? nodeVector.expectedShortfall(1.0) : 0))
+                .diversificationBenefit95(scale(standalone95 - var95))
+                .diversificationBenefit99(scale(standalone99 - var99))
+                .components(components)
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+
+        log.info("Hierarchy risk for node {} aggregated from {} portfolios in {} ms", nodeId, leafPortfolios.size(),
+                response.getExecutionTimeMs());
+
+        // Intraday limit check: portfolio vectors invalidated by mark-to-market have just been revalued
+        try {
+            riskLimitService.evaluateNode(response);
+        } catch (RuntimeException e) {
+            log.error("Limit check failed for hierarchy node {}", nodeId, e);
+        }
+
+        return response;
+    }
+
+    private Tree loadTree() {
+        Map<Long, HierarchyNode> nodes = hierarchyNodeRepository.findAll().stream()
+                .collect(Collectors.toMap(HierarchyNode::getId, Function.identity()));
+
+        Map<Long, Long> nodeParents = new HashMap<>();
+        Map<Long, List<Long>> childNodes = new HashMap<>();
+        for (Object[] link : hierarchyNodeRepository.findAllParentLinks()) {
+            if (link[1] != null) {
+                nodeParents.put((Long) link[0], (Long) link[1]);
+                childNodes.computeIfAbsent((Long) link[1], id -> new ArrayList<>()).add((Long) link[0]);
+            }
+        }
+
+        Map<Long, Long> portfolioParents = new HashMap<>();
+        Map<Long, List<Long>> childPortfolios = new HashMap<>();
+        for (Object[] link : hierarchyNodeRepository.findAllPortfolioLinks()) {
+            portfolioParents.put((Long) link[0], (Long) link[1]);
+            childPortfolios.computeIfAbsent((Long) link[1], id -> new ArrayList<>()).add((Long) link[0]);
+        }
+
+        Map<Long, String> portfolioNames = portfolioRepository.findAllById(portfolioParents.keySet()).stream()
+                .collect(Collectors.toMap(Portfolio::getId, Portfolio::getName));
+
+        scenarioVectorCache.recordStructure(portfolioParents, nodeParents);
+        return new Tree(nodes, childNodes, childPortfolios, portfolioNames);
+    }
+
+    private void collectPortfolios(Tree tree, Long nodeId, Set<Long> portfolioIds) {
+        portfolioIds.addAll(tree.childPortfolios().getOrDefault(nodeId, List.of()));
+        for (Long childId : tree.childNodes().getOrDefault(nodeId, List.of())) {
+            collectPortfolios(tree, childId, portfolioIds);
+        }
+    }
+
+    // Cached vectors where available, the rest from today's stored runs or revalued in one pass
+    private Map<Long, ScenarioVector> portfolioVectors(ScenarioVectorCache.ScenarioKey key, Set<Long> portfolioIds,
+            long generation) {
+        Map<Long, ScenarioVector> vectors = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long portfolioId : portfolioIds) {
+            ScenarioVector cached = scenarioVectorCache.getPortfolioVector(key, portfolioId);
+            if (cached != null) {
+                vectors.put(portfolioId, cached);
+            } else {
+                missing.add(portfolioId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return vectors;
+        }
+
+        // Reuse vectors persisted by today's historical runs (a run dated D covers scenarios up to D - 1)
+        if (scenarioVectorStore.isEnabled()) {
+            Map<Long, ScenarioVector> stored = scenarioVectorStore.loadLatestPortfolioVectors(missing,
+                    key.windowSize(), key.asOfDate().plusDays(1));
+            stored.forEach((portfolioId, vector) -> {
+                vectors.put(portfolioId, vector);
+                scenarioVectorCache.putPortfolioVector(key, portfolioId, vector, generation);
+            });
+            missing.removeAll(stored.keySet());
+            if (missing.isEmpty()) {
+                return vectors;
+            }
+        }
+
+        List<Portfolio> portfolios = portfolioRepository.findByIdsWithPositions(missing);
+        Set<Long> factorIds = new LinkedHashSet<>();
+        for (Portfolio portfolio : portfolios) {
+            factorIds.addAll(instrumentPricingService.riskFactorIds(portfolio.getPositions(),
+                    portfolio.getBaseCurrency()));
+        }
+
+        ReturnMatrix returnMatrix = marketDataService.loadReturnMatrix(factorIds,
+                MarketDataService.lookbackStart(key.asOfDate(), key.windowSize() + 1), key.asOfDate())
+                .lastRows(key.windowSize());
+
+        // Same full revaluation as a single historical run dated the day after, so options and bonds
+        // aggregate the same P&L whichever entry point produced the vector
+        LocalDate valuationDate = key.asOfDate().plusDays(1);
+        for (Portfolio portfolio : portfolios) {
+            ScenarioRevaluation revaluation = instrumentPricingService.revaluation(returnMatrix,
+                    portfolio.getPositions(), portfolio.getBaseCurrency(), ScenarioRevaluation.Mode.FULL,
+                    valuationDate);
+            ScenarioVector vector = new ScenarioVector(returnMatrix.getDates(),
+                    revaluation.profitAndLoss(returnMatrix));
+            vectors.put(portfolio.getId(), vector);
+            scenarioVectorCache.putPortfolioVector(key, portfolio.getId(), vector, generation);
+        }
+        log.debug("Revalued {} portfolios against {} risk factors", portfolios.size(), factorIds.size());
+        return vectors;
+    }
+
+    private ScenarioVector nodeVector(Aggregation aggregation, Long nodeId) {
+        ScenarioVector cached = scenarioVectorCache.getNodeVector(aggregation.key(), nodeId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Tree tree = aggregation.tree();
+        ScenarioVector sum = ScenarioVector.empty();
+        for (Long childId : tree.childNodes().getOrDefault(nodeId, List.of())) {
+            sum = sum.plus(nodeVector(aggregation, childId));
+        }
+        for (Long portfolioId : tree.childPortfolios().getOrDefault(nodeId, List.of())) {
+            sum = sum.plus(aggregation.portfolioVectors().getOrDefault(portfolioId, ScenarioVector.empty()));
+        }
+
+        if (aggregation.complete()) {
+            scenarioVectorCache.putNodeVector(aggregation.key(), nodeId, sum, aggregation.generation());
+        }
+        return sum;
+    }
+
+    private HierarchyRiskComponentResponse component(HierarchyRiskComponentResponse.ComponentType type, Long id,
+            String name, ScenarioVector vector) {
+        boolean empty = vector.size() == 0;
+        return HierarchyRiskComponentResponse.builder()
+                .componentType(type)
+                .id(id)
+                .name(name)
+                .var95(scale(empty ? 0 : vector.valueAtRisk(5.0)))
+                .var99(scale(empty ? 0 : vector.valueAtRisk(1.0)))
+                .expectedShortfall95(scale(empty ? 0 : vector.expectedShortfall(5.0)))
+                .expectedShortfall99(scale(empty ? 0 : vector.expectedShortfall(1.0)))
+                .build();
+    }
+
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private record Tree(Map<Long, HierarchyNode> nodes, Map<Long, List<Long>> childNodes,
+            Map<Long, List<Long>> childPortfolios, Map<Long, String> portfolioNames) {
+    }
+
+    private record Aggregation(Tree tree, ScenarioVectorCache.ScenarioKey key,
+            Map<Long, ScenarioVector> portfolioVectors, long generation, boolean complete) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.CreateHierarchyNodeRequest;
+import com.riskmanagement.varcalculator.dto.response.HierarchyNodeResponse;
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class HierarchyService {
+
+    private final HierarchyNodeRepository hierarchyNodeRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final ScenarioVectorCache scenarioVectorCache;
+
+    public HierarchyNodeResponse createNode(CreateHierarchyNodeRequest request) {
+        log.info("Creating hierarchy node {} ({})", request.getName(), request.getNodeType());
+
+        HierarchyNode parent = null;
+        if (request.getParentId() != null) {
+            parent = hierarchyNodeRepository.findById(request.getParentId())
+                    .orElseThrow(() -> new RuntimeException("Hierarchy node not found with ID: "
+                            + request.getParentId()));
+        }
+
+        HierarchyNode node = HierarchyNode.builder()
+                .name(request.getName())
+                .nodeType(request.getNodeType())
+                .parent(parent)
+                .build();
+
+        HierarchyNode savedNode = hierarchyNodeRepository.save(node);
+        scenarioVectorCache.invalidateNodes();
+
+        return mapToResponse(savedNode);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HierarchyNodeResponse> getAllNodes() {
+        return hierarchyNodeRepository.findAll().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public void assignPortfolio(Long nodeId, Long portfolioId) {
+        log.info("Assigning portfolio {} to hierarchy node {}", portfolioId, nodeId);
+
+        HierarchyNode node = hierarchyNodeRepository.findById(nodeId)
+                .orElseThrow(() -> new RuntimeException("Hierarchy node not found with ID: " + nodeId));
+        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
+
+        portfolio.setHierarchyNode(node);
+        portfolioRepository.save(portfolio);
+        // Both run after commit. The old ancestor chain is still the one recorded by the last aggregation,
+        // and every node sum is dropped anyway since the tree changed
+        scenarioVectorCache.invalidatePortfolio(portfolioId);
+        scenarioVectorCache.invalidateNodes();
+    }
+
+    private HierarchyNodeResponse mapToResponse(HierarchyNode node) {
+        return HierarchyNodeResponse.builder()
+                .id(node.getId())
+                .name(node.getName())
+                .nodeType(node.getNodeType())
+                .parentId(node.getParent() != null ? node.getParent().getId() : null)
+                .createdAt(node.getCreatedAt())
+                .updatedAt(node.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.BlackScholesPricer;
+import com.riskmanagement.varcalculator.engine.BondPricer;
+import com.riskmanagement.varcalculator.engine.InstrumentPricer;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.store.LatestPriceIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class InstrumentPricingService {
+
+    private static final double DAYS_PER_YEAR = 365.0;
+
+    private final LatestPriceIndex latestPriceIndex;
+    private final MarketDataService marketDataService;
+
+    @Value("${var-calculator.pricing.risk-free-rate:0.03}")
+    private double riskFreeRate;
+
+    // Series driving each position's scenarios: the underlying for priced options and bonds, otherwise itself,
+    // plus the FX factors of every foreign currency
+    public List<Long> riskFactorIds(List<Position> positions, String baseCurrency) {
+        List<Long> factorIds = positions.stream()
+                .map(position -> isPriced(position.getInstrument())
+                        ? position.getInstrument().getUnderlying().getId()
+                        : position.getInstrument().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        factorIds.addAll(MarketDataService.fxFactorIds(positions, baseCurrency));
+        return factorIds;
+    }
+
+    // Splits positions into linear exposures per matrix column and priced holdings on their underlying's column.
+    // Holdings are scaled into base currency at today's rate and their value is exposed linearly to FX
+    public ScenarioRevaluation revaluation(ReturnMatrix matrix, List<Position> positions, String baseCurrency,
+            ScenarioRevaluation.Mode mode, LocalDate valuationDate) {
+        Set<Long> underlyingIds = positions.stream()
+                .map(Position::getInstrument)
+                .filter(this::isPriced)
+                .map(instrument -> instrument.getUnderlying().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Double> levels = underlyingIds.isEmpty() ? Map.of() : latestPriceIndex.latestCloses(underlyingIds);
+
+        Map<String, Double> rates = marketDataService.conversionRates(positions, baseCurrency);
+        double[] linearExposures = new double[matrix.columns()];
+        List<ScenarioRevaluation.Holding> holdings = new ArrayList<>();
+        for (Position position : positions) {
+            Instrument instrument = position.getInstrument();
+            String currency = MarketDataService.currencyOf(position, baseCurrency);
+            double rate = rates.get(currency);
+            if (isPriced(instrument)) {
+                Long underlyingId = instrument.getUnderlying().getId();
+                int factor = matrix.columnOf(underlyingId);
+                Double level = levels.get(underlyingId);
+                if (factor < 0 || level == null) {
+                    log.warn("No price history for underlying {} of {}, position left out of revaluation",
+                            underlyingId, instrument.getSymbol());
+                    continue;
+                }
+                InstrumentPricer pricer = pricerFor(instrument, valuationDate);
+                double quantity = position.getQuantity().doubleValue() * rate;
+                holdings.add(new ScenarioRevaluation.Holding(instrument.getId(), factor, quantity, level, pricer));
+                MarketDataService.addFxExposure(matrix, linearExposures, currency, baseCurrency,
+                        quantity * pricer.price(level));
+                continue;
+            }
+            int column = matrix.columnOf(instrument.getId());
+            if (column >= 0 && position.getMarketValue() != null) {
+                double value = position.getMarketValue().doubleValue() * rate;
+                linearExposures[column] += value;
+                MarketDataService.addFxExposure(matrix, linearExposures, currency, baseCurrency, value);
+            }
+        }
+        return new ScenarioRevaluation(linearExposures, holdings, mode);
+    }
+
+    private boolean isPriced(Instrument instrument) {
+        if (instrument.getUnderlying() == null || instrument.getMaturityDate() == null) {
+            return false;
+        }
+        switch (instrument.getType()) {
+            case OPTION:
+                return instrument.getOptionType() != null && instrument.getStrike() != null
+                        && instrument.getImpliedVolatility() != null;
+            case BOND:
+                return instrument.getCouponRate() != null && instrument.getCouponFrequency() != null;
+            default:
+                return false;
+        }
+    }
+
+    private InstrumentPricer pricerFor(Instrument instrument, LocalDate valuationDate) {
+        double years = ChronoUnit.DAYS.between(valuationDate, instrument.getMaturityDate()) / DAYS_PER_YEAR;
+        if (instrument.getType() == Instrument.InstrumentType.OPTION) {
+            return new BlackScholesPricer(instrument.getOptionType() == Instrument.OptionType.CALL,
+                    instrument.getStrike().doubleValue(), years, riskFreeRate,
+                    instrument.getImpliedVolatility().doubleValue());
+        }
+        return new BondPricer(instrument.getCouponRate().doubleValue(), instrument.getCouponFrequency(), years);
+    }
+}
@@ -0,0 +1,169 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.ProfitAndLossSeries;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.repository.FxRateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class MarketDataService {
+
+    // Calendar days needed to cover a window of trading days, plus a holiday buffer
+    private static final double CALENDAR_DAYS_PER_TRADING_DAY = 7.0 / 5.0;
+    private static final int LOOKBACK_BUFFER_DAYS = 30;
+
+    private final ReturnMatrixLoader returnMatrixLoader;
+    private final FxRateRepository fxRateRepository;
+
+    public static LocalDate lookbackStart(LocalDate endDate, int tradingDays) {
+        return endDate.minusDays((long) Math.ceil(tradingDays * CALENDAR_DAYS_PER_TRADING_DAY) + LOOKBACK_BUFFER_DAYS);
+    }
+
+    // Always on the read pool, in its own read-only transaction, even when the caller is writing
+    public ReturnMatrix loadReturnMatrix(Collection<Long> instrumentIds, LocalDate startDate, LocalDate endDate) {
+        return returnMatrixLoader.load(instrumentIds, startDate, endDate);
+    }
+
+    // Raw closes on the same terms, for windows that are sliced by the caller
+    public CloseMatrix loadCloseMatrix(Collection<Long> instrumentIds, LocalDate startDate, LocalDate endDate) {
+        return returnMatrixLoader.loadCloses(instrumentIds, startDate, endDate);
+    }
+
+    // Hypothetical P&L: today's holdings revalued against each historical day's returns, in base currency
+    public ProfitAndLossSeries loadProfitAndLoss(List<Position> positions, String baseCurrency, LocalDate startDate,
+            LocalDate endDate) {
+        List<Long> factorIds = positions.stream()
+                .map(position -> position.getInstrument().getId())
+                .collect(Collectors.toList());
+        factorIds.addAll(fxFactorIds(positions, baseCurrency));
+        ReturnMatrix returnMatrix = returnMatrixLoader.load(factorIds, startDate, endDate);
+        double[] exposures = exposuresFor(returnMatrix, positions, baseCurrency);
+        return new ProfitAndLossSeries(returnMatrix.getDates(), returnMatrix.multiply(exposures),
+                valueInBaseCurrency(positions, baseCurrency));
+    }
+
+    // FX factor columns needed to express the positions in the base currency
+    public static List<Long> fxFactorIds(List<Position> positions, String baseCurrency) {
+        Set<String> currencies = new TreeSet<>();
+        for (Position position : positions) {
+            String currency = currencyOf(position, baseCurrency);
+            if (!currency.equals(baseCurrency)) {
+                currencies.add(currency);
+                currencies.add(baseCurrency);
+            }
+        }
+        return currencies.stream()
+                .filter(FxFactors::hasFactor)
+                .map(FxFactors::factorId)
+                .collect(Collectors.toList());
+    }
+
+    // Base-currency exposure per matrix column: the instrument's column, plus +value on its currency's
+    // FX factor and -value on the base currency's, summing positions that share a column
+    public double[] exposuresFor(ReturnMatrix matrix, List<Position> positions, String baseCurrency) {
+        Map<String, Double> rates = conversionRates(positions, baseCurrency);
+        double[] exposures = new double[matrix.columns()];
+        for (Position position : positions) {
+            int column = matrix.columnOf(position.getInstrument().getId());
+            if (column >= 0 && position.getMarketValue() != null) {
+                String currency = currencyOf(position, baseCurrency);
+                double value = position.getMarketValue().doubleValue() * rates.get(currency);
+                exposures[column] += value;
+                addFxExposure(matrix, exposures, currency, baseCurrency, value);
+            }
+        }
+        return exposures;
+    }
+
+    public static void addFxExposure(ReturnMatrix matrix, double[] exposures, String currency, String baseCurrency,
+            double value) {
+        if (currency.equals(baseCurrency)) {
+            return;
+        }
+        if (FxFactors.hasFactor(currency)) {
+            exposures[requireColumn(matrix, currency)] += value;
+        }
+        if (FxFactors.hasFactor(baseCurrency)) {
+            exposures[requireColumn(matrix, baseCurrency)] -= value;
+        }
+    }
+
+    public double valueInBaseCurrency(List<Position> positions, String baseCurrency) {
+        Map<String, Double> rates = conversionRates(positions, baseCurrency);
+        double value = 0;
+        for (Position position : positions) {
+            if (position.getMarketValue() != null) {
+                value += position.getMarketValue().doubleValue() * rates.get(currencyOf(position, baseCurrency));
+            }
+        }
+        return value;
+    }
+
+    // Latest rate converting one unit of each position currency into the base currency, crossed through USD
+    public Map<String, Double> conversionRates(List<Position> positions, String baseCurrency) {
+        Set<String> currencies = positions.stream()
+                .map(position -> currencyOf(position, baseCurrency))
+                .collect(Collectors.toSet());
+        Map<String, Double> rates = new HashMap<>();
+        rates.put(baseCurrency, 1.0);
+        currencies.remove(baseCurrency);
+        if (currencies.isEmpty()) {
+            return rates;
+        }
+
+        Set<String> quoted = new TreeSet<>(currencies);
+        quoted.add(baseCurrency);
+        quoted.remove(FxFactors.PIVOT_CURRENCY);
+        Map<String, Double> toUsd = new HashMap<>();
+        toUsd.put(FxFactors.PIVOT_CURRENCY, 1.0);
+        if (!quoted.isEmpty()) {
+            for (Object[] row : fxRateRepository.findLatestRates(quoted)) {
+                toUsd.put((String) row[0], ((Number) row[1]).doubleValue());
+            }
+        }
+        Double baseToUsd = toUsd.get(baseCurrency);
+        if (baseToUsd == null) {
+            throw new RuntimeException("FX rate not found for currency: " + baseCurrency);
+        }
+        for (String currency : currencies) {
+            Double currencyToUsd = toUsd.get(currency);
+            if (currencyToUsd == null) {
+                throw new RuntimeException("FX rate not found for currency: " + currency);
+            }
+            rates.put(currency, currencyToUsd / baseToUsd);
+        }
+        return rates;
+    }
+
+    // Instruments without a currency are taken to be quoted in the portfolio's base currency
+    public static String currencyOf(Position position, String baseCurrency) {
+        String currency = position.getInstrument().getCurrency();
+        return currency != null && !currency.isBlank() ? currency : baseCurrency;
+    }
+
+    private static int requireColumn(ReturnMatrix matrix, String currency) {
+        int column = matrix.columnOf(FxFactors.factorId(currency));
+        if (column < 0) {
+            throw new IllegalStateException("Return matrix has no FX factor for " + currency);
+        }
+        return column;
+    }
+}
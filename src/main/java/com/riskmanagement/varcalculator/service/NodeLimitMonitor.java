@@ -0,0 +1,134 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.store.RiskLimitIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Re-checks hierarchy node limits whenever a portfolio under the node completes a run, rather than
+ * only when someone asks for the node's risk. Once the runs' transaction commits, every ancestor
+ * node carrying a limit is re-aggregated on a background thread, which also evaluates its limits.
+ * A node already queued with the same window is not queued again, so a batch touching many
+ * portfolios of one desk re-aggregates the desk once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NodeLimitMonitor {
+
+    record NodeCheck(Long nodeId, int windowSize, LocalDate asOfDate) {
+    }
+
+    private final HierarchyNodeRepository hierarchyNodeRepository;
+    private final HierarchyAggregationService hierarchyAggregationService;
+    private final RiskLimitIndex riskLimitIndex;
+
+    private final Set<NodeCheck> pending = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("node-limits-");
+        threadFactory.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // Called inside the runs' transaction; nothing is queued if it rolls back
+    public void checkAncestorsAfterCommit(Collection<RiskRun> runs) {
+        if (runs.isEmpty() || !riskLimitIndex.hasLimits(RiskLimit.ScopeType.HIERARCHY_NODE)) {
+            return;
+        }
+        List<RiskRun> completed = List.copyOf(runs);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(() -> queue(completed));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(() -> queue(completed));
+            }
+        });
+    }
+
+    // On the monitor thread, so the tree is read outside the committed transaction
+    void queue(List<RiskRun> runs) {
+        Set<NodeCheck> checks;
+        try {
+            checks = ancestorChecks(runs);
+        } catch (RuntimeException e) {
+            log.error("Could not resolve hierarchy nodes to limit-check for {} runs", runs.size(), e);
+            return;
+        }
+        for (NodeCheck check : checks) {
+            if (pending.add(check)) {
+                executor.execute(() -> run(check));
+            }
+        }
+    }
+
+    // Ancestors of the runs' portfolios that carry a limit, nearest first, each once per window and as-of date
+    Set<NodeCheck> ancestorChecks(List<RiskRun> runs) {
+        Map<Long, Long> portfolioParents = new HashMap<>();
+        for (Object[] link : hierarchyNodeRepository.findAllPortfolioLinks()) {
+            portfolioParents.put((Long) link[0], (Long) link[1]);
+        }
+        Map<Long, Long> nodeParents = new HashMap<>();
+        for (Object[] link : hierarchyNodeRepository.findAllParentLinks()) {
+            if (link[1] != null) {
+                nodeParents.put((Long) link[0], (Long) link[1]);
+            }
+        }
+
+        Set<NodeCheck> checks = new LinkedHashSet<>();
+        for (RiskRun run : runs) {
+            if (run.getStatus() != RiskRun.RunStatus.COMPLETED || run.getWindowSize() == null) {
+                continue;
+            }
+            // A run dated D covers scenarios up to D - 1, the as-of date node aggregation uses
+            LocalDate asOfDate = run.getRunDate().minusDays(1);
+            Long nodeId = portfolioParents.get(run.getPortfolio().getId());
+            while (nodeId != null) {
+                if (!riskLimitIndex.limitsFor(RiskLimit.ScopeType.HIERARCHY_NODE, nodeId).isEmpty()) {
+                    checks.add(new NodeCheck(nodeId, run.getWindowSize(), asOfDate));
+                }
+                nodeId = nodeParents.get(nodeId);
+            }
+        }
+        return checks;
+    }
+
+    void run(NodeCheck check) {
+        pending.remove(check);
+        try {
+            hierarchyAggregationService.calculateNodeRisk(check.nodeId(), check.windowSize(), check.asOfDate());
+        } catch (RuntimeException e) {
+            log.error("Limit check failed for hierarchy node {}", check.nodeId(), e);
+        }
+    }
+}
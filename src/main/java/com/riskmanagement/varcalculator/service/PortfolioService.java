@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 public class PortfolioService {
 
     private final PortfolioRepository portfolioRepository;
+    private final ScenarioVectorCache scenarioVectorCache;
 
     public PortfolioResponse createPortfolio(CreatePortfolioRequest request) {
         log.info("Creating new portfolio: {}", request.getName());
@@ -78,6 +79,7 @@ public class PortfolioService {
         }
 
         portfolioRepository.deleteById(id);
+        scenarioVectorCache.invalidatePortfolio(id);
     }
 
     private PortfolioResponse mapToResponse(Portfolio portfolio) {
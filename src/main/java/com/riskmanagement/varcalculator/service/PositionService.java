@@ -9,6 +9,7 @@ import com.riskmanagement.varcalculator.entity.Position;
 import com.riskmanagement.varcalculator.repository.InstrumentRepository;
 import com.riskmanagement.varcalculator.repository.PortfolioRepository;
 import com.riskmanagement.varcalculator.repository.PositionRepository;
+import com.riskmanagement.varcalculator.store.LatestPriceIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,25 +33,15 @@ public class PositionService {
     private final PositionRepository positionRepository;
     private final PortfolioRepository portfolioRepository;
     private final InstrumentRepository instrumentRepository;
+    private final ScenarioVectorCache scenarioVectorCache;
+    private final LatestPriceIndex latestPriceIndex;
 
     public PositionResponse createPosition(Long portfolioId, CreatePositionRequest request) {
-        Portfolio portfolio = portfolioRepository.findById(portfolioId)
-                .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
-
-        // Find or create instrument
-        Instrument instrument = instrumentRepository.findBySymbol(request.getSymbol())
-                .orElseGet(() -> createInstrument(request));
-
-        Position position = Position.builder()
-                .portfolio(portfolio)
-                .instrument(instrument)
-                .quantity(request.getQuantity())
-                .averageCost(request.getAverageCost())
-                .marketValue(request.getQuantity().multiply(request.getAverageCost()))
-                .build();
-
-        Position savedPosition = positionRepository.save(position);
-        return mapToResponse(savedPosition);
+        Position savedPosition = addPosition(portfolioId, request);
+        positionRepository.updateWeightsByPortfolioId(portfolioId);
+        return positionRepository.findById(savedPosition.getId())
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new RuntimeException("Position not found with ID: " + savedPosition.getId()));
     }
 
     public List<PositionResponse> uploadPositionsFromCsv(Long portfolioId, MultipartFile file) {
@@ -57,7 +49,7 @@ public class PositionService {
         portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
 
-        List<PositionResponse> positions = new ArrayList<>();
+        List<Long> positionIds = new ArrayList<>();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
             String line;
@@ -77,8 +69,7 @@ public class PositionService {
                     request.setAverageCost(new BigDecimal(values[2].trim()));
                     request.setInstrumentName(values[0].trim()); // Use symbol as name if no name provided
 
-                    PositionResponse position = createPosition(portfolioId, request);
-                    positions.add(position);
+                    positionIds.add(addPosition(portfolioId, request).getId());
                 }
             }
         } catch (Exception e) {
@@ -86,9 +77,25 @@ public class PositionService {
             throw new RuntimeException("Error processing CSV file: " + e.getMessage());
         }
 
-        return positions;
+        // Weights once for the whole file rather than per row
+        positionRepository.updateWeightsByPortfolioId(portfolioId);
+        return positionRepository.findAllById(positionIds).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Revalues all positions at the latest closes in bulk, then re-derives every portfolio's weights
+    public int markToMarket() {
+        int revalued = positionRepository.markToMarket();
+        int reweighted = positionRepository.updateWeights();
+        if (revalued > 0) {
+            scenarioVectorCache.invalidateAll();
+        }
+        log.info("Marked {} positions to market, {} weights changed", revalued, reweighted);
+        return revalued;
     }
 
+    @Transactional(readOnly = true)
     public List<PositionResponse> getPortfolioPositions(Long portfolioId) {
         List<Position> positions = positionRepository.findByPortfolioId(portfolioId);
         return positions.stream()
@@ -96,6 +103,31 @@ public class PositionService {
                 .collect(Collectors.toList());
     }
 
+    // Valued at the latest close when the instrument has prices, otherwise at cost until the next mark-to-market
+    private Position addPosition(Long portfolioId, CreatePositionRequest request) {
+        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
+
+        // Find or create instrument
+        Instrument instrument = instrumentRepository.findBySymbol(request.getSymbol())
+                .orElseGet(() -> createInstrument(request));
+
+        LatestPriceIndex.LatestPrice latestPrice = latestPriceIndex.get(instrument.getId());
+        BigDecimal price = latestPrice != null ? BigDecimal.valueOf(latestPrice.close()) : request.getAverageCost();
+
+        Position position = Position.builder()
+                .portfolio(portfolio)
+                .instrument(instrument)
+                .quantity(request.getQuantity())
+                .averageCost(request.getAverageCost())
+                .marketValue(request.getQuantity().multiply(price).setScale(4, RoundingMode.HALF_UP))
+                .build();
+
+        Position savedPosition = positionRepository.save(position);
+        scenarioVectorCache.invalidatePortfolio(portfolioId);
+        return savedPosition;
+    }
+
     private Instrument createInstrument(CreatePositionRequest request) {
         Instrument instrument = Instrument.builder()
                 .symbol(request.getSymbol())
@@ -104,22 +136,42 @@ public class PositionService {
                 .exchange(request.getExchange())
                 .sector(request.getSector())
                 .currency(request.getCurrency())
+                .optionType(request.getOptionType())
+                .strike(request.getStrike())
+                .maturityDate(request.getMaturityDate())
+                .impliedVolatility(request.getImpliedVolatility())
+                .couponRate(request.getCouponRate())
+                .couponFrequency(request.getCouponFrequency())
                 .build();
 
+        if (request.getUnderlyingSymbol() != null) {
+            instrument.setUnderlying(instrumentRepository.findBySymbol(request.getUnderlyingSymbol())
+                    .orElseThrow(() -> new RuntimeException(
+                            "Underlying instrument not found with symbol: " + request.getUnderlyingSymbol())));
+        }
+
         return instrumentRepository.save(instrument);
     }
 
     private PositionResponse mapToResponse(Position position) {
+        Instrument instrument = position.getInstrument();
         InstrumentResponse instrumentResponse = InstrumentResponse.builder()
-                .id(position.getInstrument().getId())
-                .symbol(position.getInstrument().getSymbol())
-                .name(position.getInstrument().getName())
-                .type(position.getInstrument().getType())
-                .exchange(position.getInstrument().getExchange())
-                .sector(position.getInstrument().getSector())
-                .currency(position.getInstrument().getCurrency())
-                .createdAt(position.getInstrument().getCreatedAt())
-                .updatedAt(position.getInstrument().getUpdatedAt())
+                .id(instrument.getId())
+                .symbol(instrument.getSymbol())
+                .name(instrument.getName())
+                .type(instrument.getType())
+                .exchange(instrument.getExchange())
+                .sector(instrument.getSector())
+                .currency(instrument.getCurrency())
+                .underlyingInstrumentId(instrument.getUnderlying() != null ? instrument.getUnderlying().getId() : null)
+                .optionType(instrument.getOptionType())
+                .strike(instrument.getStrike())
+                .maturityDate(instrument.getMaturityDate())
+                .impliedVolatility(instrument.getImpliedVolatility())
+                .couponRate(instrument.getCouponRate())
+                .couponFrequency(instrument.getCouponFrequency())
+                .createdAt(instrument.getCreatedAt())
+                .updatedAt(instrument.getUpdatedAt())
                 .build();
 
         return PositionResponse.builder()
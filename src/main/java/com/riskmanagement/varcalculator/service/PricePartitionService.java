@@ -0,0 +1,54 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PricePartitionService {
+
+    private final PriceRepository priceRepository;
+    private final StressScenarioRepository stressScenarioRepository;
+
+    @Value("${var-calculator.price-archive.retention-years:10}")
+    private int retentionYears;
+
+    @Value("${var-calculator.price-archive.tablespace:}")
+    private String archiveTablespace;
+
+    // Keeps this and next year's partitions in place ahead of loads, then archives years past retention.
+    // Years an active historical stress scenario starts in or after stay attached, since stress runs read them
+    public int maintainPartitions(LocalDate today) {
+        int year = today.getYear();
+        for (int partitionYear = year; partitionYear <= year + 1; partitionYear++) {
+            if (priceRepository.createPartition(partitionYear)) {
+                log.info("Created prices partition for {}", partitionYear);
+            }
+        }
+
+        int beforeYear = year - retentionYears + 1;
+        LocalDate earliestScenario = stressScenarioRepository.findEarliestActiveStartDate(
+                StressScenario.ScenarioType.HISTORICAL);
+        if (earliestScenario != null && earliestScenario.getYear() < beforeYear) {
+            log.info("Keeping prices partitions from {} attached for historical stress scenarios",
+                    earliestScenario.getYear());
+            beforeYear = earliestScenario.getYear();
+        }
+
+        int archived = priceRepository.archivePartitions(beforeYear, archiveTablespace);
+        if (archived > 0) {
+            log.info("Archived {} prices partitions older than {} years", archived, retentionYears);
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,109 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.Precision;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.repository.FxRateRepository;
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import com.riskmanagement.varcalculator.store.PriceHistoryStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Loads return windows in their own read-only transaction on the read pool. Kept apart from
+// MarketDataService so every caller, including MarketDataService itself, goes through the
+// transactional proxy rather than a self-call that would silently join the caller's transaction
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReturnMatrixLoader {
+
+    private final PriceRepository priceRepository;
+    private final PriceHistoryStore priceHistoryStore;
+    private final FxRateRepository fxRateRepository;
+
+    @Value("${var-calculator.engine.precision:DOUBLE}")
+    private Precision precision;
+
+    // Straight from the mapped store when it holds every series, skipping the dense close matrix
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public ReturnMatrix load(Collection<Long> instrumentIds, LocalDate startDate, LocalDate endDate) {
+        long[] ids = instrumentIds.stream().distinct().mapToLong(Long::longValue).toArray();
+        if (ids.length > 0 && priceHistoryStore.covers(ids)) {
+            return priceHistoryStore.loadReturns(ids, startDate, endDate, precision);
+        }
+        return closes(instrumentIds, startDate, endDate).toReturnMatrix(precision);
+    }
+
+    // The closes themselves, for callers that slice one window into several
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public CloseMatrix loadCloses(Collection<Long> instrumentIds, LocalDate startDate, LocalDate endDate) {
+        return closes(instrumentIds, startDate, endDate);
+    }
+
+    // Aligns closes for all instruments on a shared date axis, from the local mapped store when it holds
+    // every instrument and otherwise from one database query
+    private CloseMatrix closes(Collection<Long> instrumentIds, LocalDate startDate, LocalDate endDate) {
+        long[] ids = instrumentIds.stream().distinct().mapToLong(Long::longValue).toArray();
+        if (ids.length == 0) {
+            return new CloseMatrix(List.of(), ids, new double[0]);
+        }
+        return priceHistoryStore.covers(ids)
+                ? priceHistoryStore.loadCloses(ids, startDate, endDate)
+                : loadClosesFromDatabase(ids, startDate, endDate);
+    }
+
+    private CloseMatrix loadClosesFromDatabase(long[] ids, LocalDate startDate, LocalDate endDate) {
+        List<Long> instrumentIds = Arrays.stream(ids).filter(id -> !FxFactors.isFxFactor(id)).boxed()
+                .collect(Collectors.toList());
+        List<String> currencies = Arrays.stream(ids).filter(FxFactors::isFxFactor).mapToObj(FxFactors::currency)
+                .collect(Collectors.toList());
+        List<Object[]> rows = instrumentIds.isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(priceRepository.findClosesByInstrumentIdsAndDateRange(instrumentIds, startDate,
+                        endDate));
+        if (!currencies.isEmpty()) {
+            for (Object[] row : fxRateRepository.findRatesByCurrenciesAndDateRange(currencies, startDate, endDate)) {
+                rows.add(new Object[] { FxFactors.factorId((String) row[0]), row[1], row[2] });
+            }
+        }
+        log.debug("Loaded {} closes for {} series between {} and {}", rows.size(), ids.length, startDate, endDate);
+
+        TreeSet<LocalDate> dateSet = new TreeSet<>();
+        for (Object[] row : rows) {
+            dateSet.add((LocalDate) row[1]);
+        }
+        List<LocalDate> dates = new ArrayList<>(dateSet);
+        Map<LocalDate, Integer> dateIndex = new HashMap<>(dates.size() * 2);
+        for (int i = 0; i < dates.size(); i++) {
+            dateIndex.put(dates.get(i), i);
+        }
+        Map<Long, Integer> columnIndex = new HashMap<>(ids.length * 2);
+        for (int c = 0; c < ids.length; c++) {
+            columnIndex.put(ids[c], c);
+        }
+
+        double[] closes = new double[dates.size() * ids.length];
+        Arrays.fill(closes, Double.NaN);
+        for (Object[] row : rows) {
+            int r = dateIndex.get((LocalDate) row[1]);
+            int c = columnIndex.get((Long) row[0]);
+            closes[r * ids.length + c] = ((Number) row[2]).doubleValue();
+        }
+        return new CloseMatrix(dates, ids, closes);
+    }
+}
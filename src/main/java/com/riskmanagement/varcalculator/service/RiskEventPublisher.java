@@ -0,0 +1,99 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.RiskRunEvent;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fan-out of risk run events: calculations emit once into a single multicast sink and every dashboard
+// stream filters it by portfolio, so subscribers cost no database queries. Slow subscribers miss
+// events rather than holding up the others
+@Service
+@Slf4j
+public class RiskEventPublisher {
+
+    private final Sinks.Many<RiskRunEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final ReentrantLock emitLock = new ReentrantLock();
+
+    // An empty set subscribes to every portfolio
+    public Flux<RiskRunEvent> events(Set<Long> portfolioIds) {
+        return sink.asFlux()
+                .filter(event -> portfolioIds.isEmpty() || portfolioIds.contains(event.getPortfolioId()));
+    }
+
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    public void started(RiskRun run) {
+        publish(event(RiskRunEvent.EventType.STARTED, run).build());
+    }
+
+    public void progress(RiskRun run, String stage) {
+        publish(event(RiskRunEvent.EventType.PROGRESS, run).stage(stage).build());
+    }
+
+    // Sent once the run's transaction commits, so a subscriber fetching the run will find it
+    public void completed(RiskRun run) {
+        RiskRunEvent event = event(RiskRunEvent.EventType.COMPLETED, run)
+                .portfolioValue(run.getPortfolioValue())
+                .var95(run.getVar95())
+                .var99(run.getVar99())
+                .expectedShortfall95(run.getExpectedShortfall95())
+                .expectedShortfall99(run.getExpectedShortfall99())
+                .executionTimeMs(run.getExecutionTimeMs())
+                .build();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    public void failed(Long portfolioId, RiskRun.VarMethod varMethod, String errorMessage) {
+        publish(RiskRunEvent.builder()
+                .type(RiskRunEvent.EventType.FAILED)
+                .portfolioId(portfolioId)
+                .varMethod(varMethod)
+                .errorMessage(errorMessage)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private RiskRunEvent.RiskRunEventBuilder event(RiskRunEvent.EventType type, RiskRun run) {
+        return RiskRunEvent.builder()
+                .type(type)
+                .portfolioId(run.getPortfolio().getId())
+                .riskRunId(run.getId())
+                .varMethod(run.getVarMethod())
+                .timestamp(LocalDateTime.now());
+    }
+
+    // The sink rejects concurrent emission, so calculation threads take turns (under a lock, not
+    // synchronized, as subscribers write to their streams while it is held)
+    private void publish(RiskRunEvent event) {
+        Sinks.EmitResult result;
+        emitLock.lock();
+        try {
+            result = sink.tryEmitNext(event);
+        } finally {
+            emitLock.unlock();
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Dropped {} event for portfolio {}: {}", event.getType(), event.getPortfolioId(), result);
+        }
+    }
+}
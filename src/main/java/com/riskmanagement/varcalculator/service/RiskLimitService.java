@@ -0,0 +1,240 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.CreateRiskLimitRequest;
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskResponse;
+import com.riskmanagement.varcalculator.dto.response.LimitBreachResponse;
+import com.riskmanagement.varcalculator.dto.response.RiskLimitResponse;
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.LimitBreachRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskLimitRepository;
+import com.riskmanagement.varcalculator.store.RiskLimitIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RiskLimitService {
+
+    private final RiskLimitRepository riskLimitRepository;
+    private final LimitBreachRepository limitBreachRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final HierarchyNodeRepository hierarchyNodeRepository;
+    private final RiskLimitIndex riskLimitIndex;
+    private final BreachNotifier breachNotifier;
+
+    // A new limit replaces the active one on the same scope and metric
+    public RiskLimitResponse createLimit(CreateRiskLimitRequest request) {
+        log.info("Creating {} limit of {} on {} {}", request.getMetric(), request.getLimitValue(),
+                request.getScopeType(), request.getScopeId());
+
+        boolean scopeExists = request.getScopeType() == RiskLimit.ScopeType.PORTFOLIO
+                ? portfolioRepository.existsById(request.getScopeId())
+                : hierarchyNodeRepository.existsById(request.getScopeId());
+        if (!scopeExists) {
+            throw new RuntimeException((request.getScopeType() == RiskLimit.ScopeType.PORTFOLIO
+                    ? "Portfolio" : "Hierarchy node") + " not found with ID: " + request.getScopeId());
+        }
+
+        riskLimitRepository.findByScopeTypeAndScopeIdAndMetricAndActiveTrue(request.getScopeType(),
+                request.getScopeId(), request.getMetric()).ifPresent(this::retire);
+
+        RiskLimit limit = RiskLimit.builder()
+                .scopeType(request.getScopeType())
+                .scopeId(request.getScopeId())
+                .metric(request.getMetric())
+                .limitValue(request.getLimitValue())
+                .build();
+        if (request.getWarningThreshold() != null) {
+            limit.setWarningThreshold(request.getWarningThreshold());
+        }
+
+        RiskLimit savedLimit = riskLimitRepository.saveAndFlush(limit);
+        afterCommit(() -> riskLimitIndex.put(savedLimit));
+
+        return mapToResponse(savedLimit);
+    }
+
+    public void retireLimit(Long limitId) {
+        log.info("Retiring risk limit {}", limitId);
+
+        RiskLimit limit = riskLimitRepository.findById(limitId)
+                .orElseThrow(() -> new RuntimeException("Risk limit not found with ID: " + limitId));
+        retire(limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RiskLimitResponse> getActiveLimits(RiskLimit.ScopeType scopeType, Long scopeId) {
+        List<RiskLimit> limits = scopeType != null && scopeId != null
+                ? riskLimitRepository.findByScopeTypeAndScopeIdAndActiveTrue(scopeType, scopeId)
+                : riskLimitRepository.findByActiveTrue();
+        return limits.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<LimitBreachResponse> getRecentBreaches(RiskLimit.ScopeType scopeType, Long scopeId, int count) {
+        PageRequest page = PageRequest.of(0, count);
+        List<LimitBreach> breaches = scopeType != null && scopeId != null
+                ? limitBreachRepository.findRecentByScope(scopeType, scopeId, page)
+                : limitBreachRepository.findRecent(page);
+        return breaches.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Checks a completed run against its portfolio's limits inside the run's transaction, so breaches
+    // commit with the run. Every breaching run is recorded and announced
+    public List<LimitBreachResponse> evaluateRun(RiskRun run) {
+        if (run.getStatus() != RiskRun.RunStatus.COMPLETED) {
+            return List.of();
+        }
+        Map<RiskLimit.Metric, BigDecimal> measures = new EnumMap<>(RiskLimit.Metric.class);
+        measures.put(RiskLimit.Metric.VAR_95, run.getVar95());
+        measures.put(RiskLimit.Metric.VAR_99, run.getVar99());
+        measures.put(RiskLimit.Metric.EXPECTED_SHORTFALL_95, run.getExpectedShortfall95());
+        measures.put(RiskLimit.Metric.EXPECTED_SHORTFALL_99, run.getExpectedShortfall99());
+        return evaluate(RiskLimit.ScopeType.PORTFOLIO, run.getPortfolio().getId(), measures,
+                LimitBreach.Source.RISK_RUN, run);
+    }
+
+    // Re-checks a node's limits whenever its risk is re-aggregated during the day. Aggregation runs
+    // read-only, so breaches are written in their own transaction, and only changes in a limit's
+    // severity are recorded, as the same node may be re-aggregated many times
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<LimitBreachResponse> evaluateNode(HierarchyRiskResponse nodeRisk) {
+        Map<RiskLimit.Metric, BigDecimal> measures = new EnumMap<>(RiskLimit.Metric.class);
+        measures.put(RiskLimit.Metric.VAR_95, nodeRisk.getVar95());
+        measures.put(RiskLimit.Metric.VAR_99, nodeRisk.getVar99());
+        measures.put(RiskLimit.Metric.EXPECTED_SHORTFALL_95, nodeRisk.getExpectedShortfall95());
+        measures.put(RiskLimit.Metric.EXPECTED_SHORTFALL_99, nodeRisk.getExpectedShortfall99());
+        return evaluate(RiskLimit.ScopeType.HIERARCHY_NODE, nodeRisk.getNodeId(), measures,
+                LimitBreach.Source.HIERARCHY_AGGREGATION, null);
+    }
+
+    private List<LimitBreachResponse> evaluate(RiskLimit.ScopeType scopeType, Long scopeId,
+            Map<RiskLimit.Metric, BigDecimal> measures, LimitBreach.Source source, RiskRun run) {
+        List<RiskLimitIndex.Limit> limits = riskLimitIndex.limitsFor(scopeType, scopeId);
+        if (limits.isEmpty()) {
+            return List.of();
+        }
+
+        List<LimitBreach> breaches = new ArrayList<>();
+        Map<Long, LimitBreach.Severity> severities = new HashMap<>();
+        for (RiskLimitIndex.Limit limit : limits) {
+            BigDecimal measured = measures.get(limit.metric());
+            if (measured == null) {
+                continue;
+            }
+            double utilization = measured.doubleValue() / limit.limitValue();
+            LimitBreach.Severity severity = utilization >= 1 ? LimitBreach.Severity.BREACH
+                    : utilization >= limit.warningThreshold() ? LimitBreach.Severity.WARNING
+                    : null;
+            boolean changed = riskLimitIndex.lastSeverity(limit.id()) != severity;
+            if (changed) {
+                severities.put(limit.id(), severity);
+            }
+            if (severity == null || (source != LimitBreach.Source.RISK_RUN && !changed)) {
+                continue;
+            }
+            breaches.add(LimitBreach.builder()
+                    .riskLimit(riskLimitRepository.getReferenceById(limit.id()))
+                    .riskRun(run)
+                    .scopeType(scopeType)
+                    .scopeId(scopeId)
+                    .metric(limit.metric())
+                    .severity(severity)
+                    .source(source)
+                    .measuredValue(measured)
+                    .limitValue(BigDecimal.valueOf(limit.limitValue()).setScale(4, RoundingMode.HALF_UP))
+                    .utilization(BigDecimal.valueOf(utilization).setScale(4, RoundingMode.HALF_UP))
+                    .build());
+        }
+        // Only a committed evaluation moves the last-seen severity, so a rolled-back run cannot
+        // suppress the next one's report
+        if (!severities.isEmpty()) {
+            afterCommit(() -> severities.forEach(riskLimitIndex::recordSeverity));
+        }
+        if (breaches.isEmpty()) {
+            return List.of();
+        }
+
+        List<LimitBreachResponse> responses = limitBreachRepository.saveAll(breaches).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        breachNotifier.notifyAfterCommit(responses);
+        return responses;
+    }
+
+    private void retire(RiskLimit limit) {
+        limit.setActive(false);
+        riskLimitRepository.saveAndFlush(limit);
+        afterCommit(() -> riskLimitIndex.remove(limit));
+    }
+
+    // The index mirrors committed limits and severities only; without a transaction there is nothing to wait for
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private RiskLimitResponse mapToResponse(RiskLimit limit) {
+        return RiskLimitResponse.builder()
+                .id(limit.getId())
+                .scopeType(limit.getScopeType())
+                .scopeId(limit.getScopeId())
+                .metric(limit.getMetric())
+                .limitValue(limit.getLimitValue())
+                .warningThreshold(limit.getWarningThreshold())
+                .active(limit.getActive())
+                .createdAt(limit.getCreatedAt())
+                .updatedAt(limit.getUpdatedAt())
+                .build();
+    }
+
+    private LimitBreachResponse mapToResponse(LimitBreach breach) {
+        return LimitBreachResponse.builder()
+                .id(breach.getId())
+                .riskLimitId(breach.getRiskLimit().getId())
+                .riskRunId(breach.getRiskRun() != null ? breach.getRiskRun().getId() : null)
+                .scopeType(breach.getScopeType())
+                .scopeId(breach.getScopeId())
+                .metric(breach.getMetric())
+                .severity(breach.getSeverity())
+                .source(breach.getSource())
+                .measuredValue(breach.getMeasuredValue())
+                .limitValue(breach.getLimitValue())
+                .utilization(breach.getUtilization())
+                .createdAt(breach.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.service.RiskReportService.ReportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Writes report files for whole batches of risk runs. Each report is generated on one worker of a
+// fixed pool with a bounded queue; when the queue is full the submitting thread writes the next
+// report itself, so heap use is capped at (threads + 1) reports in flight whatever the batch size
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RiskReportBatchService {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final RiskReportService riskReportService;
+
+    @Value("${var-calculator.reports.output-directory:${java.io.tmpdir}/var-reports}")
+    private String outputDirectory;
+
+    @Value("${var-calculator.reports.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${var-calculator.reports.threads:4}")
+    private int threads;
+
+    @Value("${var-calculator.reports.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${var-calculator.reports.batch-formats:PDF,XLSX}")
+    private List<ReportFormat> batchFormats;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("report-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // Reports for each run in every batch format, under <output-directory>/<run date>/; returns the number written
+    public int generateReports(List<Long> riskRunIds, LocalDate runDate) {
+        long startTime = System.currentTimeMillis();
+        Path directory = Paths.get(outputDirectory, runDate.toString());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create report directory " + directory, e);
+        }
+
+        List<Future<Path>> reports = new ArrayList<>(riskRunIds.size() * batchFormats.size());
+        for (Long riskRunId : riskRunIds) {
+            for (ReportFormat format : batchFormats) {
+                reports.add(executor.submit(() -> writeReportFile(directory, riskRunId, format)));
+            }
+        }
+
+        int written = 0;
+        for (Future<Path> report : reports) {
+            try {
+                report.get();
+                written++;
+            } catch (ExecutionException e) {
+                log.error("Report generation failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating reports", e);
+            }
+        }
+        log.info("Generated {} of {} reports in {} ms", written, reports.size(),
+                System.currentTimeMillis() - startTime);
+        return written;
+    }
+
+    // Deletes report files older than the retention period, then any date directories left empty
+    public int deleteExpiredReports() {
+        Path root = Paths.get(outputDirectory);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        int[] deleted = { 0 };
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (attributes.lastModifiedTime().compareTo(cutoff) < 0) {
+                        Files.delete(file);
+                        deleted[0]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                    if (!directory.equals(root)) {
+                        try (Stream<Path> entries = Files.list(directory)) {
+                            if (entries.findAny().isEmpty()) {
+                                Files.delete(directory);
+                            }
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("Report retention cleanup failed under {}", root, e);
+        }
+        if (deleted[0] > 0) {
+            log.info("Deleted {} reports older than {} days", deleted[0], retentionDays);
+        }
+        return deleted[0];
+    }
+
+    // Written to a partial file first so a crashed run never leaves a truncated report under the final name
+    private Path writeReportFile(Path directory, Long riskRunId, ReportFormat format) throws IOException {
+        Path target = directory.resolve(String.format("var-report-run-%d.%s", riskRunId, format.getExtension()));
+        Path partial = directory.resolve(target.getFileName() + PARTIAL_SUFFIX);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            riskReportService.writeReport(riskRunId, format, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,211 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.RiskBreakdownRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class RiskReportService {
+
+    public enum ReportFormat {
+        PDF("pdf", MediaType.APPLICATION_PDF_VALUE),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        private final String extension;
+        private final String contentType;
+
+        ReportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static ReportFormat of(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final String[] BREAKDOWN_HEADERS = { "Symbol", "Name", "Position Value", "Weight",
+            "Marginal VaR", "Component VaR", "Individual VaR", "Volatility", "Contribution %" };
+    private static final String NUMBER_FORMAT = "#,##0.00####";
+    // Rows kept in memory by the streaming workbook before it spills to its temp file
+    private static final int XLSX_ROW_WINDOW = 100;
+    // Rows added to the PDF table before the finished part is written out
+    private static final int PDF_FLUSH_ROWS = 100;
+
+    private final RiskRunRepository riskRunRepository;
+    private final RiskBreakdownRepository riskBreakdownRepository;
+
+    public RiskRun getReportRun(Long portfolioId, Long riskRunId) {
+        RiskRun riskRun = riskRunRepository.findById(riskRunId)
+                .orElseThrow(() -> new RuntimeException("Risk run not found with ID: " + riskRunId));
+        if (!riskRun.getPortfolio().getId().equals(portfolioId)) {
+            throw new RuntimeException("Risk run not found with ID: " + riskRunId);
+        }
+        return riskRun;
+    }
+
+    public String fileName(RiskRun riskRun, ReportFormat format) {
+        return String.format("var-report-portfolio-%d-run-%d.%s", riskRun.getPortfolio().getId(), riskRun.getId(),
+                format.getExtension());
+    }
+
+    // Breakdown rows are streamed from a server-side cursor into the document, so memory stays flat
+    // however many instruments the run covers
+    public void writeReport(Long riskRunId, ReportFormat format, OutputStream out) throws IOException {
+        RiskRun riskRun = riskRunRepository.findById(riskRunId)
+                .orElseThrow(() -> new RuntimeException("Risk run not found with ID: " + riskRunId));
+        try (Stream<Object[]> rows = riskBreakdownRepository.streamReportRows(riskRunId)) {
+            switch (format) {
+                case PDF:
+                    writePdf(riskRun, rows.iterator(), out);
+                    break;
+                case XLSX:
+                    writeXlsx(riskRun, rows.iterator(), out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported report format: " + format);
+            }
+        }
+    }
+
+    private void writePdf(RiskRun riskRun, Iterator<Object[]> rows, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        try (Document document = new Document(new PdfDocument(writer), PageSize.A4.rotate())) {
+            document.add(new Paragraph("Value at Risk Report").setBold().setFontSize(16));
+            document.add(new Paragraph(riskRun.getPortfolio().getName() + " - " + riskRun.getVarMethod()
+                    + " VaR, run " + riskRun.getId() + " on " + riskRun.getRunDate()));
+
+            Table summary = new Table(UnitValue.createPercentArray(2)).useAllAvailableWidth();
+            for (String[] line : summaryLines(riskRun)) {
+                summary.addCell(line[0]);
+                summary.addCell(line[1]);
+            }
+            document.add(summary);
+
+            document.add(new Paragraph("Risk Breakdown").setBold().setMarginTop(12));
+            // Large table: completed rows are laid out and released as they are added
+            Table breakdown = new Table(UnitValue.createPercentArray(BREAKDOWN_HEADERS.length), true)
+                    .useAllAvailableWidth();
+            for (String header : BREAKDOWN_HEADERS) {
+                breakdown.addHeaderCell(new Paragraph(header).setBold());
+            }
+            document.add(breakdown);
+            int added = 0;
+            while (rows.hasNext()) {
+                for (Object value : rows.next()) {
+                    breakdown.addCell(format(value));
+                }
+                if (++added % PDF_FLUSH_ROWS == 0) {
+                    breakdown.flush();
+                }
+            }
+            breakdown.complete();
+        }
+    }
+
+    private void writeXlsx(RiskRun riskRun, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle decimal = workbook.createCellStyle();
+            decimal.setDataFormat(workbook.createDataFormat().getFormat(NUMBER_FORMAT));
+
+            Sheet summary = workbook.createSheet("Summary");
+            int summaryRow = 0;
+            for (String[] line : summaryLines(riskRun)) {
+                Row row = summary.createRow(summaryRow++);
+                row.createCell(0).setCellValue(line[0]);
+                row.createCell(1).setCellValue(line[1]);
+            }
+
+            Sheet breakdown = workbook.createSheet("Risk Breakdown");
+            Row header = breakdown.createRow(0);
+            for (int c = 0; c < BREAKDOWN_HEADERS.length; c++) {
+                header.createCell(c).setCellValue(BREAKDOWN_HEADERS[c]);
+            }
+            int rowIndex = 1;
+            while (rows.hasNext()) {
+                Object[] values = rows.next();
+                Row row = breakdown.createRow(rowIndex++);
+                for (int c = 0; c < values.length; c++) {
+                    if (values[c] instanceof BigDecimal) {
+                        Cell cell = row.createCell(c);
+                        cell.setCellValue(((BigDecimal) values[c]).doubleValue());
+                        cell.setCellStyle(decimal);
+                    } else if (values[c] != null) {
+                        row.createCell(c).setCellValue(values[c].toString());
+                    }
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private String[][] summaryLines(RiskRun riskRun) {
+        return new String[][] {
+                { "Portfolio", riskRun.getPortfolio().getName() },
+                { "Base Currency", riskRun.getPortfolio().getBaseCurrency() },
+                { "Run Date", String.valueOf(riskRun.getRunDate()) },
+                { "Method", String.valueOf(riskRun.getVarMethod()) },
+                { "Window Size", String.valueOf(riskRun.getWindowSize()) },
+                { "Status", String.valueOf(riskRun.getStatus()) },
+                { "Portfolio Value", format(riskRun.getPortfolioValue()) },
+                { "VaR 95%", format(riskRun.getVar95()) },
+                { "VaR 99%", format(riskRun.getVar99()) },
+                { "Expected Shortfall 95%", format(riskRun.getExpectedShortfall95()) },
+                { "Expected Shortfall 99%", format(riskRun.getExpectedShortfall99()) },
+                { "Volatility", format(riskRun.getPortfolioVolatility()) }
+        };
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "-";
+        }
+        if (value instanceof BigDecimal) {
+            return new DecimalFormat(NUMBER_FORMAT, DecimalFormatSymbols.getInstance(Locale.ROOT)).format(value);
+        }
+        return value.toString();
+    }
+}
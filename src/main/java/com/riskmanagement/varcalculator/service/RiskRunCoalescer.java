@@ -0,0 +1,93 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
+import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.engine.MonteCarloSimulation;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Single-flight front for on-demand risk runs. Identical requests for a portfolio that arrive
+ * while one is already computing wait for it and share its result and {@code RiskRun}, rather
+ * than repeating the work. Only in-flight runs are shared; nothing is kept once a run finishes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskRunCoalescer {
+
+    private final VarCalculationService varCalculationService;
+    private final ComputeScheduler computeScheduler;
+
+    private final Map<RunKey, CompletableFuture<VarCalculationResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // Everything in the request that changes the result, with confidence levels compared by value
+    record RunKey(Long portfolioId, RiskRun.VarMethod varMethod, List<BigDecimal> confidenceLevels,
+            Integer windowSize, Integer monteCarloSimulations, MonteCarloSimulation.Sampling monteCarloSampling,
+            Boolean antitheticVariates, Boolean importanceSampling, ScenarioRevaluation.Mode revaluationMode,
+            Boolean persistPositionVectors) {
+
+        static RunKey of(Long portfolioId, VarCalculationRequest request) {
+            List<BigDecimal> confidenceLevels = request.getConfidenceLevels().stream()
+                    .map(BigDecimal::stripTrailingZeros)
+                    .collect(Collectors.toList());
+            return new RunKey(portfolioId, request.getVarMethod(), confidenceLevels, request.getWindowSize(),
+                    request.getMonteCarloSimulations(), request.getMonteCarloSampling(),
+                    request.getAntitheticVariates(), request.getImportanceSampling(),
+                    request.getRevaluationMode(), request.getPersistPositionVectors());
+        }
+    }
+
+    // Only the first caller's tenant is charged for a shared run
+    public VarCalculationResponse calculateVar(Long portfolioId, VarCalculationRequest request, String tenant) {
+        RunKey key = RunKey.of(portfolioId, request);
+        CompletableFuture<VarCalculationResponse> run = new CompletableFuture<>();
+        CompletableFuture<VarCalculationResponse> existing = inFlight.putIfAbsent(key, run);
+        if (existing != null) {
+            log.debug("Joining in-flight {} run for portfolio {}", request.getVarMethod(), portfolioId);
+            return await(existing);
+        }
+
+        // The first caller's run is computed once admitted; its transaction has committed by the time
+        // followers see the result, so the shared RiskRun is already readable
+        try {
+            run.complete(computeScheduler.run(tenant, ComputeScheduler.Lane.INTERACTIVE,
+                    computeScheduler.estimateCost(portfolioId, request),
+                    () -> varCalculationService.calculateVar(portfolioId, request)));
+        } catch (Throwable e) {
+            run.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, run);
+        }
+        return await(run);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static VarCalculationResponse await(CompletableFuture<VarCalculationResponse> run) {
+        try {
+            return run.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
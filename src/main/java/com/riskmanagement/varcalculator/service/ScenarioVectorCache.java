@@ -0,0 +1,138 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scenario P&L vectors per portfolio and per hierarchy node, so aggregation only recomputes
+ * what changed. Evicting a portfolio also evicts every ancestor node, using the parent links
+ * recorded by the last aggregation. Every eviction bumps a generation counter; vectors computed
+ * under an older generation are never cached, so an aggregation racing an eviction cannot put
+ * back a sum that is missing or mis-stating the evicted portfolio.
+ * <p>
+ * Evictions requested inside a transaction wait for it to commit. Evicting earlier would let an
+ * aggregation read the still-visible old rows under the new generation and cache them for good.
+ */
+@Component
+@Slf4j
+public class ScenarioVectorCache {
+
+    // Only a few as-of dates are useful at once (today plus ad hoc re-runs)
+    private static final int MAX_SCENARIO_KEYS = 4;
+
+    private final Map<ScenarioKey, Map<Long, ScenarioVector>> portfolioVectors = new ConcurrentHashMap<>();
+    private final Map<ScenarioKey, Map<Long, ScenarioVector>> nodeVectors = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> portfolioParents = Map.of();
+    private volatile Map<Long, Long> nodeParents = Map.of();
+    private final AtomicLong generation = new AtomicLong();
+
+    public record ScenarioKey(LocalDate asOfDate, int windowSize) {
+    }
+
+    // Read before loading anything a vector is computed from, and passed back when caching it
+    public long generation() {
+        return generation.get();
+    }
+
+    public ScenarioVector getPortfolioVector(ScenarioKey key, Long portfolioId) {
+        return vectorsFor(portfolioVectors, key).get(portfolioId);
+    }
+
+    public void putPortfolioVector(ScenarioKey key, Long portfolioId, ScenarioVector vector, long computedAt) {
+        putIfCurrent(vectorsFor(portfolioVectors, key), portfolioId, vector, computedAt);
+    }
+
+    public ScenarioVector getNodeVector(ScenarioKey key, Long nodeId) {
+        return vectorsFor(nodeVectors, key).get(nodeId);
+    }
+
+    public void putNodeVector(ScenarioKey key, Long nodeId, ScenarioVector vector, long computedAt) {
+        putIfCurrent(vectorsFor(nodeVectors, key), nodeId, vector, computedAt);
+    }
+
+    public void recordStructure(Map<Long, Long> portfolioParents, Map<Long, Long> nodeParents) {
+        this.portfolioParents = Map.copyOf(portfolioParents);
+        this.nodeParents = Map.copyOf(nodeParents);
+    }
+
+    public void invalidatePortfolio(Long portfolioId) {
+        afterCommit(() -> evictPortfolio(portfolioId));
+    }
+
+    // Used when the hierarchy itself changes and cached node sums no longer match the tree
+    public void invalidateNodes() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            nodeVectors.clear();
+        });
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            portfolioVectors.clear();
+            nodeVectors.clear();
+        });
+    }
+
+    private void evictPortfolio(Long portfolioId) {
+        generation.incrementAndGet();
+        portfolioVectors.values().forEach(vectors -> vectors.remove(portfolioId));
+        Long nodeId = portfolioParents.get(portfolioId);
+        while (nodeId != null) {
+            Long evicted = nodeId;
+            nodeVectors.values().forEach(vectors -> vectors.remove(evicted));
+            nodeId = nodeParents.get(nodeId);
+        }
+        log.debug("Evicted scenario vectors for portfolio {} and its ancestors", portfolioId);
+    }
+
+    // A rolled-back change leaves the cache as it was; without a transaction there is nothing to wait for
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    // Evictions bump the generation before removing, so an entry put after a concurrent eviction
+    // began is either seen here and withdrawn, or removed by the eviction itself
+    private void putIfCurrent(Map<Long, ScenarioVector> vectors, Long id, ScenarioVector vector, long computedAt) {
+        if (generation.get() != computedAt) {
+            return;
+        }
+        vectors.put(id, vector);
+        if (generation.get() != computedAt) {
+            vectors.remove(id, vector);
+        }
+    }
+
+    private Map<Long, ScenarioVector> vectorsFor(Map<ScenarioKey, Map<Long, ScenarioVector>> cache,
+            ScenarioKey key) {
+        Map<Long, ScenarioVector> vectors = cache.get(key);
+        if (vectors != null) {
+            return vectors;
+        }
+        if (cache.size() >= MAX_SCENARIO_KEYS) {
+            cache.keySet().stream()
+                    .min(Comparator.comparing(ScenarioKey::asOfDate))
+                    .ifPresent(cache::remove);
+        }
+        return cache.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+}
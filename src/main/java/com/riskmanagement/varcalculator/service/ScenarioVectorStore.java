@@ -0,0 +1,91 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import com.riskmanagement.varcalculator.engine.ScenarioVectorCodec;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.RiskRunScenarioVector;
+import com.riskmanagement.varcalculator.repository.InstrumentRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunScenarioVectorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ScenarioVectorStore {
+
+    // Below this many rows decoding is cheaper than forking
+    private static final int PARALLEL_DECODE_THRESHOLD = 256;
+
+    private final RiskRunScenarioVectorRepository scenarioVectorRepository;
+    private final InstrumentRepository instrumentRepository;
+
+    @Value("${var-calculator.scenario-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${var-calculator.scenario-store.encoding:FLOAT32}")
+    private ScenarioVectorCodec.Encoding encoding;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void save(RiskRun riskRun, ScenarioVector portfolioVector, Map<Long, ScenarioVector> instrumentVectors) {
+        List<RiskRunScenarioVector> records = new ArrayList<>(instrumentVectors.size() + 1);
+        records.add(toRecord(riskRun, null, portfolioVector));
+        instrumentVectors.forEach((instrumentId, vector) -> records.add(toRecord(riskRun, instrumentId, vector)));
+
+        scenarioVectorRepository.saveAll(records);
+        log.debug("Stored {} scenario vectors of {} scenarios for risk run {}", records.size(),
+                portfolioVector.size(), riskRun.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, ScenarioVector> loadPortfolioVectors(Collection<Long> riskRunIds) {
+        return decode(scenarioVectorRepository.findPortfolioVectorData(riskRunIds));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, ScenarioVector> loadInstrumentVectors(Long riskRunId) {
+        return decode(scenarioVectorRepository.findInstrumentVectorData(riskRunId));
+    }
+
+    // Keyed by portfolio id; only runs newer than the portfolio's last position change qualify
+    @Transactional(readOnly = true)
+    public Map<Long, ScenarioVector> loadLatestPortfolioVectors(Collection<Long> portfolioIds, int windowSize,
+            LocalDate runDate) {
+        if (portfolioIds.isEmpty()) {
+            return Map.of();
+        }
+        return decode(scenarioVectorRepository.findLatestPortfolioVectorData(portfolioIds, windowSize, runDate));
+    }
+
+    private RiskRunScenarioVector toRecord(RiskRun riskRun, Long instrumentId, ScenarioVector vector) {
+        return RiskRunScenarioVector.builder()
+                .riskRun(riskRun)
+                .instrument(instrumentId != null ? instrumentRepository.getReferenceById(instrumentId) : null)
+                .encoding(encoding)
+                .scenarioCount(vector.size())
+                .data(ScenarioVectorCodec.encode(vector, encoding))
+                .build();
+    }
+
+    private Map<Long, ScenarioVector> decode(List<Object[]> rows) {
+        Stream<Object[]> stream = rows.size() >= PARALLEL_DECODE_THRESHOLD ? rows.parallelStream() : rows.stream();
+        return stream.collect(Collectors.toMap(
+                row -> ((Number) row[0]).longValue(),
+                row -> ScenarioVectorCodec.decode((byte[]) row[1])));
+    }
+}
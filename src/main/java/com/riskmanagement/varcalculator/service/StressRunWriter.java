@@ -0,0 +1,173 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.StressScenarioSummaryResponse;
+import com.riskmanagement.varcalculator.engine.MatrixKernels;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.StressResult;
+import com.riskmanagement.varcalculator.entity.StressRun;
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.StressResultRepository;
+import com.riskmanagement.varcalculator.repository.StressRunRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The write half of a stress run. StressTestService builds the shock matrix, historical windows included,
+// before calling in here, so the write transaction never waits on a second pooled connection
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StressRunWriter {
+
+    private final StressRunRepository stressRunRepository;
+    private final StressResultRepository stressResultRepository;
+    private final StressScenarioRepository stressScenarioRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final MarketDataService marketDataService;
+    private final InstrumentPricingService instrumentPricingService;
+    private final EntityManager entityManager;
+
+    @Value("${var-calculator.stress.portfolio-chunk-size:250}")
+    private int portfolioChunkSize;
+
+    public record WrittenRun(StressRun run, List<StressScenarioSummaryResponse> summaries) {
+    }
+
+    // The scenarios x factors matrix of simple-return shocks times a factors x portfolios exposure matrix, a
+    // chunk of portfolios at a time so exposures and pending result rows stay bounded. Options and priced
+    // bonds are repriced in full at their underlying's shocked level and added on top of the product
+    @Transactional
+    public WrittenRun write(List<StressScenario> scenarios, List<Long> portfolioIds, ReturnMatrix factorAxis,
+            double[] shocks, long startTime) {
+        LocalDate runDate = LocalDate.now();
+        StressRun run = stressRunRepository.save(StressRun.builder()
+                .runDate(runDate)
+                .status(RiskRun.RunStatus.RUNNING)
+                .scenarioCount(scenarios.size())
+                .portfolioCount(portfolioIds.size())
+                .build());
+
+        int scenarioCount = scenarios.size();
+        int factorCount = factorAxis.columns();
+        double[] totals = new double[scenarioCount];
+        double[] worst = new double[scenarioCount];
+        long[] worstPortfolios = new long[scenarioCount];
+        Arrays.fill(worst, Double.POSITIVE_INFINITY);
+        int stressed = 0;
+        double[] factorMoves = null;
+        for (int from = 0; from < portfolioIds.size(); from += portfolioChunkSize) {
+            List<Portfolio> portfolios = portfolioRepository.findByIdsWithPositions(
+                    portfolioIds.subList(from, Math.min(portfolioIds.size(), from + portfolioChunkSize)));
+            int chunk = portfolios.size();
+
+            // Factors x portfolios, row-major
+            double[] exposureMatrix = new double[factorCount * chunk];
+            double[] values = new double[chunk];
+            double[][] revalued = new double[chunk][];
+            for (int p = 0; p < chunk; p++) {
+                Portfolio portfolio = portfolios.get(p);
+                ScenarioRevaluation revaluation = instrumentPricingService.revaluation(factorAxis,
+                        portfolio.getPositions(), portfolio.getBaseCurrency(), ScenarioRevaluation.Mode.FULL,
+                        runDate);
+                double[] exposures = revaluation.getLinearExposures();
+                for (int f = 0; f < factorCount; f++) {
+                    exposureMatrix[f * chunk + p] = exposures[f];
+                }
+                if (!revaluation.isLinear()) {
+                    if (factorMoves == null) {
+                        factorMoves = logReturnsByFactor(shocks, scenarioCount, factorCount);
+                    }
+                    revalued[p] = new ScenarioRevaluation(new double[factorCount], revaluation.getHoldings(),
+                            ScenarioRevaluation.Mode.FULL).profitAndLoss(factorMoves, scenarioCount);
+                }
+                values[p] = marketDataService.valueInBaseCurrency(portfolio.getPositions(),
+                        portfolio.getBaseCurrency());
+            }
+            double[] profitAndLoss = MatrixKernels.multiply(shocks, scenarioCount, factorCount, exposureMatrix, chunk);
+            for (int p = 0; p < chunk; p++) {
+                if (revalued[p] != null) {
+                    for (int s = 0; s < scenarioCount; s++) {
+                        profitAndLoss[s * chunk + p] += revalued[p][s];
+                    }
+                }
+            }
+
+            StressRun runReference = stressRunRepository.getReferenceById(run.getId());
+            List<StressResult> results = new ArrayList<>(scenarioCount * chunk);
+            for (int s = 0; s < scenarioCount; s++) {
+                StressScenario scenarioReference = stressScenarioRepository.getReferenceById(scenarios.get(s).getId());
+                for (int p = 0; p < chunk; p++) {
+                    double pnl = profitAndLoss[s * chunk + p];
+                    totals[s] += pnl;
+                    if (pnl < worst[s]) {
+                        worst[s] = pnl;
+                        worstPortfolios[s] = portfolios.get(p).getId();
+                    }
+                    results.add(StressResult.builder()
+                            .stressRun(runReference)
+                            .scenario(scenarioReference)
+                            .portfolio(portfolios.get(p))
+                            .profitAndLoss(scale(pnl))
+                            .portfolioValue(scale(values[p]))
+                            .build());
+                }
+            }
+            stressResultRepository.saveAll(results);
+            // Written out and detached per chunk so the persistence context never holds a whole run
+            entityManager.flush();
+            entityManager.clear();
+            stressed += chunk;
+        }
+
+        run.setStatus(RiskRun.RunStatus.COMPLETED);
+        run.setPortfolioCount(stressed);
+        run.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+        StressRun savedRun = stressRunRepository.save(run);
+
+        List<StressScenarioSummaryResponse> summaries = new ArrayList<>(scenarioCount);
+        for (int s = 0; s < scenarioCount; s++) {
+            summaries.add(StressScenarioSummaryResponse.builder()
+                    .scenarioId(scenarios.get(s).getId())
+                    .scenarioName(scenarios.get(s).getName())
+                    .totalProfitAndLoss(scale(totals[s]))
+                    .worstProfitAndLoss(stressed > 0 ? scale(worst[s]) : null)
+                    .worstPortfolioId(stressed > 0 ? worstPortfolios[s] : null)
+                    .build());
+        }
+
+        log.info("Stress run {} finished: {} scenarios x {} portfolios over {} factors in {} ms", savedRun.getId(),
+                scenarioCount, stressed, factorCount, savedRun.getExecutionTimeMs());
+        return new WrittenRun(savedRun, summaries);
+    }
+
+    // The shocks transposed to factors x scenarios and taken as log returns, the layout and measure
+    // ScenarioRevaluation prices holdings from
+    private static double[] logReturnsByFactor(double[] shocks, int scenarioCount, int factorCount) {
+        double[] moves = new double[factorCount * scenarioCount];
+        for (int s = 0; s < scenarioCount; s++) {
+            for (int f = 0; f < factorCount; f++) {
+                moves[f * scenarioCount + s] = Math.log1p(shocks[s * factorCount + f]);
+            }
+        }
+        return moves;
+    }
+
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,389 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.CreateStressScenarioRequest;
+import com.riskmanagement.varcalculator.dto.request.StressShockRequest;
+import com.riskmanagement.varcalculator.dto.request.StressTestRequest;
+import com.riskmanagement.varcalculator.dto.response.StressResultResponse;
+import com.riskmanagement.varcalculator.dto.response.StressRunResponse;
+import com.riskmanagement.varcalculator.dto.response.StressScenarioResponse;
+import com.riskmanagement.varcalculator.dto.response.StressScenarioSummaryResponse;
+import com.riskmanagement.varcalculator.dto.response.StressShockResponse;
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.StressRun;
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.entity.StressScenarioShock;
+import com.riskmanagement.varcalculator.repository.InstrumentRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.StressResultRepository;
+import com.riskmanagement.varcalculator.repository.StressRunRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class StressTestService {
+
+    private final StressScenarioRepository stressScenarioRepository;
+    private final StressRunRepository stressRunRepository;
+    private final StressResultRepository stressResultRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final InstrumentRepository instrumentRepository;
+    private final MarketDataService marketDataService;
+    private final StressRunWriter stressRunWriter;
+
+    public StressScenarioResponse createScenario(CreateStressScenarioRequest request) {
+        log.info("Creating {} stress scenario {}", request.getScenarioType(), request.getName());
+
+        if (stressScenarioRepository.existsByName(request.getName())) {
+            throw new RuntimeException("Stress scenario already exists with name: " + request.getName());
+        }
+        if (request.getScenarioType() == StressScenario.ScenarioType.HISTORICAL) {
+            if (request.getStartDate() == null || request.getEndDate() == null
+                    || !request.getEndDate().isAfter(request.getStartDate())) {
+                throw new IllegalArgumentException("Historical scenarios need a start date before the end date");
+            }
+        } else if (request.getShocks().isEmpty()) {
+            throw new IllegalArgumentException("Hypothetical scenarios need at least one shock");
+        }
+
+        StressScenario scenario = StressScenario.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .scenarioType(request.getScenarioType())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .build();
+        for (StressShockRequest shock : request.getShocks()) {
+            if (shock.getTargetType() != StressScenarioShock.TargetType.ALL
+                    && (shock.getTarget() == null || shock.getTarget().isBlank())) {
+                throw new IllegalArgumentException("Shock target is required for " + shock.getTargetType());
+            }
+            scenario.getShocks().add(StressScenarioShock.builder()
+                    .scenario(scenario)
+                    .targetType(shock.getTargetType())
+                    .target(shock.getTargetType() == StressScenarioShock.TargetType.ALL ? null : shock.getTarget())
+                    .shock(shock.getShock())
+                    .build());
+        }
+
+        return mapToResponse(stressScenarioRepository.save(scenario));
+    }
+
+    @Transactional(readOnly = true)
+    public List<StressScenarioResponse> getScenarios() {
+        return stressScenarioRepository.findAllWithShocks().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public void deactivateScenario(Long scenarioId) {
+        log.info("Deactivating stress scenario {}", scenarioId);
+
+        StressScenario scenario = stressScenarioRepository.findById(scenarioId)
+                .orElseThrow(() -> new RuntimeException("Stress scenario not found with ID: " + scenarioId));
+        scenario.setActive(false);
+        stressScenarioRepository.save(scenario);
+    }
+
+    // Every active scenario against every portfolio in one pass. Scenarios, holdings and the historical
+    // windows are all read before StressRunWriter opens the write transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StressRunResponse runStressTests(StressTestRequest request) {
+        long startTime = System.currentTimeMillis();
+
+        List<StressScenario> scenarios = stressScenarioRepository.findActiveWithShocks();
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("No active stress scenarios");
+        }
+        List<Long> portfolioIds = request.getPortfolioIds() != null && !request.getPortfolioIds().isEmpty()
+                ? request.getPortfolioIds().stream().distinct().collect(Collectors.toList())
+                : portfolioRepository.findByStatus(Portfolio.PortfolioStatus.ACTIVE).stream()
+                        .map(Portfolio::getId)
+                        .collect(Collectors.toList());
+        if (portfolioIds.isEmpty()) {
+            throw new IllegalArgumentException("No portfolios to stress");
+        }
+        log.info("Starting stress run of {} scenarios over {} portfolios", scenarios.size(), portfolioIds.size());
+
+        // Held instruments plus the underlyings options and priced bonds are repriced from, each shocked by
+        // its own rules
+        List<Instrument> instruments = new ArrayList<>(instrumentRepository.findHeldByPortfolioIds(portfolioIds));
+        Set<Long> heldIds = instruments.stream()
+                .map(Instrument::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+        for (Instrument underlying : instrumentRepository.findUnderlyingsHeldByPortfolioIds(portfolioIds)) {
+            if (heldIds.add(underlying.getId())) {
+                instruments.add(underlying);
+            }
+        }
+        Set<String> currencies = new TreeSet<>(portfolioRepository.findBaseCurrencies(portfolioIds));
+        for (Instrument instrument : instruments) {
+            if (instrument.getCurrency() != null && !instrument.getCurrency().isBlank()) {
+                currencies.add(instrument.getCurrency());
+            }
+        }
+        currencies.removeIf(currency -> !FxFactors.hasFactor(currency));
+        long[] factorIds = new long[instruments.size() + currencies.size()];
+        int factor = 0;
+        for (Instrument instrument : instruments) {
+            factorIds[factor++] = instrument.getId();
+        }
+        for (String currency : currencies) {
+            factorIds[factor++] = FxFactors.factorId(currency);
+        }
+        // Exposures are laid out against this factor axis; it carries no return rows of its own
+        ReturnMatrix factorAxis = new ReturnMatrix(List.of(), factorIds, new double[0]);
+        Map<StressScenario, CloseMatrix> windows = historicalCloses(scenarios, factorAxis);
+
+        int factorCount = factorAxis.columns();
+        List<StressScenario> stressed = new ArrayList<>(scenarios.size());
+        List<String> skipped = new ArrayList<>();
+        double[] shocks = new double[scenarios.size() * factorCount];
+        for (StressScenario scenario : scenarios) {
+            int offset = stressed.size() * factorCount;
+            if (scenario.getScenarioType() == StressScenario.ScenarioType.HISTORICAL) {
+                if (historicalShocks(scenario, windows.get(scenario), factorAxis, shocks, offset) == 0) {
+                    log.warn("Stress scenario {} skipped: no prices between {} and {} (archived or never loaded)",
+                            scenario.getName(), scenario.getStartDate(), scenario.getEndDate());
+                    skipped.add(scenario.getName());
+                    continue;
+                }
+            } else {
+                hypotheticalShocks(scenario, instruments, factorAxis, shocks, offset);
+            }
+            stressed.add(scenario);
+        }
+        if (stressed.isEmpty()) {
+            throw new IllegalArgumentException("No price history inside any active historical stress scenario");
+        }
+
+        StressRunWriter.WrittenRun written = stressRunWriter.write(stressed, portfolioIds, factorAxis,
+                Arrays.copyOf(shocks, stressed.size() * factorCount), startTime);
+        StressRunResponse response = mapToResponse(written.run(), written.summaries());
+        response.setFactorCount(factorIds.length);
+        response.setSkippedScenarios(skipped);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public StressRunResponse getStressRun(Long stressRunId) {
+        StressRun run = stressRunRepository.findById(stressRunId)
+                .orElseThrow(() -> new RuntimeException("Stress run not found with ID: " + stressRunId));
+
+        Map<Long, Long> worstPortfolios = stressResultRepository.findWorstPortfolios(stressRunId).stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).longValue()));
+        List<StressScenarioSummaryResponse> summaries = stressResultRepository.summarizeByScenario(stressRunId)
+                .stream()
+                .map(row -> StressScenarioSummaryResponse.builder()
+                        .scenarioId((Long) row[0])
+                        .scenarioName((String) row[1])
+                        .totalProfitAndLoss((BigDecimal) row[2])
+                        .worstProfitAndLoss((BigDecimal) row[3])
+                        .worstPortfolioId(worstPortfolios.get((Long) row[0]))
+                        .build())
+                .collect(Collectors.toList());
+        return mapToResponse(run, summaries);
+    }
+
+    // Results of the given stress run, or of the latest completed one, worst scenario first
+    @Transactional(readOnly = true)
+    public List<StressResultResponse> getPortfolioResults(Long portfolioId, Long stressRunId) {
+        Long runId = stressRunId != null ? stressRunId
+                : stressRunRepository.findTopByStatusOrderByIdDesc(RiskRun.RunStatus.COMPLETED)
+                        .map(StressRun::getId)
+                        .orElseThrow(() -> new RuntimeException("No completed stress run found"));
+
+        return stressResultRepository.findPortfolioResults(runId, portfolioId).stream()
+                .map(row -> {
+                    BigDecimal profitAndLoss = (BigDecimal) row[2];
+                    BigDecimal portfolioValue = (BigDecimal) row[3];
+                    return StressResultResponse.builder()
+                            .stressRunId(runId)
+                            .portfolioId(portfolioId)
+                            .scenarioId((Long) row[0])
+                            .scenarioName((String) row[1])
+                            .profitAndLoss(profitAndLoss)
+                            .portfolioValue(portfolioValue)
+                            .profitAndLossPercentage(portfolioValue.signum() != 0
+                                    ? profitAndLoss.divide(portfolioValue, 6, RoundingMode.HALF_UP).movePointRight(2)
+                                    : null)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Historical windows merged where they overlap, so each stretch of history is loaded once and the gaps
+    // between distant crises are not loaded at all. Every historical scenario maps to the load covering it
+    private Map<StressScenario, CloseMatrix> historicalCloses(List<StressScenario> scenarios,
+            ReturnMatrix factorAxis) {
+        List<StressScenario> historical = scenarios.stream()
+                .filter(scenario -> scenario.getScenarioType() == StressScenario.ScenarioType.HISTORICAL)
+                .sorted(Comparator.comparing(StressScenario::getStartDate))
+                .collect(Collectors.toList());
+        List<Long> factorIds = Arrays.stream(factorAxis.getInstrumentIds()).boxed().collect(Collectors.toList());
+        Map<StressScenario, CloseMatrix> windows = new HashMap<>();
+        int from = 0;
+        while (from < historical.size()) {
+            LocalDate start = historical.get(from).getStartDate();
+            LocalDate end = historical.get(from).getEndDate();
+            int to = from + 1;
+            while (to < historical.size() && !historical.get(to).getStartDate().isAfter(end)) {
+                if (historical.get(to).getEndDate().isAfter(end)) {
+                    end = historical.get(to).getEndDate();
+                }
+                to++;
+            }
+            CloseMatrix closes = marketDataService.loadCloseMatrix(factorIds, start, end);
+            for (StressScenario scenario : historical.subList(from, to)) {
+                windows.put(scenario, closes);
+            }
+            from = to;
+        }
+        return windows;
+    }
+
+    // Each factor's move from its first to its last close inside the scenario's slice of its window, as a
+    // simple return. Factors with fewer than two closes in the slice (listed later, say) are left unshocked.
+    // Returns the number of factors with a move, 0 when the window has no prices at all
+    private int historicalShocks(StressScenario scenario, CloseMatrix history, ReturnMatrix factorAxis,
+            double[] shocks, int offset) {
+        List<LocalDate> dates = history.dates();
+        long[] ids = history.instrumentIds();
+        double[] closes = history.closes();
+        int covered = 0;
+        for (int c = 0; c < ids.length; c++) {
+            double first = Double.NaN;
+            double last = Double.NaN;
+            int count = 0;
+            for (int r = 0; r < dates.size(); r++) {
+                LocalDate date = dates.get(r);
+                double close = closes[r * ids.length + c];
+                if (date.isBefore(scenario.getStartDate()) || date.isAfter(scenario.getEndDate())
+                        || Double.isNaN(close) || close <= 0) {
+                    continue;
+                }
+                if (count++ == 0) {
+                    first = close;
+                }
+                last = close;
+            }
+            if (count < 2) {
+                continue;
+            }
+            covered++;
+            shocks[offset + factorAxis.columnOf(ids[c])] = last / first - 1;
+        }
+        if (covered > 0 && covered < ids.length) {
+            log.warn("Stress scenario {}: {} of {} factors have no prices between {} and {} and are left unshocked",
+                    scenario.getName(), ids.length - covered, ids.length, scenario.getStartDate(),
+                    scenario.getEndDate());
+        }
+        return covered;
+    }
+
+    // The most specific rule wins: instrument symbol, then sector, then instrument type, then ALL
+    private void hypotheticalShocks(StressScenario scenario, List<Instrument> instruments, ReturnMatrix factorAxis,
+            double[] shocks, int offset) {
+        Map<StressScenarioShock.TargetType, Map<String, Double>> rules = new HashMap<>();
+        Double all = null;
+        for (StressScenarioShock shock : scenario.getShocks()) {
+            if (shock.getTargetType() == StressScenarioShock.TargetType.ALL) {
+                all = shock.getShock().doubleValue();
+                continue;
+            }
+            rules.computeIfAbsent(shock.getTargetType(), type -> new HashMap<>())
+                    .put(key(shock.getTarget()), shock.getShock().doubleValue());
+        }
+        Map<String, Double> byInstrument = rules.getOrDefault(StressScenarioShock.TargetType.INSTRUMENT, Map.of());
+        Map<String, Double> bySector = rules.getOrDefault(StressScenarioShock.TargetType.SECTOR, Map.of());
+        Map<String, Double> byType = rules.getOrDefault(StressScenarioShock.TargetType.INSTRUMENT_TYPE, Map.of());
+        Map<String, Double> byCurrency = rules.getOrDefault(StressScenarioShock.TargetType.CURRENCY, Map.of());
+
+        for (Instrument instrument : instruments) {
+            Double shock = byInstrument.get(key(instrument.getSymbol()));
+            if (shock == null && instrument.getSector() != null) {
+                shock = bySector.get(key(instrument.getSector()));
+            }
+            if (shock == null) {
+                shock = byType.get(instrument.getType().name());
+            }
+            if (shock == null) {
+                shock = all;
+            }
+            if (shock != null) {
+                shocks[offset + factorAxis.columnOf(instrument.getId())] = shock;
+            }
+        }
+        for (long factorId : factorAxis.getInstrumentIds()) {
+            Double shock = FxFactors.isFxFactor(factorId) ? byCurrency.get(FxFactors.currency(factorId)) : null;
+            if (shock != null) {
+                shocks[offset + factorAxis.columnOf(factorId)] = shock;
+            }
+        }
+    }
+
+    private static String key(String target) {
+        return target.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private StressScenarioResponse mapToResponse(StressScenario scenario) {
+        return StressScenarioResponse.builder()
+                .id(scenario.getId())
+                .name(scenario.getName())
+                .description(scenario.getDescription())
+                .scenarioType(scenario.getScenarioType())
+                .startDate(scenario.getStartDate())
+                .endDate(scenario.getEndDate())
+                .active(scenario.getActive())
+                .shocks(scenario.getShocks().stream()
+                        .map(shock -> StressShockResponse.builder()
+                                .id(shock.getId())
+                                .targetType(shock.getTargetType())
+                                .target(shock.getTarget())
+                                .shock(shock.getShock())
+                                .build())
+                        .collect(Collectors.toList()))
+                .createdAt(scenario.getCreatedAt())
+                .updatedAt(scenario.getUpdatedAt())
+                .build();
+    }
+
+    private StressRunResponse mapToResponse(StressRun run, List<StressScenarioSummaryResponse> scenarios) {
+        return StressRunResponse.builder()
+                .id(run.getId())
+                .runDate(run.getRunDate())
+                .status(run.getStatus())
+                .scenarioCount(run.getScenarioCount())
+                .portfolioCount(run.getPortfolioCount())
+                .executionTimeMs(run.getExecutionTimeMs())
+                .createdAt(run.getCreatedAt())
+                .scenarios(scenarios)
+                .build();
+    }
+}
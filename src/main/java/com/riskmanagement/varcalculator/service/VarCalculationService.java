@@ -2,12 +2,16 @@ package com.riskmanagement.varcalculator.service;
 
 import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
 import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.MonteCarloSimulation;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.RiskMeasures;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
 import com.riskmanagement.varcalculator.entity.Portfolio;
 import com.riskmanagement.varcalculator.entity.Position;
-import com.riskmanagement.varcalculator.entity.Price;
 import com.riskmanagement.varcalculator.entity.RiskRun;
 import com.riskmanagement.varcalculator.repository.PortfolioRepository;
-import com.riskmanagement.varcalculator.repository.PriceRepository;
 import com.riskmanagement.varcalculator.repository.RiskRunRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,8 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -30,7 +35,12 @@ public class VarCalculationService {
 
     private final PortfolioRepository portfolioRepository;
     private final RiskRunRepository riskRunRepository;
-    private final PriceRepository priceRepository;
+    private final MarketDataService marketDataService;
+    private final ScenarioVectorStore scenarioVectorStore;
+    private final InstrumentPricingService instrumentPricingService;
+    private final RiskEventPublisher riskEventPublisher;
+    private final RiskLimitService riskLimitService;
+    private final NodeLimitMonitor nodeLimitMonitor;
 
     public VarCalculationResponse calculateVar(Long portfolioId, VarCalculationRequest request) {
         log.info("Starting VaR calculation for portfolio {} using method {}", portfolioId, request.getVarMethod());
@@ -52,10 +62,12 @@ public class VarCalculationService {
                     .build();
 
             riskRun = riskRunRepository.save(riskRun);
+            riskEventPublisher.started(riskRun);
 
             // Calculate portfolio value
             BigDecimal portfolioValue = calculatePortfolioValue(portfolio);
             riskRun.setPortfolioValue(portfolioValue);
+            riskEventPublisher.progress(riskRun, "CALCULATING_" + request.getVarMethod().name());
 
             // Calculate VaR based on method
             switch (request.getVarMethod()) {
@@ -68,6 +80,12 @@ public class VarCalculationService {
                 case MONTE_CARLO:
                     calculateMonteCarloVar(riskRun, request);
                     break;
+                case CORNISH_FISHER:
+                    calculateCornishFisherVar(riskRun, request);
+                    break;
+                case DELTA_GAMMA_NORMAL:
+                    calculateDeltaGammaNormalVar(riskRun, request);
+                    break;
                 default:
                     throw new IllegalArgumentException("Unsupported VaR method: " + request.getVarMethod());
             }
@@ -76,6 +94,9 @@ public class VarCalculationService {
             riskRun.setExecutionTimeMs(System.currentTimeMillis() - startTime);
 
             RiskRun savedRiskRun = riskRunRepository.save(riskRun);
+            riskLimitService.evaluateRun(savedRiskRun);
+            nodeLimitMonitor.checkAncestorsAfterCommit(List.of(savedRiskRun));
+            riskEventPublisher.completed(savedRiskRun);
 
             log.info("VaR calculation completed for portfolio {} in {} ms", portfolioId,
                     savedRiskRun.getExecutionTimeMs());
@@ -96,6 +117,7 @@ public class VarCalculationService {
                     .build();
 
             riskRunRepository.save(errorRiskRun);
+            riskEventPublisher.failed(portfolioId, request.getVarMethod(), e.getMessage());
             throw new RuntimeException("VaR calculation failed: " + e.getMessage(), e);
         }
     }
@@ -111,10 +133,7 @@ public class VarCalculationService {
         }
 
         // Get historical returns for portfolio
-        LocalDate endDate = LocalDate.now().minusDays(1);
-        LocalDate startDate = endDate.minusDays(request.getWindowSize() + 30); // Extra buffer
-
-        double[] portfolioReturns = calculatePortfolioReturns(positions, startDate, endDate, request.getWindowSize());
+        double[] portfolioReturns = loadPortfolioReturns(riskRun, request);
 
         if (portfolioReturns.length < request.getWindowSize()) {
             throw new RuntimeException("Insufficient historical data for VaR calculation");
@@ -149,10 +168,7 @@ public class VarCalculationService {
         }
 
         // Get historical returns for volatility calculation
-        LocalDate endDate = LocalDate.now().minusDays(1);
-        LocalDate startDate = endDate.minusDays(request.getWindowSize() + 30);
-
-        double[] portfolioReturns = calculatePortfolioReturns(positions, startDate, endDate, request.getWindowSize());
+        double[] portfolioReturns = loadPortfolioReturns(riskRun, request);
 
         if (portfolioReturns.length < request.getWindowSize()) {
             throw new RuntimeException("Insufficient historical data for VaR calculation");
@@ -185,64 +201,180 @@ public class VarCalculationService {
     private void calculateMonteCarloVar(RiskRun riskRun, VarCalculationRequest request) {
         log.debug("Calculating Monte Carlo VaR");
 
-        // Placeholder implementation - would need more sophisticated simulation
-        // For now, using parametric as base and adding Monte Carlo adjustments
-        calculateParametricVar(riskRun, request);
-
-        // Add some random variation to simulate Monte Carlo effects
-        double mcAdjustment = 1.1; // 10% adjustment for simulation effects
+        Portfolio portfolio = riskRun.getPortfolio();
+        List<Position> positions = portfolio.getPositions();
 
-        if (riskRun.getVar95() != null) {
-            riskRun.setVar95(
-                    riskRun.getVar95().multiply(BigDecimal.valueOf(mcAdjustment)).setScale(4, RoundingMode.HALF_UP));
+        if (positions.isEmpty()) {
+            throw new RuntimeException("Portfolio has no positions");
         }
-        if (riskRun.getVar99() != null) {
-            riskRun.setVar99(
-                    riskRun.getVar99().multiply(BigDecimal.valueOf(mcAdjustment)).setScale(4, RoundingMode.HALF_UP));
+
+        // Covariance of instrument returns over the window drives the simulated one-day shocks
+        ReturnMatrix returnMatrix = loadReturnWindow(portfolio, request);
+
+        if (returnMatrix.rows() < request.getWindowSize()) {
+            throw new RuntimeException("Insufficient historical data for VaR calculation");
         }
+
+        MonteCarloSimulation.Options options = new MonteCarloSimulation.Options(
+                request.getMonteCarloSimulations(),
+                request.getMonteCarloSampling() != null
+                        ? request.getMonteCarloSampling()
+                        : MonteCarloSimulation.Sampling.SOBOL,
+                !Boolean.FALSE.equals(request.getAntitheticVariates()),
+                !Boolean.FALSE.equals(request.getImportanceSampling()),
+                riskRun.getId());
+        MonteCarloSimulation.Estimate estimate = MonteCarloSimulation.estimate(returnMatrix,
+                revaluationFor(returnMatrix, portfolio, request),
+                riskRun.getPortfolioValue().doubleValue(), options);
+        log.debug("Simulated {} Monte Carlo paths for risk run {}, retaining {} tail losses within {} of exact",
+                estimate.paths(), riskRun.getId(), estimate.retainedLosses(), estimate.tailError());
+
+        applyMeasures(riskRun, estimate.measures());
+        riskRun.setVar95StandardError(
+                BigDecimal.valueOf(estimate.var95StandardError()).setScale(4, RoundingMode.HALF_UP));
+        riskRun.setVar99StandardError(
+                BigDecimal.valueOf(estimate.var99StandardError()).setScale(4, RoundingMode.HALF_UP));
     }
 
-    private BigDecimal calculatePortfolioValue(Portfolio portfolio) {
-        return portfolio.getPositions().stream()
-                .filter(position -> position.getMarketValue() != null)
-                .map(Position::getMarketValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void calculateCornishFisherVar(RiskRun riskRun, VarCalculationRequest request) {
+        log.debug("Calculating Cornish-Fisher VaR");
+
+        Portfolio portfolio = riskRun.getPortfolio();
+        List<Position> positions = portfolio.getPositions();
+
+        if (positions.isEmpty()) {
+            throw new RuntimeException("Portfolio has no positions");
+        }
+
+        double[] portfolioReturns = loadPortfolioReturns(riskRun, request);
+
+        if (portfolioReturns.length < request.getWindowSize()) {
+            throw new RuntimeException("Insufficient historical data for VaR calculation");
+        }
+
+        // Skewness and kurtosis come from the same single pass as the volatility
+        double portfolioValue = riskRun.getPortfolioValue().doubleValue();
+        double[] profitAndLoss = new double[portfolioReturns.length];
+        for (int i = 0; i < profitAndLoss.length; i++) {
+            profitAndLoss[i] = portfolioReturns[i] * portfolioValue;
+        }
+        applyMeasures(riskRun, RiskMeasures.cornishFisher(profitAndLoss, portfolioValue));
     }
 
-    private double[] calculatePortfolioReturns(List<Position> positions, LocalDate startDate, LocalDate endDate,
-            int windowSize) {
-        // Simplified portfolio return calculation
-        // In a real implementation, this would weight individual stock returns by
-        // position size
+    private void calculateDeltaGammaNormalVar(RiskRun riskRun, VarCalculationRequest request) {
+        log.debug("Calculating delta-gamma-normal VaR");
+
+        Portfolio portfolio = riskRun.getPortfolio();
+        List<Position> positions = portfolio.getPositions();
 
         if (positions.isEmpty()) {
-            return new double[0];
+            throw new RuntimeException("Portfolio has no positions");
         }
 
-        // Use the first position's instrument for demonstration
-        Position firstPosition = positions.get(0);
-        List<Price> prices = priceRepository.findByInstrumentIdAndPriceDateBetweenOrderByPriceDateDesc(
-                firstPosition.getInstrument().getId(), startDate, endDate);
+        ReturnMatrix returnMatrix = loadReturnWindow(portfolio, request);
 
-        if (prices.size() < 2) {
-            return new double[0];
+        if (returnMatrix.rows() < request.getWindowSize()) {
+            throw new RuntimeException("Insufficient historical data for VaR calculation");
         }
 
-        // Calculate log returns
-        double[] returns = new double[Math.min(prices.size() - 1, windowSize)];
-        for (int i = 0; i < returns.length; i++) {
-            Price current = prices.get(i);
-            Price previous = prices.get(i + 1);
+        // Option books enter through their deltas and gammas against each underlying's return
+        ScenarioRevaluation revaluation = revaluationFor(returnMatrix, portfolio, request);
+        applyMeasures(riskRun, RiskMeasures.deltaGammaNormal(returnMatrix, revaluation.deltaExposures(),
+                revaluation.gammaExposures(), riskRun.getPortfolioValue().doubleValue()));
+    }
 
-            double currentPrice = current.getClose().doubleValue();
-            double previousPrice = previous.getClose().doubleValue();
+    private void applyMeasures(RiskRun riskRun, RiskMeasures measures) {
+        riskRun.setVar95(BigDecimal.valueOf(measures.var95()).setScale(4, RoundingMode.HALF_UP));
+        riskRun.setVar99(BigDecimal.valueOf(measures.var99()).setScale(4, RoundingMode.HALF_UP));
+        riskRun.setExpectedShortfall95(
+                BigDecimal.valueOf(measures.expectedShortfall95()).setScale(4, RoundingMode.HALF_UP));
+        riskRun.setExpectedShortfall99(
+                BigDecimal.valueOf(measures.expectedShortfall99()).setScale(4, RoundingMode.HALF_UP));
+        riskRun.setPortfolioVolatility(BigDecimal.valueOf(measures.volatility()).setScale(6, RoundingMode.HALF_UP));
+    }
+
+    // Market values converted into the portfolio's base currency at the latest FX rates
+    private BigDecimal calculatePortfolioValue(Portfolio portfolio) {
+        return BigDecimal.valueOf(
+                marketDataService.valueInBaseCurrency(portfolio.getPositions(), portfolio.getBaseCurrency()))
+                .setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private ReturnMatrix loadReturnWindow(Portfolio portfolio, VarCalculationRequest request) {
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate startDate = MarketDataService.lookbackStart(endDate, request.getWindowSize() + 1);
+
+        List<Long> factorIds = instrumentPricingService.riskFactorIds(portfolio.getPositions(),
+                portfolio.getBaseCurrency());
+        return marketDataService.loadReturnMatrix(factorIds,
+                startDate, endDate).lastRows(request.getWindowSize());
+    }
 
-            returns[i] = Math.log(currentPrice / previousPrice);
+    private ScenarioRevaluation revaluationFor(ReturnMatrix returnMatrix, Portfolio portfolio,
+            VarCalculationRequest request) {
+        ScenarioRevaluation.Mode mode = request.getRevaluationMode() != null
+                ? request.getRevaluationMode()
+                : ScenarioRevaluation.Mode.FULL;
+        return instrumentPricingService.revaluation(returnMatrix, portfolio.getPositions(),
+                portfolio.getBaseCurrency(), mode, LocalDate.now());
+    }
+
+    private double[] loadPortfolioReturns(RiskRun riskRun, VarCalculationRequest request) {
+        Portfolio portfolio = riskRun.getPortfolio();
+        ReturnMatrix returnMatrix = loadReturnWindow(portfolio, request);
+
+        // Linear positions weight their log return by base-currency market value (plus FX factor exposure);
+        // options and bonds are revalued per scenario
+        ScenarioRevaluation revaluation = revaluationFor(returnMatrix, portfolio, request);
+        double totalExposure = riskRun.getPortfolioValue().doubleValue();
+        if (totalExposure == 0) {
+            return new double[0];
+        }
+
+        double[] profitAndLoss = revaluation.profitAndLoss(returnMatrix);
+        if (scenarioVectorStore.isEnabled()) {
+            storeScenarioVectors(riskRun, returnMatrix, revaluation, profitAndLoss,
+                    Boolean.TRUE.equals(request.getPersistPositionVectors()));
+        }
+
+        double[] returns = new double[profitAndLoss.length];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = profitAndLoss[i] / totalExposure;
         }
 
         return returns;
     }
 
+    private void storeScenarioVectors(RiskRun riskRun, ReturnMatrix returnMatrix, ScenarioRevaluation revaluation,
+            double[] profitAndLoss, boolean includePositions) {
+        Map<Long, ScenarioVector> instrumentVectors = new HashMap<>();
+        if (includePositions) {
+            double[] exposures = revaluation.getLinearExposures();
+            long[] factorIds = returnMatrix.getInstrumentIds();
+            for (int column = 0; column < returnMatrix.columns(); column++) {
+                // FX factors are not instruments and have no row to reference; their translation P&L
+                // stays in the portfolio vector only
+                if (exposures[column] == 0 || FxFactors.isFxFactor(factorIds[column])) {
+                    continue;
+                }
+                double[] positionProfitAndLoss = returnMatrix.column(column);
+                for (int i = 0; i < positionProfitAndLoss.length; i++) {
+                    positionProfitAndLoss[i] *= exposures[column];
+                }
+                instrumentVectors.put(factorIds[column],
+                        new ScenarioVector(returnMatrix.getDates(), positionProfitAndLoss));
+            }
+            for (int holding = 0; holding < revaluation.getHoldings().size(); holding++) {
+                ScenarioVector vector = new ScenarioVector(returnMatrix.getDates(),
+                        revaluation.holdingProfitAndLoss(holding, returnMatrix));
+                instrumentVectors.merge(revaluation.getHoldings().get(holding).instrumentId(), vector,
+                        ScenarioVector::plus);
+            }
+        }
+        scenarioVectorStore.save(riskRun, new ScenarioVector(returnMatrix.getDates(), profitAndLoss),
+                instrumentVectors);
+    }
+
     private double calculateExpectedShortfall(double[] returns, double alpha) {
         DescriptiveStatistics stats = new DescriptiveStatistics(returns);
         double var = stats.getPercentile(alpha * 100);
@@ -284,6 +416,8 @@ public class VarCalculationService {
                 .expectedShortfall99(riskRun.getExpectedShortfall99())
                 .portfolioValue(riskRun.getPortfolioValue())
                 .portfolioVolatility(riskRun.getPortfolioVolatility())
+                .var95StandardError(riskRun.getVar95StandardError())
+                .var99StandardError(riskRun.getVar99StandardError())
                 .status(riskRun.getStatus())
                 .errorMessage(riskRun.getErrorMessage())
                 .executionTimeMs(riskRun.getExecutionTimeMs())
@@ -0,0 +1,83 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.VarTimeSeriesPointResponse;
+import com.riskmanagement.varcalculator.engine.ProfitAndLossSeries;
+import com.riskmanagement.varcalculator.engine.RollingRiskCalculator;
+import com.riskmanagement.varcalculator.engine.RollingRiskPoint;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class VarTimeSeriesService {
+
+    private final PortfolioRepository portfolioRepository;
+    private final MarketDataService marketDataService;
+
+    // Loads the P&L series once; the rolling pass below then runs without touching the database.
+    // All parameters are checked here, as by the time points stream the response status is already sent
+    public ProfitAndLossSeries loadSeries(Long portfolioId, LocalDate startDate, LocalDate endDate, int windowSize,
+            RiskRun.VarMethod varMethod) {
+        log.debug("Loading P&L series for portfolio {} from {} to {}", portfolioId, startDate, endDate);
+
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1");
+        }
+        toRollingMethod(varMethod);
+
+        Portfolio portfolio = portfolioRepository.findByIdWithPositions(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found with ID: " + portfolioId));
+
+        if (portfolio.getPositions().isEmpty()) {
+            throw new RuntimeException("Portfolio has no positions");
+        }
+
+        LocalDate loadStart = MarketDataService.lookbackStart(startDate, windowSize + 1);
+        return marketDataService.loadProfitAndLoss(portfolio.getPositions(), portfolio.getBaseCurrency(), loadStart,
+                endDate);
+    }
+
+    public void streamTimeSeries(ProfitAndLossSeries series, LocalDate startDate, LocalDate endDate, int windowSize,
+            RiskRun.VarMethod varMethod, Consumer<VarTimeSeriesPointResponse> sink) {
+        RollingRiskCalculator.forEach(series, windowSize, startDate, endDate, toRollingMethod(varMethod),
+                point -> sink.accept(mapToResponse(point)));
+    }
+
+    private RollingRiskCalculator.Method toRollingMethod(RiskRun.VarMethod varMethod) {
+        switch (varMethod) {
+            case HISTORICAL:
+                return RollingRiskCalculator.Method.HISTORICAL;
+            case PARAMETRIC:
+                return RollingRiskCalculator.Method.PARAMETRIC;
+            default:
+                throw new IllegalArgumentException("Unsupported VaR method for time series: " + varMethod);
+        }
+    }
+
+    private VarTimeSeriesPointResponse mapToResponse(RollingRiskPoint point) {
+        return VarTimeSeriesPointResponse.builder()
+                .date(point.date())
+                .var95(BigDecimal.valueOf(point.var95()).setScale(4, RoundingMode.HALF_UP))
+                .var99(BigDecimal.valueOf(point.var99()).setScale(4, RoundingMode.HALF_UP))
+                .expectedShortfall95(BigDecimal.valueOf(point.expectedShortfall95()).setScale(4, RoundingMode.HALF_UP))
+                .expectedShortfall99(BigDecimal.valueOf(point.expectedShortfall99()).setScale(4, RoundingMode.HALF_UP))
+                .portfolioVolatility(BigDecimal.valueOf(point.volatility()).setScale(6, RoundingMode.HALF_UP))
+                .profitAndLoss(BigDecimal.valueOf(point.profitAndLoss()).setScale(4, RoundingMode.HALF_UP))
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Latest close per instrument, held in memory so valuations need no per-instrument price
+ * query. Loaded with a single latest-close query at startup and advanced from rows inserted
+ * since the last refresh. The watermark is kept in database time, the newest created_at seen,
+ * so it never depends on the application's clock. Instruments not yet indexed are looked up on
+ * first use; those with no prices at all are remembered until a refresh brings one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LatestPriceIndex {
+
+    public record LatestPrice(LocalDate priceDate, double close) {
+    }
+
+    // Re-read a little before the watermark so rows from transactions that committed late are not missed
+    private static final long WATERMARK_OVERLAP_MINUTES = 10;
+
+    private final PriceRepository priceRepository;
+
+    private final Map<Long, LatestPrice> prices = new ConcurrentHashMap<>();
+    private final Set<Long> unpriced = ConcurrentHashMap.newKeySet();
+    // A lock rather than synchronized, so a virtual thread waiting on the refresh query does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Database time: newest created_at seen, or the database clock at the initial load
+    private volatile LocalDateTime watermark;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Could not load latest price index, retrying on next refresh", e);
+        }
+    }
+
+    // Pulls rows inserted since the last refresh (everything on the first call); returns the
+    // instruments whose latest close moved
+    public Set<Long> refresh() {
+        lock.lock();
+        try {
+            long startTime = System.currentTimeMillis();
+            boolean initial = watermark == null;
+            LocalDateTime newest;
+            List<Object[]> rows;
+            if (initial) {
+                // Read before the load, so rows landing while it runs are picked up by the next refresh
+                newest = priceRepository.currentTimestamp().toLocalDateTime();
+                rows = priceRepository.findAllLatestCloses();
+            } else {
+                newest = watermark;
+                rows = priceRepository.findClosesCreatedAfter(watermark.minusMinutes(WATERMARK_OVERLAP_MINUTES));
+            }
+            Set<Long> updated = new HashSet<>();
+            for (Object[] row : rows) {
+                Long instrumentId = (Long) row[0];
+                if (put(instrumentId, row[1], row[2])) {
+                    updated.add(instrumentId);
+                }
+                if (!initial && ((LocalDateTime) row[3]).isAfter(newest)) {
+                    newest = (LocalDateTime) row[3];
+                }
+            }
+            watermark = newest;
+            if (initial) {
+                log.info("Indexed latest prices for {} instruments in {} ms", prices.size(),
+                        System.currentTimeMillis() - startTime);
+            }
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public LatestPrice get(Long instrumentId) {
+        latestCloses(List.of(instrumentId));
+        return prices.get(instrumentId);
+    }
+
+    public Map<Long, Double> latestCloses(Collection<Long> instrumentIds) {
+        List<Long> missing = instrumentIds.stream()
+                .filter(instrumentId -> !prices.containsKey(instrumentId) && !unpriced.contains(instrumentId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            for (Object[] row : priceRepository.findLatestClosesByInstrumentIds(missing)) {
+                put((Long) row[0], row[1], row[2]);
+            }
+            for (Long instrumentId : missing) {
+                if (!prices.containsKey(instrumentId)) {
+                    unpriced.add(instrumentId);
+                }
+            }
+        }
+        Map<Long, Double> closes = new HashMap<>();
+        for (Long instrumentId : instrumentIds) {
+            LatestPrice price = prices.get(instrumentId);
+            if (price != null) {
+                closes.put(instrumentId, price.close());
+            }
+        }
+        return closes;
+    }
+
+    // Keeps the row only if it is at least as recent as the indexed one (same date = corrected close)
+    private boolean put(Long instrumentId, Object priceDate, Object close) {
+        LatestPrice candidate = new LatestPrice((LocalDate) priceDate, ((Number) close).doubleValue());
+        lock.lock();
+        try {
+            LatestPrice previous = prices.get(instrumentId);
+            if (previous != null && candidate.priceDate().isBefore(previous.priceDate())) {
+                return false;
+            }
+            prices.put(instrumentId, candidate);
+            unpriced.remove(instrumentId);
+            return !candidate.equals(previous);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.riskmanagement.varcalculator.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One instrument's close history in a read-only memory-mapped file, laid out by column:
+ * <pre>
+ * int magic | int version | int count | int reserved
+ * int   epochDay[count]   (ascending)
+ * [4 bytes padding when count is odd]
+ * double close[count]
+ * </pre>
+ * Readers index straight into the mapped pages. Updates write a new file and atomically
+ * replace the old one, so an existing mapping stays valid for readers still holding it.
+ */
+public final class MappedPriceSeries {
+
+    private static final int MAGIC = 0x56415250;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final IntBuffer epochDays;
+    private final DoubleBuffer closes;
+    private final int count;
+
+    private MappedPriceSeries(MappedByteBuffer mapped) {
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a price series file");
+        }
+        this.count = buffer.getInt(8);
+        this.epochDays = buffer.slice(HEADER_BYTES, count * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        this.closes = buffer.slice(closesOffset(count), count * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    public static MappedPriceSeries open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping outlives the channel
+            return new MappedPriceSeries(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static MappedPriceSeries write(Path file, int[] epochDays, double[] closes) throws IOException {
+        int count = epochDays.length;
+        ByteBuffer buffer = ByteBuffer.allocate(closesOffset(count) + count * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+        for (int epochDay : epochDays) {
+            buffer.putInt(epochDay);
+        }
+        buffer.position(closesOffset(count));
+        for (double close : closes) {
+            buffer.putDouble(close);
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int epochDayAt(int index) {
+        return epochDays.get(index);
+    }
+
+    public double closeAt(int index) {
+        return closes.get(index);
+    }
+
+    public int lastEpochDay() {
+        return count > 0 ? epochDays.get(count - 1) : Integer.MIN_VALUE;
+    }
+
+    // Index of the first entry on or after epochDay, or size() if there is none
+    public int indexOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays.get(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int closesOffset(int count) {
+        int offset = HEADER_BYTES + count * Integer.BYTES;
+        return (offset + 7) & ~7;
+    }
+}
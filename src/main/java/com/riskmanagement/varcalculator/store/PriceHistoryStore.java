@@ -0,0 +1,318 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.Precision;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.repository.FxRateRepository;
+import com.riskmanagement.varcalculator.repository.InstrumentRepository;
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local columnar copy of the prices table, one memory-mapped file per instrument. Existing
+ * files are mapped at startup so a restarted node has full history immediately; a
+ * background sync then pulls rows inserted since the last watermark, kept in database time
+ * (the newest created_at seen) so it never depends on this node's clock. FX rates to USD are
+ * kept alongside under their {@link FxFactors} ids, so currency factors load with the
+ * instruments in one pass.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceHistoryStore {
+
+    private static final String SERIES_SUFFIX = ".prices";
+    private static final String WATERMARK_FILE = "watermark";
+    // Re-read a little before the watermark so rows from transactions that committed late are not missed
+    private static final long WATERMARK_OVERLAP_MINUTES = 10;
+
+    private final PriceRepository priceRepository;
+    private final InstrumentRepository instrumentRepository;
+    private final FxRateRepository fxRateRepository;
+
+    private final Map<Long, MappedPriceSeries> series = new ConcurrentHashMap<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    @Value("${var-calculator.price-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${var-calculator.price-store.directory:${java.io.tmpdir}/var-price-store}")
+    private String directory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            Files.createDirectories(root());
+            try (Stream<Path> files = Files.list(root())) {
+                files.filter(file -> file.getFileName().toString().endsWith(SERIES_SUFFIX))
+                        .forEach(this::mapFile);
+            }
+        } catch (IOException e) {
+            log.error("Could not open price store at {}", root(), e);
+            return;
+        }
+        ready = readWatermark() != null;
+        log.info("Mapped {} price series from {} in {} ms", series.size(), root(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    @Scheduled(fixedDelayString = "${var-calculator.price-store.sync-interval-ms:300000}",
+            initialDelayString = "${var-calculator.price-store.initial-sync-delay-ms:5000}")
+    public void sync() {
+        if (!enabled || !syncLock.tryLock()) {
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            LocalDateTime watermark = readWatermark();
+            int updated = watermark == null ? fullSync() : incrementalSync(watermark);
+            ready = true;
+            log.info("Price store sync updated {} series in {} ms", updated, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            log.error("Price store sync failed", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public boolean covers(long[] instrumentIds) {
+        if (!isReady()) {
+            return false;
+        }
+        for (long instrumentId : instrumentIds) {
+            if (!series.containsKey(instrumentId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Aligned closes copied out of the mapped columns, for callers that slice one window several ways
+    public CloseMatrix loadCloses(long[] instrumentIds, LocalDate startDate, LocalDate endDate) {
+        Window window = window(instrumentIds, startDate, endDate);
+        int cols = instrumentIds.length;
+        double[] closes = new double[window.epochDays().length * cols];
+        Arrays.fill(closes, Double.NaN);
+        for (int c = 0; c < cols; c++) {
+            MappedPriceSeries instrument = window.selected()[c];
+            for (int i = window.firstIndex()[c]; i < window.lastIndex()[c]; i++) {
+                closes[window.rowOf(instrument.epochDayAt(i)) * cols + c] = instrument.closeAt(i);
+            }
+        }
+        return new CloseMatrix(window.dates(), instrumentIds, closes);
+    }
+
+    // Log returns computed column by column straight off the mapped pages, with the same alignment as
+    // CloseMatrix.toReturnMatrix but without a dense heap copy of the closes in between
+    public ReturnMatrix loadReturns(long[] instrumentIds, LocalDate startDate, LocalDate endDate,
+            Precision precision) {
+        Window window = window(instrumentIds, startDate, endDate);
+        int cols = instrumentIds.length;
+        int returnRows = Math.max(0, window.epochDays().length - 1);
+        boolean narrow = precision == Precision.FLOAT;
+        double[] returns = narrow ? null : new double[returnRows * cols];
+        float[] floatReturns = narrow ? new float[returnRows * cols] : null;
+        for (int c = 0; c < cols; c++) {
+            MappedPriceSeries instrument = window.selected()[c];
+            double previous = Double.NaN;
+            for (int i = window.firstIndex()[c]; i < window.lastIndex()[c]; i++) {
+                double close = instrument.closeAt(i);
+                if (Double.isNaN(close) || close <= 0) {
+                    continue;
+                }
+                if (!Double.isNaN(previous)) {
+                    int index = (window.rowOf(instrument.epochDayAt(i)) - 1) * cols + c;
+                    double logReturn = Math.log(close / previous);
+                    if (narrow) {
+                        floatReturns[index] = (float) logReturn;
+                    } else {
+                        returns[index] = logReturn;
+                    }
+                }
+                previous = close;
+            }
+        }
+        List<LocalDate> dates = window.dates();
+        List<LocalDate> returnDates = dates.size() > 1 ? dates.subList(1, dates.size()) : List.of();
+        return narrow
+                ? new ReturnMatrix(returnDates, instrumentIds, floatReturns)
+                : new ReturnMatrix(returnDates, instrumentIds, returns);
+    }
+
+    // The mapped series and index range of each instrument inside the dates, and the union of their dates
+    private record Window(MappedPriceSeries[] selected, int[] firstIndex, int[] lastIndex, int[] epochDays,
+            List<LocalDate> dates) {
+
+        int rowOf(int epochDay) {
+            return Arrays.binarySearch(epochDays, epochDay);
+        }
+    }
+
+    private Window window(long[] instrumentIds, LocalDate startDate, LocalDate endDate) {
+        MappedPriceSeries[] selected = new MappedPriceSeries[instrumentIds.length];
+        int[] firstIndex = new int[instrumentIds.length];
+        int[] lastIndex = new int[instrumentIds.length];
+        TreeSet<Integer> days = new TreeSet<>();
+        for (int c = 0; c < instrumentIds.length; c++) {
+            selected[c] = series.get(instrumentIds[c]);
+            firstIndex[c] = selected[c].indexOnOrAfter(startDate.toEpochDay());
+            lastIndex[c] = selected[c].indexOnOrAfter(endDate.toEpochDay() + 1);
+            for (int i = firstIndex[c]; i < lastIndex[c]; i++) {
+                days.add(selected[c].epochDayAt(i));
+            }
+        }
+        int[] epochDays = days.stream().mapToInt(Integer::intValue).toArray();
+        List<LocalDate> dates = new ArrayList<>(epochDays.length);
+        for (int epochDay : epochDays) {
+            dates.add(LocalDate.ofEpochDay(epochDay));
+        }
+        return new Window(selected, firstIndex, lastIndex, epochDays, dates);
+    }
+
+    private int fullSync() {
+        // Read before the load, so rows landing while it runs are picked up by the next sync
+        LocalDateTime newest = priceRepository.currentTimestamp().toLocalDateTime();
+        List<Long> instrumentIds = instrumentRepository.findAllIds();
+        for (Long instrumentId : instrumentIds) {
+            writeSeries(instrumentId, priceRepository.findClosesByInstrumentId(instrumentId));
+        }
+        List<String> currencies = fxRateRepository.findAllCurrencies();
+        for (String currency : currencies) {
+            writeSeries(FxFactors.factorId(currency), fxRateRepository.findRatesByCurrency(currency));
+        }
+        writeWatermark(newest);
+        return instrumentIds.size() + currencies.size();
+    }
+
+    private void writeSeries(Long seriesId, List<Object[]> rows) {
+        int[] epochDays = new int[rows.size()];
+        double[] closes = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            epochDays[i] = (int) ((LocalDate) rows.get(i)[0]).toEpochDay();
+            closes[i] = ((Number) rows.get(i)[1]).doubleValue();
+        }
+        writeSeries(seriesId, epochDays, closes);
+    }
+
+    // The watermark only moves once every update is written, so a failed sync is retried from the same point
+    private int incrementalSync(LocalDateTime watermark) {
+        LocalDateTime since = watermark.minusMinutes(WATERMARK_OVERLAP_MINUTES);
+        LocalDateTime newest = watermark;
+        Map<Long, TreeSet<Object[]>> updates = new HashMap<>();
+        for (Object[] row : priceRepository.findClosesCreatedAfter(since)) {
+            addUpdate(updates, (Long) row[0], row);
+            newest = later(newest, (LocalDateTime) row[3]);
+        }
+        for (Object[] row : fxRateRepository.findRatesCreatedAfter(since)) {
+            long factorId = FxFactors.factorId((String) row[0]);
+            addUpdate(updates, factorId, new Object[] { factorId, row[1], row[2] });
+            newest = later(newest, (LocalDateTime) row[3]);
+        }
+        updates.forEach(this::mergeSeries);
+        writeWatermark(newest);
+        return updates.size();
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return b.isAfter(a) ? b : a;
+    }
+
+    private void addUpdate(Map<Long, TreeSet<Object[]>> updates, Long seriesId, Object[] row) {
+        updates.computeIfAbsent(seriesId, id -> new TreeSet<>(
+                (a, b) -> ((LocalDate) a[1]).compareTo((LocalDate) b[1]))).add(row);
+    }
+
+    // New rows win over stored ones for the same date (back-filled corrections)
+    private void mergeSeries(Long instrumentId, TreeSet<Object[]> rows) {
+        TreeSet<Integer> days = new TreeSet<>();
+        Map<Integer, Double> closes = new HashMap<>();
+        MappedPriceSeries existing = series.get(instrumentId);
+        if (existing != null) {
+            for (int i = 0; i < existing.size(); i++) {
+                days.add(existing.epochDayAt(i));
+                closes.put(existing.epochDayAt(i), existing.closeAt(i));
+            }
+        }
+        for (Object[] row : rows) {
+            int epochDay = (int) ((LocalDate) row[1]).toEpochDay();
+            days.add(epochDay);
+            closes.put(epochDay, ((Number) row[2]).doubleValue());
+        }
+        int[] epochDays = days.stream().mapToInt(Integer::intValue).toArray();
+        writeSeries(instrumentId, epochDays, Arrays.stream(epochDays).mapToDouble(closes::get).toArray());
+    }
+
+    private void writeSeries(Long instrumentId, int[] epochDays, double[] closes) {
+        try {
+            series.put(instrumentId, MappedPriceSeries.write(root().resolve(instrumentId + SERIES_SUFFIX),
+                    epochDays, closes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write price series for instrument " + instrumentId, e);
+        }
+    }
+
+    private void mapFile(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            Long instrumentId = Long.valueOf(name.substring(0, name.length() - SERIES_SUFFIX.length()));
+            series.put(instrumentId, MappedPriceSeries.open(file));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping unreadable price series file {}", file, e);
+        }
+    }
+
+    private LocalDateTime readWatermark() {
+        Path file = root().resolve(WATERMARK_FILE);
+        try {
+            return Files.exists(file) ? LocalDateTime.parse(Files.readString(file).trim()) : null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable price store watermark", e);
+            return null;
+        }
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        try {
+            Files.writeString(root().resolve(WATERMARK_FILE), watermark.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write price store watermark", e);
+        }
+    }
+
+    private Path root() {
+        return Paths.get(directory);
+    }
+}
@@ -0,0 +1,163 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.repository.RiskLimitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Active risk limits keyed by scope, so checking a completed run is one map lookup however
+ * many limits exist. Limits created or retired through this node are applied once their
+ * transaction commits; a periodic reload picks up changes made elsewhere. Changes applied while
+ * a reload is querying are replayed onto the reloaded index before it is swapped in, since the
+ * query may have read before they committed. Also remembers the
+ * last committed severity per limit, so repeated re-evaluations only report changes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskLimitIndex {
+
+    public record Scope(RiskLimit.ScopeType type, long id) {
+    }
+
+    public record Limit(long id, RiskLimit.Metric metric, double limitValue, double warningThreshold) {
+    }
+
+    private final RiskLimitRepository riskLimitRepository;
+
+    private volatile Map<Scope, List<Limit>> limits = new ConcurrentHashMap<>();
+    private final Map<Long, LimitBreach.Severity> lastSeverities = new ConcurrentHashMap<>();
+    // Locks rather than synchronized, so a virtual thread waiting on the reload query does not pin its carrier.
+    // reloadLock serializes whole reloads; lock guards changes and the swap but is not held during the query
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Changes applied since the running reload began querying, null when none is running
+    private List<Consumer<Map<Scope, List<Limit>>>> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Could not load risk limit index, retrying on next reload", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${var-calculator.limits.reload-interval-ms:300000}",
+            initialDelayString = "${var-calculator.limits.reload-interval-ms:300000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            setPending(new ArrayList<>());
+            List<RiskLimit> active = riskLimitRepository.findByActiveTrue();
+            Map<Scope, List<Limit>> loaded = new ConcurrentHashMap<>();
+            for (RiskLimit limit : active) {
+                add(loaded, limit);
+            }
+            lock.lock();
+            try {
+                pending.forEach(change -> change.accept(loaded));
+                limits = loaded;
+                log.debug("Indexed {} active risk limits over {} scopes, {} concurrent changes replayed",
+                        active.size(), loaded.size(), pending.size());
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            setPending(null);
+            reloadLock.unlock();
+        }
+    }
+
+    public List<Limit> limitsFor(RiskLimit.ScopeType type, long id) {
+        return limits.getOrDefault(new Scope(type, id), List.of());
+    }
+
+    public boolean hasLimits(RiskLimit.ScopeType type) {
+        return limits.keySet().stream().anyMatch(scope -> scope.type() == type);
+    }
+
+    public void put(RiskLimit limit) {
+        apply(index -> add(index, limit));
+    }
+
+    public void remove(RiskLimit limit) {
+        apply(index -> remove(index, limit));
+        lastSeverities.remove(limit.getId());
+    }
+
+    // Last committed severity for a limit, null when it was last seen within limit
+    public LimitBreach.Severity lastSeverity(long limitId) {
+        return lastSeverities.get(limitId);
+    }
+
+    // Called once the evaluation that saw this severity has committed
+    public void recordSeverity(long limitId, LimitBreach.Severity severity) {
+        if (severity == null) {
+            lastSeverities.remove(limitId);
+        } else {
+            lastSeverities.put(limitId, severity);
+        }
+    }
+
+    // Scope lists are immutable and replaced whole, so readers never see one mid-update
+    private static void add(Map<Scope, List<Limit>> index, RiskLimit limit) {
+        index.compute(scopeOf(limit), (scope, scopeLimits) -> {
+            List<Limit> updated = scopeLimits == null ? new ArrayList<>() : new ArrayList<>(scopeLimits);
+            updated.removeIf(indexed -> indexed.id() == limit.getId());
+            updated.add(toLimit(limit));
+            return List.copyOf(updated);
+        });
+    }
+
+    private static void remove(Map<Scope, List<Limit>> index, RiskLimit limit) {
+        index.computeIfPresent(scopeOf(limit), (scope, scopeLimits) -> {
+            List<Limit> remaining = new ArrayList<>(scopeLimits);
+            remaining.removeIf(indexed -> indexed.id() == limit.getId());
+            return remaining.isEmpty() ? null : List.copyOf(remaining);
+        });
+    }
+
+    private void apply(Consumer<Map<Scope, List<Limit>>> change) {
+        lock.lock();
+        try {
+            change.accept(limits);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setPending(List<Consumer<Map<Scope, List<Limit>>>> changes) {
+        lock.lock();
+        try {
+            pending = changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Scope scopeOf(RiskLimit limit) {
+        return new Scope(limit.getScopeType(), limit.getScopeId());
+    }
+
+    private static Limit toLimit(RiskLimit limit) {
+        return new Limit(limit.getId(), limit.getMetric(), limit.getLimitValue().doubleValue(),
+                limit.getWarningThreshold().doubleValue());
+    }
+}
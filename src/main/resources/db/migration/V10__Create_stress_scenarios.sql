@@ -0,0 +1,90 @@
+-- Named stress scenarios: HISTORICAL replays the moves between two dates of stored price history,
+-- HYPOTHETICAL applies explicit shocks (simple returns) to instruments, sectors, types or currencies
+CREATE TABLE stress_scenarios (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description TEXT,
+    scenario_type VARCHAR(20) NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CHECK (scenario_type <> 'HISTORICAL' OR (start_date IS NOT NULL AND end_date > start_date))
+);
+
+-- The most specific matching shock wins: INSTRUMENT (symbol), SECTOR, INSTRUMENT_TYPE, then ALL;
+-- CURRENCY shocks move that currency's USD rate
+CREATE TABLE stress_scenario_shocks (
+    id BIGSERIAL PRIMARY KEY,
+    scenario_id BIGINT NOT NULL REFERENCES stress_scenarios(id) ON DELETE CASCADE,
+    target_type VARCHAR(20) NOT NULL,
+    target VARCHAR(100),
+    shock DECIMAL(10,6) NOT NULL CHECK (shock > -1),
+    UNIQUE(scenario_id, target_type, target)
+);
+
+CREATE TABLE stress_runs (
+    id BIGSERIAL PRIMARY KEY,
+    run_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    scenario_count INTEGER,
+    portfolio_count INTEGER,
+    execution_time_ms BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One row per scenario and portfolio of a run, in the portfolio's base currency
+CREATE TABLE stress_results (
+    id BIGSERIAL PRIMARY KEY,
+    stress_run_id BIGINT NOT NULL REFERENCES stress_runs(id) ON DELETE CASCADE,
+    scenario_id BIGINT NOT NULL REFERENCES stress_scenarios(id),
+    portfolio_id BIGINT NOT NULL REFERENCES portfolios(id) ON DELETE CASCADE,
+    profit_and_loss DECIMAL(19,4) NOT NULL,
+    portfolio_value DECIMAL(19,4) NOT NULL
+);
+
+ALTER SEQUENCE stress_results_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_stress_results_run_portfolio ON stress_results(stress_run_id, portfolio_id);
+CREATE INDEX idx_stress_results_portfolio_id ON stress_results(portfolio_id);
+CREATE INDEX idx_stress_results_scenario_id ON stress_results(scenario_id);
+CREATE INDEX idx_stress_scenario_shocks_scenario_id ON stress_scenario_shocks(scenario_id);
+
+-- Seed library
+INSERT INTO stress_scenarios (name, description, scenario_type, start_date, end_date) VALUES
+('Global Financial Crisis 2008', 'Lehman Brothers failure to the equity market trough', 'HISTORICAL',
+ '2008-09-12', '2009-03-09'),
+('COVID-19 Crash March 2020', 'Pre-pandemic equity peak to the March 2020 low', 'HISTORICAL',
+ '2020-02-19', '2020-03-23'),
+('Taper Tantrum 2013', 'Fed tapering signal and the bond sell-off that followed', 'HISTORICAL',
+ '2013-05-22', '2013-06-24'),
+('2022 Rate Hiking Cycle', 'Joint equity and bond drawdown as policy rates rose', 'HISTORICAL',
+ '2022-01-03', '2022-10-12');
+
+INSERT INTO stress_scenarios (name, description, scenario_type) VALUES
+('Rate Shock +200bp', 'Parallel +200bp rise in yields; bonds at a duration-4 proxy, equities re-rated lower',
+ 'HYPOTHETICAL'),
+('Equity Crash -30%', 'Broad equity sell-off with a flight to bonds', 'HYPOTHETICAL'),
+('USD Rally +10%', 'Major currencies fall 10% against the dollar', 'HYPOTHETICAL');
+
+INSERT INTO stress_scenario_shocks (scenario_id, target_type, target, shock)
+SELECT s.id, v.target_type, v.target, v.shock
+FROM stress_scenarios s
+JOIN (VALUES
+    ('Rate Shock +200bp', 'INSTRUMENT_TYPE', 'BOND', -0.08),
+    ('Rate Shock +200bp', 'INSTRUMENT_TYPE', 'STOCK', -0.05),
+    ('Rate Shock +200bp', 'INSTRUMENT_TYPE', 'ETF', -0.05),
+    ('Rate Shock +200bp', 'SECTOR', 'Real Estate', -0.12),
+    ('Rate Shock +200bp', 'SECTOR', 'Utilities', -0.10),
+    ('Equity Crash -30%', 'INSTRUMENT_TYPE', 'STOCK', -0.30),
+    ('Equity Crash -30%', 'INSTRUMENT_TYPE', 'ETF', -0.30),
+    ('Equity Crash -30%', 'INSTRUMENT_TYPE', 'INDEX', -0.30),
+    ('Equity Crash -30%', 'INSTRUMENT_TYPE', 'BOND', 0.03),
+    ('USD Rally +10%', 'CURRENCY', 'EUR', -0.10),
+    ('USD Rally +10%', 'CURRENCY', 'GBP', -0.10),
+    ('USD Rally +10%', 'CURRENCY', 'JPY', -0.10),
+    ('USD Rally +10%', 'CURRENCY', 'CHF', -0.10),
+    ('USD Rally +10%', 'CURRENCY', 'CAD', -0.10)
+) AS v(scenario_name, target_type, target, shock) ON v.scenario_name = s.name;
@@ -0,0 +1,16 @@
+-- Create hierarchy_nodes table (firm -> division -> desk grouping of portfolios)
+CREATE TABLE hierarchy_nodes (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    node_type VARCHAR(20) NOT NULL,
+    parent_id BIGINT REFERENCES hierarchy_nodes(id),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(parent_id, name)
+);
+
+-- Attach portfolios to their leaf node
+ALTER TABLE portfolios ADD COLUMN hierarchy_node_id BIGINT REFERENCES hierarchy_nodes(id);
+
+CREATE INDEX idx_hierarchy_nodes_parent_id ON hierarchy_nodes(parent_id);
+CREATE INDEX idx_portfolios_hierarchy_node_id ON portfolios(hierarchy_node_id);
@@ -0,0 +1,18 @@
+-- Create risk_run_scenario_vectors table (binary scenario P&L per run, and optionally per instrument)
+CREATE TABLE risk_run_scenario_vectors (
+    id BIGSERIAL PRIMARY KEY,
+    risk_run_id BIGINT NOT NULL REFERENCES risk_runs(id) ON DELETE CASCADE,
+    instrument_id BIGINT REFERENCES instruments(id),
+    encoding VARCHAR(20) NOT NULL,
+    scenario_count INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Vectors are already compressed floats; skip TOAST compression attempts
+ALTER TABLE risk_run_scenario_vectors ALTER COLUMN data SET STORAGE EXTERNAL;
+
+CREATE UNIQUE INDEX idx_scenario_vectors_run_portfolio ON risk_run_scenario_vectors(risk_run_id)
+    WHERE instrument_id IS NULL;
+CREATE UNIQUE INDEX idx_scenario_vectors_run_instrument ON risk_run_scenario_vectors(risk_run_id, instrument_id)
+    WHERE instrument_id IS NOT NULL;
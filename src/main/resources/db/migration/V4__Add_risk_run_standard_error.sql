@@ -0,0 +1,3 @@
+-- Monte Carlo sampling error of the VaR estimates (NULL for historical and parametric runs)
+ALTER TABLE risk_runs ADD COLUMN var_95_standard_error DECIMAL(19,4);
+ALTER TABLE risk_runs ADD COLUMN var_99_standard_error DECIMAL(19,4);
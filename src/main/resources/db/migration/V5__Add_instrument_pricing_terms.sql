@@ -0,0 +1,10 @@
+-- Pricing terms for full revaluation of options (Black-Scholes) and bonds (discounted cash flow)
+ALTER TABLE instruments ADD COLUMN underlying_instrument_id BIGINT REFERENCES instruments(id);
+ALTER TABLE instruments ADD COLUMN option_type VARCHAR(10);
+ALTER TABLE instruments ADD COLUMN strike DECIMAL(19,6);
+ALTER TABLE instruments ADD COLUMN maturity_date DATE;
+ALTER TABLE instruments ADD COLUMN implied_volatility DECIMAL(10,6);
+ALTER TABLE instruments ADD COLUMN coupon_rate DECIMAL(10,6);
+ALTER TABLE instruments ADD COLUMN coupon_frequency INTEGER;
+
+CREATE INDEX idx_instruments_underlying ON instruments(underlying_instrument_id);
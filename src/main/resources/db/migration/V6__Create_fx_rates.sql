@@ -0,0 +1,11 @@
+-- Daily FX rates against USD (1 unit of currency = rate_to_usd USD); cross rates go through USD
+CREATE TABLE fx_rates (
+    id BIGSERIAL PRIMARY KEY,
+    currency VARCHAR(10) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate_to_usd DECIMAL(19,8) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(currency, rate_date)
+);
+
+CREATE INDEX idx_fx_rates_created_at ON fx_rates(created_at);
@@ -0,0 +1,94 @@
+-- Prices range-partitioned by year so date-bounded window loads touch one or two partitions.
+-- The three overlapping B-trees give way to one unique (instrument_id, price_date) index carrying
+-- close and log_return, which serves return-window loads index-only, plus BRIN on the dates
+CREATE TABLE prices_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('prices_id_seq'),
+    instrument_id BIGINT NOT NULL REFERENCES instruments(id),
+    price_date DATE NOT NULL,
+    open DECIMAL(19,4) NOT NULL,
+    high DECIMAL(19,4) NOT NULL,
+    low DECIMAL(19,4) NOT NULL,
+    close DECIMAL(19,4) NOT NULL,
+    volume BIGINT NOT NULL,
+    adjusted_close DECIMAL(19,4),
+    log_return DECIMAL(19,8),
+    simple_return DECIMAL(19,8),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_prices PRIMARY KEY (id, price_date),
+    CONSTRAINT uk_prices_instrument_date UNIQUE (instrument_id, price_date) INCLUDE (close, log_return)
+) PARTITION BY RANGE (price_date);
+
+-- Catches back-filled years older than the first yearly partition
+CREATE TABLE prices_default PARTITION OF prices_partitioned DEFAULT;
+
+DO $$
+DECLARE
+    first_year INT := COALESCE((SELECT EXTRACT(YEAR FROM MIN(price_date))::INT FROM prices),
+                               EXTRACT(YEAR FROM CURRENT_DATE)::INT);
+    last_year INT := EXTRACT(YEAR FROM CURRENT_DATE)::INT + 1;
+BEGIN
+    FOR partition_year IN first_year..last_year LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF prices_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'prices_y' || partition_year, make_date(partition_year, 1, 1),
+                       make_date(partition_year + 1, 1, 1));
+    END LOOP;
+END $$;
+
+INSERT INTO prices_partitioned (id, instrument_id, price_date, open, high, low, close, volume, adjusted_close,
+                                log_return, simple_return, created_at)
+SELECT id, instrument_id, price_date, open, high, low, close, volume, adjusted_close,
+       log_return, simple_return, created_at
+FROM prices;
+
+ALTER SEQUENCE prices_id_seq OWNED BY NONE;
+DROP TABLE prices;
+ALTER TABLE prices_partitioned RENAME TO prices;
+ALTER SEQUENCE prices_id_seq OWNED BY prices.id;
+
+CREATE INDEX idx_prices_date_brin ON prices USING BRIN (price_date);
+CREATE INDEX idx_prices_created_at_brin ON prices USING BRIN (created_at);
+
+ANALYZE prices;
+
+-- Detached yearly partitions are kept, read-only, in their own schema
+CREATE SCHEMA IF NOT EXISTS price_archive;
+
+-- Creates the partition for one year unless it exists; returns whether it was created
+CREATE OR REPLACE FUNCTION create_price_partition(partition_year INT) RETURNS BOOLEAN AS $$
+BEGIN
+    IF to_regclass('prices_y' || partition_year) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF prices FOR VALUES FROM (%L) TO (%L)',
+                   'prices_y' || partition_year, make_date(partition_year, 1, 1),
+                   make_date(partition_year + 1, 1, 1));
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches yearly partitions before the given year into price_archive, optionally moving them to a
+-- cheaper tablespace; returns the number archived
+CREATE OR REPLACE FUNCTION archive_price_partitions(before_year INT, archive_tablespace TEXT) RETURNS INT AS $$
+DECLARE
+    partition_name TEXT;
+    archived INT := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'prices'::regclass
+          AND c.relname ~ '^prices_y[0-9]{4}$'
+          AND substring(c.relname FROM 9)::INT < before_year
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE prices DETACH PARTITION %I', partition_name);
+        EXECUTE format('ALTER TABLE %I SET SCHEMA price_archive', partition_name);
+        IF archive_tablespace <> '' THEN
+            EXECUTE format('ALTER TABLE price_archive.%I SET TABLESPACE %I', partition_name, archive_tablespace);
+        END IF;
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
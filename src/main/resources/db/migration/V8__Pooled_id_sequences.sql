@@ -0,0 +1,9 @@
+-- Ids for bulk-written entities come from pooled sequences (allocationSize = 50) instead of IDENTITY,
+-- so Hibernate can batch their inserts; each nextval reserves the block of 50 ids ending at its value
+ALTER SEQUENCE instruments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE positions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE prices_id_seq INCREMENT BY 50;
+ALTER SEQUENCE risk_runs_id_seq INCREMENT BY 50;
+ALTER SEQUENCE risk_breakdowns_id_seq INCREMENT BY 50;
+ALTER SEQUENCE risk_run_scenario_vectors_id_seq INCREMENT BY 50;
+ALTER SEQUENCE fx_rates_id_seq INCREMENT BY 50;
@@ -0,0 +1,37 @@
+-- VaR / expected shortfall limits on a portfolio or hierarchy node, in the scope's base currency
+CREATE TABLE risk_limits (
+    id BIGSERIAL PRIMARY KEY,
+    scope_type VARCHAR(20) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    metric VARCHAR(30) NOT NULL,
+    limit_value DECIMAL(19,4) NOT NULL CHECK (limit_value > 0),
+    warning_threshold DECIMAL(5,4) NOT NULL DEFAULT 0.9 CHECK (warning_threshold > 0 AND warning_threshold <= 1),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One active limit per scope and metric
+CREATE UNIQUE INDEX uk_risk_limits_active_scope_metric ON risk_limits(scope_type, scope_id, metric) WHERE active;
+
+-- Warnings and breaches found when a risk run completes or a hierarchy node is re-aggregated
+CREATE TABLE limit_breaches (
+    id BIGSERIAL PRIMARY KEY,
+    risk_limit_id BIGINT NOT NULL REFERENCES risk_limits(id),
+    risk_run_id BIGINT REFERENCES risk_runs(id) ON DELETE SET NULL,
+    scope_type VARCHAR(20) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    metric VARCHAR(30) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    source VARCHAR(30) NOT NULL,
+    measured_value DECIMAL(19,4) NOT NULL,
+    limit_value DECIMAL(19,4) NOT NULL,
+    utilization DECIMAL(10,4) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE limit_breaches_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_limit_breaches_scope ON limit_breaches(scope_type, scope_id, created_at DESC);
+CREATE INDEX idx_limit_breaches_risk_limit_id ON limit_breaches(risk_limit_id);
+CREATE INDEX idx_limit_breaches_risk_run_id ON limit_breaches(risk_run_id);
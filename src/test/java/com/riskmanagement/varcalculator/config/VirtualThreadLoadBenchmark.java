@@ -0,0 +1,106 @@
+package com.riskmanagement.varcalculator.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manual throughput comparison of virtual threads against the platform-thread default. Not
+ * run by the test suite.
+ * <p>
+ * Without arguments it simulates request handling in-process: each task blocks for a few
+ * JDBC-sized round trips, executed once on a 200-thread platform pool (Tomcat's default
+ * max-threads) and once on a virtual thread per task. Given a URL it drives a running server
+ * instead; start the app with {@code --var-calculator.threads.virtual=false}, then {@code true},
+ * and compare
+ * {@code java -cp target/test-classes ...VirtualThreadLoadBenchmark http://localhost:8080/api/api/portfolio 2000 20000}
+ * (url, concurrent clients, requests).
+ */
+public final class VirtualThreadLoadBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final int ROUND_TRIPS_PER_REQUEST = 3;
+    private static final long ROUND_TRIP_MILLIS = 10;
+
+    private VirtualThreadLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("http")) {
+            int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+            int requests = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+            driveServer(URI.create(args[0]), clients, requests);
+            return;
+        }
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        System.out.printf("%d simulated requests, %d x %d ms blocking round trips each%n", requests,
+                ROUND_TRIPS_PER_REQUEST, ROUND_TRIP_MILLIS);
+        try (ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE)) {
+            report("platform", requests, simulate(platform, requests));
+        }
+        try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            report("virtual", requests, simulate(virtual, requests));
+        }
+    }
+
+    private static long simulate(ExecutorService executor, int requests) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                for (int trip = 0; trip < ROUND_TRIPS_PER_REQUEST; trip++) {
+                    Thread.sleep(ROUND_TRIP_MILLIS);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Each client is a virtual thread issuing requests back to back, so the server is the bottleneck
+    private static void driveServer(URI uri, int clients, int requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                workers.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        System.out.printf("%s with %d clients, %d failed%n", uri, clients, failures.get());
+        report("server", requests, System.nanoTime() - start);
+    }
+
+    private static void report(String name, int requests, long nanos) {
+        System.out.printf("%-8s %8.1f ms  %10.0f requests/s%n", name, nanos / 1e6, requests / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,77 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestStatisticsTest {
+
+    @Test
+    void kupiecStatistic_ShouldBeZero_WhenExceptionRateMatchesExpectation() {
+        // When
+        double statistic = BacktestStatistics.kupiecStatistic(1000, 10, 0.01);
+
+        // Then
+        assertEquals(0.0, statistic, 1e-9);
+        assertEquals(1.0, BacktestStatistics.pValue(statistic, 1), 1e-9);
+    }
+
+    @Test
+    void kupiecStatistic_ShouldRejectModel_WhenTooManyExceptions() {
+        // When
+        double statistic = BacktestStatistics.kupiecStatistic(250, 12, 0.01);
+
+        // Then
+        assertTrue(statistic > 3.841, "LR should exceed the 95% chi-squared critical value");
+        assertTrue(BacktestStatistics.pValue(statistic, 1) < 0.05);
+    }
+
+    @Test
+    void christoffersenStatistic_ShouldFlagClusteredExceptions() {
+        // Given
+        boolean[] spread = new boolean[250];
+        boolean[] clustered = new boolean[250];
+        for (int i = 0; i < 5; i++) {
+            spread[i * 50 + 10] = true;
+            clustered[100 + i] = true;
+        }
+
+        // When & Then
+        assertTrue(BacktestStatistics.christoffersenStatistic(spread) < 1.0);
+        assertTrue(BacktestStatistics.christoffersenStatistic(clustered) > 3.841);
+    }
+
+    @Test
+    void trafficLight_ShouldFollowBaselZones_For250Observations() {
+        assertEquals(BacktestStatistics.TrafficLight.GREEN, BacktestStatistics.trafficLight(250, 4, 0.01));
+        assertEquals(BacktestStatistics.TrafficLight.YELLOW, BacktestStatistics.trafficLight(250, 5, 0.01));
+        assertEquals(BacktestStatistics.TrafficLight.YELLOW, BacktestStatistics.trafficLight(250, 9, 0.01));
+        assertEquals(BacktestStatistics.TrafficLight.RED, BacktestStatistics.trafficLight(250, 10, 0.01));
+    }
+
+    @Test
+    void slidingWindowQuantile_ShouldMatchFullRecomputation() {
+        // Given
+        Random random = new Random(42);
+        double[] series = random.doubles(600).map(u -> u - 0.5).toArray();
+        SlidingWindowQuantile window = new SlidingWindowQuantile(252);
+
+        for (int i = 0; i < series.length; i++) {
+            window.add(series[i]);
+            if (!window.isFull()) {
+                continue;
+            }
+
+            // When
+            DescriptiveStatistics reference = new DescriptiveStatistics(Arrays.copyOfRange(series, i - 251, i + 1));
+
+            // Then
+            assertEquals(reference.getPercentile(1.0), window.percentile(1.0), 1e-12);
+            assertEquals(reference.getPercentile(5.0), window.percentile(5.0), 1e-12);
+        }
+    }
+}
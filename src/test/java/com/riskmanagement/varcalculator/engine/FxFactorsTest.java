@@ -0,0 +1,44 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxFactorsTest {
+
+    @Test
+    void factorId_ShouldRoundTripToCurrency_AsDistinctNegativeIds() {
+        // Given
+        List<String> currencies = List.of("EUR", "GBP", "JPY", "CHF", "USD", "AAA", "ZZZ");
+
+        // When
+        List<Long> ids = currencies.stream().map(FxFactors::factorId).collect(Collectors.toList());
+
+        // Then
+        for (int i = 0; i < currencies.size(); i++) {
+            assertTrue(FxFactors.isFxFactor(ids.get(i)));
+            assertEquals(currencies.get(i), FxFactors.currency(ids.get(i)));
+        }
+        assertEquals(currencies.size(), Set.copyOf(ids).size());
+        assertFalse(FxFactors.isFxFactor(1L));
+    }
+
+    @Test
+    void factorId_ShouldRejectCodesThatAreNotThreeLetters() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> FxFactors.factorId("EURO"));
+        assertThrows(IllegalArgumentException.class, () -> FxFactors.factorId(null));
+    }
+
+    @Test
+    void hasFactor_ShouldBeFalse_ForThePivotCurrency() {
+        // When & Then
+        assertFalse(FxFactors.hasFactor("USD"));
+        assertFalse(FxFactors.hasFactor(null));
+        assertTrue(FxFactors.hasFactor("EUR"));
+    }
+}
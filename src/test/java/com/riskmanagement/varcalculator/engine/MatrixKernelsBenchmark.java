@@ -0,0 +1,62 @@
+package com.riskmanagement.varcalculator.engine;
+
+import java.util.Random;
+
+/**
+ * Manual benchmark of the blocked kernel against a naive triple loop. Not run by the test
+ * suite; start it from the IDE or with
+ * {@code java -cp target/classes:target/test-classes ...MatrixKernelsBenchmark 5000 10000 64}
+ * (scenarios, instruments, portfolios).
+ */
+public final class MatrixKernelsBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private MatrixKernelsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 2500;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int n = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        Random random = new Random(1);
+        double[] a = random.doubles((long) m * k, -0.05, 0.05).toArray();
+        double[] b = random.doubles((long) k * n, 0, 1e6).toArray();
+        double flops = 2.0 * m * k * n;
+
+        System.out.printf("Scenarios %d x instruments %d x portfolios %d, %d cores%n", m, k, n,
+                Runtime.getRuntime().availableProcessors());
+        report("naive", flops, () -> naive(a, m, k, b, n));
+        report("blocked", flops, () -> MatrixKernels.multiply(a, m, k, b, n));
+    }
+
+    private static void report(String name, double flops, Runnable kernel) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            kernel.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            kernel.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-8s best %8.1f ms  %6.2f GFLOP/s%n", name, best / 1e6, flops / best);
+    }
+
+    // Textbook i-j-k order: strided access down the columns of b
+    private static double[] naive(double[] a, int m, int k, double[] b, int n) {
+        double[] c = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++) {
+                    sum += a[i * k + p] * b[p * n + j];
+                }
+                c[i * n + j] = sum;
+            }
+        }
+        return c;
+    }
+}
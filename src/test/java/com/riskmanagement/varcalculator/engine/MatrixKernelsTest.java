@@ -0,0 +1,87 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixKernelsTest {
+
+    @Test
+    void multiply_ShouldMatchNaiveProduct_WhenShapesAreNotBlockMultiples() {
+        // Given
+        Random random = new Random(7);
+        int m = MatrixKernels.ROW_BLOCK * 3 + 5;
+        int k = MatrixKernels.K_BLOCK + 17;
+        int n = MatrixKernels.N_BLOCK + 3;
+        double[] a = random.doubles((long) m * k, -0.05, 0.05).toArray();
+        double[] b = random.doubles((long) k * n, -1e6, 1e6).toArray();
+
+        // When
+        double[] c = MatrixKernels.multiply(a, m, k, b, n);
+
+        // Then
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double expected = 0;
+                for (int p = 0; p < k; p++) {
+                    expected += a[i * k + p] * b[p * n + j];
+                }
+                assertEquals(expected, c[i * n + j], Math.abs(expected) * 1e-12 + 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void multiply_ShouldMatchNaiveMatrixVectorProduct() {
+        // Given
+        Random random = new Random(11);
+        int m = 301;
+        int k = 1027;
+        double[] a = random.doubles((long) m * k, -0.05, 0.05).toArray();
+        double[] x = random.doubles(k, 0, 1e5).toArray();
+
+        // When
+        double[] y = MatrixKernels.multiply(a, m, k, x);
+
+        // Then
+        for (int i = 0; i < m; i++) {
+            double expected = 0;
+            for (int p = 0; p < k; p++) {
+                expected += a[i * k + p] * x[p];
+            }
+            assertEquals(expected, y[i], Math.abs(expected) * 1e-12 + 1e-6);
+        }
+    }
+
+    @Test
+    void multiply_ShouldStayWithinDocumentedBound_WhenMatrixIsStoredAsFloat() {
+        // Given
+        Random random = new Random(13);
+        int m = 250;
+        int k = 400;
+        int n = 3;
+        double[] a = random.doubles((long) m * k, -0.05, 0.05).toArray();
+        float[] narrowed = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            narrowed[i] = (float) a[i];
+        }
+        double[] b = random.doubles((long) k * n, -1e7, 1e7).toArray();
+
+        // When
+        double[] exact = MatrixKernels.multiply(a, m, k, b, n);
+        double[] approximate = MatrixKernels.multiply(narrowed, m, k, b, n);
+
+        // Then
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double bound = 0;
+                for (int p = 0; p < k; p++) {
+                    bound += Math.abs(a[i * k + p] * b[p * n + j]);
+                }
+                assertEquals(exact[i * n + j], approximate[i * n + j], bound * 0x1p-24 + 1e-6);
+            }
+        }
+    }
+}
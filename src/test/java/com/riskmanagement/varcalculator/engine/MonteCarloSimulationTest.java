@@ -0,0 +1,125 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSimulationTest {
+
+    private static final double Z_99 = 2.3263478740408408;
+
+    @Test
+    void estimate_ShouldConvergeToNormalQuantile_WhenVarianceReductionIsEnabled() {
+        // Given
+        ReturnMatrix history = randomHistory(500, 4, 3);
+        double[] exposures = { 1_000_000, 500_000, -250_000, 750_000 };
+        double sigma = profitAndLossSigma(history, exposures);
+        MonteCarloSimulation.Options options = new MonteCarloSimulation.Options(4096,
+                MonteCarloSimulation.Sampling.SOBOL, true, true, 42L);
+
+        // When
+        MonteCarloSimulation.Estimate estimate = MonteCarloSimulation.estimate(history, exposures, 2_000_000,
+                options);
+
+        // Then
+        assertEquals(Z_99 * sigma, estimate.measures().var99(), 5 * estimate.var99StandardError() + sigma * 1e-3);
+        assertTrue(estimate.measures().expectedShortfall99() > estimate.measures().var99());
+        assertTrue(estimate.var99StandardError() > 0);
+    }
+
+    @Test
+    void estimate_ShouldReportSmallerStandardError_WhenUsingSobolWithVarianceReduction() {
+        // Given
+        ReturnMatrix history = randomHistory(300, 6, 5);
+        double[] exposures = { 400_000, 300_000, 200_000, 100_000, 50_000, 25_000 };
+        MonteCarloSimulation.Options plain = new MonteCarloSimulation.Options(8192,
+                MonteCarloSimulation.Sampling.PSEUDO_RANDOM, false, false, 7L);
+        MonteCarloSimulation.Options reduced = new MonteCarloSimulation.Options(8192,
+                MonteCarloSimulation.Sampling.SOBOL, true, true, 7L);
+
+        // When
+        double plainError = MonteCarloSimulation.estimate(history, exposures, 1_075_000, plain).var99StandardError();
+        double reducedError = MonteCarloSimulation.estimate(history, exposures, 1_075_000, reduced)
+                .var99StandardError();
+
+        // Then
+        assertTrue(reducedError * 3 < plainError, "reduced " + reducedError + " vs plain " + plainError);
+    }
+
+    @Test
+    void estimate_ShouldRetainOnlyTheTail_WhenPathsAreSplitAcrossWorkers() {
+        // Given
+        ReturnMatrix history = randomHistory(300, 4, 11);
+        double[] exposures = { 1_000_000, 500_000, -250_000, 750_000 };
+        int paths = 160_000;
+        MonteCarloSimulation.Options options = new MonteCarloSimulation.Options(paths,
+                MonteCarloSimulation.Sampling.PSEUDO_RANDOM, false, false, 5L);
+
+        // When
+        MonteCarloSimulation.Estimate estimate = MonteCarloSimulation.estimate(history, exposures, 2_000_000,
+                options);
+
+        // Then each worker holds about its own share of the 5% tail, not the pooled one
+        assertEquals(paths, estimate.paths());
+        assertTrue(estimate.retainedLosses() >= 0.05 * paths, "retained " + estimate.retainedLosses());
+        assertTrue(estimate.retainedLosses() <= 0.08 * paths + 32 * MonteCarloSimulation.BATCHES,
+                "retained " + estimate.retainedLosses());
+        double sigma = profitAndLossSigma(history, exposures);
+        assertEquals(Z_99 * sigma, estimate.measures().var99(), 5 * estimate.var99StandardError() + sigma * 1e-3);
+    }
+
+    @Test
+    void estimate_ShouldBoundRetainedLosses_WhenImportanceSamplingWeightsTheTail() {
+        // Given the default request settings, whose shift puts most paths beyond the 95% VaR
+        ReturnMatrix history = randomHistory(300, 4, 11);
+        double[] exposures = { 1_000_000, 500_000, -250_000, 750_000 };
+        int paths = 160_000;
+        MonteCarloSimulation.Options options = new MonteCarloSimulation.Options(paths,
+                MonteCarloSimulation.Sampling.SOBOL, true, true, 5L);
+
+        // When
+        MonteCarloSimulation.Estimate estimate = MonteCarloSimulation.estimate(history, exposures, 2_000_000,
+                options);
+
+        // Then at most about twice each worker's tail share is held, and compaction costs less than sampling
+        assertTrue(estimate.retainedLosses() <= 2 * (0.08 * paths + 34 * MonteCarloSimulation.BATCHES),
+                "retained " + estimate.retainedLosses());
+        double sigma = profitAndLossSigma(history, exposures);
+        assertTrue(estimate.tailError() < sigma * 2e-2, "tail error " + estimate.tailError());
+        assertEquals(Z_99 * sigma, estimate.measures().var99(),
+                5 * estimate.var99StandardError() + estimate.tailError() + sigma * 1e-3);
+        assertEquals(1.6448536 * sigma, estimate.measures().var95(),
+                5 * estimate.var95StandardError() + estimate.tailError() + sigma * 1e-3);
+    }
+
+    private static ReturnMatrix randomHistory(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        List<LocalDate> dates = new ArrayList<>();
+        double[] data = new double[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            dates.add(LocalDate.of(2020, 1, 1).plusDays(r));
+            double market = random.nextGaussian() * 0.01;
+            for (int c = 0; c < columns; c++) {
+                data[r * columns + c] = market + random.nextGaussian() * 0.005 * (c + 1);
+            }
+        }
+        long[] ids = new long[columns];
+        for (int c = 0; c < columns; c++) {
+            ids[c] = c + 1;
+        }
+        return new ReturnMatrix(dates, ids, data);
+    }
+
+    private static double profitAndLossSigma(ReturnMatrix history, double[] exposures) {
+        RunningMoments moments = new RunningMoments();
+        for (double value : history.multiply(exposures)) {
+            moments.add(value);
+        }
+        return moments.getStandardDeviation();
+    }
+}
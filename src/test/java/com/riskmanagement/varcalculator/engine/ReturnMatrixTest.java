@@ -0,0 +1,59 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReturnMatrixTest {
+
+    @Test
+    void multiply_ShouldMatchOnePortfolioAtATime_ForEveryExposureColumn() {
+        // Given 300 scenarios over 7 instruments, with a sparse return every few cells
+        Random random = new Random(21);
+        int rows = 300;
+        int columns = 7;
+        int portfolios = 5;
+        List<LocalDate> dates = new ArrayList<>();
+        double[] returns = new double[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            dates.add(LocalDate.of(2023, 1, 1).plusDays(r));
+            for (int c = 0; c < columns; c++) {
+                returns[r * columns + c] = random.nextInt(4) == 0 ? 0 : random.nextGaussian() * 0.02;
+            }
+        }
+        ReturnMatrix matrix = new ReturnMatrix(dates, new long[] { 1, 2, 3, 4, 5, 6, 7 }, returns);
+        double[] exposureMatrix = random.doubles(columns * portfolios, -1e6, 1e6).toArray();
+
+        // When
+        double[] profitAndLoss = matrix.multiply(exposureMatrix, portfolios);
+
+        // Then
+        assertEquals(rows * portfolios, profitAndLoss.length);
+        for (int p = 0; p < portfolios; p++) {
+            double[] exposures = new double[columns];
+            for (int c = 0; c < columns; c++) {
+                exposures[c] = exposureMatrix[c * portfolios + p];
+            }
+            double[] single = matrix.multiply(exposures);
+            for (int r = 0; r < rows; r++) {
+                assertEquals(single[r], profitAndLoss[r * portfolios + p], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void multiply_ShouldRejectExposures_ThatDoNotMatchTheColumns() {
+        // Given
+        ReturnMatrix matrix = new ReturnMatrix(List.of(LocalDate.of(2024, 1, 2)), new long[] { 1, 2 },
+                new double[] { 0.01, -0.02 });
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> matrix.multiply(new double[5], 2));
+        assertThrows(IllegalArgumentException.class, () -> matrix.multiply(new double[3]));
+    }
+}
@@ -0,0 +1,126 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskMeasuresTest {
+
+    @Test
+    void runningMoments_ShouldMatchFullRecomputation_WhenWindowSlides() {
+        // Given
+        Random random = new Random(17);
+        double[] series = random.doubles(400).map(u -> Math.exp(u * 2) - 1).toArray();
+        RunningMoments moments = new RunningMoments();
+
+        for (int i = 0; i < series.length; i++) {
+            moments.add(series[i]);
+            if (i >= 100) {
+                moments.remove(series[i - 100]);
+            }
+            if (i < 99) {
+                continue;
+            }
+
+            // When
+            DescriptiveStatistics reference = new DescriptiveStatistics(Arrays.copyOfRange(series, i - 99, i + 1));
+
+            // Then
+            assertEquals(reference.getVariance(), moments.getVariance(), 1e-9);
+            assertEquals(reference.getSkewness(), moments.getSkewness(), 1e-6);
+            assertEquals(reference.getKurtosis(), moments.getExcessKurtosis(), 1e-6);
+        }
+    }
+
+    @Test
+    void historical_ShouldReadVarAndShortfallFromTheLossTail() {
+        // Given P&L of -50 to 49 in shuffled order
+        List<Double> values = new ArrayList<>();
+        for (int i = -50; i < 50; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(3));
+        double[] profitAndLoss = values.stream().mapToDouble(Double::doubleValue).toArray();
+        double[] original = profitAndLoss.clone();
+
+        // When
+        RiskMeasures measures = RiskMeasures.historical(profitAndLoss, 10_000);
+
+        // Then
+        assertEquals(45.95, measures.var95(), 1e-9);
+        assertEquals(49.99, measures.var99(), 1e-9);
+        assertEquals(48, measures.expectedShortfall95(), 1e-9);
+        assertEquals(50, measures.expectedShortfall99(), 1e-9);
+        assertEquals(new DescriptiveStatistics(profitAndLoss).getStandardDeviation() / 10_000, measures.volatility(),
+                1e-12);
+        assertArrayEquals(original, profitAndLoss);
+    }
+
+    @Test
+    void parametric_ShouldScaleStandardDeviationByNormalQuantiles() {
+        // Given
+        double[] profitAndLoss = new Random(11).doubles(500, -2_000, 2_000).toArray();
+        double sigma = new DescriptiveStatistics(profitAndLoss).getStandardDeviation();
+
+        // When
+        RiskMeasures measures = RiskMeasures.parametric(profitAndLoss, 0);
+
+        // Then
+        assertEquals(1.6448536 * sigma, measures.var95(), 1e-6 * sigma);
+        assertEquals(2.3263479 * sigma, measures.var99(), 1e-6 * sigma);
+        assertEquals(2.0627128 * sigma, measures.expectedShortfall95(), 1e-6 * sigma);
+        assertEquals(2.6652142 * sigma, measures.expectedShortfall99(), 1e-6 * sigma);
+        assertEquals(0, measures.volatility());
+    }
+
+    @Test
+    void cornishFisher_ShouldExceedNormalVar_WhenLossesAreFatTailed() {
+        // Given
+        Random random = new Random(5);
+        double[] profitAndLoss = new double[2000];
+        for (int i = 0; i < profitAndLoss.length; i++) {
+            double shock = random.nextGaussian();
+            profitAndLoss[i] = (random.nextDouble() < 0.05 ? 4 : 1) * shock * 1_000;
+        }
+
+        // When
+        RiskMeasures normal = RiskMeasures.parametric(profitAndLoss, 1_000_000);
+        RiskMeasures adjusted = RiskMeasures.cornishFisher(profitAndLoss, 1_000_000);
+
+        // Then
+        assertTrue(adjusted.var99() > normal.var99());
+        assertTrue(adjusted.expectedShortfall99() > adjusted.var99());
+        assertEquals(normal.volatility(), adjusted.volatility(), 1e-12);
+    }
+
+    @Test
+    void deltaGammaNormal_ShouldReduceToDeltaNormal_WhenGammaIsZero() {
+        // Given
+        Random random = new Random(9);
+        List<LocalDate> dates = new ArrayList<>();
+        double[] data = new double[500 * 2];
+        for (int r = 0; r < 500; r++) {
+            dates.add(LocalDate.of(2022, 1, 1).plusDays(r));
+            data[2 * r] = random.nextGaussian() * 0.01;
+            data[2 * r + 1] = 0.5 * data[2 * r] + random.nextGaussian() * 0.02;
+        }
+        ReturnMatrix history = new ReturnMatrix(dates, new long[] { 1, 2 }, data);
+        double[] exposures = { 600_000, 400_000 };
+
+        // When
+        RiskMeasures deltaGamma = RiskMeasures.deltaGammaNormal(history, exposures, new double[2], 1_000_000);
+        RiskMeasures deltaNormal = RiskMeasures.parametric(history.multiply(exposures), 1_000_000);
+
+        // Then
+        assertEquals(deltaNormal.var99(), deltaGamma.var99(), 1e-6);
+        assertEquals(deltaNormal.volatility(), deltaGamma.volatility(), 1e-12);
+    }
+}
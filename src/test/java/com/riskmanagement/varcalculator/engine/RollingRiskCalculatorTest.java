@@ -0,0 +1,87 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingRiskCalculatorTest {
+
+    private static final int WINDOW = 100;
+    private static final double PORTFOLIO_VALUE = 5_000_000;
+
+    @Test
+    void forEach_ShouldMatchFullRecomputeOfPriorWindow_WhenHistorical() {
+        // Given
+        ProfitAndLossSeries series = randomSeries(400, 31);
+        LocalDate from = series.dates().get(150);
+        LocalDate to = series.dates().get(350);
+        List<RollingRiskPoint> points = new ArrayList<>();
+
+        // When
+        RollingRiskCalculator.forEach(series, WINDOW, from, to, RollingRiskCalculator.Method.HISTORICAL,
+                points::add);
+
+        // Then one point per day in range, each from the window ending the day before
+        assertEquals(201, points.size());
+        for (int p = 0; p < points.size(); p++) {
+            int day = 150 + p;
+            RollingRiskPoint point = points.get(p);
+            double[] window = Arrays.copyOfRange(series.profitAndLoss(), day - WINDOW, day);
+            DescriptiveStatistics stats = new DescriptiveStatistics(window);
+            assertEquals(series.dates().get(day), point.date());
+            assertEquals(series.profitAndLoss()[day], point.profitAndLoss());
+            assertEquals(-stats.getPercentile(5.0), point.var95(), 1e-9);
+            assertEquals(-stats.getPercentile(1.0), point.var99(), 1e-9);
+            assertEquals(-tailMean(window, stats.getPercentile(5.0)), point.expectedShortfall95(), 1e-6);
+            assertEquals(-tailMean(window, stats.getPercentile(1.0)), point.expectedShortfall99(), 1e-6);
+            assertEquals(stats.getStandardDeviation() / PORTFOLIO_VALUE, point.volatility(), 1e-12);
+        }
+    }
+
+    @Test
+    void forEach_ShouldUseRollingStandardDeviation_WhenParametric() {
+        // Given
+        ProfitAndLossSeries series = randomSeries(300, 37);
+        List<RollingRiskPoint> points = new ArrayList<>();
+
+        // When the requested range starts before a full window exists
+        RollingRiskCalculator.forEach(series, WINDOW, series.dates().get(0), series.dates().get(299),
+                RollingRiskCalculator.Method.PARAMETRIC, points::add);
+
+        // Then
+        assertEquals(200, points.size());
+        for (int p = 0; p < points.size(); p++) {
+            int day = WINDOW + p;
+            double sigma = new DescriptiveStatistics(Arrays.copyOfRange(series.profitAndLoss(), day - WINDOW, day))
+                    .getStandardDeviation();
+            RollingRiskPoint point = points.get(p);
+            assertEquals(series.dates().get(day), point.date());
+            assertEquals(1.6448536269514722 * sigma, point.var95(), sigma * 1e-9);
+            assertEquals(2.3263478740408408 * sigma, point.var99(), sigma * 1e-9);
+            assertEquals(2.0627128075074257 * sigma, point.expectedShortfall95(), sigma * 1e-9);
+            assertEquals(2.6652142203458076 * sigma, point.expectedShortfall99(), sigma * 1e-9);
+        }
+    }
+
+    private static ProfitAndLossSeries randomSeries(int days, long seed) {
+        Random random = new Random(seed);
+        List<LocalDate> dates = new ArrayList<>();
+        double[] profitAndLoss = new double[days];
+        for (int i = 0; i < days; i++) {
+            dates.add(LocalDate.of(2022, 1, 3).plusDays(i));
+            profitAndLoss[i] = random.nextGaussian() * 40_000 * (i % 90 < 20 ? 2 : 1);
+        }
+        return new ProfitAndLossSeries(dates, profitAndLoss, PORTFOLIO_VALUE);
+    }
+
+    private static double tailMean(double[] values, double cutoff) {
+        return Arrays.stream(values).filter(value -> value <= cutoff).average().orElse(cutoff);
+    }
+}
@@ -0,0 +1,62 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningMomentsTest {
+
+    @Test
+    void remove_ShouldMatchFullRecompute_WhenWindowSlides() {
+        // Given skewed, fat-tailed daily P&L on a non-zero level
+        Random random = new Random(23);
+        int window = 60;
+        double[] values = new double[2_000];
+        for (int i = 0; i < values.length; i++) {
+            double shock = random.nextGaussian();
+            values[i] = 1_000 + 250 * shock + (shock < -1.5 ? -800 * random.nextDouble() : 0);
+        }
+        RunningMoments moments = new RunningMoments();
+
+        for (int i = 0; i < values.length; i++) {
+            // When
+            if (i >= window) {
+                moments.remove(values[i - window]);
+            }
+            moments.add(values[i]);
+
+            // Then
+            double[] expected = Arrays.copyOfRange(values, Math.max(0, i - window + 1), i + 1);
+            DescriptiveStatistics stats = new DescriptiveStatistics(expected);
+            assertEquals(expected.length, moments.getCount());
+            assertEquals(stats.getMean(), moments.getMean(), 1e-8, "step " + i);
+            assertEquals(stats.getVariance(), moments.getVariance(), stats.getVariance() * 1e-8 + 1e-8,
+                    "step " + i);
+            if (expected.length >= 4) {
+                assertEquals(stats.getSkewness(), moments.getSkewness(), 1e-6, "step " + i);
+                assertEquals(stats.getKurtosis(), moments.getExcessKurtosis(), 1e-6, "step " + i);
+            }
+        }
+    }
+
+    @Test
+    void remove_ShouldReset_WhenLastValueLeaves() {
+        // Given
+        RunningMoments moments = new RunningMoments();
+        moments.add(5);
+
+        // When
+        moments.remove(5);
+        moments.add(2);
+        moments.add(4);
+
+        // Then
+        assertEquals(2, moments.getCount());
+        assertEquals(3, moments.getMean(), 1e-12);
+        assertEquals(2, moments.getVariance(), 1e-12);
+    }
+}
@@ -0,0 +1,69 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioRevaluationTest {
+
+    @Test
+    void blackScholes_ShouldSatisfyPutCallParity() {
+        // Given
+        BlackScholesPricer call = new BlackScholesPricer(true, 100, 0.5, 0.03, 0.25);
+        BlackScholesPricer put = new BlackScholesPricer(false, 100, 0.5, 0.03, 0.25);
+
+        // When
+        double parity = call.price(105) - put.price(105);
+
+        // Then
+        assertEquals(105 - 100 * Math.exp(-0.03 * 0.5), parity, 1e-9);
+        assertEquals(1, call.delta(105) - put.delta(105), 1e-12);
+    }
+
+    @Test
+    void bondPricer_ShouldPriceAtParAndMatchFiniteDifferences_WhenYieldEqualsCoupon() {
+        // Given
+        BondPricer bond = new BondPricer(0.05, 2, 10);
+        double h = 1e-3;
+
+        // When
+        double price = bond.price(5.0);
+        double finiteDelta = (bond.price(5.0 + h) - bond.price(5.0 - h)) / (2 * h);
+        double finiteGamma = (bond.price(5.0 + h) - 2 * price + bond.price(5.0 - h)) / (h * h);
+
+        // Then
+        assertEquals(100, price, 1e-9);
+        assertEquals(finiteDelta, bond.delta(5.0), 1e-6);
+        assertEquals(finiteGamma, bond.gamma(5.0), 1e-3);
+    }
+
+    @Test
+    void profitAndLoss_ShouldCaptureConvexity_WhenHoldingALongCall() {
+        // Given
+        ReturnMatrix history = new ReturnMatrix(
+                List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4)),
+                new long[] { 1, 2 }, new double[] { 0.10, 0.01, -0.10, 0.0, 0.001, -0.02 });
+        BlackScholesPricer call = new BlackScholesPricer(true, 100, 0.25, 0.03, 0.2);
+        ScenarioRevaluation.Holding holding = new ScenarioRevaluation.Holding(9, 0, 10, 100, call);
+        double[] linear = { 0, 1_000 };
+        ScenarioRevaluation full = new ScenarioRevaluation(linear, List.of(holding), ScenarioRevaluation.Mode.FULL);
+        ScenarioRevaluation deltaGamma = new ScenarioRevaluation(linear, List.of(holding),
+                ScenarioRevaluation.Mode.DELTA_GAMMA);
+
+        // When
+        double[] fullProfitAndLoss = full.profitAndLoss(history);
+        double[] approximateProfitAndLoss = deltaGamma.profitAndLoss(history);
+
+        // Then
+        double up = 10 * (call.price(100 * Math.exp(0.10)) - call.price(100)) + 1_000 * 0.01;
+        double down = 10 * (call.price(100 * Math.exp(-0.10)) - call.price(100));
+        assertEquals(up, fullProfitAndLoss[0], 1e-9);
+        assertEquals(down, fullProfitAndLoss[1], 1e-9);
+        assertTrue(up - 1_000 * 0.01 > -down, "long call gains more than it loses on symmetric moves");
+        assertEquals(fullProfitAndLoss[2], approximateProfitAndLoss[2], 1e-3);
+        assertEquals(fullProfitAndLoss[0], approximateProfitAndLoss[0], Math.abs(fullProfitAndLoss[0]) * 0.05);
+    }
+}
@@ -0,0 +1,55 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioVectorCodecTest {
+
+    @Test
+    void encode_ShouldRoundTripDatesAndValues_WhenFloat64() {
+        // Given
+        ScenarioVector vector = new ScenarioVector(
+                List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 8),
+                        LocalDate.of(2025, 6, 30)),
+                new double[] { -1234.5678, 0.0, 98765.4321, -0.000001 });
+
+        // When
+        ScenarioVector decoded = ScenarioVectorCodec.decode(
+                ScenarioVectorCodec.encode(vector, ScenarioVectorCodec.Encoding.FLOAT64));
+
+        // Then
+        assertEquals(vector.getDates(), decoded.getDates());
+        assertArrayEquals(vector.getValues(), decoded.getValues(), 0.0);
+    }
+
+    @Test
+    void encode_ShouldUseAboutFiveBytesPerScenario_WhenFloat32() {
+        // Given
+        int count = 1000;
+        List<LocalDate> dates = new ArrayList<>();
+        double[] values = new double[count];
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < count; i++) {
+            dates.add(date);
+            values[i] = Math.sin(i) * 1e5;
+            date = date.plusDays(i % 5 == 4 ? 3 : 1);
+        }
+
+        // When
+        byte[] encoded = ScenarioVectorCodec.encode(new ScenarioVector(dates, values),
+                ScenarioVectorCodec.Encoding.FLOAT32);
+        ScenarioVector decoded = ScenarioVectorCodec.decode(encoded);
+
+        // Then
+        assertTrue(encoded.length < count * 5 + 16);
+        assertEquals(dates, decoded.getDates());
+        for (int i = 0; i < count; i++) {
+            assertEquals(values[i], decoded.getValues()[i], Math.abs(values[i]) * 1e-7 + 1e-9);
+        }
+    }
+}
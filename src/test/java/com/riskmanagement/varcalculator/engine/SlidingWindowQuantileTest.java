@@ -0,0 +1,54 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowQuantileTest {
+
+    @Test
+    void percentile_ShouldMatchFullRecompute_AtEveryStep() {
+        // Given values with plenty of ties, so eviction has to find the right duplicate
+        Random random = new Random(17);
+        int capacity = 50;
+        double[] values = new double[1_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round(random.nextGaussian() * 20) / 2.0;
+        }
+        SlidingWindowQuantile window = new SlidingWindowQuantile(capacity);
+
+        for (int i = 0; i < values.length; i++) {
+            // When
+            double evicted = window.add(values[i]);
+
+            // Then
+            if (i < capacity) {
+                assertTrue(Double.isNaN(evicted));
+            } else {
+                assertEquals(values[i - capacity], evicted);
+            }
+            double[] expected = Arrays.copyOfRange(values, Math.max(0, i - capacity + 1), i + 1);
+            DescriptiveStatistics stats = new DescriptiveStatistics(expected);
+            assertEquals(expected.length, window.size());
+            assertEquals(expected.length == capacity, window.isFull());
+            for (double p : new double[] { 1.0, 5.0, 50.0, 99.0 }) {
+                assertEquals(stats.getPercentile(p), window.percentile(p), 1e-12, "step " + i + " p " + p);
+                assertEquals(tailMean(expected, stats.getPercentile(p)), window.tailMean(p), 1e-9,
+                        "step " + i + " p " + p);
+            }
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectEmptyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowQuantile(0));
+    }
+
+    private static double tailMean(double[] values, double cutoff) {
+        return Arrays.stream(values).filter(value -> value <= cutoff).average().orElse(cutoff);
+    }
+}
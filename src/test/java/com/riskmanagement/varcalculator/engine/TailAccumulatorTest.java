@@ -0,0 +1,122 @@
+package com.riskmanagement.varcalculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailAccumulatorTest {
+
+    @Test
+    void tail_ShouldMatchFullSortAndStayBounded_WhenWorkersAreMerged() {
+        // Given
+        Random random = new Random(3);
+        int paths = 200_000;
+        double[] losses = random.doubles(paths).map(u -> random.nextGaussian() * 1_000).toArray();
+        double tailWeight = 0.05 * paths;
+        TailAccumulator[] workers = { new TailAccumulator(tailWeight), new TailAccumulator(tailWeight) };
+
+        // When
+        for (int i = 0; i < paths; i++) {
+            workers[i % 2].add(losses[i], 1.0);
+        }
+        TailAccumulator merged = new TailAccumulator(tailWeight);
+        merged.merge(workers[0]);
+        merged.merge(workers[1]);
+        double[] tail99 = merged.tail(0.01 * paths);
+
+        // Then
+        double[] sorted = losses.clone();
+        Arrays.sort(sorted);
+        int tailCount = paths / 100;
+        double expectedMean = Arrays.stream(sorted, paths - tailCount, paths).average().orElseThrow();
+        assertEquals(sorted[paths - tailCount], tail99[0], 1e-9);
+        assertEquals(expectedMean, tail99[1], 1e-6);
+        assertTrue(merged.size() <= tailWeight + 1);
+    }
+
+    @Test
+    void tail_ShouldSpendTailWeight_WhenLossesAreWeighted() {
+        // Given
+        TailAccumulator accumulator = new TailAccumulator(2.0);
+
+        // When
+        accumulator.add(10, 0.5);
+        accumulator.add(5, 1.0);
+        accumulator.add(8, 0.25);
+        accumulator.add(1, 1.0);
+        accumulator.add(7, 1.0);
+        double[] tail = accumulator.tail(1.0);
+
+        // Then
+        assertEquals(7, tail[0], 1e-12);
+        assertEquals((10 * 0.5 + 8 * 0.25 + 7 * 0.25) / 1.0, tail[1], 1e-12);
+        assertEquals(4, accumulator.size());
+    }
+
+    @Test
+    void merge_ShouldStayExact_WhenWorkersKeepOnlyTheirOwnShare() {
+        // Given
+        Random random = new Random(9);
+        int paths = 100_000;
+        int workerCount = 8;
+        double[] losses = random.doubles(paths).map(u -> random.nextGaussian() * 1_000).toArray();
+        TailAccumulator[] workers = new TailAccumulator[workerCount];
+        for (int w = 0; w < workerCount; w++) {
+            workers[w] = new TailAccumulator(1.5 * 0.05 * paths / workerCount);
+        }
+
+        // When
+        for (int i = 0; i < paths; i++) {
+            workers[i % workerCount].add(losses[i], 1.0);
+        }
+        TailAccumulator merged = new TailAccumulator(0.05 * paths);
+        for (TailAccumulator worker : workers) {
+            merged.merge(worker);
+        }
+        double[] tail95 = merged.tail(0.05 * paths);
+
+        // Then
+        double[] sorted = losses.clone();
+        Arrays.sort(sorted);
+        int tailCount = paths / 20;
+        for (TailAccumulator worker : workers) {
+            assertTrue(worker.getMaxDiscarded() <= tail95[0]);
+            assertTrue(worker.size() <= 1.5 * tailCount / workerCount + 1);
+        }
+        assertEquals(sorted[paths - tailCount], tail95[0], 1e-9);
+        assertEquals(Arrays.stream(sorted, paths - tailCount, paths).average().orElseThrow(), tail95[1], 1e-6);
+    }
+
+    @Test
+    void add_ShouldCapCountAndBoundError_WhenSmallWeightsFillTheTail() {
+        // Given weights so small that the whole run sits inside the tail weight
+        Random random = new Random(13);
+        int paths = 50_000;
+        double[] losses = random.doubles(paths).map(u -> random.nextGaussian() * 1_000).toArray();
+        double weight = 0.01;
+        double tailWeight = 200;
+        TailAccumulator accumulator = new TailAccumulator(tailWeight);
+
+        // When
+        for (double loss : losses) {
+            accumulator.add(loss, weight);
+        }
+        double[] tail = accumulator.tail(100);
+        double error = accumulator.error(100);
+
+        // Then
+        double[] sorted = losses.clone();
+        Arrays.sort(sorted);
+        int tailCount = (int) Math.round(100 / weight);
+        double exactQuantile = sorted[paths - tailCount];
+        double exactMean = Arrays.stream(sorted, paths - tailCount, paths).average().orElseThrow();
+        assertTrue(accumulator.size() <= 2 * tailWeight + 2, "size " + accumulator.size());
+        assertTrue(error > 0);
+        assertEquals(exactQuantile, tail[0], error + 1e-9);
+        assertEquals(exactMean, tail[1], error + 1e-9);
+        assertTrue(error < 100, "error " + error);
+    }
+}
@@ -0,0 +1,144 @@
+package com.riskmanagement.varcalculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the native set-based UPDATEs against PostgreSQL with the Flyway schema; skipped where Docker is unavailable
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PositionRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 28);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void markToMarket_ShouldValueAtLatestClose_AndSkipPositionsAlreadyCurrent() {
+        // Given
+        long portfolioId = portfolio("USD");
+        long instrumentId = instrument("AAPL", "USD");
+        price(instrumentId, DAY.minusDays(1), "100");
+        price(instrumentId, DAY, "110");
+        long positionId = position(portfolioId, instrumentId, "10", "500");
+
+        // When
+        int revalued = positionRepository.markToMarket();
+        int again = positionRepository.markToMarket();
+
+        // Then
+        assertEquals(1, revalued);
+        assertEquals(0, again);
+        assertEquals(0, new BigDecimal("1100").compareTo(marketValue(positionId)));
+    }
+
+    @Test
+    void markToMarket_ShouldLeavePosition_WhenInstrumentHasNoPrices() {
+        // Given
+        long portfolioId = portfolio("USD");
+        long positionId = position(portfolioId, instrument("NEW", "USD"), "10", "500");
+
+        // When
+        int revalued = positionRepository.markToMarket();
+
+        // Then
+        assertEquals(0, revalued);
+        assertEquals(0, new BigDecimal("500").compareTo(marketValue(positionId)));
+    }
+
+    @Test
+    void updateWeights_ShouldWeighMixedCurrencyBooks_InUsd() {
+        // Given 1000 USD and 1000 EUR at 1.1 USD per EUR
+        long portfolioId = portfolio("USD");
+        jdbcTemplate.update("INSERT INTO fx_rates (currency, rate_date, rate_to_usd) VALUES ('EUR', ?, 1.1)", DAY);
+        long usdPosition = position(portfolioId, instrument("IBM", "USD"), "10", "1000");
+        long eurPosition = position(portfolioId, instrument("SAP", "EUR"), "10", "1000");
+
+        // When
+        int reweighted = positionRepository.updateWeights();
+        int again = positionRepository.updateWeights();
+
+        // Then
+        assertEquals(2, reweighted);
+        assertEquals(0, again);
+        assertEquals(0, new BigDecimal("0.476190").compareTo(weight(usdPosition)));
+        assertEquals(0, new BigDecimal("0.523810").compareTo(weight(eurPosition)));
+    }
+
+    @Test
+    void updateWeightsByPortfolioId_ShouldOnlyTouchThatPortfolio() {
+        // Given
+        long first = portfolio("USD");
+        long second = portfolio("USD");
+        long instrumentId = instrument("MSFT", "USD");
+        long firstPosition = position(first, instrumentId, "1", "300");
+        long secondPosition = position(second, instrumentId, "1", "300");
+
+        // When
+        int reweighted = positionRepository.updateWeightsByPortfolioId(first);
+
+        // Then
+        assertEquals(1, reweighted);
+        assertEquals(0, BigDecimal.ONE.compareTo(weight(firstPosition)));
+        assertNull(weight(secondPosition));
+    }
+
+    private long portfolio(String baseCurrency) {
+        return jdbcTemplate.queryForObject("INSERT INTO portfolios (name, base_currency) VALUES ('Test', ?) "
+                + "RETURNING id", Long.class, baseCurrency);
+    }
+
+    private long instrument(String symbol, String currency) {
+        return jdbcTemplate.queryForObject("INSERT INTO instruments (symbol, name, type, currency) "
+                + "VALUES (?, ?, 'STOCK', ?) RETURNING id", Long.class, symbol, symbol, currency);
+    }
+
+    private void price(long instrumentId, LocalDate date, String close) {
+        BigDecimal value = new BigDecimal(close);
+        jdbcTemplate.update("INSERT INTO prices (instrument_id, price_date, open, high, low, close, volume) "
+                + "VALUES (?, ?, ?, ?, ?, ?, 1000)", instrumentId, date, value, value, value, value);
+    }
+
+    private long position(long portfolioId, long instrumentId, String quantity, String marketValue) {
+        return jdbcTemplate.queryForObject("INSERT INTO positions (portfolio_id, instrument_id, quantity, "
+                + "market_value) VALUES (?, ?, ?, ?) RETURNING id", Long.class, portfolioId, instrumentId,
+                new BigDecimal(quantity), new BigDecimal(marketValue));
+    }
+
+    private BigDecimal marketValue(long positionId) {
+        return jdbcTemplate.queryForObject("SELECT market_value FROM positions WHERE id = ?", BigDecimal.class,
+                positionId);
+    }
+
+    private BigDecimal weight(long positionId) {
+        return jdbcTemplate.queryForObject("SELECT weight FROM positions WHERE id = ?", BigDecimal.class,
+                positionId);
+    }
+}
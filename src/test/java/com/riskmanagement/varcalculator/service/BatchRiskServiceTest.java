@@ -0,0 +1,196 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.BatchRiskRequest;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResponse;
+import com.riskmanagement.varcalculator.dto.response.BatchRiskResultResponse;
+import com.riskmanagement.varcalculator.engine.BlackScholesPricer;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.RiskMeasures;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchRiskServiceTest {
+
+    private static final int WINDOW = 100;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private RiskRunRepository riskRunRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private InstrumentPricingService instrumentPricingService;
+
+    @Mock
+    private ScenarioVectorStore scenarioVectorStore;
+
+    @Mock
+    private RiskEventPublisher riskEventPublisher;
+
+    @Mock
+    private RiskLimitService riskLimitService;
+
+    @Mock
+    private NodeLimitMonitor nodeLimitMonitor;
+
+    @InjectMocks
+    private BatchRiskService batchRiskService;
+
+    private Portfolio equities;
+    private Portfolio options;
+    private ReturnMatrix returnMatrix;
+
+    @BeforeEach
+    void setUp() {
+        equities = portfolio(1L, 100L, Instrument.InstrumentType.STOCK);
+        options = portfolio(2L, 300L, Instrument.InstrumentType.OPTION);
+
+        Random random = new Random(9);
+        List<LocalDate> dates = new ArrayList<>();
+        double[] returns = new double[WINDOW * 2];
+        for (int row = 0; row < WINDOW; row++) {
+            dates.add(LocalDate.of(2024, 1, 1).plusDays(row));
+            returns[row * 2] = random.nextGaussian() * 0.01;
+            returns[row * 2 + 1] = random.nextGaussian() * 0.03;
+        }
+        returnMatrix = new ReturnMatrix(dates, new long[] { 100L, 200L }, returns);
+
+        when(portfolioRepository.findByIdsWithPositions(anyList())).thenReturn(List.of(equities, options));
+        when(instrumentPricingService.riskFactorIds(equities.getPositions(), "USD")).thenReturn(List.of(100L));
+        when(instrumentPricingService.riskFactorIds(options.getPositions(), "USD")).thenReturn(List.of(200L));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenReturn(returnMatrix);
+        when(marketDataService.valueInBaseCurrency(equities.getPositions(), "USD")).thenReturn(1_000_000.0);
+        when(marketDataService.valueInBaseCurrency(options.getPositions(), "USD")).thenReturn(50_000.0);
+        when(instrumentPricingService.revaluation(any(), eq(equities.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), any()))
+                .thenReturn(ScenarioRevaluation.linear(new double[] { 1_000_000, 0 }));
+    }
+
+    @Test
+    void runBatch_ShouldFullyRevalueOptionBooks_WhenMixedWithLinearBooks() {
+        // Given a short straddle-like book whose P&L is far from linear in the underlying
+        ScenarioRevaluation optionRevaluation = new ScenarioRevaluation(new double[2],
+                List.of(new ScenarioRevaluation.Holding(300L, 1, -5_000, 100,
+                        new BlackScholesPricer(true, 100, 0.1, 0.03, 0.25))),
+                ScenarioRevaluation.Mode.FULL);
+        when(instrumentPricingService.revaluation(any(), eq(options.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), any())).thenReturn(optionRevaluation);
+        when(scenarioVectorStore.isEnabled()).thenReturn(true);
+
+        // When
+        BatchRiskResponse response = batchRiskService.runBatch(request());
+
+        // Then both books match what a single historical run computes for them
+        assertEquals(2, response.getCompletedCount());
+        ArgumentCaptor<List<RiskRun>> runs = ArgumentCaptor.forClass(List.class);
+        verify(riskRunRepository).saveAll(runs.capture());
+        RiskRun equityRun = runs.getValue().get(0);
+        RiskRun optionRun = runs.getValue().get(1);
+
+        double[] linear = returnMatrix.multiply(new double[] { 1_000_000, 0 });
+        assertEquals(scale(RiskMeasures.historical(linear, 1_000_000).var95()), equityRun.getVar95());
+        double[] revalued = optionRevaluation.profitAndLoss(returnMatrix);
+        assertEquals(scale(RiskMeasures.historical(revalued, 50_000).var95()), optionRun.getVar95());
+
+        ArgumentCaptor<ScenarioVector> vector = ArgumentCaptor.forClass(ScenarioVector.class);
+        verify(scenarioVectorStore).save(eq(optionRun), vector.capture(), any());
+        assertArrayEquals(revalued, vector.getValue().getValues(), 1e-9);
+        verify(nodeLimitMonitor).checkAncestorsAfterCommit(List.of(equityRun, optionRun));
+    }
+
+    @Test
+    void runBatch_ShouldReportMissingPortfolio_AndStillPriceTheRestFromTheSharedProduct() {
+        // Given a linear book on the second factor and an id with no portfolio behind it
+        when(instrumentPricingService.revaluation(any(), eq(options.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), any()))
+                .thenReturn(ScenarioRevaluation.linear(new double[] { 0, 50_000 }));
+
+        // When
+        BatchRiskResponse response = batchRiskService.runBatch(request(RiskRun.VarMethod.PARAMETRIC, 1L, 99L, 2L));
+
+        // Then
+        assertEquals(2, response.getCompletedCount());
+        assertEquals(1, response.getFailedCount());
+        BatchRiskResultResponse missing = response.getResults().get(0);
+        assertEquals(99L, missing.getPortfolioId());
+        assertEquals(RiskRun.RunStatus.FAILED, missing.getStatus());
+        assertEquals("Portfolio not found", missing.getErrorMessage());
+        verify(riskEventPublisher).failed(99L, RiskRun.VarMethod.PARAMETRIC, "Portfolio not found");
+
+        ArgumentCaptor<List<RiskRun>> runs = ArgumentCaptor.forClass(List.class);
+        verify(riskRunRepository).saveAll(runs.capture());
+        double[] optionsProfitAndLoss = returnMatrix.multiply(new double[] { 0, 50_000 });
+        assertEquals(scale(RiskMeasures.parametric(optionsProfitAndLoss, 50_000).var99()),
+                runs.getValue().get(1).getVar99());
+        verify(scenarioVectorStore, never()).save(any(), any(), any());
+    }
+
+    private BatchRiskRequest request() {
+        return request(RiskRun.VarMethod.HISTORICAL, 1L, 2L);
+    }
+
+    private BatchRiskRequest request(RiskRun.VarMethod varMethod, Long... portfolioIds) {
+        BatchRiskRequest request = new BatchRiskRequest();
+        request.setPortfolioIds(List.of(portfolioIds));
+        request.setVarMethod(varMethod);
+        request.setWindowSize(WINDOW);
+        return request;
+    }
+
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static Portfolio portfolio(Long id, Long instrumentId, Instrument.InstrumentType type) {
+        Portfolio portfolio = Portfolio.builder()
+                .id(id)
+                .name("Portfolio " + id)
+                .baseCurrency("USD")
+                .build();
+        Instrument instrument = Instrument.builder()
+                .id(instrumentId)
+                .symbol("I" + instrumentId)
+                .type(type)
+                .currency("USD")
+                .build();
+        portfolio.setPositions(new ArrayList<>(List.of(Position.builder()
+                .id(id * 10)
+                .portfolio(portfolio)
+                .instrument(instrument)
+                .quantity(BigDecimal.ONE)
+                .marketValue(new BigDecimal("1000"))
+                .build())));
+        return portfolio;
+    }
+}
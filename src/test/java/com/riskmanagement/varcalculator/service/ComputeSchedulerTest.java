@@ -0,0 +1,162 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.repository.PositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ComputeSchedulerTest {
+
+    @Mock
+    private PositionRepository positionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ComputeScheduler computeScheduler;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        start(1);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        computeScheduler.shutdown();
+    }
+
+    @Test
+    void run_ShouldServeLightTenantBeforeHeavyTenantsBacklog() throws Exception {
+        // Given a slot held by the heavy tenant
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> blocker = submit("mc-desk", ComputeScheduler.Lane.INTERACTIVE, 1_000_000, () -> await(release));
+        awaitGauge("var.compute.running", "interactive", 1);
+
+        // When the heavy tenant queues another large job ahead of a small one from another tenant
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> heavy = submit("mc-desk", ComputeScheduler.Lane.INTERACTIVE, 1_000_000, () -> order.add("mc-desk"));
+        awaitGauge("var.compute.queue.depth", "interactive", 1);
+        Future<?> light = submit("rates", ComputeScheduler.Lane.INTERACTIVE, 500, () -> order.add("rates"));
+        awaitGauge("var.compute.queue.depth", "interactive", 2);
+        release.countDown();
+
+        // Then
+        blocker.get(5, TimeUnit.SECONDS);
+        heavy.get(5, TimeUnit.SECONDS);
+        light.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("rates", "mc-desk"), order);
+        assertEquals(3, meterRegistry.get("var.compute.queue.wait").tag("lane", "interactive").timer().count());
+    }
+
+    @Test
+    void run_ShouldRejectWithRetryHint_WhenLaneIsFull() throws Exception {
+        // Given a running batch job and a full batch queue
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = submit("ops", ComputeScheduler.Lane.BATCH, 100, () -> await(release));
+        awaitGauge("var.compute.running", "batch", 1);
+        Future<?> queued = submit("ops", ComputeScheduler.Lane.BATCH, 100, () -> { });
+        awaitGauge("var.compute.queue.depth", "batch", 1);
+
+        // When & Then
+        ComputeScheduler.RejectedException exception = assertThrows(ComputeScheduler.RejectedException.class,
+                () -> computeScheduler.run("ops", ComputeScheduler.Lane.BATCH, 100, () -> "never"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.get("var.compute.rejected")
+                .tags("lane", "batch", "reason", "queue_full").counter().count());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals("ran", computeScheduler.run("ops", ComputeScheduler.Lane.BATCH, 100, () -> "ran"));
+    }
+
+    @Test
+    void run_ShouldKeepParallelEngineWork_InsideOneThreadPerSlot() {
+        // Given two slots
+        computeScheduler.shutdown();
+        start(2);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // When a job runs a parallel stream
+        int parallelism = computeScheduler.run("ops", ComputeScheduler.Lane.INTERACTIVE, 100, () -> {
+            IntStream.range(0, 10_000).parallel().forEach(i -> threads.add(Thread.currentThread().getName()));
+            return ForkJoinTask.getPool().getParallelism();
+        });
+
+        // Then the common pool never sees it
+        assertEquals(2, parallelism);
+        assertTrue(threads.size() <= 2);
+        assertTrue(threads.stream().allMatch(thread -> thread.startsWith("compute-")), threads.toString());
+    }
+
+    @Test
+    void run_ShouldRethrowJobExceptionUnchanged() {
+        // Given
+        IllegalArgumentException failure = new IllegalArgumentException("Portfolio has no positions");
+
+        // When
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> computeScheduler.run("ops", ComputeScheduler.Lane.BATCH, 100, () -> {
+                    throw failure;
+                }));
+
+        // Then
+        assertSame(failure, thrown);
+        assertEquals(0.0, meterRegistry.get("var.compute.running").tag("lane", "batch").gauge().value());
+    }
+
+    private void start(int maxConcurrent) {
+        meterRegistry = new SimpleMeterRegistry();
+        computeScheduler = new ComputeScheduler(positionRepository, meterRegistry);
+        ReflectionTestUtils.setField(computeScheduler, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(computeScheduler, "interactiveQueueCapacity", 3);
+        ReflectionTestUtils.setField(computeScheduler, "batchQueueCapacity", 1);
+        ReflectionTestUtils.setField(computeScheduler, "maxWaitMs", 5000L);
+        ReflectionTestUtils.setField(computeScheduler, "tenantWeightsConfig", "");
+        computeScheduler.init();
+    }
+
+    private Future<?> submit(String tenant, ComputeScheduler.Lane lane, double cost, Runnable job) {
+        return executor.submit(() -> computeScheduler.run(tenant, lane, cost, () -> {
+            job.run();
+            return null;
+        }));
+    }
+
+    private void awaitGauge(String name, String lane, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get(name).tag("lane", lane).gauge().value() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, name + " never reached " + expected);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskResponse;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.entity.HierarchyNode;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HierarchyAggregationServiceTest {
+
+    private static final long DESK_ID = 1L;
+    private static final LocalDate AS_OF = LocalDate.of(2024, 3, 28);
+    private static final int WINDOW = 100;
+    private static final ScenarioVectorCache.ScenarioKey KEY = new ScenarioVectorCache.ScenarioKey(AS_OF, WINDOW);
+
+    @Mock
+    private HierarchyNodeRepository hierarchyNodeRepository;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private InstrumentPricingService instrumentPricingService;
+
+    @Mock
+    private ScenarioVectorStore scenarioVectorStore;
+
+    @Mock
+    private RiskLimitService riskLimitService;
+
+    private ScenarioVectorCache scenarioVectorCache;
+    private HierarchyAggregationService hierarchyAggregationService;
+    private Portfolio rates;
+    private Portfolio credit;
+    private ReturnMatrix returnMatrix;
+
+    @BeforeEach
+    void setUp() {
+        scenarioVectorCache = new ScenarioVectorCache();
+        hierarchyAggregationService = new HierarchyAggregationService(hierarchyNodeRepository, portfolioRepository,
+                marketDataService, instrumentPricingService, scenarioVectorCache, scenarioVectorStore, riskLimitService);
+
+        HierarchyNode desk = HierarchyNode.builder()
+                .id(DESK_ID)
+                .name("Rates and credit")
+                .nodeType(HierarchyNode.NodeType.DESK)
+                .build();
+        rates = portfolio(10L, 100L);
+        credit = portfolio(20L, 200L);
+        when(hierarchyNodeRepository.findAll()).thenReturn(List.of(desk));
+        when(hierarchyNodeRepository.findAllParentLinks()).thenReturn(List.<Object[]>of(new Object[] { DESK_ID, null }));
+        when(hierarchyNodeRepository.findAllPortfolioLinks()).thenReturn(List.of(
+                new Object[] { 10L, DESK_ID }, new Object[] { 20L, DESK_ID }));
+        when(portfolioRepository.findAllById(any())).thenReturn(List.of(rates, credit));
+
+        Random random = new Random(5);
+        List<LocalDate> dates = new ArrayList<>();
+        double[] returns = new double[WINDOW * 2];
+        for (int row = 0; row < WINDOW; row++) {
+            dates.add(AS_OF.minusDays(WINDOW - row));
+            returns[row * 2] = random.nextGaussian() * 0.01;
+            returns[row * 2 + 1] = random.nextGaussian() * 0.02;
+        }
+        returnMatrix = new ReturnMatrix(dates, new long[] { 100L, 200L }, returns);
+        lenient().when(instrumentPricingService.revaluation(any(), eq(rates.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), eq(AS_OF.plusDays(1))))
+                .thenReturn(ScenarioRevaluation.linear(new double[] { 1_000_000, 0 }));
+        lenient().when(instrumentPricingService.revaluation(any(), eq(credit.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), eq(AS_OF.plusDays(1))))
+                .thenReturn(ScenarioRevaluation.linear(new double[] { 0, 500_000 }));
+    }
+
+    @Test
+    void calculateNodeRisk_ShouldCacheNodeSum_WhenEveryPortfolioIsValued() {
+        // Given
+        when(portfolioRepository.findByIdsWithPositions(anyList())).thenReturn(List.of(rates, credit));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenReturn(returnMatrix);
+
+        // When
+        HierarchyRiskResponse response = hierarchyAggregationService.calculateNodeRisk(DESK_ID, WINDOW, AS_OF);
+
+        // Then
+        assertEquals(2, response.getPortfolioCount());
+        assertNotNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, 10L));
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, 20L));
+    }
+
+    @Test
+    void calculateNodeRisk_ShouldNotCacheNodeSum_WhenAPortfolioHasNoVector() {
+        // Given the credit portfolio disappeared between loading the tree and revaluing
+        when(portfolioRepository.findByIdsWithPositions(anyList())).thenReturn(List.of(rates));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenReturn(returnMatrix);
+
+        // When
+        hierarchyAggregationService.calculateNodeRisk(DESK_ID, WINDOW, AS_OF);
+
+        // Then
+        assertNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, 10L));
+    }
+
+    @Test
+    void calculateNodeRisk_ShouldNotCacheAnything_WhenAPortfolioIsEvictedMidAggregation() {
+        // Given the credit book trades while the desk is being revalued
+        when(portfolioRepository.findByIdsWithPositions(anyList())).thenReturn(List.of(rates, credit));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenAnswer(invocation -> {
+            scenarioVectorCache.invalidatePortfolio(20L);
+            return returnMatrix;
+        });
+
+        // When
+        HierarchyRiskResponse first = hierarchyAggregationService.calculateNodeRisk(DESK_ID, WINDOW, AS_OF);
+
+        // Then nothing computed before the eviction is kept, and the next request recomputes in full
+        assertNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+        assertNull(scenarioVectorCache.getPortfolioVector(KEY, 20L));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenReturn(returnMatrix);
+        HierarchyRiskResponse second = hierarchyAggregationService.calculateNodeRisk(DESK_ID, WINDOW, AS_OF);
+        assertEquals(first.getVar99(), second.getVar99());
+        assertNotNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+    }
+
+    private static Portfolio portfolio(Long id, Long instrumentId) {
+        Portfolio portfolio = Portfolio.builder()
+                .id(id)
+                .name("Portfolio " + id)
+                .baseCurrency("USD")
+                .build();
+        Instrument instrument = Instrument.builder()
+                .id(instrumentId)
+                .symbol("I" + instrumentId)
+                .type(Instrument.InstrumentType.BOND)
+                .currency("USD")
+                .build();
+        portfolio.setPositions(new ArrayList<>(List.of(Position.builder()
+                .id(id * 10)
+                .portfolio(portfolio)
+                .instrument(instrument)
+                .quantity(BigDecimal.ONE)
+                .marketValue(new BigDecimal("1000"))
+                .build())));
+        return portfolio;
+    }
+}
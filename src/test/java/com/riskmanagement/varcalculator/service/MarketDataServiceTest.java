@@ -0,0 +1,130 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.ProfitAndLossSeries;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.repository.FxRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MarketDataServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 1, 4);
+
+    @Mock
+    private ReturnMatrixLoader returnMatrixLoader;
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @InjectMocks
+    private MarketDataService marketDataService;
+
+    @Test
+    void loadProfitAndLoss_ShouldUseTransactionalLoader_WhenLoadingWindow() {
+        // Given
+        Position position = Position.builder()
+                .instrument(Instrument.builder().id(7L).symbol("AAPL").currency("USD").build())
+                .quantity(BigDecimal.TEN)
+                .marketValue(new BigDecimal("2000"))
+                .build();
+        ReturnMatrix returnMatrix = new ReturnMatrix(List.of(START.plusDays(1), START.plusDays(2)), new long[] { 7L },
+                new double[] { 0.01, -0.02 });
+        when(returnMatrixLoader.load(List.of(7L), START, END)).thenReturn(returnMatrix);
+
+        // When
+        ProfitAndLossSeries series = marketDataService.loadProfitAndLoss(List.of(position), "USD", START, END);
+
+        // Then
+        verify(returnMatrixLoader).load(List.of(7L), START, END);
+        verifyNoInteractions(fxRateRepository);
+        assertEquals(returnMatrix.getDates(), series.dates());
+        assertArrayEquals(new double[] { 20, -40 }, series.profitAndLoss(), 1e-9);
+        assertEquals(2000, series.portfolioValue(), 1e-9);
+    }
+
+    @Test
+    void conversionRates_ShouldCrossThroughUsd_WhenBaseIsNotUsd() {
+        // Given a EUR book holding GBP, USD and EUR instruments
+        when(fxRateRepository.findLatestRates(Set.of("EUR", "GBP"))).thenReturn(List.<Object[]>of(
+                new Object[] { "EUR", new BigDecimal("1.10") }, new Object[] { "GBP", new BigDecimal("1.25") }));
+
+        // When
+        Map<String, Double> rates = marketDataService.conversionRates(
+                List.of(position(1L, "GBP", "1000"), position(2L, "USD", "500"), position(3L, "EUR", "200")), "EUR");
+
+        // Then
+        assertEquals(1.0, rates.get("EUR"));
+        assertEquals(1.25 / 1.10, rates.get("GBP"), 1e-12);
+        assertEquals(1 / 1.10, rates.get("USD"), 1e-12);
+    }
+
+    @Test
+    void conversionRates_ShouldThrow_WhenARateIsMissing() {
+        // Given no GBP rate on file
+        when(fxRateRepository.findLatestRates(Set.of("GBP"))).thenReturn(List.of());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> marketDataService.conversionRates(List.of(position(1L, "GBP", "1000")), "USD"));
+
+        // Then
+        assertEquals("FX rate not found for currency: GBP", exception.getMessage());
+    }
+
+    @Test
+    void exposuresFor_ShouldExposeValueToOwnCurrencyAndAgainstBase() {
+        // Given a EUR book with a GBP and a USD stock, on a matrix carrying the GBP and EUR factors only
+        long gbp = FxFactors.factorId("GBP");
+        long eur = FxFactors.factorId("EUR");
+        List<Position> positions = List.of(position(1L, "GBP", "1000"), position(2L, "USD", "500"));
+        assertEquals(List.of(eur, gbp), MarketDataService.fxFactorIds(positions, "EUR"));
+        ReturnMatrix matrix = new ReturnMatrix(List.of(), new long[] { 1L, 2L, gbp, eur }, new double[0]);
+        when(fxRateRepository.findLatestRates(Set.of("EUR", "GBP"))).thenReturn(List.<Object[]>of(
+                new Object[] { "EUR", new BigDecimal("1.10") }, new Object[] { "GBP", new BigDecimal("1.25") }));
+
+        // When
+        double[] exposures = marketDataService.exposuresFor(matrix, positions, "EUR");
+
+        // Then each holding's EUR value sits on its column and on its currency's factor, and comes off EUR's;
+        // USD has no factor, so the USD stock only shows against EUR
+        double gbpValue = 1000 * 1.25 / 1.10;
+        double usdValue = 500 / 1.10;
+        assertArrayEquals(new double[] { gbpValue, usdValue, gbpValue, -gbpValue - usdValue }, exposures, 1e-9);
+    }
+
+    @Test
+    void addFxExposure_ShouldFail_WhenMatrixLacksTheFactor() {
+        // Given
+        ReturnMatrix matrix = new ReturnMatrix(List.of(), new long[] { 1L }, new double[0]);
+
+        // When & Then
+        assertThrows(IllegalStateException.class,
+                () -> MarketDataService.addFxExposure(matrix, new double[1], "GBP", "USD", 100));
+    }
+
+    private static Position position(Long instrumentId, String currency, String marketValue) {
+        return Position.builder()
+                .instrument(Instrument.builder().id(instrumentId).symbol("SYM" + instrumentId).currency(currency)
+                        .build())
+                .quantity(BigDecimal.ONE)
+                .marketValue(new BigDecimal(marketValue))
+                .build();
+    }
+}
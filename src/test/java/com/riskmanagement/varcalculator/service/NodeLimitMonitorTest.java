@@ -0,0 +1,138 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.RiskLimitRepository;
+import com.riskmanagement.varcalculator.store.RiskLimitIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NodeLimitMonitorTest {
+
+    private static final long DIVISION_ID = 1L;
+    private static final long DESK_ID = 2L;
+    private static final long PORTFOLIO_ID = 10L;
+    private static final LocalDate RUN_DATE = LocalDate.of(2024, 3, 28);
+
+    @Mock
+    private HierarchyNodeRepository hierarchyNodeRepository;
+
+    @Mock
+    private HierarchyAggregationService hierarchyAggregationService;
+
+    @Mock
+    private RiskLimitRepository riskLimitRepository;
+
+    private RiskLimitIndex riskLimitIndex;
+    private NodeLimitMonitor nodeLimitMonitor;
+
+    @BeforeEach
+    void setUp() {
+        riskLimitIndex = new RiskLimitIndex(riskLimitRepository);
+        nodeLimitMonitor = new NodeLimitMonitor(hierarchyNodeRepository, hierarchyAggregationService, riskLimitIndex);
+        nodeLimitMonitor.start();
+        lenient().when(hierarchyNodeRepository.findAllPortfolioLinks())
+                .thenReturn(List.<Object[]>of(new Object[] { PORTFOLIO_ID, DESK_ID }));
+        lenient().when(hierarchyNodeRepository.findAllParentLinks()).thenReturn(List.of(
+                new Object[] { DIVISION_ID, null }, new Object[] { DESK_ID, DIVISION_ID }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeLimitMonitor.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ancestorChecks_ShouldOnlyIncludeAncestorsWithLimits_OncePerWindow() {
+        // Given a limit on the division but not on the desk in between
+        riskLimitIndex.put(nodeLimit(DIVISION_ID));
+
+        // When
+        Set<NodeLimitMonitor.NodeCheck> checks = nodeLimitMonitor.ancestorChecks(List.of(
+                run(RiskRun.RunStatus.COMPLETED, 250), run(RiskRun.RunStatus.COMPLETED, 250),
+                run(RiskRun.RunStatus.COMPLETED, 500), run(RiskRun.RunStatus.FAILED, 100)));
+
+        // Then
+        assertEquals(Set.of(new NodeLimitMonitor.NodeCheck(DIVISION_ID, 250, RUN_DATE.minusDays(1)),
+                new NodeLimitMonitor.NodeCheck(DIVISION_ID, 500, RUN_DATE.minusDays(1))), checks);
+    }
+
+    @Test
+    void checkAncestorsAfterCommit_ShouldReaggregateNode_OnceTheRunCommits() {
+        // Given
+        riskLimitIndex.put(nodeLimit(DESK_ID));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        nodeLimitMonitor.checkAncestorsAfterCommit(List.of(run(RiskRun.RunStatus.COMPLETED, 250)));
+
+        // Then nothing happens until commit
+        verifyNoInteractions(hierarchyNodeRepository, hierarchyAggregationService);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(hierarchyAggregationService, timeout(5000)).calculateNodeRisk(DESK_ID, 250, RUN_DATE.minusDays(1));
+        verify(hierarchyAggregationService, never()).calculateNodeRisk(eq(DIVISION_ID), anyInt(), any());
+    }
+
+    @Test
+    void checkAncestorsAfterCommit_ShouldDoNothing_WhenNoNodeHasLimits() {
+        // Given
+        riskLimitIndex.put(RiskLimit.builder()
+                .id(5L)
+                .scopeType(RiskLimit.ScopeType.PORTFOLIO)
+                .scopeId(PORTFOLIO_ID)
+                .metric(RiskLimit.Metric.VAR_99)
+                .limitValue(new BigDecimal("100"))
+                .build());
+
+        // When
+        nodeLimitMonitor.checkAncestorsAfterCommit(List.of(run(RiskRun.RunStatus.COMPLETED, 250)));
+
+        // Then
+        nodeLimitMonitor.stop();
+        verifyNoInteractions(hierarchyNodeRepository, hierarchyAggregationService);
+    }
+
+    private static RiskLimit nodeLimit(Long nodeId) {
+        return RiskLimit.builder()
+                .id(nodeId * 100)
+                .scopeType(RiskLimit.ScopeType.HIERARCHY_NODE)
+                .scopeId(nodeId)
+                .metric(RiskLimit.Metric.VAR_99)
+                .limitValue(new BigDecimal("1000"))
+                .build();
+    }
+
+    private static RiskRun run(RiskRun.RunStatus status, int windowSize) {
+        return RiskRun.builder()
+                .portfolio(Portfolio.builder().id(PORTFOLIO_ID).build())
+                .runDate(RUN_DATE)
+                .windowSize(windowSize)
+                .status(status)
+                .build();
+    }
+}
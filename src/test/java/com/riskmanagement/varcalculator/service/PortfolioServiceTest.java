@@ -24,6 +24,9 @@ class PortfolioServiceTest {
     @Mock
     private PortfolioRepository portfolioRepository;
 
+    @Mock
+    private ScenarioVectorCache scenarioVectorCache;
+
     @InjectMocks
     private PortfolioService portfolioService;
 
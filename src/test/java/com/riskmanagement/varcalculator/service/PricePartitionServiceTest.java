@@ -0,0 +1,69 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricePartitionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 2);
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    @Mock
+    private StressScenarioRepository stressScenarioRepository;
+
+    @InjectMocks
+    private PricePartitionService pricePartitionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pricePartitionService, "retentionYears", 10);
+        ReflectionTestUtils.setField(pricePartitionService, "archiveTablespace", "");
+        when(priceRepository.createPartition(anyInt())).thenReturn(false);
+    }
+
+    @Test
+    void maintainPartitions_ShouldArchivePastRetention_WhenNoScenarioReachesBack() {
+        // Given
+        when(stressScenarioRepository.findEarliestActiveStartDate(StressScenario.ScenarioType.HISTORICAL))
+                .thenReturn(LocalDate.of(2020, 2, 19));
+        when(priceRepository.archivePartitions(2017, "")).thenReturn(3);
+
+        // When
+        int archived = pricePartitionService.maintainPartitions(TODAY);
+
+        // Then
+        assertEquals(3, archived);
+        verify(priceRepository).createPartition(2026);
+        verify(priceRepository).createPartition(2027);
+    }
+
+    @Test
+    void maintainPartitions_ShouldKeepYearsOfActiveHistoricalScenarios() {
+        // Given the 2008 crisis window is still an active scenario
+        when(stressScenarioRepository.findEarliestActiveStartDate(StressScenario.ScenarioType.HISTORICAL))
+                .thenReturn(LocalDate.of(2008, 9, 12));
+
+        // When
+        pricePartitionService.maintainPartitions(TODAY);
+
+        // Then
+        verify(priceRepository).archivePartitions(2008, "");
+    }
+}
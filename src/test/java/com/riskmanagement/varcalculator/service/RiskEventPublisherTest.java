@@ -0,0 +1,139 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.RiskRunEvent;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskEventPublisherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final RiskEventPublisher riskEventPublisher = new RiskEventPublisher();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void events_ShouldOnlyDeliverSubscribedPortfolios() {
+        StepVerifier.create(riskEventPublisher.events(Set.of(1L)))
+                // When runs start on two portfolios
+                .then(() -> {
+                    riskEventPublisher.started(run(1L, 100L));
+                    riskEventPublisher.started(run(2L, 200L));
+                    riskEventPublisher.progress(run(1L, 100L), "returns");
+                    riskEventPublisher.failed(2L, RiskRun.VarMethod.HISTORICAL, "No positions");
+                })
+                // Then only portfolio 1's events arrive
+                .assertNext(event -> {
+                    assertEquals(RiskRunEvent.EventType.STARTED, event.getType());
+                    assertEquals(100L, event.getRiskRunId());
+                })
+                .assertNext(event -> assertEquals("returns", event.getStage()))
+                .thenCancel()
+                .verify(TIMEOUT);
+        assertEquals(0, riskEventPublisher.subscriberCount());
+    }
+
+    @Test
+    void completed_ShouldBeDeliveredAfterCommit_WhenInsideATransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        StepVerifier.create(riskEventPublisher.events(Set.of()))
+                // When
+                .then(() -> riskEventPublisher.completed(run(1L, 100L)))
+                // Then nothing is sent until the run's transaction commits
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(RiskEventPublisherTest::commit)
+                .assertNext(event -> {
+                    assertEquals(RiskRunEvent.EventType.COMPLETED, event.getType());
+                    assertEquals(0, new BigDecimal("1234.5").compareTo(event.getVar95()));
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void publish_ShouldDropEventsForSlowSubscriber_WithoutHoldingUpOthers() throws Exception {
+        // Given one subscriber that keeps up and one that has asked for a single event
+        List<RiskRunEvent> received = new CopyOnWriteArrayList<>();
+        Disposable fast = riskEventPublisher.events(Set.of()).subscribe(received::add);
+        int threads = 4;
+        int perThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            StepVerifier.create(riskEventPublisher.events(Set.of()), 1)
+                    // When calculation threads emit concurrently
+                    .then(() -> {
+                        CountDownLatch start = new CountDownLatch(1);
+                        for (int t = 0; t < threads; t++) {
+                            long portfolioId = t;
+                            executor.submit(() -> {
+                                start.await();
+                                for (int i = 0; i < perThread; i++) {
+                                    riskEventPublisher.progress(run(portfolioId, (long) i), "paths");
+                                }
+                                return null;
+                            });
+                        }
+                        start.countDown();
+                        executor.shutdown();
+                        try {
+                            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    })
+                    // Then the slow one gets what it asked for and nothing is queued up for it
+                    .expectNextCount(1)
+                    .thenRequest(10)
+                    .expectNoEvent(Duration.ofMillis(100))
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        } finally {
+            fast.dispose();
+            executor.shutdownNow();
+        }
+
+        // And the fast subscriber saw every event, none lost to concurrent emission
+        assertEquals(threads * perThread, received.size());
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static RiskRun run(Long portfolioId, Long riskRunId) {
+        return RiskRun.builder()
+                .id(riskRunId)
+                .portfolio(Portfolio.builder().id(portfolioId).build())
+                .varMethod(RiskRun.VarMethod.HISTORICAL)
+                .var95(new BigDecimal("1234.5"))
+                .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.CreateRiskLimitRequest;
+import com.riskmanagement.varcalculator.dto.response.HierarchyRiskResponse;
+import com.riskmanagement.varcalculator.dto.response.LimitBreachResponse;
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.HierarchyNodeRepository;
+import com.riskmanagement.varcalculator.repository.LimitBreachRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskLimitRepository;
+import com.riskmanagement.varcalculator.store.RiskLimitIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskLimitServiceTest {
+
+    private static final long NODE_ID = 3L;
+    private static final long PORTFOLIO_ID = 10L;
+
+    @Mock
+    private RiskLimitRepository riskLimitRepository;
+
+    @Mock
+    private LimitBreachRepository limitBreachRepository;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private HierarchyNodeRepository hierarchyNodeRepository;
+
+    @Mock
+    private BreachNotifier breachNotifier;
+
+    private RiskLimitIndex riskLimitIndex;
+    private RiskLimitService riskLimitService;
+
+    @BeforeEach
+    void setUp() {
+        riskLimitIndex = new RiskLimitIndex(riskLimitRepository);
+        riskLimitService = new RiskLimitService(riskLimitRepository, limitBreachRepository, portfolioRepository,
+                hierarchyNodeRepository, riskLimitIndex, breachNotifier);
+        lenient().when(limitBreachRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evaluateNode_ShouldRecordSeverityOnlyAfterCommit() {
+        // Given
+        RiskLimit limit = indexedLimit(7L, RiskLimit.ScopeType.HIERARCHY_NODE, NODE_ID);
+        when(riskLimitRepository.getReferenceById(7L)).thenReturn(limit);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        List<LimitBreachResponse> breaches = riskLimitService.evaluateNode(nodeRisk("150"));
+
+        // Then
+        assertEquals(1, breaches.size());
+        assertEquals(LimitBreach.Severity.BREACH, breaches.get(0).getSeverity());
+        assertNull(riskLimitIndex.lastSeverity(7L));
+        commit();
+        assertEquals(LimitBreach.Severity.BREACH, riskLimitIndex.lastSeverity(7L));
+
+        // And an unchanged severity is not recorded again
+        assertTrue(riskLimitService.evaluateNode(nodeRisk("160")).isEmpty());
+    }
+
+    @Test
+    void evaluateNode_ShouldReportAgain_WhenPreviousEvaluationRolledBack() {
+        // Given
+        RiskLimit limit = indexedLimit(7L, RiskLimit.ScopeType.HIERARCHY_NODE, NODE_ID);
+        when(riskLimitRepository.getReferenceById(7L)).thenReturn(limit);
+        TransactionSynchronizationManager.initSynchronization();
+        riskLimitService.evaluateNode(nodeRisk("95"));
+
+        // When the transaction rolls back instead of committing
+        TransactionSynchronizationManager.clearSynchronization();
+        List<LimitBreachResponse> breaches = riskLimitService.evaluateNode(nodeRisk("95"));
+
+        // Then
+        assertEquals(1, breaches.size());
+        assertEquals(LimitBreach.Severity.WARNING, breaches.get(0).getSeverity());
+        assertEquals(LimitBreach.Severity.WARNING, riskLimitIndex.lastSeverity(7L));
+    }
+
+    @Test
+    void evaluateNode_ShouldClearSeverity_WhenBackWithinLimit() {
+        // Given
+        RiskLimit limit = indexedLimit(7L, RiskLimit.ScopeType.HIERARCHY_NODE, NODE_ID);
+        when(riskLimitRepository.getReferenceById(7L)).thenReturn(limit);
+        riskLimitService.evaluateNode(nodeRisk("150"));
+
+        // When
+        List<LimitBreachResponse> breaches = riskLimitService.evaluateNode(nodeRisk("50"));
+
+        // Then
+        assertTrue(breaches.isEmpty());
+        assertNull(riskLimitIndex.lastSeverity(7L));
+    }
+
+    @Test
+    void evaluateRun_ShouldRecordEveryBreachingRun() {
+        // Given
+        RiskLimit limit = indexedLimit(8L, RiskLimit.ScopeType.PORTFOLIO, PORTFOLIO_ID);
+        when(riskLimitRepository.getReferenceById(8L)).thenReturn(limit);
+
+        // When
+        List<LimitBreachResponse> first = riskLimitService.evaluateRun(run("120"));
+        List<LimitBreachResponse> second = riskLimitService.evaluateRun(run("120"));
+
+        // Then
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        verify(breachNotifier, times(2)).notifyAfterCommit(anyList());
+    }
+
+    @Test
+    void createLimit_ShouldIndexLimitOnlyAfterCommit() {
+        // Given
+        CreateRiskLimitRequest request = new CreateRiskLimitRequest();
+        request.setScopeType(RiskLimit.ScopeType.HIERARCHY_NODE);
+        request.setScopeId(NODE_ID);
+        request.setMetric(RiskLimit.Metric.VAR_99);
+        request.setLimitValue(new BigDecimal("100"));
+        when(hierarchyNodeRepository.existsById(NODE_ID)).thenReturn(true);
+        when(riskLimitRepository.findByScopeTypeAndScopeIdAndMetricAndActiveTrue(RiskLimit.ScopeType.HIERARCHY_NODE,
+                NODE_ID, RiskLimit.Metric.VAR_99)).thenReturn(Optional.empty());
+        when(riskLimitRepository.saveAndFlush(any(RiskLimit.class))).thenAnswer(invocation -> {
+            RiskLimit saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        riskLimitService.createLimit(request);
+
+        // Then
+        assertTrue(riskLimitIndex.limitsFor(RiskLimit.ScopeType.HIERARCHY_NODE, NODE_ID).isEmpty());
+        commit();
+        assertEquals(1, riskLimitIndex.limitsFor(RiskLimit.ScopeType.HIERARCHY_NODE, NODE_ID).size());
+    }
+
+    private RiskLimit indexedLimit(Long id, RiskLimit.ScopeType scopeType, Long scopeId) {
+        RiskLimit limit = RiskLimit.builder()
+                .id(id)
+                .scopeType(scopeType)
+                .scopeId(scopeId)
+                .metric(RiskLimit.Metric.VAR_99)
+                .limitValue(new BigDecimal("100"))
+                .build();
+        riskLimitIndex.put(limit);
+        return limit;
+    }
+
+    private static HierarchyRiskResponse nodeRisk(String var99) {
+        return HierarchyRiskResponse.builder()
+                .nodeId(NODE_ID)
+                .var99(new BigDecimal(var99))
+                .build();
+    }
+
+    private static RiskRun run(String var99) {
+        return RiskRun.builder()
+                .portfolio(Portfolio.builder().id(PORTFOLIO_ID).build())
+                .status(RiskRun.RunStatus.COMPLETED)
+                .var99(new BigDecimal(var99))
+                .build();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,153 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.service.RiskReportService.ReportFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskReportBatchServiceTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2024, 3, 28);
+
+    @Mock
+    private RiskReportService riskReportService;
+
+    @TempDir
+    Path outputDirectory;
+
+    private RiskReportBatchService riskReportBatchService;
+
+    @BeforeEach
+    void setUp() {
+        riskReportBatchService = new RiskReportBatchService(riskReportService);
+        ReflectionTestUtils.setField(riskReportBatchService, "outputDirectory", outputDirectory.toString());
+        ReflectionTestUtils.setField(riskReportBatchService, "retentionDays", 30);
+        ReflectionTestUtils.setField(riskReportBatchService, "batchFormats", List.of(ReportFormat.PDF));
+    }
+
+    @AfterEach
+    void tearDown() {
+        riskReportBatchService.stop();
+    }
+
+    @Test
+    void generateReports_ShouldRemovePartialFile_WhenReportFails() throws Exception {
+        // Given run 2 fails after writing some bytes
+        start(2, 4);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("%PDF-".getBytes());
+            if (invocation.<Long>getArgument(0) == 2L) {
+                throw new IllegalStateException("Breakdown cursor lost");
+            }
+            return null;
+        }).when(riskReportService).writeReport(anyLong(), eq(ReportFormat.PDF), any());
+
+        // When
+        int written = riskReportBatchService.generateReports(List.of(1L, 2L, 3L), RUN_DATE);
+
+        // Then
+        assertEquals(2, written);
+        assertEquals(Set.of("var-report-run-1.pdf", "var-report-run-3.pdf"), fileNames(reportDirectory()));
+    }
+
+    @Test
+    void generateReports_ShouldWriteOnCallingThread_WhenQueueIsFull() throws Exception {
+        // Given one worker and a queue of one, with the worker held until the caller has written a report
+        start(1, 1);
+        String caller = Thread.currentThread().getName();
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+        CountDownLatch callerWrote = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            String thread = Thread.currentThread().getName();
+            writers.add(thread);
+            if (thread.equals(caller)) {
+                callerWrote.countDown();
+            } else {
+                assertTrue(callerWrote.await(5, TimeUnit.SECONDS));
+            }
+            return null;
+        }).when(riskReportService).writeReport(anyLong(), eq(ReportFormat.PDF), any());
+
+        // When
+        int written = riskReportBatchService.generateReports(List.of(1L, 2L, 3L), RUN_DATE);
+
+        // Then the third report ran on the submitting thread instead of being rejected
+        assertEquals(3, written);
+        assertTrue(writers.contains(caller));
+        assertTrue(writers.stream().anyMatch(thread -> thread.startsWith("report-")));
+        assertEquals(3, fileNames(reportDirectory()).size());
+    }
+
+    @Test
+    void deleteExpiredReports_ShouldDeleteOldFiles_AndDirectoriesLeftEmpty() throws Exception {
+        // Given
+        start(1, 1);
+        Path expired = report("2024-01-02", "var-report-run-1.pdf", 45);
+        Path mixedOld = report("2024-02-20", "var-report-run-2.pdf", 31);
+        Path mixedNew = report("2024-02-20", "var-report-run-3.pdf", 29);
+        Path current = report("2024-03-28", "var-report-run-4.xlsx", 0);
+
+        // When
+        int deleted = riskReportBatchService.deleteExpiredReports();
+
+        // Then
+        assertEquals(2, deleted);
+        assertFalse(Files.exists(expired.getParent()));
+        assertFalse(Files.exists(mixedOld));
+        assertTrue(Files.exists(mixedNew));
+        assertTrue(Files.exists(current));
+        assertTrue(Files.isDirectory(outputDirectory));
+    }
+
+    private void start(int threads, int queueCapacity) {
+        ReflectionTestUtils.setField(riskReportBatchService, "threads", threads);
+        ReflectionTestUtils.setField(riskReportBatchService, "queueCapacity", queueCapacity);
+        riskReportBatchService.start();
+    }
+
+    private Path reportDirectory() {
+        return outputDirectory.resolve(RUN_DATE.toString());
+    }
+
+    private Path report(String directory, String name, int ageDays) throws IOException {
+        Path file = Files.createDirectories(outputDirectory.resolve(directory)).resolve(name);
+        Files.write(file, new byte[] { 1 });
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(ageDays, ChronoUnit.DAYS)));
+        return file;
+    }
+
+    private static Set<String> fileNames(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.RiskBreakdownRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskReportServiceTest {
+
+    // More than one PDF flush and one XLSX row window
+    private static final int ROWS = 250;
+
+    @Mock
+    private RiskRunRepository riskRunRepository;
+
+    @Mock
+    private RiskBreakdownRepository riskBreakdownRepository;
+
+    @InjectMocks
+    private RiskReportService riskReportService;
+
+    private final AtomicBoolean cursorClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        RiskRun riskRun = RiskRun.builder()
+                .id(42L)
+                .portfolio(Portfolio.builder().id(1L).name("Global Equity").baseCurrency("USD").build())
+                .runDate(LocalDate.of(2024, 3, 28))
+                .varMethod(RiskRun.VarMethod.HISTORICAL)
+                .windowSize(250)
+                .status(RiskRun.RunStatus.COMPLETED)
+                .portfolioValue(new BigDecimal("1000000"))
+                .var95(new BigDecimal("12345.6789"))
+                .build();
+        when(riskRunRepository.findById(42L)).thenReturn(Optional.of(riskRun));
+        when(riskBreakdownRepository.streamReportRows(42L)).thenReturn(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Object[] { "SYM" + i, "Instrument " + i, new BigDecimal("4000"),
+                        new BigDecimal("0.004"), new BigDecimal("1.5"), new BigDecimal(i), new BigDecimal("60"),
+                        new BigDecimal("0.2"), null })
+                .onClose(() -> cursorClosed.set(true)));
+    }
+
+    @Test
+    void writeReport_ShouldProduceReadablePdf_WithSummaryAndEveryRow() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        riskReportService.writeReport(42L, RiskReportService.ReportFormat.PDF, out);
+
+        // Then
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertTrue(pdf.getNumberOfPages() > 1);
+            String firstPage = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(firstPage.contains("Value at Risk Report"));
+            assertTrue(firstPage.contains("12,345.6789"));
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getLastPage()).contains("SYM" + (ROWS - 1)));
+        }
+        assertTrue(cursorClosed.get());
+    }
+
+    @Test
+    void writeReport_ShouldProduceReadableXlsx_WithNumericBreakdownCells() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        riskReportService.writeReport(42L, RiskReportService.ReportFormat.XLSX, out);
+
+        // Then
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet summary = workbook.getSheet("Summary");
+            assertEquals("Global Equity", summary.getRow(0).getCell(1).getStringCellValue());
+            Sheet breakdown = workbook.getSheet("Risk Breakdown");
+            assertEquals("Symbol", breakdown.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(ROWS, breakdown.getLastRowNum());
+            assertEquals("SYM" + (ROWS - 1), breakdown.getRow(ROWS).getCell(0).getStringCellValue());
+            assertEquals(ROWS - 1, breakdown.getRow(ROWS).getCell(5).getNumericCellValue(), 1e-9);
+            assertNull(breakdown.getRow(ROWS).getCell(8));
+        }
+        assertTrue(cursorClosed.get());
+    }
+}
@@ -0,0 +1,113 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
+import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskRunCoalescerTest {
+
+    @Mock
+    private VarCalculationService varCalculationService;
+
+    @Mock
+    private ComputeScheduler computeScheduler;
+
+    @InjectMocks
+    private RiskRunCoalescer riskRunCoalescer;
+
+    private VarCalculationRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new VarCalculationRequest();
+        request.setVarMethod(RiskRun.VarMethod.HISTORICAL);
+        request.setConfidenceLevels(List.of(new BigDecimal("0.95"), new BigDecimal("0.99")));
+        when(computeScheduler.run(any(), eq(ComputeScheduler.Lane.INTERACTIVE), anyDouble(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
+    @Test
+    void calculateVar_ShouldComputeOnce_WhenIdenticalRequestsOverlap() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        VarCalculationResponse result = VarCalculationResponse.builder().id(7L).build();
+        when(varCalculationService.calculateVar(eq(1L), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+
+        // When
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            List<Future<VarCalculationResponse>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> riskRunCoalescer.calculateVar(1L, request, "rates")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            VarCalculationRequest sameRequest = new VarCalculationRequest();
+            sameRequest.setVarMethod(RiskRun.VarMethod.HISTORICAL);
+            sameRequest.setConfidenceLevels(List.of(new BigDecimal("0.950"), new BigDecimal("0.99")));
+            for (int i = 0; i < 3; i++) {
+                responses.add(executor.submit(() -> riskRunCoalescer.calculateVar(1L, sameRequest, "equities")));
+            }
+            // Followers park on the shared run while the leader sits in a timed wait
+            while (threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING).count() < 3) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<VarCalculationResponse> response : responses) {
+                assertSame(result, response.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(varCalculationService, times(1)).calculateVar(eq(1L), any());
+        assertEquals(0, riskRunCoalescer.inFlightCount());
+    }
+
+    @Test
+    void calculateVar_ShouldPropagateFailureAndForgetRun_WhenCalculationFails() {
+        // Given
+        when(varCalculationService.calculateVar(eq(1L), any()))
+                .thenThrow(new RuntimeException("Portfolio has no positions"))
+                .thenReturn(VarCalculationResponse.builder().id(8L).build());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> riskRunCoalescer.calculateVar(1L, request, "rates"));
+        assertEquals("Portfolio has no positions", exception.getMessage());
+        assertEquals(8L, riskRunCoalescer.calculateVar(1L, request, "rates").getId());
+    }
+}
@@ -0,0 +1,94 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioVectorCacheTest {
+
+    private static final ScenarioVectorCache.ScenarioKey KEY =
+            new ScenarioVectorCache.ScenarioKey(LocalDate.of(2024, 3, 28), 250);
+    private static final Long PORTFOLIO_ID = 10L;
+    private static final Long DESK_ID = 2L;
+
+    private final ScenarioVectorCache scenarioVectorCache = new ScenarioVectorCache();
+
+    @BeforeEach
+    void setUp() {
+        scenarioVectorCache.recordStructure(Map.of(PORTFOLIO_ID, DESK_ID), Map.of());
+        long generation = scenarioVectorCache.generation();
+        scenarioVectorCache.putPortfolioVector(KEY, PORTFOLIO_ID, vector(), generation);
+        scenarioVectorCache.putNodeVector(KEY, DESK_ID, vector(), generation);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invalidatePortfolio_ShouldEvictOnlyAfterCommit_WhenCalledInsideATransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        long before = scenarioVectorCache.generation();
+
+        // When
+        scenarioVectorCache.invalidatePortfolio(PORTFOLIO_ID);
+
+        // Then readers keep the committed vectors and generation until the change is visible
+        assertEquals(before, scenarioVectorCache.generation());
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, PORTFOLIO_ID));
+        commit();
+        assertNull(scenarioVectorCache.getPortfolioVector(KEY, PORTFOLIO_ID));
+        assertNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+        assertNotEquals(before, scenarioVectorCache.generation());
+    }
+
+    @Test
+    void invalidateAll_ShouldKeepVectors_WhenTheTransactionRollsBack() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        scenarioVectorCache.invalidateAll();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, PORTFOLIO_ID));
+        assertNotNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+    }
+
+    @Test
+    void invalidateNodes_ShouldEvictImmediately_WithoutATransaction() {
+        // When
+        scenarioVectorCache.invalidateNodes();
+
+        // Then
+        assertNull(scenarioVectorCache.getNodeVector(KEY, DESK_ID));
+        assertNotNull(scenarioVectorCache.getPortfolioVector(KEY, PORTFOLIO_ID));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static ScenarioVector vector() {
+        return new ScenarioVector(List.of(LocalDate.of(2024, 3, 27)), new double[] { -1.0 });
+    }
+}
@@ -0,0 +1,185 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.response.StressScenarioSummaryResponse;
+import com.riskmanagement.varcalculator.engine.BlackScholesPricer;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.StressResult;
+import com.riskmanagement.varcalculator.entity.StressRun;
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.StressResultRepository;
+import com.riskmanagement.varcalculator.repository.StressRunRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StressRunWriterTest {
+
+    private static final ReturnMatrix FACTOR_AXIS = new ReturnMatrix(List.of(), new long[] { 1L, 2L },
+            new double[0]);
+
+    @Mock
+    private StressRunRepository stressRunRepository;
+
+    @Mock
+    private StressResultRepository stressResultRepository;
+
+    @Mock
+    private StressScenarioRepository stressScenarioRepository;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private InstrumentPricingService instrumentPricingService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private StressRunWriter stressRunWriter;
+
+    private final List<List<StressResult>> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stressRunWriter, "portfolioChunkSize", 250);
+        when(stressRunRepository.save(any(StressRun.class))).thenAnswer(invocation -> {
+            StressRun run = invocation.getArgument(0);
+            run.setId(7L);
+            return run;
+        });
+        lenient().when(stressResultRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.add(new ArrayList<>(invocation.<List<StressResult>>getArgument(0)));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void write_ShouldPriceEveryScenario_AsShocksTimesExposures() {
+        // Given two scenarios over two factors and three portfolios
+        List<Portfolio> portfolios = List.of(portfolio(10L), portfolio(11L), portfolio(12L));
+        when(portfolioRepository.findByIdsWithPositions(List.of(10L, 11L, 12L))).thenReturn(portfolios);
+        exposures(portfolios.get(0), 1000, 0);
+        exposures(portfolios.get(1), 0, 500);
+        exposures(portfolios.get(2), 200, 300);
+        double[] shocks = {
+                -0.10, 0.20,
+                0.05, 0 };
+
+        // When
+        StressRunWriter.WrittenRun written = stressRunWriter.write(List.of(scenario(1L), scenario(2L)),
+                List.of(10L, 11L, 12L), FACTOR_AXIS, shocks, System.currentTimeMillis());
+
+        // Then
+        assertEquals(List.of("-100.0000", "100.0000", "40.0000", "50.0000", "0.0000", "10.0000"),
+                saved.get(0).stream().map(result -> result.getProfitAndLoss().toPlainString())
+                        .collect(Collectors.toList()));
+        StressScenarioSummaryResponse first = written.summaries().get(0);
+        assertEquals(0, new BigDecimal("40").compareTo(first.getTotalProfitAndLoss()));
+        assertEquals(0, new BigDecimal("-100").compareTo(first.getWorstProfitAndLoss()));
+        assertEquals(10L, first.getWorstPortfolioId());
+        StressScenarioSummaryResponse second = written.summaries().get(1);
+        assertEquals(0, new BigDecimal("60").compareTo(second.getTotalProfitAndLoss()));
+        assertEquals(11L, second.getWorstPortfolioId());
+        assertEquals(RiskRun.RunStatus.COMPLETED, written.run().getStatus());
+        assertEquals(3, written.run().getPortfolioCount());
+    }
+
+    @Test
+    void write_ShouldRepriceOptions_AtTheirUnderlyingsShockedLevel() {
+        // Given a book long ten calls on factor 1 and holding 1000 of factor 2 outright
+        Portfolio portfolio = portfolio(10L);
+        when(portfolioRepository.findByIdsWithPositions(List.of(10L))).thenReturn(List.of(portfolio));
+        BlackScholesPricer call = new BlackScholesPricer(true, 100, 0.25, 0.03, 0.2);
+        revaluation(portfolio, new ScenarioRevaluation(new double[] { 0, 1000 },
+                List.of(new ScenarioRevaluation.Holding(5L, 0, 10, 100, call)), ScenarioRevaluation.Mode.FULL));
+        double[] shocks = {
+                -0.30, -0.30,
+                0.10, 0 };
+
+        // When
+        stressRunWriter.write(List.of(scenario(1L), scenario(2L)), List.of(10L), FACTOR_AXIS, shocks,
+                System.currentTimeMillis());
+
+        // Then the calls lose what they are worth at 70 and gain what they are worth at 110
+        double base = call.price(100);
+        assertEquals(10 * (call.price(70) - base) - 300, saved.get(0).get(0).getProfitAndLoss().doubleValue(),
+                1e-4);
+        assertEquals(10 * (call.price(110) - base), saved.get(0).get(1).getProfitAndLoss().doubleValue(), 1e-4);
+    }
+
+    @Test
+    void write_ShouldFlushAndClearAfterEachChunk_OfPortfolios() {
+        // Given five portfolios written two at a time
+        ReflectionTestUtils.setField(stressRunWriter, "portfolioChunkSize", 2);
+        when(portfolioRepository.findByIdsWithPositions(anyList())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().map(StressRunWriterTest::portfolio)
+                        .collect(Collectors.toList()));
+        when(instrumentPricingService.revaluation(eq(FACTOR_AXIS), anyList(), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), any())).thenReturn(ScenarioRevaluation.linear(new double[2]));
+
+        // When
+        StressRunWriter.WrittenRun written = stressRunWriter.write(List.of(scenario(1L)),
+                List.of(1L, 2L, 3L, 4L, 5L), FACTOR_AXIS, new double[2], System.currentTimeMillis());
+
+        // Then
+        InOrder order = inOrder(portfolioRepository, stressResultRepository, entityManager);
+        for (List<Long> chunk : List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L))) {
+            order.verify(portfolioRepository).findByIdsWithPositions(chunk);
+            order.verify(stressResultRepository).saveAll(anyList());
+            order.verify(entityManager).flush();
+            order.verify(entityManager).clear();
+        }
+        assertEquals(List.of(2, 2, 1), saved.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(5, written.run().getPortfolioCount());
+    }
+
+    private void exposures(Portfolio portfolio, double... exposures) {
+        revaluation(portfolio, ScenarioRevaluation.linear(exposures));
+    }
+
+    private void revaluation(Portfolio portfolio, ScenarioRevaluation revaluation) {
+        when(instrumentPricingService.revaluation(eq(FACTOR_AXIS), same(portfolio.getPositions()), eq("USD"),
+                eq(ScenarioRevaluation.Mode.FULL), any())).thenReturn(revaluation);
+    }
+
+    private static Portfolio portfolio(Long id) {
+        return Portfolio.builder().id(id).name("Book " + id).positions(new ArrayList<>()).build();
+    }
+
+    private static StressScenario scenario(Long id) {
+        return StressScenario.builder()
+                .id(id)
+                .name("Scenario " + id)
+                .scenarioType(StressScenario.ScenarioType.HYPOTHETICAL)
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.StressTestRequest;
+import com.riskmanagement.varcalculator.dto.response.StressRunResponse;
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.entity.StressRun;
+import com.riskmanagement.varcalculator.entity.StressScenario;
+import com.riskmanagement.varcalculator.entity.StressScenarioShock;
+import com.riskmanagement.varcalculator.repository.InstrumentRepository;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.StressResultRepository;
+import com.riskmanagement.varcalculator.repository.StressRunRepository;
+import com.riskmanagement.varcalculator.repository.StressScenarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StressTestServiceTest {
+
+    private static final double NaN = Double.NaN;
+
+    @Mock
+    private StressScenarioRepository stressScenarioRepository;
+
+    @Mock
+    private StressRunRepository stressRunRepository;
+
+    @Mock
+    private StressResultRepository stressResultRepository;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private StressRunWriter stressRunWriter;
+
+    @InjectMocks
+    private StressTestService stressTestService;
+
+    @Test
+    void runStressTests_ShouldLoadOneUnionWindow_BeforeWriting() {
+        // Given two overlapping historical scenarios
+        StressScenario early = historical(1L, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4));
+        StressScenario late = historical(2L, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 8));
+        when(stressScenarioRepository.findActiveWithShocks()).thenReturn(List.of(early, late));
+        when(instrumentRepository.findHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(
+                instrument(1L, "AAPL", "Technology", Instrument.InstrumentType.STOCK),
+                instrument(2L, "XOM", "Energy", Instrument.InstrumentType.STOCK)));
+        when(portfolioRepository.findBaseCurrencies(List.of(10L))).thenReturn(List.of("USD"));
+        CloseMatrix closes = new CloseMatrix(List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3),
+                LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 8)),
+                new long[] { 1L, 2L },
+                new double[] {
+                        100, NaN,
+                        110, 50,
+                        121, 40,
+                        NaN, 45,
+                        99, 60 });
+        when(marketDataService.loadCloseMatrix(List.of(1L, 2L), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 8)))
+                .thenReturn(closes);
+        ArgumentCaptor<double[]> shocks = ArgumentCaptor.forClass(double[].class);
+        when(stressRunWriter.write(anyList(), eq(List.of(10L)), any(ReturnMatrix.class), shocks.capture(), anyLong()))
+                .thenReturn(written());
+
+        // When
+        StressRunResponse response = stressTestService.runStressTests(request(10L));
+
+        // Then each scenario is sliced from the one window, first to last close inside its own dates
+        InOrder order = inOrder(marketDataService, stressRunWriter);
+        order.verify(marketDataService).loadCloseMatrix(anyList(), any(), any());
+        order.verify(stressRunWriter).write(anyList(), anyList(), any(ReturnMatrix.class), any(), anyLong());
+        verify(marketDataService, never()).loadReturnMatrix(anyList(), any(), any());
+        verifyNoInteractions(stressRunRepository, stressResultRepository);
+        assertArrayEquals(new double[] { 0.21, -0.2, -0.1, 0.2 }, shocks.getValue(), 1e-12);
+        assertEquals(2, response.getFactorCount());
+    }
+
+    @Test
+    void runStressTests_ShouldLoadDisjointWindowsSeparately_AndSkipScenariosWithoutPrices() {
+        // Given two crises years apart, the earlier one with no prices left
+        StressScenario archived = historical(1L, LocalDate.of(2008, 9, 12), LocalDate.of(2009, 3, 9));
+        StressScenario recent = historical(2L, LocalDate.of(2022, 1, 3), LocalDate.of(2022, 10, 12));
+        StressScenario crash = StressScenario.builder()
+                .id(3L)
+                .name("Equity crash")
+                .scenarioType(StressScenario.ScenarioType.HYPOTHETICAL)
+                .build();
+        crash.getShocks().add(shock(StressScenarioShock.TargetType.ALL, null, "-0.30"));
+        when(stressScenarioRepository.findActiveWithShocks()).thenReturn(List.of(recent, archived, crash));
+        when(instrumentRepository.findHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(
+                instrument(1L, "AAPL", "Technology", Instrument.InstrumentType.STOCK)));
+        when(portfolioRepository.findBaseCurrencies(List.of(10L))).thenReturn(List.of("USD"));
+        when(marketDataService.loadCloseMatrix(List.of(1L), archived.getStartDate(), archived.getEndDate()))
+                .thenReturn(new CloseMatrix(List.of(), new long[] { 1L }, new double[0]));
+        when(marketDataService.loadCloseMatrix(List.of(1L), recent.getStartDate(), recent.getEndDate()))
+                .thenReturn(new CloseMatrix(List.of(LocalDate.of(2022, 1, 3), LocalDate.of(2022, 10, 12)),
+                        new long[] { 1L }, new double[] { 180, 135 }));
+        ArgumentCaptor<List<StressScenario>> stressed = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<double[]> shocks = ArgumentCaptor.forClass(double[].class);
+        when(stressRunWriter.write(stressed.capture(), anyList(), any(ReturnMatrix.class), shocks.capture(),
+                anyLong())).thenReturn(written());
+
+        // When
+        StressRunResponse response = stressTestService.runStressTests(request(10L));
+
+        // Then the fourteen years between the windows are never read and the empty window is reported
+        verify(marketDataService, times(2)).loadCloseMatrix(anyList(), any(), any());
+        assertEquals(List.of(recent, crash), stressed.getValue());
+        assertArrayEquals(new double[] { -0.25, -0.30 }, shocks.getValue(), 1e-12);
+        assertEquals(List.of("Window 1"), response.getSkippedScenarios());
+    }
+
+    @Test
+    void runStressTests_ShouldThrow_WhenNoScenarioHasPrices() {
+        // Given
+        StressScenario archived = historical(1L, LocalDate.of(2008, 9, 12), LocalDate.of(2009, 3, 9));
+        when(stressScenarioRepository.findActiveWithShocks()).thenReturn(List.of(archived));
+        when(instrumentRepository.findHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(
+                instrument(1L, "AAPL", "Technology", Instrument.InstrumentType.STOCK)));
+        when(portfolioRepository.findBaseCurrencies(List.of(10L))).thenReturn(List.of("USD"));
+        when(marketDataService.loadCloseMatrix(anyList(), any(), any()))
+                .thenReturn(new CloseMatrix(List.of(), new long[] { 1L }, new double[0]));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> stressTestService.runStressTests(request(10L)));
+        verifyNoInteractions(stressRunWriter);
+    }
+
+    @Test
+    void runStressTests_ShouldApplyMostSpecificRule_PerInstrument() {
+        // Given one rule at every level
+        StressScenario scenario = StressScenario.builder()
+                .id(3L)
+                .name("Tech sell-off")
+                .scenarioType(StressScenario.ScenarioType.HYPOTHETICAL)
+                .build();
+        scenario.getShocks().addAll(List.of(
+                shock(StressScenarioShock.TargetType.ALL, null, "-0.05"),
+                shock(StressScenarioShock.TargetType.INSTRUMENT_TYPE, "etf", "-0.10"),
+                shock(StressScenarioShock.TargetType.SECTOR, " technology ", "-0.20"),
+                shock(StressScenarioShock.TargetType.INSTRUMENT, "aapl", "-0.30"),
+                shock(StressScenarioShock.TargetType.CURRENCY, "eur", "0.07")));
+        when(stressScenarioRepository.findActiveWithShocks()).thenReturn(List.of(scenario));
+        when(instrumentRepository.findHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(
+                instrument(1L, "AAPL", "Technology", Instrument.InstrumentType.STOCK),
+                instrument(2L, "MSFT", "Technology", Instrument.InstrumentType.STOCK),
+                instrument(3L, "SPY", null, Instrument.InstrumentType.ETF),
+                instrument(4L, "XOM", "Energy", Instrument.InstrumentType.STOCK)));
+        when(portfolioRepository.findBaseCurrencies(List.of(10L))).thenReturn(List.of("EUR"));
+        ArgumentCaptor<ReturnMatrix> factorAxis = ArgumentCaptor.forClass(ReturnMatrix.class);
+        ArgumentCaptor<double[]> shocks = ArgumentCaptor.forClass(double[].class);
+        when(stressRunWriter.write(anyList(), anyList(), factorAxis.capture(), shocks.capture(), anyLong()))
+                .thenReturn(written());
+
+        // When
+        stressTestService.runStressTests(request(10L));
+
+        // Then symbol beats sector beats type beats ALL, and the currency rule shocks the EUR factor
+        assertArrayEquals(new long[] { 1L, 2L, 3L, 4L, FxFactors.factorId("EUR") },
+                factorAxis.getValue().getInstrumentIds());
+        assertArrayEquals(new double[] { -0.30, -0.20, -0.10, -0.05, 0.07 }, shocks.getValue(), 1e-12);
+        verifyNoInteractions(marketDataService);
+    }
+
+    @Test
+    void runStressTests_ShouldShockUnderlyingsOfHeldOptions_ByTheirOwnRules() {
+        // Given a book holding only a call on AAPL
+        StressScenario scenario = StressScenario.builder()
+                .id(3L)
+                .name("Equity crash")
+                .scenarioType(StressScenario.ScenarioType.HYPOTHETICAL)
+                .build();
+        scenario.getShocks().add(shock(StressScenarioShock.TargetType.INSTRUMENT_TYPE, "stock", "-0.30"));
+        when(stressScenarioRepository.findActiveWithShocks()).thenReturn(List.of(scenario));
+        Instrument underlying = instrument(1L, "AAPL", "Technology", Instrument.InstrumentType.STOCK);
+        when(instrumentRepository.findHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(
+                instrument(5L, "AAPL C150", null, Instrument.InstrumentType.OPTION)));
+        when(instrumentRepository.findUnderlyingsHeldByPortfolioIds(List.of(10L))).thenReturn(List.of(underlying));
+        when(portfolioRepository.findBaseCurrencies(List.of(10L))).thenReturn(List.of("USD"));
+        ArgumentCaptor<ReturnMatrix> factorAxis = ArgumentCaptor.forClass(ReturnMatrix.class);
+        ArgumentCaptor<double[]> shocks = ArgumentCaptor.forClass(double[].class);
+        when(stressRunWriter.write(anyList(), anyList(), factorAxis.capture(), shocks.capture(), anyLong()))
+                .thenReturn(written());
+
+        // When
+        stressTestService.runStressTests(request(10L));
+
+        // Then the writer can reprice the call off a crashed underlying
+        assertArrayEquals(new long[] { 5L, 1L }, factorAxis.getValue().getInstrumentIds());
+        assertArrayEquals(new double[] { 0, -0.30 }, shocks.getValue(), 1e-12);
+    }
+
+    private static StressScenario historical(Long id, LocalDate start, LocalDate end) {
+        return StressScenario.builder()
+                .id(id)
+                .name("Window " + id)
+                .scenarioType(StressScenario.ScenarioType.HISTORICAL)
+                .startDate(start)
+                .endDate(end)
+                .build();
+    }
+
+    private static StressScenarioShock shock(StressScenarioShock.TargetType targetType, String target,
+            String shock) {
+        return StressScenarioShock.builder().targetType(targetType).target(target).shock(new BigDecimal(shock))
+                .build();
+    }
+
+    private static Instrument instrument(Long id, String symbol, String sector, Instrument.InstrumentType type) {
+        return Instrument.builder().id(id).symbol(symbol).sector(sector).type(type).currency("USD").build();
+    }
+
+    private static StressTestRequest request(Long... portfolioIds) {
+        StressTestRequest request = new StressTestRequest();
+        request.setPortfolioIds(List.of(portfolioIds));
+        return request;
+    }
+
+    private static StressRunWriter.WrittenRun written() {
+        return new StressRunWriter.WrittenRun(StressRun.builder().id(7L).status(RiskRun.RunStatus.COMPLETED).build(),
+                List.of());
+    }
+}
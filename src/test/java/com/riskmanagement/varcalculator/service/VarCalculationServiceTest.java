@@ -0,0 +1,144 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.dto.request.VarCalculationRequest;
+import com.riskmanagement.varcalculator.dto.response.VarCalculationResponse;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.engine.ScenarioRevaluation;
+import com.riskmanagement.varcalculator.engine.ScenarioVector;
+import com.riskmanagement.varcalculator.entity.Instrument;
+import com.riskmanagement.varcalculator.entity.Portfolio;
+import com.riskmanagement.varcalculator.entity.Position;
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import com.riskmanagement.varcalculator.repository.RiskRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VarCalculationServiceTest {
+
+    private static final int WINDOW = 260;
+    private static final long STOCK_ID = 10L;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private RiskRunRepository riskRunRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private ScenarioVectorStore scenarioVectorStore;
+
+    @Mock
+    private InstrumentPricingService instrumentPricingService;
+
+    @Mock
+    private RiskEventPublisher riskEventPublisher;
+
+    @Mock
+    private RiskLimitService riskLimitService;
+
+    @Mock
+    private NodeLimitMonitor nodeLimitMonitor;
+
+    @InjectMocks
+    private VarCalculationService varCalculationService;
+
+    private Portfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        Instrument stock = Instrument.builder()
+                .id(STOCK_ID)
+                .symbol("SAP")
+                .type(Instrument.InstrumentType.STOCK)
+                .currency("EUR")
+                .build();
+        portfolio = Portfolio.builder()
+                .id(1L)
+                .name("Euro equities")
+                .baseCurrency("USD")
+                .build();
+        Position position = Position.builder()
+                .id(100L)
+                .portfolio(portfolio)
+                .instrument(stock)
+                .quantity(new BigDecimal("10"))
+                .marketValue(new BigDecimal("1000"))
+                .build();
+        portfolio.setPositions(new ArrayList<>(List.of(position)));
+    }
+
+    @Test
+    void calculateVar_ShouldPersistOnlyInstrumentVectors_WhenBookHasFxExposure() {
+        // Given a EUR stock in a USD book: one instrument column and one FX factor column
+        long eurFactor = FxFactors.factorId("EUR");
+        long[] factorIds = { STOCK_ID, eurFactor };
+        List<LocalDate> dates = new ArrayList<>();
+        double[] returns = new double[WINDOW * factorIds.length];
+        Random random = new Random(7);
+        for (int row = 0; row < WINDOW; row++) {
+            dates.add(LocalDate.of(2023, 1, 1).plusDays(row));
+            returns[row * 2] = random.nextGaussian() * 0.02;
+            returns[row * 2 + 1] = random.nextGaussian() * 0.005;
+        }
+        ReturnMatrix matrix = new ReturnMatrix(dates, factorIds, returns);
+
+        when(portfolioRepository.findByIdWithPositions(1L)).thenReturn(Optional.of(portfolio));
+        when(riskRunRepository.save(any(RiskRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(marketDataService.valueInBaseCurrency(anyList(), eq("USD"))).thenReturn(1100.0);
+        when(instrumentPricingService.riskFactorIds(anyList(), eq("USD"))).thenReturn(List.of(STOCK_ID, eurFactor));
+        when(marketDataService.loadReturnMatrix(any(), any(), any())).thenReturn(matrix);
+        when(instrumentPricingService.revaluation(any(), anyList(), eq("USD"), any(), any()))
+                .thenReturn(ScenarioRevaluation.linear(new double[] { 1100.0, 1100.0 }));
+        when(scenarioVectorStore.isEnabled()).thenReturn(true);
+
+        VarCalculationRequest request = new VarCalculationRequest();
+        request.setVarMethod(RiskRun.VarMethod.HISTORICAL);
+        request.setConfidenceLevels(List.of(new BigDecimal("0.95")));
+        request.setWindowSize(WINDOW);
+        request.setPersistPositionVectors(true);
+
+        // When
+        VarCalculationResponse response = varCalculationService.calculateVar(1L, request);
+
+        // Then
+        assertEquals(RiskRun.RunStatus.COMPLETED, response.getStatus());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, ScenarioVector>> instrumentVectors = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<ScenarioVector> portfolioVector = ArgumentCaptor.forClass(ScenarioVector.class);
+        verify(scenarioVectorStore).save(any(RiskRun.class), portfolioVector.capture(), instrumentVectors.capture());
+        assertEquals(Map.of(STOCK_ID, instrumentVectors.getValue().get(STOCK_ID)), instrumentVectors.getValue());
+
+        // The portfolio vector still carries the FX translation P&L
+        double[] stockPnl = instrumentVectors.getValue().get(STOCK_ID).getValues();
+        double[] portfolioPnl = portfolioVector.getValue().getValues();
+        for (int i = 0; i < WINDOW; i++) {
+            assertEquals(1100.0 * (returns[i * 2] + returns[i * 2 + 1]), portfolioPnl[i], 1e-9);
+            assertEquals(1100.0 * returns[i * 2], stockPnl[i], 1e-9);
+        }
+    }
+}
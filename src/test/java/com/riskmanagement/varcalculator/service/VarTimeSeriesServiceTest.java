@@ -0,0 +1,44 @@
+package com.riskmanagement.varcalculator.service;
+
+import com.riskmanagement.varcalculator.entity.RiskRun;
+import com.riskmanagement.varcalculator.repository.PortfolioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VarTimeSeriesServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 2);
+    private static final LocalDate TO = LocalDate.of(2024, 6, 28);
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @InjectMocks
+    private VarTimeSeriesService varTimeSeriesService;
+
+    @Test
+    void loadSeries_ShouldRejectBeforeLoading_WhenMethodHasNoRollingForm() {
+        assertThrows(IllegalArgumentException.class,
+                () -> varTimeSeriesService.loadSeries(1L, FROM, TO, 252, RiskRun.VarMethod.MONTE_CARLO));
+        verifyNoInteractions(portfolioRepository, marketDataService);
+    }
+
+    @Test
+    void loadSeries_ShouldRejectBeforeLoading_WhenWindowIsEmpty() {
+        assertThrows(IllegalArgumentException.class,
+                () -> varTimeSeriesService.loadSeries(1L, FROM, TO, 0, RiskRun.VarMethod.HISTORICAL));
+        verifyNoInteractions(portfolioRepository, marketDataService);
+    }
+}
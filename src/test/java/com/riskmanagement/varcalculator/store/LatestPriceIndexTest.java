@@ -0,0 +1,129 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestPriceIndexTest {
+
+    // Far from the JVM clock, so any use of it would show up as a wrong watermark
+    private static final LocalDateTime DB_NOW = LocalDateTime.of(2031, 5, 2, 9, 0);
+    private static final LocalDate DAY = LocalDate.of(2031, 5, 1);
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    private LatestPriceIndex latestPriceIndex;
+
+    @BeforeEach
+    void setUp() {
+        latestPriceIndex = new LatestPriceIndex(priceRepository);
+    }
+
+    @Test
+    void refresh_ShouldFollowDatabaseTimestamps_NotTheApplicationClock() {
+        // Given
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(priceRepository.findAllLatestCloses()).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY, new BigDecimal("100") }));
+        LocalDateTime inserted = DB_NOW.plusMinutes(30);
+        when(priceRepository.findClosesCreatedAfter(DB_NOW.minusMinutes(10))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY.plusDays(1), new BigDecimal("101"), inserted }));
+
+        // When
+        Set<Long> initial = latestPriceIndex.refresh();
+        Set<Long> moved = latestPriceIndex.refresh();
+        Set<Long> unchanged = latestPriceIndex.refresh();
+
+        // Then the watermark moves to the newest row seen, less the overlap
+        assertEquals(Set.of(1L), initial);
+        assertEquals(Set.of(1L), moved);
+        assertTrue(unchanged.isEmpty());
+        verify(priceRepository).findClosesCreatedAfter(inserted.minusMinutes(10));
+        assertEquals(101, latestPriceIndex.get(1L).close());
+        verify(priceRepository, never()).findLatestClosesByInstrumentIds(any());
+    }
+
+    @Test
+    void refresh_ShouldKeepWatermark_WhenNoRowsArrived() {
+        // Given
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(priceRepository.findAllLatestCloses()).thenReturn(List.of());
+        when(priceRepository.findClosesCreatedAfter(DB_NOW.minusMinutes(10))).thenReturn(List.of());
+
+        // When
+        latestPriceIndex.refresh();
+        latestPriceIndex.refresh();
+        latestPriceIndex.refresh();
+
+        // Then
+        verify(priceRepository, times(2)).findClosesCreatedAfter(DB_NOW.minusMinutes(10));
+    }
+
+    @Test
+    void refresh_ShouldKeepLaterClose_WhenAnOlderRowArrives() {
+        // Given a backfilled row for an earlier day lands after today's close
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(priceRepository.findAllLatestCloses()).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY, new BigDecimal("100") }));
+        when(priceRepository.findClosesCreatedAfter(any())).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY.minusDays(3), new BigDecimal("90"), DB_NOW.plusMinutes(1) }));
+
+        // When
+        latestPriceIndex.refresh();
+        Set<Long> moved = latestPriceIndex.refresh();
+
+        // Then
+        assertTrue(moved.isEmpty());
+        assertEquals(new LatestPriceIndex.LatestPrice(DAY, 100), latestPriceIndex.get(1L));
+    }
+
+    @Test
+    void latestCloses_ShouldNotRequery_InstrumentsWithoutPrices() {
+        // Given
+        when(priceRepository.findLatestClosesByInstrumentIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY, new BigDecimal("100") }));
+
+        // When
+        Map<Long, Double> first = latestPriceIndex.latestCloses(List.of(1L, 2L));
+        Map<Long, Double> second = latestPriceIndex.latestCloses(List.of(1L, 2L));
+
+        // Then
+        assertEquals(Map.of(1L, 100.0), first);
+        assertEquals(first, second);
+        verify(priceRepository, times(1)).findLatestClosesByInstrumentIds(any());
+    }
+
+    @Test
+    void latestCloses_ShouldReturnPrice_OnceARefreshBringsTheFirstClose() {
+        // Given an instrument remembered as unpriced
+        when(priceRepository.findLatestClosesByInstrumentIds(List.of(2L))).thenReturn(List.of());
+        latestPriceIndex.latestCloses(List.of(2L));
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(priceRepository.findAllLatestCloses()).thenReturn(List.<Object[]>of(
+                new Object[] { 2L, DAY, new BigDecimal("55") }));
+
+        // When
+        latestPriceIndex.refresh();
+
+        // Then
+        assertEquals(Map.of(2L, 55.0), latestPriceIndex.latestCloses(List.of(2L)));
+        verify(priceRepository, times(1)).findLatestClosesByInstrumentIds(any());
+    }
+}
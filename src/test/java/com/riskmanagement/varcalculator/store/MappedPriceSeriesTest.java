@@ -0,0 +1,50 @@
+package com.riskmanagement.varcalculator.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPriceSeriesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_ShouldBeReadableAfterReopen_WhenCountIsOdd() throws Exception {
+        // Given
+        int start = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+        int[] epochDays = { start, start + 1, start + 2, start + 6, start + 7 };
+        double[] closes = { 100.0, 101.5, 99.25, 102.0, 103.125 };
+        Path file = directory.resolve("1.prices");
+
+        // When
+        MappedPriceSeries.write(file, epochDays, closes);
+        MappedPriceSeries reopened = MappedPriceSeries.open(file);
+
+        // Then
+        assertEquals(5, reopened.size());
+        for (int i = 0; i < epochDays.length; i++) {
+            assertEquals(epochDays[i], reopened.epochDayAt(i));
+            assertEquals(closes[i], reopened.closeAt(i));
+        }
+        assertEquals(start + 7, reopened.lastEpochDay());
+    }
+
+    @Test
+    void indexOnOrAfter_ShouldSkipToNextTradingDay_WhenDateFallsOnGap() throws Exception {
+        // Given
+        int[] epochDays = { 10, 11, 14, 15 };
+        MappedPriceSeries series = MappedPriceSeries.write(directory.resolve("2.prices"), epochDays,
+                new double[] { 1, 2, 3, 4 });
+
+        // When & Then
+        assertEquals(0, series.indexOnOrAfter(5));
+        assertEquals(2, series.indexOnOrAfter(12));
+        assertEquals(3, series.indexOnOrAfter(15));
+        assertEquals(4, series.indexOnOrAfter(16));
+    }
+}
@@ -0,0 +1,122 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.engine.CloseMatrix;
+import com.riskmanagement.varcalculator.engine.FxFactors;
+import com.riskmanagement.varcalculator.engine.Precision;
+import com.riskmanagement.varcalculator.engine.ReturnMatrix;
+import com.riskmanagement.varcalculator.repository.FxRateRepository;
+import com.riskmanagement.varcalculator.repository.InstrumentRepository;
+import com.riskmanagement.varcalculator.repository.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryStoreTest {
+
+    // Far from the JVM clock, so any use of it would show up as a wrong watermark
+    private static final LocalDateTime DB_NOW = LocalDateTime.of(2031, 5, 2, 9, 0);
+    private static final LocalDate DAY = LocalDate.of(2031, 5, 1);
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @TempDir
+    Path directory;
+
+    private PriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    void setUp() {
+        priceHistoryStore = new PriceHistoryStore(priceRepository, instrumentRepository, fxRateRepository);
+        ReflectionTestUtils.setField(priceHistoryStore, "enabled", true);
+        ReflectionTestUtils.setField(priceHistoryStore, "directory", directory.toString());
+        priceHistoryStore.open();
+    }
+
+    @Test
+    void sync_ShouldFollowDatabaseTimestamps_NotTheApplicationClock() {
+        // Given a full sync at the database clock
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(instrumentRepository.findAllIds()).thenReturn(List.of(1L));
+        when(priceRepository.findClosesByInstrumentId(1L)).thenReturn(List.<Object[]>of(
+                new Object[] { DAY, new BigDecimal("100") }));
+        when(fxRateRepository.findAllCurrencies()).thenReturn(List.of());
+        priceHistoryStore.sync();
+
+        // When a price and an FX rate land after it, the rate last
+        LocalDateTime priceInserted = DB_NOW.plusMinutes(20);
+        LocalDateTime rateInserted = DB_NOW.plusMinutes(30);
+        when(priceRepository.findClosesCreatedAfter(DB_NOW.minusMinutes(10))).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, DAY.plusDays(1), new BigDecimal("101"), priceInserted }));
+        when(fxRateRepository.findRatesCreatedAfter(DB_NOW.minusMinutes(10))).thenReturn(List.<Object[]>of(
+                new Object[] { "EUR", DAY.plusDays(1), new BigDecimal("1.08"), rateInserted }));
+        priceHistoryStore.sync();
+        priceHistoryStore.sync();
+
+        // Then each sync re-reads from the newest created_at seen, less the overlap
+        verify(priceRepository).findClosesCreatedAfter(rateInserted.minusMinutes(10));
+        verify(fxRateRepository).findRatesCreatedAfter(rateInserted.minusMinutes(10));
+        verify(priceRepository, times(1)).currentTimestamp();
+        long eur = FxFactors.factorId("EUR");
+        CloseMatrix closes = priceHistoryStore.loadCloses(new long[] { 1L, eur }, DAY, DAY.plusDays(1));
+        assertEquals(List.of(DAY, DAY.plusDays(1)), closes.dates());
+        assertArrayEquals(new double[] { 100, Double.NaN, 101, 1.08 }, closes.closes(), 1e-12);
+    }
+
+    @Test
+    void loadReturns_ShouldMatchReturnsOfLoadedCloses_InBothPrecisions() {
+        // Given two series trading on different days, one with a day before the window
+        when(priceRepository.currentTimestamp()).thenReturn(Timestamp.valueOf(DB_NOW));
+        when(instrumentRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(priceRepository.findClosesByInstrumentId(1L)).thenReturn(List.<Object[]>of(
+                new Object[] { DAY.minusDays(1), new BigDecimal("90") },
+                new Object[] { DAY, new BigDecimal("100") },
+                new Object[] { DAY.plusDays(1), new BigDecimal("104") },
+                new Object[] { DAY.plusDays(3), new BigDecimal("98") }));
+        when(priceRepository.findClosesByInstrumentId(2L)).thenReturn(List.<Object[]>of(
+                new Object[] { DAY.plusDays(1), new BigDecimal("50") },
+                new Object[] { DAY.plusDays(2), new BigDecimal("51") },
+                new Object[] { DAY.plusDays(3), new BigDecimal("49.5") }));
+        when(fxRateRepository.findAllCurrencies()).thenReturn(List.of());
+        priceHistoryStore.sync();
+        long[] ids = { 1L, 2L };
+
+        for (Precision precision : Precision.values()) {
+            // When
+            ReturnMatrix streamed = priceHistoryStore.loadReturns(ids, DAY, DAY.plusDays(3), precision);
+
+            // Then
+            ReturnMatrix expected = priceHistoryStore.loadCloses(ids, DAY, DAY.plusDays(3)).toReturnMatrix(precision);
+            assertEquals(precision, streamed.getPrecision());
+            assertEquals(expected.getDates(), streamed.getDates());
+            for (int r = 0; r < expected.rows(); r++) {
+                for (int c = 0; c < ids.length; c++) {
+                    assertEquals(expected.get(r, c), streamed.get(r, c), 0, precision + " row " + r + " col " + c);
+                }
+            }
+        }
+        assertEquals(Math.log(98.0 / 104), priceHistoryStore.loadReturns(ids, DAY, DAY.plusDays(3), Precision.DOUBLE)
+                .get(2, 0), 1e-12);
+    }
+}
@@ -0,0 +1,138 @@
+package com.riskmanagement.varcalculator.store;
+
+import com.riskmanagement.varcalculator.entity.LimitBreach;
+import com.riskmanagement.varcalculator.entity.RiskLimit;
+import com.riskmanagement.varcalculator.repository.RiskLimitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskLimitIndexTest {
+
+    @Mock
+    private RiskLimitRepository riskLimitRepository;
+
+    private RiskLimitIndex riskLimitIndex;
+    private final ExecutorService committer = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        riskLimitIndex = new RiskLimitIndex(riskLimitRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.shutdownNow();
+    }
+
+    @Test
+    void reload_ShouldReplaceIndex_WithActiveLimitsByScope() {
+        // Given
+        riskLimitIndex.put(limit(1L, RiskLimit.ScopeType.PORTFOLIO, 10L, "100"));
+        when(riskLimitRepository.findByActiveTrue()).thenReturn(List.of(
+                limit(2L, RiskLimit.ScopeType.PORTFOLIO, 20L, "200"),
+                limit(3L, RiskLimit.ScopeType.HIERARCHY_NODE, 20L, "300")));
+
+        // When
+        riskLimitIndex.reload();
+
+        // Then
+        assertTrue(riskLimitIndex.limitsFor(RiskLimit.ScopeType.PORTFOLIO, 10L).isEmpty());
+        assertEquals(200, riskLimitIndex.limitsFor(RiskLimit.ScopeType.PORTFOLIO, 20L).get(0).limitValue());
+        assertEquals(300, riskLimitIndex.limitsFor(RiskLimit.ScopeType.HIERARCHY_NODE, 20L).get(0).limitValue());
+        assertTrue(riskLimitIndex.hasLimits(RiskLimit.ScopeType.HIERARCHY_NODE));
+    }
+
+    @Test
+    void reload_ShouldKeepChangesCommittedWhileQuerying() {
+        // Given a limit created and another retired on a second thread while the reload reads an older snapshot
+        RiskLimit retired = limit(1L, RiskLimit.ScopeType.PORTFOLIO, 10L, "100");
+        RiskLimit created = limit(2L, RiskLimit.ScopeType.PORTFOLIO, 20L, "200");
+        riskLimitIndex.put(retired);
+        when(riskLimitRepository.findByActiveTrue()).thenAnswer(invocation -> {
+            committer.submit(() -> {
+                riskLimitIndex.put(created);
+                riskLimitIndex.remove(retired);
+            }).get(5, TimeUnit.SECONDS);
+            return List.of(retired);
+        });
+
+        // When
+        riskLimitIndex.reload();
+
+        // Then
+        assertTrue(riskLimitIndex.limitsFor(RiskLimit.ScopeType.PORTFOLIO, 10L).isEmpty());
+        assertEquals(200, riskLimitIndex.limitsFor(RiskLimit.ScopeType.PORTFOLIO, 20L).get(0).limitValue());
+
+        // And a later reload starts clean
+        when(riskLimitRepository.findByActiveTrue()).thenReturn(List.of());
+        riskLimitIndex.reload();
+        assertFalse(riskLimitIndex.hasLimits(RiskLimit.ScopeType.PORTFOLIO));
+    }
+
+    @Test
+    void put_ShouldReplaceIndexedLimit_WhenSameIdIsPutAgain() {
+        // Given
+        riskLimitIndex.put(limit(1L, RiskLimit.ScopeType.PORTFOLIO, 10L, "100"));
+
+        // When
+        riskLimitIndex.put(limit(1L, RiskLimit.ScopeType.PORTFOLIO, 10L, "150"));
+
+        // Then
+        List<RiskLimitIndex.Limit> limits = riskLimitIndex.limitsFor(RiskLimit.ScopeType.PORTFOLIO, 10L);
+        assertEquals(1, limits.size());
+        assertEquals(150, limits.get(0).limitValue());
+        assertEquals(0.9, limits.get(0).warningThreshold(), 1e-12);
+    }
+
+    @Test
+    void remove_ShouldDropScopeAndLastSeverity_WhenLastLimitIsRetired() {
+        // Given
+        RiskLimit limit = limit(1L, RiskLimit.ScopeType.HIERARCHY_NODE, 5L, "100");
+        riskLimitIndex.put(limit);
+        riskLimitIndex.recordSeverity(1L, LimitBreach.Severity.BREACH);
+
+        // When
+        riskLimitIndex.remove(limit);
+
+        // Then
+        assertTrue(riskLimitIndex.limitsFor(RiskLimit.ScopeType.HIERARCHY_NODE, 5L).isEmpty());
+        assertFalse(riskLimitIndex.hasLimits(RiskLimit.ScopeType.HIERARCHY_NODE));
+        assertNull(riskLimitIndex.lastSeverity(1L));
+    }
+
+    @Test
+    void recordSeverity_ShouldForgetSeverity_WhenBackWithinLimit() {
+        // Given
+        riskLimitIndex.recordSeverity(1L, LimitBreach.Severity.WARNING);
+
+        // When
+        riskLimitIndex.recordSeverity(1L, null);
+
+        // Then
+        assertNull(riskLimitIndex.lastSeverity(1L));
+    }
+
+    private static RiskLimit limit(Long id, RiskLimit.ScopeType scopeType, Long scopeId, String value) {
+        return RiskLimit.builder()
+                .id(id)
+                .scopeType(scopeType)
+                .scopeId(scopeId)
+                .metric(RiskLimit.Metric.VAR_95)
+                .limitValue(new BigDecimal(value))
+                .build();
+    }
+}